@@ -1,27 +1,31 @@
 package techmoc.extensibility.demos;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import techmoc.extensibility.pluginlibrary.InvocationResult;
 import techmoc.extensibility.pluginlibrary.PluginRegistry;
 
 
 public class Application {
 
   public static void main(String[] args)
-      throws ClassNotFoundException, IOException {
+      throws ClassNotFoundException, IOException, ExecutionException, InterruptedException {
 
     PluginRegistry pr = new PluginRegistry();
     pr.registerPluginInterfaces(MathOperationInterface.class);
     pr.scan();
-    List<MathOperationInterface> plugins = pr.getAll(MathOperationInterface.class);
 
-    System.out.println("\n\n\n----------------------------------------");
-    for (MathOperationInterface plugin : plugins) {
-      System.out.println("Plugin: " + plugin.getPluginName());
+    // Call every plugin in parallel.
+    List<InvocationResult<Double>> results = pr.invokeAll(
+        MathOperationInterface.class, plugin -> plugin.calculate(10, 4), Duration.ofSeconds(1))
+        .get();
 
-      double result = plugin.calculate(10, 4);
-      System.out.println("calculate(10, 4): " + result);
+    System.out.println("\n\n\n----------------------------------------");
+    for (InvocationResult<Double> result : results) {
+      System.out.println("Plugin: " + result.getPluginName());
+      System.out.println("calculate(10, 4): " + result.getValue());
     }
   }
 }
@@ -1,8 +1,15 @@
 package techmoc.extensibility.demos;
 
+import techmoc.extensibility.pluginlibrary.InstanceScope;
 import techmoc.extensibility.pluginlibrary.Pluggable;
 
 public interface Webpage extends Pluggable {
   String getContentType();
   String getPageContent();
+
+  // Webpages are stateless, so every request is served by the same instance of each Webpage.
+  @Override
+  default InstanceScope getInstanceScope() {
+    return InstanceScope.SINGLETON;
+  }
 }
@@ -10,9 +10,11 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.Flow;
 import spark.Request;
 import spark.Response;
 import techmoc.extensibility.pluginlibrary.PluginRegistry;
+import techmoc.extensibility.pluginlibrary.RegistryEvent;
 
 
 public class Application {
@@ -20,6 +22,10 @@ public class Application {
   // Plugin Registry.
   private static final PluginRegistry pluginRegistry = new PluginRegistry();
 
+  // Number of registry changes seen so far (guarded by the lock of the changeMonitor object).
+  private static final Object changeMonitor = new Object();
+  private static long changeCount = 0;
+
   /**
    * Starts the Directory Monitor and the Web Server.
    *
@@ -30,6 +36,30 @@ public class Application {
     // Initialize the Plugin Registry.
     pluginRegistry.registerPluginInterfaces(Webpage.class);
 
+    // Wake up the pages waiting for the table of plugins to change.
+    pluginRegistry.getEventPublisher().subscribe(new Flow.Subscriber<RegistryEvent>() {
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+      }
+
+      @Override
+      public void onNext(RegistryEvent event) {
+        synchronized (changeMonitor) {
+          changeCount++;
+          changeMonitor.notifyAll();
+        }
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+      }
+
+      @Override
+      public void onComplete() {
+      }
+    });
+
     // Initialize the directory monitor.
     pluginRegistry.startDirectoryMonitor(validatePath(args));
 
@@ -42,9 +72,12 @@ public class Application {
     // Displays the table of plugins as plain text
     get("/plugins/text", Application::pluginsText);
 
-    // Displays the table of plugins as an HTML page that periodically refreshes.
+    // Displays the table of plugins as an HTML page that refreshes when the plugins change.
     get("/plugins", Application::pluginsHtml);
 
+    // Responds once the plugins change (or after a timeout), so that pages can wait for changes.
+    get("/plugins/changes", Application::pluginsChanges);
+
     awaitInitialization();
   }
 
@@ -94,7 +127,36 @@ public class Application {
   }
 
   /**
-   * Displays the plugins that are available as an HTML table. The page also refreshes periodically
+   * Waits until the registry has changed more than the specified number of times (or until 30
+   * seconds pass), and responds with the current number of changes.
+   *
+   * @param request Spark request, whose "since" parameter holds the number of changes already seen.
+   * @param response Spark response.
+   * @return Number of changes.
+   * @throws InterruptedException Thrown if the request thread is interrupted.
+   */
+  private static Object pluginsChanges(Request request, Response response)
+      throws InterruptedException {
+
+    String since = request.queryParams("since");
+    long seenChangeCount = (since == null) ? -1 : Long.parseLong(since);
+    long deadline = System.currentTimeMillis() + 30_000;
+
+    response.type("text/plain");
+
+    synchronized (changeMonitor) {
+      long remaining;
+      while (changeCount <= seenChangeCount &&
+          (remaining = deadline - System.currentTimeMillis()) > 0) {
+        changeMonitor.wait(remaining);
+      }
+      return Long.toString(changeCount);
+    }
+  }
+
+  /**
+   * Displays the plugins that are available as an HTML table. The page refreshes when the plugins
+   * change.
    *
    * @param request
    * @param response
@@ -102,13 +164,24 @@ public class Application {
    */
   private static Object pluginsHtml(Request request, Response response) {
 
+    long currentChangeCount;
+    synchronized (changeMonitor) {
+      currentChangeCount = changeCount;
+    }
     List<Webpage> webpages = pluginRegistry.getAll(Webpage.class);
 
     StringBuffer htmlBuffer = new StringBuffer();
     String html =
         "<html>"
-            // Refresh periodically
-            + "<script>setTimeout(\"location.reload(true);\",1000);</script>"
+            // Refresh once the plugins change.
+            + "<script>"
+            + "(function wait(since) {"
+            + "  fetch('/plugins/changes?since=' + since)"
+            + "    .then(r => r.text())"
+            + "    .then(n => (n === String(since)) ? wait(since) : location.reload(true))"
+            + "    .catch(() => setTimeout(() => wait(since), 5000));"
+            + "})(" + currentChangeCount + ");"
+            + "</script>"
             + "<table style=\"width:30%\">\n"
             + "  <tr>\n"
             + "    <th>Plugin Interface</th>\n"
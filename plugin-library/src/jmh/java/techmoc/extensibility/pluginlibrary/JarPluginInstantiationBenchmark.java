@@ -0,0 +1,71 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Compares the ways of instantiating a Plugin loaded from a JAR file (as scanned Plugins are),
+ * which the Plugin Factory cannot generate a lambda in on Java 15 and later: the reflective path,
+ * the Plugin Factory, and the Plugin Entry.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JarPluginInstantiationBenchmark {
+
+  private URLClassLoader jarClassLoader;
+  private Class<? extends Pluggable> pluginClass;
+  private Supplier<Pluggable> pluginFactory;
+  private PluginEntry pluginEntry;
+
+  @Setup
+  public void setup() throws IOException, ClassNotFoundException {
+    ClassLoader classLoader = getClass().getClassLoader();
+    File jarFile = new File(classLoader.getResource("test-plugins.jar").getFile());
+    jarClassLoader = new URLClassLoader(new URL[]{jarFile.toURI().toURL()}, classLoader);
+
+    pluginClass = jarClassLoader.loadClass("techmoc.extensibility.test_plugins.Crow")
+        .asSubclass(Pluggable.class);
+    pluginFactory = PluginFactory.create(pluginClass);
+    pluginEntry = new PluginEntry(pluginClass);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    jarClassLoader.close();
+  }
+
+  @Benchmark
+  public Pluggable reflectiveConstructor() throws ReflectiveOperationException {
+    return pluginClass.getConstructor().newInstance();
+  }
+
+  @Benchmark
+  public Pluggable pluginFactory() {
+    return pluginFactory.get();
+  }
+
+  @Benchmark
+  public Pluggable pluginEntry() {
+    return pluginEntry.getPluginAsPluggable();
+  }
+}
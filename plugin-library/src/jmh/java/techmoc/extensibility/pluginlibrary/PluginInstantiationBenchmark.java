@@ -0,0 +1,72 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import techmoc.extensibility.pluginlibrary.test_objects.Poodle;
+
+
+/**
+ * Compares the ways of instantiating the test_objects Plugins: a plain constructor call, the
+ * reflective path previously used by the Plugin Entry, and the generated Plugin Factory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PluginInstantiationBenchmark {
+
+  @Param({
+      "techmoc.extensibility.pluginlibrary.test_objects.Poodle",
+      "techmoc.extensibility.pluginlibrary.test_objects.Husky",
+      "techmoc.extensibility.pluginlibrary.test_objects.Calico",
+      "techmoc.extensibility.pluginlibrary.test_objects.Salmon"
+  })
+  private String pluginClassName;
+
+  private Class<? extends Pluggable> pluginClass;
+  private Supplier<Pluggable> pluginFactory;
+  private PluginEntry pluginEntry;
+
+  @Setup
+  public void setup() throws ClassNotFoundException {
+    pluginClass = Class.forName(pluginClassName).asSubclass(Pluggable.class);
+    pluginFactory = PluginFactory.create(pluginClass);
+    pluginEntry = new PluginEntry(pluginClass);
+  }
+
+  /**
+   * Baseline: a direct constructor call (always a Poodle, whatever the parameter).
+   */
+  @Benchmark
+  public Pluggable plainConstructor() {
+    return new Poodle();
+  }
+
+  @Benchmark
+  public Pluggable reflectiveConstructor() throws ReflectiveOperationException {
+    return pluginClass.getConstructor().newInstance();
+  }
+
+  @Benchmark
+  public Pluggable pluginFactory() {
+    return pluginFactory.get();
+  }
+
+  @Benchmark
+  public Pluggable pluginEntry() {
+    return pluginEntry.getPluginAsPluggable();
+  }
+}
@@ -0,0 +1,52 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import techmoc.extensibility.pluginlibrary.test_objects.Dog;
+import techmoc.extensibility.pluginlibrary.test_objects.Poodle;
+
+
+/**
+ * Compares a direct call to a Plugin with a call to the same Plugin through its instrumentation
+ * wrapper (see {@link PluginRegistry#setInstrumentationEnabled(boolean)}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PluginInstrumentationBenchmark {
+
+  private Dog plainPlugin;
+  private Dog instrumentedPlugin;
+
+  @Setup
+  public void setup() {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Dog.class);
+    pr.registerPlugin(Poodle.class);
+    plainPlugin = pr.getLatestVersion("Poodle", Dog.class);
+    pr.setInstrumentationEnabled(true);
+    instrumentedPlugin = pr.getLatestVersion("Poodle", Dog.class);
+  }
+
+  @Benchmark
+  public String plainCall() {
+    return plainPlugin.bark();
+  }
+
+  @Benchmark
+  public String instrumentedCall() {
+    return instrumentedPlugin.bark();
+  }
+}
@@ -0,0 +1,62 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import techmoc.extensibility.pluginlibrary.test_objects.Husky;
+import techmoc.extensibility.pluginlibrary.test_objects.Poodle;
+import techmoc.extensibility.pluginlibrary.test_objects.Poodle2;
+import techmoc.extensibility.pluginlibrary.test_objects.Poodle201;
+
+
+/**
+ * Measures the cost of choosing a Plugin with each selection policy, from several threads. Run
+ * with {@code -prof gc} to check that selections do not allocate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class SelectionPolicyBenchmark {
+
+  @Param({"ROUND_ROBIN", "LEAST_IN_FLIGHT", "EWMA_LATENCY", "POWER_OF_TWO_CHOICES"})
+  private SelectionPolicy selectionPolicy;
+
+  private PluginEntry[] pluginEntries;
+  private final AtomicInteger counter = new AtomicInteger();
+
+  @Setup
+  public void setup() {
+    pluginEntries = new PluginEntry[]{
+        new PluginEntry(Husky.class),
+        new PluginEntry(Poodle.class),
+        new PluginEntry(Poodle2.class),
+        new PluginEntry(Poodle201.class)};
+
+    // Give every Plugin a different latency.
+    for (int i = 0; i < pluginEntries.length; i++) {
+      CallStatistics callStatistics = pluginEntries[i].getCallStatistics();
+      callStatistics.callStarted();
+      callStatistics.callCompleted(1_000 * (i + 1));
+    }
+  }
+
+  @Benchmark
+  public int select() {
+    return selectionPolicy.select(pluginEntries, counter);
+  }
+}
@@ -0,0 +1,244 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import techmoc.extensibility.polymorphicmap.PolymorphicMap;
+
+
+/**
+ * Secondary index over a single attribute of the Plugin Entries registered under a Plugin
+ * Interface, mapping each attribute value to the Plugin Entries that hold it.
+ * <p>
+ * The index never instantiates a Plugin to read its attributes, since it is modified while the
+ * registry is locked. Plugin Entries whose attributes are not known yet (Plugins registered from
+ * declared metadata, and not used so far) are set aside, and matched when the index is queried.
+ * The registry reads the attributes of the Plugins it indexes before locking, so this is rare.
+ * <p>
+ * Like the {@link PluginIndex} that owns it, an Attribute Index is not thread safe, and is never
+ * modified once it has been published.
+ */
+final class AttributeIndex {
+
+  /**
+   * Order of the values in a sorted index: values are grouped by class, and then ordered naturally
+   * within each class (values of different classes are generally not comparable).
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static final Comparator<Object> VALUE_ORDER = (a, b) -> {
+    if (a.getClass() != b.getClass()) {
+      return a.getClass().getName().compareTo(b.getClass().getName());
+    }
+    return ((Comparable) a).compareTo(b);
+  };
+
+  private final String attributeName;
+  private final AttributeIndexType attributeIndexType;
+
+  // Plugin Entries (in registry order) keyed by attribute value.
+  private final Map<Object, Set<PluginEntry>> pluginEntriesByValue;
+
+  // Plugin Entries (in registry order) whose attributes were not known when they were added.
+  private final Set<PluginEntry> unresolvedPluginEntries = new TreeSet<>();
+
+  /**
+   * Constructor.
+   *
+   * @param attributeName Name of the indexed attribute.
+   * @param attributeIndexType Index type.
+   */
+  AttributeIndex(String attributeName, AttributeIndexType attributeIndexType) {
+    this.attributeName = Objects.requireNonNull(attributeName);
+    this.attributeIndexType = Objects.requireNonNull(attributeIndexType);
+    this.pluginEntriesByValue = (attributeIndexType == AttributeIndexType.SORTED)
+        ? new TreeMap<>(VALUE_ORDER)
+        : new HashMap<>();
+  }
+
+  /**
+   * Copy constructor.
+   *
+   * @param other Attribute Index to copy.
+   */
+  AttributeIndex(AttributeIndex other) {
+    this(other.attributeName, other.attributeIndexType);
+    for (Map.Entry<Object, Set<PluginEntry>> entry : other.pluginEntriesByValue.entrySet()) {
+      pluginEntriesByValue.put(entry.getKey(), new TreeSet<>(entry.getValue()));
+    }
+    unresolvedPluginEntries.addAll(other.unresolvedPluginEntries);
+  }
+
+  /**
+   * Returns the name of the indexed attribute.
+   *
+   * @return Attribute name.
+   */
+  String getAttributeName() {
+    return attributeName;
+  }
+
+  /**
+   * Returns the index type.
+   *
+   * @return Index type.
+   */
+  AttributeIndexType getAttributeIndexType() {
+    return attributeIndexType;
+  }
+
+  /**
+   * Adds the specified Plugin Entry to the index, if it holds an indexable value of the attribute.
+   *
+   * @param pluginEntry Plugin Entry.
+   */
+  void add(PluginEntry pluginEntry) {
+    if (pluginEntry.peekPluginAttributes() == null) {
+      unresolvedPluginEntries.add(pluginEntry);
+      return;
+    }
+
+    Object value = getIndexableValue(pluginEntry);
+    if (value != null) {
+      pluginEntriesByValue.computeIfAbsent(value, x -> new TreeSet<>()).add(pluginEntry);
+    }
+  }
+
+  /**
+   * Removes the specified Plugin Entry from the index.
+   *
+   * @param pluginEntry Plugin Entry, as it was added to the index.
+   */
+  void remove(PluginEntry pluginEntry) {
+    // The attributes of an unresolved Plugin Entry may have been read since it was added.
+    if (unresolvedPluginEntries.remove(pluginEntry)) {
+      return;
+    }
+
+    Object value = getIndexableValue(pluginEntry);
+    if (value != null) {
+      Set<PluginEntry> pluginEntries = pluginEntriesByValue.get(value);
+      if (pluginEntries != null) {
+        pluginEntries.remove(pluginEntry);
+        if (pluginEntries.isEmpty()) {
+          pluginEntriesByValue.remove(value);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the Plugin Entries whose attribute equals the specified value.
+   *
+   * @param value Attribute value.
+   * @return Plugin Entries, in registry order (empty if none exist).
+   */
+  Set<PluginEntry> get(Object value) {
+    if (attributeIndexType == AttributeIndexType.SORTED && !(value instanceof Comparable)) {
+      return Collections.emptySet();
+    }
+
+    Set<PluginEntry> pluginEntries = pluginEntriesByValue.get(value);
+    if (!unresolvedPluginEntries.isEmpty()) {
+      return withUnresolvedPluginEntries(pluginEntries, x -> value.equals(x));
+    }
+    return (pluginEntries == null) ?
+        Collections.emptySet() :
+        Collections.unmodifiableSet(pluginEntries);
+  }
+
+  /**
+   * Returns the Plugin Entries whose attribute lies within the specified (inclusive) range. Only
+   * attribute values of the same class as the bounds are considered.
+   *
+   * @param from Lower bound (inclusive).
+   * @param to Upper bound (inclusive).
+   * @return Plugin Entries, in registry order (empty if none exist).
+   */
+  Set<PluginEntry> getRange(Comparable<?> from, Comparable<?> to) {
+    if (attributeIndexType != AttributeIndexType.SORTED) {
+      throw new IllegalStateException(String.format(
+          "Attribute [%s] does not have a sorted index.", attributeName));
+    }
+    if (from.getClass() != to.getClass()) {
+      throw new IllegalArgumentException(String.format(
+          "Range bounds must be of the same class [%s, %s].",
+          from.getClass().getName(), to.getClass().getName()));
+    }
+    if (VALUE_ORDER.compare(from, to) > 0) {
+      return Collections.emptySet();
+    }
+
+    Set<PluginEntry> results = new TreeSet<>();
+    for (Set<PluginEntry> pluginEntries
+        : ((NavigableMap<Object, Set<PluginEntry>>) pluginEntriesByValue)
+        .subMap(from, true, to, true).values()) {
+      results.addAll(pluginEntries);
+    }
+    if (!unresolvedPluginEntries.isEmpty()) {
+      return withUnresolvedPluginEntries(results, x -> x.getClass() == from.getClass() &&
+          VALUE_ORDER.compare(from, x) <= 0 && VALUE_ORDER.compare(x, to) <= 0);
+    }
+    return results;
+  }
+
+  /**
+   * Returns the number of distinct attribute values in the index.
+   *
+   * @return Number of distinct values.
+   */
+  int size() {
+    return pluginEntriesByValue.size();
+  }
+
+  /**
+   * Returns the specified Plugin Entries, along with the unresolved Plugin Entries whose attribute
+   * value matches the specified predicate (reading their attributes, outside the registry lock).
+   *
+   * @param pluginEntries Indexed Plugin Entries (or null).
+   * @param matcher Predicate over attribute values.
+   * @return Plugin Entries, in registry order.
+   */
+  private Set<PluginEntry> withUnresolvedPluginEntries(
+      Set<PluginEntry> pluginEntries,
+      Predicate<Object> matcher) {
+    Set<PluginEntry> results =
+        (pluginEntries == null) ? new TreeSet<>() : new TreeSet<>(pluginEntries);
+    for (PluginEntry pluginEntry : unresolvedPluginEntries) {
+      pluginEntry.getPluginAttributes();
+      Object value = getIndexableValue(pluginEntry);
+      if (value != null && matcher.test(value)) {
+        results.add(pluginEntry);
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Returns the value of the indexed attribute held by the specified Plugin Entry, or null if it
+   * does not hold one that this index can store (or if its attributes are not known yet).
+   *
+   * @param pluginEntry Plugin Entry.
+   * @return Attribute value, or null.
+   */
+  private Object getIndexableValue(PluginEntry pluginEntry) {
+    PolymorphicMap pluginAttributes = pluginEntry.peekPluginAttributes();
+    if (pluginAttributes == null) {
+      return null;
+    }
+    Object value = pluginAttributes.containsKey(attributeName)
+        ? pluginAttributes.get(attributeName, Object.class)
+        : null;
+
+    if (attributeIndexType == AttributeIndexType.SORTED && !(value instanceof Comparable)) {
+      return null;
+    }
+    return value;
+  }
+}
@@ -0,0 +1,21 @@
+package techmoc.extensibility.pluginlibrary;
+
+
+/**
+ * Type of an index over a Plugin attribute.
+ *
+ * @see PluginRegistry#createPluginAttributeIndex(String, AttributeIndexType, Class)
+ */
+public enum AttributeIndexType {
+
+  /**
+   * Hash index, which answers equality queries.
+   */
+  HASH,
+
+  /**
+   * Sorted index over {@link Comparable} attribute values, which answers both equality and range
+   * queries. Attribute values that are not Comparable are not indexed.
+   */
+  SORTED
+}
@@ -0,0 +1,346 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.util.List;
+import java.util.Objects;
+import techmoc.extensibility.polymorphicmap.PolymorphicMap;
+
+
+/**
+ * Query over Plugin attributes, which the Plugin Registry can inspect and plan (unlike an opaque
+ * {@code Predicate<PolymorphicMap>}). Queries are immutable, and are built from the static factory
+ * methods, e.g.:
+ * <pre>
+ * AttributeQuery query = eq("score", 55).and(range("priority", 1, 10)).and(not("isDeprecated"));
+ * List&lt;Dog&gt; dogs = pluginRegistry.query(query, Dog.class);
+ * </pre>
+ *
+ * @see PluginRegistry#query(AttributeQuery, Class)
+ * @see PluginRegistry#explain(AttributeQuery, Class)
+ */
+public abstract class AttributeQuery {
+
+  /**
+   * Constructor (queries can only be created by the static factory methods).
+   */
+  private AttributeQuery() {
+  }
+
+  /**
+   * Returns a query that matches Plugins whose attribute equals the specified value.
+   *
+   * @param attributeName Attribute name.
+   * @param attributeValue Attribute value.
+   * @return Attribute query.
+   */
+  public static AttributeQuery eq(String attributeName, Object attributeValue) {
+    return new Equals(validateAttributeName(attributeName), Objects.requireNonNull(attributeValue));
+  }
+
+  /**
+   * Returns a query that matches Plugins whose attribute lies within the specified (inclusive)
+   * range. Only attribute values of the same class as the bounds are considered.
+   *
+   * @param attributeName Attribute name.
+   * @param from Lower bound of the range (inclusive).
+   * @param to Upper bound of the range (inclusive).
+   * @param <V> Attribute value type.
+   * @return Attribute query.
+   */
+  public static <V extends Comparable<? super V>> AttributeQuery range(
+      String attributeName,
+      V from,
+      V to) {
+    Objects.requireNonNull(from);
+    Objects.requireNonNull(to);
+    if (from.getClass() != to.getClass()) {
+      throw new IllegalArgumentException(String.format(
+          "Range bounds must be of the same class [%s, %s].",
+          from.getClass().getName(), to.getClass().getName()));
+    }
+    return new Range(validateAttributeName(attributeName), from, to);
+  }
+
+  /**
+   * Returns a query that matches Plugins that do not match the specified query.
+   *
+   * @param query Attribute query.
+   * @return Attribute query.
+   */
+  public static AttributeQuery not(AttributeQuery query) {
+    return new Not(Objects.requireNonNull(query));
+  }
+
+  /**
+   * Returns a query that matches Plugins whose boolean attribute is not true (i.e. is false, is
+   * not a Boolean, or is missing). Shorthand for {@code not(eq(attributeName, true))}.
+   *
+   * @param attributeName Name of a boolean attribute.
+   * @return Attribute query.
+   */
+  public static AttributeQuery not(String attributeName) {
+    return not(eq(attributeName, true));
+  }
+
+  /**
+   * Returns a query that matches Plugins that match both this query and the specified query.
+   *
+   * @param query Attribute query.
+   * @return Attribute query.
+   */
+  public final AttributeQuery and(AttributeQuery query) {
+    return new And(this, Objects.requireNonNull(query));
+  }
+
+  /**
+   * Returns true if the specified Plugin attributes match this query.
+   *
+   * @param pluginAttributes Plugin attributes.
+   * @return True if the attributes match, false otherwise.
+   */
+  abstract boolean test(PolymorphicMap pluginAttributes);
+
+  /**
+   * Adds the terms of this query that must all match (i.e. the operands of its top-level ANDs) to
+   * the specified list.
+   *
+   * @param terms List of terms.
+   */
+  void addTerms(List<AttributeQuery> terms) {
+    terms.add(this);
+  }
+
+  /**
+   * Returns the name of the attribute that this query can be answered from by an index, or null if
+   * it cannot be answered by an index.
+   *
+   * @return Attribute name, or null.
+   */
+  String getIndexableAttributeName() {
+    return null;
+  }
+
+  /**
+   * Validates that the string contains a valid attribute name.
+   *
+   * @param attributeName Attribute name.
+   * @return Attribute name.
+   */
+  private static String validateAttributeName(String attributeName) {
+    if (attributeName == null || attributeName.isBlank()) {
+      throw new IllegalArgumentException("Attribute names may not be null or blank.");
+    }
+    return attributeName;
+  }
+
+  /**
+   * Returns the value of the specified attribute, or null if it is missing.
+   *
+   * @param pluginAttributes Plugin attributes.
+   * @param attributeName Attribute name.
+   * @return Attribute value, or null.
+   */
+  private static Object getAttributeValue(PolymorphicMap pluginAttributes, String attributeName) {
+    return pluginAttributes.containsKey(attributeName)
+        ? pluginAttributes.get(attributeName, Object.class)
+        : null;
+  }
+
+  /**
+   * Matches an attribute that equals a value.
+   */
+  static final class Equals extends AttributeQuery {
+
+    private final String attributeName;
+    private final Object attributeValue;
+
+    Equals(String attributeName, Object attributeValue) {
+      this.attributeName = attributeName;
+      this.attributeValue = attributeValue;
+    }
+
+    Object getValue() {
+      return attributeValue;
+    }
+
+    @Override
+    boolean test(PolymorphicMap pluginAttributes) {
+      return attributeValue.equals(getAttributeValue(pluginAttributes, attributeName));
+    }
+
+    @Override
+    String getIndexableAttributeName() {
+      return attributeName;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s = %s", attributeName, attributeValue);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Equals that = (Equals) o;
+      return attributeName.equals(that.attributeName) && attributeValue.equals(that.attributeValue);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(attributeName, attributeValue);
+    }
+  }
+
+  /**
+   * Matches an attribute that lies within an inclusive range.
+   */
+  static final class Range extends AttributeQuery {
+
+    private final String attributeName;
+    private final Comparable<?> from;
+    private final Comparable<?> to;
+
+    Range(String attributeName, Comparable<?> from, Comparable<?> to) {
+      this.attributeName = attributeName;
+      this.from = from;
+      this.to = to;
+    }
+
+    Comparable<?> getFrom() {
+      return from;
+    }
+
+    Comparable<?> getTo() {
+      return to;
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    boolean test(PolymorphicMap pluginAttributes) {
+      Object value = getAttributeValue(pluginAttributes, attributeName);
+      return value != null &&
+          value.getClass() == from.getClass() &&
+          ((Comparable) value).compareTo(from) >= 0 &&
+          ((Comparable) value).compareTo(to) <= 0;
+    }
+
+    @Override
+    String getIndexableAttributeName() {
+      return attributeName;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s IN [%s, %s]", attributeName, from, to);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Range that = (Range) o;
+      return attributeName.equals(that.attributeName) &&
+          from.equals(that.from) &&
+          to.equals(that.to);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(attributeName, from, to);
+    }
+  }
+
+  /**
+   * Matches attributes that do not match a query.
+   */
+  static final class Not extends AttributeQuery {
+
+    private final AttributeQuery query;
+
+    Not(AttributeQuery query) {
+      this.query = query;
+    }
+
+    @Override
+    boolean test(PolymorphicMap pluginAttributes) {
+      return !query.test(pluginAttributes);
+    }
+
+    @Override
+    public String toString() {
+      return String.format("NOT (%s)", query);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Not that = (Not) o;
+      return query.equals(that.query);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash("NOT", query);
+    }
+  }
+
+  /**
+   * Matches attributes that match two queries.
+   */
+  static final class And extends AttributeQuery {
+
+    private final AttributeQuery left;
+    private final AttributeQuery right;
+
+    And(AttributeQuery left, AttributeQuery right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    boolean test(PolymorphicMap pluginAttributes) {
+      return left.test(pluginAttributes) && right.test(pluginAttributes);
+    }
+
+    @Override
+    void addTerms(List<AttributeQuery> terms) {
+      left.addTerms(terms);
+      right.addTerms(terms);
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s AND %s", left, right);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      And that = (And) o;
+      return left.equals(that.left) && right.equals(that.right);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(left, right);
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Limits the number of concurrent calls made to a Plugin, so that a slow or stuck Plugin only
+ * ties up its own share of the callers' threads.
+ * <p>
+ * Up to {@code maxConcurrentCalls} calls run at once; up to {@code maxQueuedCalls} further calls
+ * wait for one of them to complete. Any other call is rejected immediately with a {@link
+ * BulkheadFullException}, instead of waiting. The bulkhead also keeps the number of calls in
+ * flight, the number of rejected calls, and the latencies of the calls that ran.
+ */
+final class Bulkhead {
+
+  private final String pluginClassName;
+  private final int maxConcurrentCalls;
+  private final int maxQueuedCalls;
+  private final Semaphore permits;
+  private final AtomicInteger queuedCalls = new AtomicInteger();
+  private final AtomicInteger inFlightCalls = new AtomicInteger();
+  private final LongAdder rejectedCalls = new LongAdder();
+  private final LatencyHistogram latency = new LatencyHistogram();
+
+  /**
+   * Constructor.
+   *
+   * @param pluginClassName Name of the Plugin class (for error messages).
+   * @param maxConcurrentCalls Maximum number of calls running at once.
+   * @param maxQueuedCalls Maximum number of calls waiting to run.
+   */
+  Bulkhead(String pluginClassName, int maxConcurrentCalls, int maxQueuedCalls) {
+    if (maxConcurrentCalls < 1) {
+      throw new IllegalArgumentException(String.format(
+          "Maximum number of concurrent calls must be positive [%d].", maxConcurrentCalls));
+    } else if (maxQueuedCalls < 0) {
+      throw new IllegalArgumentException(String.format(
+          "Maximum number of queued calls cannot be a negative number [%d].", maxQueuedCalls));
+    }
+
+    this.pluginClassName = pluginClassName;
+    this.maxConcurrentCalls = maxConcurrentCalls;
+    this.maxQueuedCalls = maxQueuedCalls;
+    this.permits = new Semaphore(maxConcurrentCalls);
+  }
+
+  /**
+   * Makes a call through the bulkhead.
+   *
+   * @param call Call to make on the Plugin.
+   * @param <R> Type of the value returned by the call.
+   * @return Value returned by the call.
+   * @throws BulkheadFullException Thrown if the bulkhead is full.
+   * @throws Exception Thrown by the call.
+   */
+  <R> R call(Callable<R> call) throws Exception {
+    acquire();
+    inFlightCalls.incrementAndGet();
+    long startTime = System.nanoTime();
+    try {
+      return call.call();
+    } finally {
+      latency.record(System.nanoTime() - startTime);
+      inFlightCalls.decrementAndGet();
+      permits.release();
+    }
+  }
+
+  /**
+   * Returns the number of calls currently running.
+   *
+   * @return In-flight call count.
+   */
+  int getInFlightCount() {
+    return inFlightCalls.get();
+  }
+
+  /**
+   * Returns the number of calls currently waiting to run.
+   *
+   * @return Queued call count.
+   */
+  int getQueuedCount() {
+    return queuedCalls.get();
+  }
+
+  /**
+   * Returns the number of calls rejected because the bulkhead was full.
+   *
+   * @return Rejected call count.
+   */
+  long getRejectedCount() {
+    return rejectedCalls.sum();
+  }
+
+  /**
+   * Returns the latencies of the calls that ran (excluding the time spent waiting to run).
+   *
+   * @return Latency summary.
+   */
+  LatencySummary getLatency() {
+    return latency.summarize();
+  }
+
+  /**
+   * Takes a permit to run a call, waiting for one only if the queue is not full.
+   */
+  private void acquire() {
+    if (permits.tryAcquire()) {
+      return;
+    }
+
+    if (queuedCalls.incrementAndGet() > maxQueuedCalls) {
+      queuedCalls.decrementAndGet();
+      rejectedCalls.increment();
+      throw new BulkheadFullException(String.format(
+          "Bulkhead of Plugin [%s] is full (%d concurrent calls, %d queued calls).",
+          pluginClassName, maxConcurrentCalls, maxQueuedCalls));
+    }
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new PluginLibraryException(String.format(
+          "Interrupted while waiting to call Plugin [%s].", pluginClassName), e);
+    } finally {
+      queuedCalls.decrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package techmoc.extensibility.pluginlibrary;
+
+
+/**
+ * Thrown to indicate that a call to a Plugin was rejected, because the Plugin's bulkhead already
+ * holds as many running and waiting calls as it allows (see {@link
+ * PluginRegistry#setBulkheadLimits(int, int)}).
+ */
+public class BulkheadFullException extends PluginLibraryException {
+
+  /**
+   * Instantiates a new {@link BulkheadFullException}.
+   *
+   * @param errorMessage {@link String} error message.
+   */
+  public BulkheadFullException(String errorMessage) {
+    super(errorMessage);
+  }
+}
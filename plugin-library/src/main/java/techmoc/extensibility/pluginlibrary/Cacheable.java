@@ -0,0 +1,24 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * Declares a method of a Plugin Interface (or of a Plugin class) as a pure function of its
+ * arguments, whose results may be memoized.
+ * <p>
+ * Plugins returned by {@link PluginRegistry#getLatestVersionWithCache(String, Class)} remember
+ * the results of their cacheable methods, keyed by the arguments of each call (compared with
+ * {@code equals}, or element by element for arrays), and return them instead of calling the
+ * Plugin again. Exceptions are not memoized. Arguments must not be modified after the call.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Cacheable {
+
+}
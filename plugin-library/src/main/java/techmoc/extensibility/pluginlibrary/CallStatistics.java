@@ -0,0 +1,77 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Load of a Plugin, as seen by the leases taken on it (see {@link PluginLease}): the number of
+ * calls in flight, and an exponentially weighted moving average of the call latencies.
+ * <p>
+ * Both values are kept in atomic counters, so recording a call never locks or allocates. The
+ * moving average gives each new latency a weight of 1/8, so that it follows the Plugin's recent
+ * calls rather than its whole history.
+ */
+final class CallStatistics {
+
+  // Weight of a new latency in the moving average, as a shift (i.e. 1/8).
+  private static final int EWMA_WEIGHT_SHIFT = 3;
+
+  private final AtomicInteger inFlightCalls = new AtomicInteger();
+
+  // Moving average of the latencies in nanoseconds (0 until the first call completes).
+  private final AtomicLong ewmaLatency = new AtomicLong();
+
+  /**
+   * Records the start of a call.
+   */
+  void callStarted() {
+    inFlightCalls.incrementAndGet();
+  }
+
+  /**
+   * Records the completion of a call.
+   *
+   * @param nanos Latency of the call in nanoseconds.
+   */
+  void callCompleted(long nanos) {
+    inFlightCalls.decrementAndGet();
+    long latency = Math.max(1, nanos);
+    long current;
+    long updated;
+    do {
+      current = ewmaLatency.get();
+      updated = (current == 0)
+          ? latency
+          : current + ((latency - current) >> EWMA_WEIGHT_SHIFT);
+    } while (!ewmaLatency.compareAndSet(current, updated));
+  }
+
+  /**
+   * Returns the number of calls currently in flight.
+   *
+   * @return In-flight call count.
+   */
+  int getInFlightCount() {
+    return inFlightCalls.get();
+  }
+
+  /**
+   * Returns the moving average of the call latencies.
+   *
+   * @return Latency in nanoseconds, or 0 if no call completed yet.
+   */
+  long getEwmaLatency() {
+    return ewmaLatency.get();
+  }
+
+  /**
+   * Returns the expected cost of one more call: the moving average latency, scaled by the number
+   * of calls that it would wait behind.
+   *
+   * @return Cost (lower is better).
+   */
+  long getCost() {
+    return ewmaLatency.get() * (inFlightCalls.get() + 1);
+  }
+}
@@ -0,0 +1,108 @@
+package techmoc.extensibility.pluginlibrary;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+
+/**
+ * Java Flight Recorder events emitted by the Plugin Registry, so that a recording shows which JAR
+ * file, package directory or Plugin caused a pause.
+ * <p>
+ * Events are disabled unless a recording enables them (e.g. by name, such as {@code
+ * techmoc.extensibility.pluginlibrary.PluginScan}); while disabled, emitting an event costs a
+ * single check. Stack traces are only recorded for rare events: scans, and instantiations slower
+ * than the instantiation event's threshold.
+ */
+final class FlightRecorderEvents {
+
+  /**
+   * Private constructor, to prevent instantiation.
+   */
+  private FlightRecorderEvents() {
+  }
+
+  /**
+   * Scan of a JAR file or package directory.
+   */
+  @Name("techmoc.extensibility.pluginlibrary.PluginScan")
+  @Label("Plugin Scan")
+  @Category("Plugin Library")
+  @Description("Scan of a JAR file or package directory for Plugins")
+  static final class PluginScan extends Event {
+
+    @Label("Source Path")
+    String sourcePath;
+
+    @Label("Classes Examined")
+    int classesExamined;
+
+    @Label("Classes Loaded")
+    int classesLoaded;
+
+    @Label("Plugins Registered")
+    long pluginsRegistered;
+  }
+
+  /**
+   * Registration of a Plugin under a Plugin Interface.
+   */
+  @Name("techmoc.extensibility.pluginlibrary.PluginRegistered")
+  @Label("Plugin Registered")
+  @Category("Plugin Library")
+  @Description("Registration of a Plugin under a Plugin Interface")
+  @StackTrace(false)
+  static final class PluginRegistered extends Event {
+
+    @Label("Plugin Interface")
+    Class<?> pluginInterface;
+
+    @Label("Plugin Class")
+    Class<?> pluginClass;
+
+    @Label("Plugin Name")
+    String pluginName;
+
+    @Label("Plugin Version")
+    String pluginVersion;
+
+    @Label("Plugin Source")
+    String pluginSource;
+  }
+
+  /**
+   * Instantiation of a Plugin.
+   */
+  @Name("techmoc.extensibility.pluginlibrary.PluginInstantiated")
+  @Label("Plugin Instantiated")
+  @Category("Plugin Library")
+  @Description("Instantiation of a Plugin")
+  @Threshold("1 ms")
+  static final class PluginInstantiated extends Event {
+
+    @Label("Plugin Class")
+    Class<?> pluginClass;
+  }
+
+  /**
+   * File or directory detected by the Directory Monitor, and how it was handled.
+   */
+  @Name("techmoc.extensibility.pluginlibrary.DirectoryMonitorEvent")
+  @Label("Directory Monitor Event")
+  @Category("Plugin Library")
+  @Description("File or directory detected by the Directory Monitor")
+  @StackTrace(false)
+  static final class DirectoryMonitorEvent extends Event {
+
+    @Label("Path")
+    String path;
+
+    @Label("Action")
+    @Description("SCAN_JAR, SCAN_PACKAGE_DIRECTORY, IGNORED or OVERFLOW")
+    String action;
+  }
+}
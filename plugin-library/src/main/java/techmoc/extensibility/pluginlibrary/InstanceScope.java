@@ -0,0 +1,36 @@
+package techmoc.extensibility.pluginlibrary;
+
+
+/**
+ * Determines how the Plugin Registry creates and reuses the Plugin instances that it returns.
+ * <p>
+ * The scope of a Plugin is read from {@link Pluggable#getInstanceScope()} when the Plugin is
+ * registered. It can be set for a single Plugin by overriding that method in the Plugin class, or
+ * for every Plugin of a Plugin Interface by overriding it in the Plugin Interface.
+ */
+public enum InstanceScope {
+
+  /**
+   * A single instance of the Plugin is created, and returned by every lookup. Plugins in this
+   * scope must be stateless, or thread safe.
+   */
+  SINGLETON,
+
+  /**
+   * One instance of the Plugin is created per thread, and returned by every lookup made from that
+   * thread.
+   */
+  THREAD,
+
+  /**
+   * A new instance of the Plugin is created by every lookup (the default).
+   */
+  PROTOTYPE,
+
+  /**
+   * Instances of the Plugin are taken from a bounded pool, and a new instance is created only when
+   * the pool is empty. Instances are returned to the pool by calling {@link
+   * PluginRegistry#release(Pluggable)}; instances that are not released are simply discarded.
+   */
+  POOLED
+}
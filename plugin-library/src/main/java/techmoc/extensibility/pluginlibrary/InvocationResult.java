@@ -0,0 +1,117 @@
+package techmoc.extensibility.pluginlibrary;
+
+/**
+ * Outcome of calling a single Plugin during a fan-out invocation (see {@link
+ * PluginRegistry#invokeAll(Class, java.util.function.Function, java.time.Duration)}).
+ *
+ * @param <R> Type of the value returned by the call.
+ */
+public final class InvocationResult<R> {
+
+  /**
+   * Outcome of a call.
+   */
+  public enum Status {
+    /**
+     * The call returned a value.
+     */
+    COMPLETED,
+
+    /**
+     * The call threw an exception (or the Plugin could not be instantiated).
+     */
+    FAILED,
+
+    /**
+     * The call did not complete within the timeout, and was interrupted.
+     */
+    TIMED_OUT
+  }
+
+  private final String pluginName;
+  private final PluginVersion pluginVersion;
+  private final Status status;
+  private final R value;
+  private final Throwable failure;
+
+  /**
+   * Constructor.
+   *
+   * @param pluginName Name of the called Plugin.
+   * @param pluginVersion Version of the called Plugin.
+   * @param status Outcome of the call.
+   * @param value Value returned by the call (or null, unless completed).
+   * @param failure Exception thrown by the call (or null, unless failed).
+   */
+  private InvocationResult(
+      String pluginName,
+      PluginVersion pluginVersion,
+      Status status,
+      R value,
+      Throwable failure) {
+    this.pluginName = pluginName;
+    this.pluginVersion = pluginVersion;
+    this.status = status;
+    this.value = value;
+    this.failure = failure;
+  }
+
+  static <R> InvocationResult<R> completed(PluginEntry pluginEntry, R value) {
+    return new InvocationResult<>(pluginEntry.getPluginName(), pluginEntry.getPluginVersion(),
+        Status.COMPLETED, value, null);
+  }
+
+  static <R> InvocationResult<R> failed(PluginEntry pluginEntry, Throwable failure) {
+    return new InvocationResult<>(pluginEntry.getPluginName(), pluginEntry.getPluginVersion(),
+        Status.FAILED, null, failure);
+  }
+
+  static <R> InvocationResult<R> timedOut(PluginEntry pluginEntry) {
+    return new InvocationResult<>(pluginEntry.getPluginName(), pluginEntry.getPluginVersion(),
+        Status.TIMED_OUT, null, null);
+  }
+
+  public String getPluginName() {
+    return pluginName;
+  }
+
+  public PluginVersion getPluginVersion() {
+    return pluginVersion;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  /**
+   * Returns true if the call returned a value.
+   *
+   * @return True if completed, false otherwise.
+   */
+  public boolean isCompleted() {
+    return status == Status.COMPLETED;
+  }
+
+  /**
+   * Returns the value returned by the call.
+   *
+   * @return Value, or null unless the call completed.
+   */
+  public R getValue() {
+    return value;
+  }
+
+  /**
+   * Returns the exception thrown by the call.
+   *
+   * @return Exception, or null unless the call failed.
+   */
+  public Throwable getFailure() {
+    return failure;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("InvocationResult [%s (%s)] %s", pluginName, pluginVersion, status);
+  }
+}
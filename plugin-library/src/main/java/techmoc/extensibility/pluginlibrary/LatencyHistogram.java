@@ -0,0 +1,140 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Lock-free histogram of latencies (in nanoseconds), with buckets laid out as in an HDR histogram:
+ * each power of two is split into equally sized sub-buckets, so that every recorded value is kept
+ * with a relative precision of about 3%, from a nanosecond up to centuries, in a fixed array of
+ * counters.
+ * <p>
+ * Recording a value only increments striped counters ({@link LongAdder}s, created as buckets are
+ * first used), so histograms can stay enabled on hot paths.
+ * Summaries read the counters without stopping writers, and may therefore be off by the values
+ * recorded while they are computed.
+ */
+final class LatencyHistogram {
+
+  // Each power of two above SUB_BUCKET_COUNT is split into SUB_BUCKET_COUNT / 2 sub-buckets.
+  private static final int SUB_BUCKET_BITS = 6;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+  private static final int BUCKET_COUNT = Long.SIZE - SUB_BUCKET_BITS + 1;
+
+  private final AtomicReferenceArray<LongAdder> counts =
+      new AtomicReferenceArray<>((BUCKET_COUNT + 1) * SUB_BUCKET_HALF_COUNT);
+  private final LongAdder totalCount = new LongAdder();
+  private final LongAdder totalValue = new LongAdder();
+  private final LongAccumulator maxValue = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Records a latency.
+   *
+   * @param nanos Latency in nanoseconds (negative values are recorded as 0).
+   */
+  void record(long nanos) {
+    long value = Math.max(0, nanos);
+    int index = indexOf(value);
+    LongAdder count = counts.get(index);
+    if (count == null) {
+      count = new LongAdder();
+      if (!counts.compareAndSet(index, null, count)) {
+        count = counts.get(index);
+      }
+    }
+    count.increment();
+    totalCount.increment();
+    totalValue.add(value);
+    maxValue.accumulate(value);
+  }
+
+  /**
+   * Returns the number of recorded latencies.
+   *
+   * @return Count.
+   */
+  long getCount() {
+    return totalCount.sum();
+  }
+
+  /**
+   * Returns the specified percentile of the recorded latencies (i.e. the highest value that is
+   * equivalent to the bucket that holds the percentile).
+   *
+   * @param percentile Percentile (from 0 to 100).
+   * @return Latency in nanoseconds, or 0 if nothing was recorded.
+   */
+  long getValueAtPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException(
+          String.format("Percentile must be between 0 and 100 [%s].", percentile));
+    }
+
+    long[] snapshot = new long[counts.length()];
+    long count = 0;
+    for (int i = 0; i < snapshot.length; i++) {
+      LongAdder bucketCount = counts.get(i);
+      snapshot[i] = (bucketCount == null) ? 0 : bucketCount.sum();
+      count += snapshot[i];
+    }
+    if (count == 0) {
+      return 0;
+    }
+
+    long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    long seen = 0;
+    for (int i = 0; i < snapshot.length; i++) {
+      seen += snapshot[i];
+      if (seen >= target) {
+        return Math.min(highestEquivalentValue(i), maxValue.get());
+      }
+    }
+    return maxValue.get();
+  }
+
+  /**
+   * Returns a summary of the recorded latencies.
+   *
+   * @return Latency summary.
+   */
+  LatencySummary summarize() {
+    long count = totalCount.sum();
+    return new LatencySummary(
+        count,
+        (count == 0) ? 0 : (double) totalValue.sum() / count,
+        getValueAtPercentile(50),
+        getValueAtPercentile(90),
+        getValueAtPercentile(99),
+        getValueAtPercentile(99.9),
+        maxValue.get());
+  }
+
+  /**
+   * Returns the index of the counter of the specified value.
+   *
+   * @param value Non-negative value.
+   * @return Counter index.
+   */
+  static int indexOf(long value) {
+    int highestBit = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int bucket = Math.max(0, highestBit - (SUB_BUCKET_BITS - 1));
+    int subBucket = (int) (value >>> bucket);
+    return bucket * SUB_BUCKET_HALF_COUNT + subBucket;
+  }
+
+  /**
+   * Returns the highest value counted by the specified counter.
+   *
+   * @param index Counter index.
+   * @return Highest equivalent value.
+   */
+  static long highestEquivalentValue(int index) {
+    int bucket = Math.max(0, (index >> (SUB_BUCKET_BITS - 1)) - 1);
+    long subBucket = index - (long) bucket * SUB_BUCKET_HALF_COUNT;
+    long lowestValue = subBucket << bucket;
+    return lowestValue + (1L << bucket) - 1;
+  }
+}
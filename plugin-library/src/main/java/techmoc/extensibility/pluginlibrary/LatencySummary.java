@@ -0,0 +1,73 @@
+package techmoc.extensibility.pluginlibrary;
+
+/**
+ * Summary of the latencies recorded for a Plugin Registry operation (see {@link
+ * PluginRegistryMXBean}).
+ * <p>
+ * Latencies are in nanoseconds. Percentiles are accurate to about 3% of their value.
+ */
+public final class LatencySummary {
+
+  private final long count;
+  private final double mean;
+  private final long p50;
+  private final long p90;
+  private final long p99;
+  private final long p999;
+  private final long max;
+
+  /**
+   * Constructor.
+   *
+   * @param count Number of recorded latencies.
+   * @param mean Mean latency.
+   * @param p50 Median latency.
+   * @param p90 90th percentile latency.
+   * @param p99 99th percentile latency.
+   * @param p999 99.9th percentile latency.
+   * @param max Maximum latency.
+   */
+  LatencySummary(long count, double mean, long p50, long p90, long p99, long p999, long max) {
+    this.count = count;
+    this.mean = mean;
+    this.p50 = p50;
+    this.p90 = p90;
+    this.p99 = p99;
+    this.p999 = p999;
+    this.max = max;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public double getMean() {
+    return mean;
+  }
+
+  public long getP50() {
+    return p50;
+  }
+
+  public long getP90() {
+    return p90;
+  }
+
+  public long getP99() {
+    return p99;
+  }
+
+  public long getP999() {
+    return p999;
+  }
+
+  public long getMax() {
+    return max;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("count=%d mean=%.0fns p50=%dns p90=%dns p99=%dns p999=%dns max=%dns",
+        count, mean, p50, p90, p99, p999, max);
+  }
+}
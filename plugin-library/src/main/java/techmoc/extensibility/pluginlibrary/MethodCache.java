@@ -0,0 +1,259 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * Bounded, least-recently-used cache of the results returned by the {@link Cacheable} methods of
+ * a Plugin class.
+ * <p>
+ * Results are keyed by method and arguments. The cache is shared by every proxy of the Plugin
+ * made by a Plugin Registry, and invalidated once the Plugin is unregistered or upgraded: an
+ * invalidated cache is emptied, and no longer caches anything, so that proxies still held by
+ * callers call the Plugin directly.
+ * <p>
+ * The cache is bounded by its number of results, rather than by their size in memory, which
+ * cannot be measured reliably: callers caching large results size it accordingly. Lookups never
+ * lock, and a hit only stamps the time of its access. Once the cache is full, the thread caching a
+ * new result evicts the least recently used results (a sixteenth of the capacity at once, so that
+ * large caches are not scanned on every insertion). Recency is thus approximate when results are
+ * used concurrently.
+ */
+final class MethodCache {
+
+  // Stands for a null result, which the underlying map cannot tell from a missing one.
+  private static final Object NULL_RESULT = new Object();
+
+  private final Class<? extends Pluggable> pluginClass;
+  private final Class<? extends Pluggable> registeredPluginInterface;
+  private final int capacity;
+  private final Map<Key, CachedResult> results = new ConcurrentHashMap<>();
+  private final Map<Method, Boolean> cacheableMethods = new ConcurrentHashMap<>();
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  private volatile boolean invalidated = false;
+
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+
+  /**
+   * Key of a cached result.
+   */
+  private static final class Key {
+
+    private final Method method;
+    private final Object[] args;
+    private final int hashCode;
+
+    Key(Method method, Object[] args) {
+      this.method = method;
+      this.args = (args == null) ? new Object[0] : args.clone();
+      this.hashCode = 31 * method.hashCode() + Arrays.deepHashCode(this.args);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key that = (Key) o;
+      return method.equals(that.method) && Arrays.deepEquals(args, that.args);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  /**
+   * Cached result of a call, and the time it was last used.
+   */
+  private static final class CachedResult {
+
+    private final Object result;
+    private volatile long lastAccessTime = System.nanoTime();
+
+    CachedResult(Object result) {
+      this.result = result;
+    }
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param pluginClass Plugin class.
+   * @param registeredPluginInterface Registered Plugin Interface that the Plugin is called through.
+   * @param capacity Maximum number of cached results.
+   */
+  MethodCache(
+      Class<? extends Pluggable> pluginClass,
+      Class<? extends Pluggable> registeredPluginInterface,
+      int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException(String.format(
+          "Method cache capacity must be a positive number [%d].", capacity));
+    }
+
+    this.pluginClass = pluginClass;
+    this.registeredPluginInterface = registeredPluginInterface;
+    this.capacity = capacity;
+  }
+
+  /**
+   * Returns the Plugin class whose results are cached.
+   *
+   * @return Plugin class.
+   */
+  Class<? extends Pluggable> getPluginClass() {
+    return pluginClass;
+  }
+
+  /**
+   * Returns the registered Plugin Interface that the Plugin is called through.
+   *
+   * @return Registered Plugin Interface class.
+   */
+  Class<? extends Pluggable> getRegisteredPluginInterface() {
+    return registeredPluginInterface;
+  }
+
+  /**
+   * Calls the specified method of a Plugin, or returns the result of a previous call with the same
+   * arguments if the method is {@link Cacheable}.
+   *
+   * @param plugin Plugin instance.
+   * @param method Called method (declared by the Plugin Interface).
+   * @param args Arguments of the call (or null).
+   * @return Value returned by the call.
+   * @throws ReflectiveOperationException Thrown if the call fails (see {@link Method#invoke}).
+   */
+  Object invoke(Pluggable plugin, Method method, Object[] args)
+      throws ReflectiveOperationException {
+    if (invalidated || !isCacheable(method)) {
+      return method.invoke(plugin, args);
+    }
+
+    Key key = new Key(method, args);
+    CachedResult cachedResult = results.get(key);
+    if (cachedResult != null) {
+      cachedResult.lastAccessTime = System.nanoTime();
+      hitCount.increment();
+      return (cachedResult.result == NULL_RESULT) ? null : cachedResult.result;
+    }
+
+    // Concurrent misses may call the Plugin more than once.
+    missCount.increment();
+    Object result = method.invoke(plugin, args);
+    results.put(key, new CachedResult((result == null) ? NULL_RESULT : result));
+    if (invalidated) {
+      results.clear();
+    } else if (results.size() > capacity) {
+      evict();
+    }
+    return result;
+  }
+
+  /**
+   * Discards every cached result, and stops caching new ones.
+   */
+  void invalidate() {
+    invalidated = true;
+    results.clear();
+  }
+
+  /**
+   * Returns true if the cache was invalidated.
+   *
+   * @return True if invalidated, false otherwise.
+   */
+  boolean isInvalidated() {
+    return invalidated;
+  }
+
+  /**
+   * Returns the number of calls answered from the cache.
+   *
+   * @return Hit count.
+   */
+  long getHitCount() {
+    return hitCount.sum();
+  }
+
+  /**
+   * Returns the number of calls to cacheable methods that were not answered from the cache.
+   *
+   * @return Miss count.
+   */
+  long getMissCount() {
+    return missCount.sum();
+  }
+
+  /**
+   * Returns the number of cached results.
+   *
+   * @return Number of cached results.
+   */
+  int size() {
+    return results.size();
+  }
+
+  /**
+   * Evicts the least recently used results, down to the capacity (less a sixteenth of it). Only
+   * one thread evicts at a time; others skip the eviction.
+   */
+  private void evict() {
+    if (!evictionLock.tryLock()) {
+      return;
+    }
+    try {
+      int excess = results.size() - (capacity - capacity / 16);
+      if (excess <= 0) {
+        return;
+      }
+
+      List<Map.Entry<Key, CachedResult>> entries = new ArrayList<>(results.entrySet());
+      entries.sort(Comparator.comparingLong(x -> x.getValue().lastAccessTime));
+      for (Map.Entry<Key, CachedResult> entry :
+          entries.subList(0, Math.min(excess, entries.size()))) {
+        results.remove(entry.getKey(), entry.getValue());
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Returns true if the specified method is declared cacheable, either by the Plugin Interface or
+   * by the Plugin class.
+   *
+   * @param method Method declared by the Plugin Interface.
+   * @return True if the method's results may be cached, false otherwise.
+   */
+  private boolean isCacheable(Method method) {
+    Boolean cacheable = cacheableMethods.get(method);
+    if (cacheable == null) {
+      cacheable = method.isAnnotationPresent(Cacheable.class);
+      if (!cacheable) {
+        try {
+          cacheable = pluginClass.getMethod(method.getName(), method.getParameterTypes())
+              .isAnnotationPresent(Cacheable.class);
+        } catch (NoSuchMethodException e) {
+          cacheable = false;
+        }
+      }
+      cacheableMethods.put(method, cacheable);
+    }
+    return cacheable;
+  }
+}
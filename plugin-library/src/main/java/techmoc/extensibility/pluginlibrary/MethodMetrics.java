@@ -0,0 +1,80 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjLongConsumer;
+
+
+/**
+ * Metrics of the calls made to a single method of a Plugin version, recorded by instrumented
+ * Plugins (see {@link PluginInstrumenter}).
+ * <p>
+ * Instrumented Plugins only see this class as an {@link ObjLongConsumer}, which accepts the
+ * exception thrown by a call (or null) and the call's latency in nanoseconds, so that the classes
+ * generated for them only link against the JDK.
+ */
+final class MethodMetrics implements ObjLongConsumer<Throwable> {
+
+  private final String pluginName;
+  private final String pluginVersion;
+  private final String method;
+
+  private final LongAdder callCount = new LongAdder();
+  private final LongAdder errorCount = new LongAdder();
+  private final LatencyHistogram latency = new LatencyHistogram();
+
+  /**
+   * Constructor.
+   *
+   * @param pluginName Plugin name.
+   * @param pluginVersion Plugin version.
+   * @param method Method name and parameter types.
+   */
+  MethodMetrics(String pluginName, String pluginVersion, String method) {
+    this.pluginName = pluginName;
+    this.pluginVersion = pluginVersion;
+    this.method = method;
+  }
+
+  /**
+   * Returns the name of the Plugin whose calls are recorded.
+   *
+   * @return Plugin name.
+   */
+  String getPluginName() {
+    return pluginName;
+  }
+
+  /**
+   * Returns the version of the Plugin whose calls are recorded.
+   *
+   * @return Plugin version.
+   */
+  String getPluginVersion() {
+    return pluginVersion;
+  }
+
+  /**
+   * Records a call.
+   *
+   * @param failure Exception thrown by the call, or null if it returned.
+   * @param nanos Latency in nanoseconds.
+   */
+  @Override
+  public void accept(Throwable failure, long nanos) {
+    callCount.increment();
+    if (failure != null) {
+      errorCount.increment();
+    }
+    latency.record(nanos);
+  }
+
+  /**
+   * Returns a summary of the recorded calls.
+   *
+   * @return Method summary.
+   */
+  MethodSummary summarize() {
+    return new MethodSummary(pluginName, pluginVersion, method,
+        callCount.sum(), errorCount.sum(), latency.summarize());
+  }
+}
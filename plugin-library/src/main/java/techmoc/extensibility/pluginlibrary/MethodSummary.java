@@ -0,0 +1,72 @@
+package techmoc.extensibility.pluginlibrary;
+
+/**
+ * Summary of the calls made to a single method of a Plugin version, recorded while the Plugin
+ * Registry's instrumentation is enabled (see {@link PluginRegistry#setInstrumentationEnabled}).
+ * <p>
+ * Latencies are in nanoseconds, and include the calls that threw an exception.
+ */
+public final class MethodSummary {
+
+  private final String pluginName;
+  private final String pluginVersion;
+  private final String method;
+  private final long callCount;
+  private final long errorCount;
+  private final LatencySummary latency;
+
+  /**
+   * Constructor.
+   *
+   * @param pluginName Plugin name.
+   * @param pluginVersion Plugin version.
+   * @param method Method name and parameter types (e.g. "calculate(double, double)").
+   * @param callCount Number of calls.
+   * @param errorCount Number of calls that threw an exception.
+   * @param latency Latencies of the calls.
+   */
+  MethodSummary(
+      String pluginName,
+      String pluginVersion,
+      String method,
+      long callCount,
+      long errorCount,
+      LatencySummary latency) {
+    this.pluginName = pluginName;
+    this.pluginVersion = pluginVersion;
+    this.method = method;
+    this.callCount = callCount;
+    this.errorCount = errorCount;
+    this.latency = latency;
+  }
+
+  public String getPluginName() {
+    return pluginName;
+  }
+
+  public String getPluginVersion() {
+    return pluginVersion;
+  }
+
+  public String getMethod() {
+    return method;
+  }
+
+  public long getCallCount() {
+    return callCount;
+  }
+
+  public long getErrorCount() {
+    return errorCount;
+  }
+
+  public LatencySummary getLatency() {
+    return latency;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s (%s) %s calls=%d errors=%d %s",
+        pluginName, pluginVersion, method, callCount, errorCount, latency);
+  }
+}
@@ -6,23 +6,47 @@ import techmoc.extensibility.polymorphicmap.PolymorphicMap;
 public interface Pluggable {
 
   /**
-   * Returns the name of the plug-in. By default, returns the simple name of the plugin
-   * implementation class. Can be overridden to provide a custom plugin name.
+   * Returns the name of the plug-in. By default, returns the name declared by the plugin's {@link
+   * PluginMetadata} annotation, or else the simple name of the plugin implementation class. Can be
+   * overridden to provide a custom plugin name.
    *
    * @return Name of the plugin.
    */
   default String getPluginName() {
-    return this.getClass().getSimpleName();
+    PluginDescriptor pluginDescriptor = PluginDescriptor.getDeclaredMetadata(this.getClass());
+    return (pluginDescriptor != null)
+        ? pluginDescriptor.getPluginName()
+        : this.getClass().getSimpleName();
   }
 
   /**
-   * Returns the version of the plugin. By default, returns version 0.0.0. Can be overridden to
-   * provide a custom version value.
+   * Returns the version of the plugin. By default, returns the version declared by the plugin's
+   * {@link PluginMetadata} annotation, or else version 0.0.0. Can be overridden to provide a custom
+   * version value.
    *
    * @return Version of the plugin.
    */
   default PluginVersion getPluginVersion() {
-    return new PluginVersion(0, 0, 0);
+    PluginDescriptor pluginDescriptor = PluginDescriptor.getDeclaredMetadata(this.getClass());
+    return (pluginDescriptor != null)
+        ? pluginDescriptor.getPluginVersion()
+        : new PluginVersion(0, 0, 0);
+  }
+
+  /**
+   * Returns the instance scope of the plugin, which determines whether the Plugin Registry creates
+   * a new instance for every lookup or reuses instances. By default, returns the scope declared by
+   * the plugin's {@link PluginMetadata} annotation, or else {@link InstanceScope#PROTOTYPE} (a new
+   * instance for every lookup). Can be overridden by a plugin, or by a plugin interface to set the
+   * scope of all of its plugins.
+   *
+   * @return Instance scope of the plugin.
+   */
+  default InstanceScope getInstanceScope() {
+    PluginDescriptor pluginDescriptor = PluginDescriptor.getDeclaredMetadata(this.getClass());
+    return (pluginDescriptor != null)
+        ? pluginDescriptor.getInstanceScope()
+        : InstanceScope.PROTOTYPE;
   }
 
   /**
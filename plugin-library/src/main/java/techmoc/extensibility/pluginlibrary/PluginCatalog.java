@@ -0,0 +1,333 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/**
+ * Immutable Plugins scanned from JAR files and package directories, shared by several Plugin
+ * Registries (e.g. one per tenant of an application).
+ * <p>
+ * A catalog scans each source once: it loads the source's classes with a single class loader, and
+ * reads the metadata of every Plugin found. Plugin Registries then enable the Plugins of a source
+ * (see {@link PluginRegistry#enableCatalogSource(PluginCatalog, String)}) without scanning it
+ * again, so that class loading, Metaspace and metadata are paid once per source instead of once
+ * per registry. Each registry keeps its own Plugin Entries: which Plugins are enabled, their
+ * attribute overrides, and their instances.
+ * <p>
+ * A source's class loader is closed once the source is removed from the catalog, and none of its
+ * Plugins is registered in any Plugin Registry anymore. The catalog is thread safe.
+ */
+public final class PluginCatalog implements AutoCloseable {
+
+  private final Map<String, Source> sources = new ConcurrentHashMap<>();
+
+  /**
+   * Adds the Plugins of the specified JAR file to the catalog (unless the JAR file is already in
+   * the catalog, and has not changed since it was scanned).
+   *
+   * @param jarFilePath Path to the JAR file.
+   * @return Path of the source, to enable it with.
+   * @throws IOException Thrown on IO exception.
+   */
+  public String addJar(String jarFilePath) throws IOException {
+    // Validate input.
+    File jarFile = new File(jarFilePath);
+    if (!jarFile.exists()) {
+      throw new IllegalArgumentException(
+          String.format("Path does not exist [%s].", jarFilePath));
+    } else if (jarFile.isDirectory()) {
+      throw new IllegalArgumentException(
+          String.format("Path is not a file [%s].", jarFilePath));
+    } else if (!jarFile.getName().endsWith(".jar")) {
+      throw new IllegalArgumentException(
+          String.format("Path does not specify a JAR file [%s].", jarFilePath));
+    }
+
+    synchronized (this) {
+      String path = jarFile.getAbsolutePath();
+      if (isUnchanged(path)) {
+        return path;
+      }
+      PluginSource pluginSource = PluginSource.of(jarFile, Set.of(), null, true);
+
+      // Gather the class names, and the Plugin metadata declared in the manifest.
+      List<String> classNames = new ArrayList<>();
+      Map<String, PluginDescriptor> pluginDescriptors = new HashMap<>();
+      try (JarInputStream jis = new JarInputStream(new FileInputStream(jarFile))) {
+        Manifest manifest = jis.getManifest();
+        for (JarEntry jarEntry = jis.getNextJarEntry(); jarEntry != null;
+            jarEntry = jis.getNextJarEntry()) {
+          if (!jarEntry.isDirectory() && jarEntry.getName().endsWith(".class")) {
+            String fullClassName = jarEntry.getName()
+                .replace("/", ".")
+                .replace(".class", "");
+            classNames.add(fullClassName);
+
+            PluginDescriptor pluginDescriptor = (manifest == null) ? null
+                : PluginDescriptor.fromManifest(
+                    fullClassName, manifest.getAttributes(jarEntry.getName()));
+            if (pluginDescriptor != null) {
+              pluginDescriptors.put(fullClassName, pluginDescriptor);
+            }
+          }
+        }
+      }
+
+      PluginClassLoader classLoader = new PluginClassLoader(path, jarFile.toURI().toURL());
+      putSource(new Source(
+          pluginSource, classLoader, loadPlugins(classLoader, classNames, pluginDescriptors)));
+      return path;
+    }
+  }
+
+  /**
+   * Adds the Plugins of the specified package directory to the catalog (unless the package
+   * directory is already in the catalog, and has not changed since it was scanned).
+   *
+   * @param packageDirectoryPath Path to a package root directory.
+   * @return Path of the source, to enable it with.
+   */
+  public String addPackageDirectory(String packageDirectoryPath) {
+    // Validate input.
+    File pkgDir = new File(packageDirectoryPath);
+    if (!pkgDir.exists()) {
+      throw new IllegalArgumentException(
+          String.format("Path does not exist [%s].", packageDirectoryPath));
+    } else if (!pkgDir.isDirectory()) {
+      throw new IllegalArgumentException(
+          String.format("Path is not a directory [%s].", packageDirectoryPath));
+    }
+
+    synchronized (this) {
+      String path = pkgDir.getAbsolutePath();
+      if (isUnchanged(path)) {
+        return path;
+      }
+      PluginSource pluginSource = PluginSource.of(pkgDir, Set.of(), null, true);
+
+      // Gather the class names.
+      Path root = pkgDir.toPath();
+      List<String> classNames;
+      try (Stream<Path> files = Files.walk(root)) {
+        classNames = files
+            .filter(x -> Files.isRegularFile(x) && x.getFileName().toString().endsWith(".class"))
+            .map(x -> root.relativize(x).toString()
+                .replace(File.separatorChar, '.')
+                .replace(".class", ""))
+            .sorted()
+            .collect(Collectors.toList());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+
+      PluginClassLoader classLoader;
+      try {
+        classLoader = new PluginClassLoader(path, pkgDir.toURI().toURL());
+      } catch (MalformedURLException e) {
+        throw new PluginLibraryException("Package directory is invalid.", e);
+      }
+      putSource(
+          new Source(pluginSource, classLoader, loadPlugins(classLoader, classNames, Map.of())));
+      return path;
+    }
+  }
+
+  /**
+   * Removes the specified source from the catalog. Its Plugins stay registered in the Plugin
+   * Registries that enabled them, until they are unregistered.
+   *
+   * @param sourcePath Path of the JAR file or package directory.
+   * @return True if the source was removed, false if it was not in the catalog.
+   */
+  public synchronized boolean remove(String sourcePath) {
+    Source source = sources.remove(new File(sourcePath).getAbsolutePath());
+    if (source == null) {
+      return false;
+    }
+    source.getClassLoader().addReferences(-1);
+    return true;
+  }
+
+  /**
+   * Returns the paths of the sources in the catalog.
+   *
+   * @return Source paths, in alphabetical order.
+   */
+  public Set<String> getSources() {
+    return Collections.unmodifiableSet(new TreeSet<>(sources.keySet()));
+  }
+
+  /**
+   * Returns the names of the Plugin classes found in the specified source.
+   *
+   * @param sourcePath Path of the JAR file or package directory.
+   * @return Plugin class names, in alphabetical order.
+   */
+  public Set<String> getPluginClassNames(String sourcePath) {
+    return getSource(sourcePath).getPlugins().keySet().stream()
+        .map(Class::getName)
+        .collect(Collectors.toCollection(TreeSet::new));
+  }
+
+  /**
+   * Removes all sources from the catalog.
+   */
+  @Override
+  public synchronized void close() {
+    for (String sourcePath : new ArrayList<>(sources.keySet())) {
+      remove(sourcePath);
+    }
+  }
+
+  /**
+   * Returns the specified source.
+   *
+   * @param sourcePath Path of the JAR file or package directory.
+   * @return Source.
+   */
+  Source getSource(String sourcePath) {
+    Source source = sources.get(new File(sourcePath).getAbsolutePath());
+    if (source == null) {
+      throw new IllegalArgumentException(
+          String.format("Source is not in the catalog [%s].", sourcePath));
+    }
+    return source;
+  }
+
+  /**
+   * Returns true if the specified source is in the catalog, and has not changed since it was
+   * scanned.
+   *
+   * @param path Absolute path of the JAR file or package directory.
+   * @return True if the source is unchanged, false otherwise.
+   */
+  private boolean isUnchanged(String path) {
+    Source source = sources.get(path);
+    return source != null && source.getPluginSource().isUnchanged();
+  }
+
+  /**
+   * Adds a scanned source to the catalog, replacing (and releasing) a previous scan of it.
+   *
+   * @param source Scanned source.
+   */
+  private void putSource(Source source) {
+    source.getClassLoader().addReferences(1);
+    Source replaced = sources.put(source.getPath(), source);
+    if (replaced != null) {
+      replaced.getClassLoader().addReferences(-1);
+    }
+  }
+
+  /**
+   * Loads the specified classes, and reads the metadata of the Plugins among them. Plugins that do
+   * not declare their metadata are instantiated once to read it.
+   *
+   * @param classLoader Class loader of the source.
+   * @param classNames Names of the classes found in the source.
+   * @param pluginDescriptors Plugin metadata declared in the source's manifest, by class name.
+   * @return Plugin metadata, by Plugin class.
+   */
+  private static Map<Class<? extends Pluggable>, PluginDescriptor> loadPlugins(
+      PluginClassLoader classLoader,
+      List<String> classNames,
+      Map<String, PluginDescriptor> pluginDescriptors) {
+    try {
+      Map<Class<? extends Pluggable>, PluginDescriptor> plugins = new LinkedHashMap<>();
+      for (String className : classNames) {
+        Class<?> clazz;
+        try {
+          clazz = classLoader.loadClass(className);
+        } catch (ClassNotFoundException e) {
+          throw new PluginRegistrationException(className, e);
+        }
+
+        if (PluginInterfaceMatcher.isValidPlugin(clazz)) {
+          @SuppressWarnings("unchecked")
+          Class<? extends Pluggable> pluggableClass = (Class<? extends Pluggable>) clazz;
+
+          // Metadata declared in the manifest takes precedence over the annotation.
+          PluginDescriptor pluginDescriptor = pluginDescriptors.containsKey(className)
+              ? pluginDescriptors.get(className)
+              : PluginDescriptor.fromAnnotation(pluggableClass);
+          if (pluginDescriptor == null) {
+            PluginEntry pluginEntry = new PluginEntry(pluggableClass, null);
+            pluginDescriptor = new PluginDescriptor(
+                pluginEntry.getPluginName(),
+                pluginEntry.getPluginVersion(),
+                pluginEntry.getInstanceScope(),
+                pluginEntry.getPluginAttributes());
+          }
+          plugins.put(pluggableClass, pluginDescriptor);
+        }
+      }
+      return Collections.unmodifiableMap(plugins);
+    } catch (RuntimeException | Error e) {
+      // The source is not added to the catalog, so the class loader is no longer needed.
+      classLoader.retireIfUnreferenced();
+      throw e;
+    }
+  }
+
+  /**
+   * JAR file or package directory scanned by the catalog.
+   */
+  static final class Source {
+
+    private final PluginSource pluginSource;
+    private final PluginClassLoader classLoader;
+    private final Map<Class<? extends Pluggable>, PluginDescriptor> plugins;
+
+    /**
+     * Constructor.
+     *
+     * @param pluginSource Scanned JAR file or package directory, with a hash of its content.
+     * @param classLoader Class loader of the source.
+     * @param plugins Plugin metadata, by Plugin class.
+     */
+    private Source(
+        PluginSource pluginSource,
+        PluginClassLoader classLoader,
+        Map<Class<? extends Pluggable>, PluginDescriptor> plugins) {
+      this.pluginSource = pluginSource;
+      this.classLoader = classLoader;
+      this.plugins = plugins;
+    }
+
+    String getPath() {
+      return pluginSource.getPath();
+    }
+
+    PluginSource getPluginSource() {
+      return pluginSource;
+    }
+
+    PluginClassLoader getClassLoader() {
+      return classLoader;
+    }
+
+    Map<Class<? extends Pluggable>, PluginDescriptor> getPlugins() {
+      return plugins;
+    }
+  }
+}
@@ -0,0 +1,184 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Class loader of the Plugins scanned from a single JAR file or package directory.
+ * <p>
+ * The Plugin Registry counts the Plugin Entries whose Plugin class was loaded by each of these
+ * class loaders. Once none is registered anymore (i.e. every Plugin loaded from the source was
+ * unregistered or replaced), the class loader is retired: it is closed, releasing its open JAR
+ * file, as soon as the leases taken on its Plugins (see {@link PluginLease}) are closed, so that
+ * calls in flight are not cut off. The class loader and its classes can then be garbage collected
+ * (and their Metaspace reclaimed) as soon as the application drops its own references to the
+ * Plugins. Plugin instances still held by the application without a lease keep working, but can
+ * no longer load classes that they had not loaded yet.
+ * <p>
+ * Taking and closing leases never locks: the lease count is updated atomically, and is set to -1
+ * when the class loader is closed, so that no lease can be taken afterwards.
+ * <p>
+ * A class loader shared through a {@link PluginCatalog} is counted by every Plugin Registry that
+ * registers its Plugins, and holds one more reference for the catalog itself.
+ */
+final class PluginClassLoader extends URLClassLoader {
+
+  static {
+    registerAsParallelCapable();
+  }
+
+  private final String pluginSource;
+
+  // Reference count (guarded by this class loader).
+  private int referenceCount = 0;
+  private volatile boolean retired = false;
+
+  // Number of open leases, or -1 once the class loader is closed.
+  private final AtomicInteger leaseCount = new AtomicInteger();
+
+  /**
+   * Constructor.
+   *
+   * @param pluginSource Path to the JAR file or package directory.
+   * @param urls URLs to load classes from.
+   */
+  PluginClassLoader(String pluginSource, URL... urls) {
+    super(urls);
+    this.pluginSource = pluginSource;
+  }
+
+  /**
+   * Returns the class loader of the specified Plugin class, if it was loaded by a Plugin class
+   * loader.
+   *
+   * @param pluginClass Plugin class.
+   * @return Plugin class loader, or null.
+   */
+  static PluginClassLoader of(Class<?> pluginClass) {
+    ClassLoader classLoader = pluginClass.getClassLoader();
+    return (classLoader instanceof PluginClassLoader) ? (PluginClassLoader) classLoader : null;
+  }
+
+  /**
+   * Returns the path to the JAR file or package directory that this class loader loads from.
+   *
+   * @return Plugin source.
+   */
+  String getPluginSource() {
+    return pluginSource;
+  }
+
+  /**
+   * Returns the number of registered Plugin Entries whose Plugin class was loaded by this class
+   * loader.
+   *
+   * @return Reference count.
+   */
+  synchronized int getReferenceCount() {
+    return referenceCount;
+  }
+
+  /**
+   * Adds to the reference count, and retires this class loader once it drops to zero.
+   *
+   * @param delta Number of Plugin Entries registered (or, if negative, unregistered).
+   * @return True if this class loader was retired, false otherwise.
+   */
+  synchronized boolean addReferences(int delta) {
+    referenceCount += delta;
+    return retireIfUnreferenced();
+  }
+
+  /**
+   * Retires this class loader if no registered Plugin Entry references it, closing it once its
+   * leases are closed.
+   *
+   * @return True if this class loader was retired, false otherwise (including if it was already
+   *     retired).
+   */
+  synchronized boolean retireIfUnreferenced() {
+    if (referenceCount > 0) {
+      return false;
+    }
+
+    boolean wasRetired = retired;
+    retired = true;
+    closeIfDrained();
+    return !wasRetired;
+  }
+
+  /**
+   * Takes a lease on this class loader, which keeps it open until the lease is released.
+   *
+   * @return True if the lease was taken, false if this class loader is already closed.
+   */
+  boolean acquireLease() {
+    int count = leaseCount.get();
+    while (count >= 0) {
+      if (leaseCount.compareAndSet(count, count + 1)) {
+        return true;
+      }
+      count = leaseCount.get();
+    }
+    return false;
+  }
+
+  /**
+   * Releases a lease taken by {@link #acquireLease()}, closing this class loader if it is retired
+   * and this was its last lease.
+   */
+  void releaseLease() {
+    if (leaseCount.decrementAndGet() == 0 && retired) {
+      closeIfDrained();
+    }
+  }
+
+  /**
+   * Returns the number of open leases.
+   *
+   * @return Lease count.
+   */
+  int getLeaseCount() {
+    return Math.max(0, leaseCount.get());
+  }
+
+  /**
+   * Returns true if this class loader is retired (i.e. none of its Plugins is registered).
+   *
+   * @return True if retired, false otherwise.
+   */
+  boolean isRetired() {
+    return retired;
+  }
+
+  /**
+   * Returns true if this class loader was closed.
+   *
+   * @return True if closed, false otherwise.
+   */
+  boolean isClosed() {
+    return leaseCount.get() < 0;
+  }
+
+  /**
+   * Closes this class loader, unless a lease is open.
+   */
+  private void closeIfDrained() {
+    if (leaseCount.compareAndSet(0, -1)) {
+      try {
+        close();
+      } catch (IOException e) {
+        // The class loader is no longer used, so a failure to close its JAR file is ignored.
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format("PluginClassLoader [%s] (%d references, %d leases)",
+        pluginSource, getReferenceCount(), getLeaseCount());
+  }
+}
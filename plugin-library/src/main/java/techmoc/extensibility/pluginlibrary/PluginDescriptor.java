@@ -0,0 +1,203 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.util.Objects;
+import java.util.jar.Attributes;
+import techmoc.extensibility.polymorphicmap.PolymorphicMap;
+
+
+/**
+ * Plugin metadata (name, version, instance scope, and possibly attributes) that was declared
+ * without instantiating the Plugin, either by a {@link PluginMetadata} annotation or by the
+ * Plugin's entry in a JAR manifest, or that was restored from a saved registry snapshot (along
+ * with the Plugin's attributes).
+ */
+final class PluginDescriptor {
+
+  /**
+   * Manifest attribute holding the Plugin name.
+   */
+  static final Attributes.Name PLUGIN_NAME = new Attributes.Name("Plugin-Name");
+
+  /**
+   * Manifest attribute holding the Plugin version.
+   */
+  static final Attributes.Name PLUGIN_VERSION = new Attributes.Name("Plugin-Version");
+
+  /**
+   * Manifest attribute holding the Plugin instance scope.
+   */
+  static final Attributes.Name PLUGIN_INSTANCE_SCOPE = new Attributes.Name("Plugin-Instance-Scope");
+
+  /**
+   * Name, version and instance scope declared by the {@link PluginMetadata} annotation of each
+   * class (null for classes that are not annotated), read once per class.
+   */
+  private static final ClassValue<PluginDescriptor> DECLARED_METADATA = new ClassValue<>() {
+    @Override
+    protected PluginDescriptor computeValue(Class<?> type) {
+      PluginMetadata pluginMetadata = type.getAnnotation(PluginMetadata.class);
+      return (pluginMetadata == null) ? null : new PluginDescriptor(
+          pluginMetadata.name().isEmpty() ? type.getSimpleName() : pluginMetadata.name(),
+          PluginVersion.parse(pluginMetadata.version()),
+          pluginMetadata.scope());
+    }
+  };
+
+  private final String pluginName;
+  private final PluginVersion pluginVersion;
+  private final InstanceScope instanceScope;
+  private final PolymorphicMap pluginAttributes;
+
+  /**
+   * Constructor.
+   *
+   * @param pluginName Plugin name.
+   * @param pluginVersion Plugin version.
+   * @param instanceScope Plugin instance scope.
+   */
+  PluginDescriptor(String pluginName, PluginVersion pluginVersion, InstanceScope instanceScope) {
+    this(pluginName, pluginVersion, instanceScope, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param pluginName Plugin name.
+   * @param pluginVersion Plugin version.
+   * @param instanceScope Plugin instance scope.
+   * @param pluginAttributes Plugin attributes, or null to read them from an instance of the Plugin
+   *     when first needed.
+   */
+  PluginDescriptor(
+      String pluginName,
+      PluginVersion pluginVersion,
+      InstanceScope instanceScope,
+      PolymorphicMap pluginAttributes) {
+    this.pluginName = Objects.requireNonNull(pluginName);
+    this.pluginVersion = Objects.requireNonNull(pluginVersion);
+    this.instanceScope = Objects.requireNonNull(instanceScope);
+    this.pluginAttributes = pluginAttributes;
+  }
+
+  /**
+   * Returns the descriptor declared by the {@link PluginMetadata} annotation of the Plugin class.
+   * Reading the annotation does not initialize the Plugin class.
+   *
+   * @param pluginClass Plugin class.
+   * @return Plugin descriptor, or null if the Plugin class is not annotated.
+   */
+  static PluginDescriptor fromAnnotation(Class<?> pluginClass) {
+    PluginMetadata pluginMetadata = pluginClass.getAnnotation(PluginMetadata.class);
+    if (pluginMetadata == null) {
+      return null;
+    }
+
+    // Attributes are only declared if at least one is listed.
+    PolymorphicMap pluginAttributes = null;
+    if (pluginMetadata.attributes().length > 0) {
+      pluginAttributes = new PolymorphicMap();
+      for (String attribute : pluginMetadata.attributes()) {
+        int separator = attribute.indexOf('=');
+        if (separator < 1) {
+          throw new IllegalArgumentException(String.format(
+              "Invalid Plugin attribute [%s] declared by [%s].",
+              attribute, pluginClass.getCanonicalName()));
+        }
+        pluginAttributes.put(
+            attribute.substring(0, separator).trim(), attribute.substring(separator + 1).trim());
+      }
+    }
+
+    PluginDescriptor declaredMetadata = getDeclaredMetadata(pluginClass);
+    return new PluginDescriptor(
+        declaredMetadata.pluginName,
+        declaredMetadata.pluginVersion,
+        declaredMetadata.instanceScope,
+        pluginAttributes);
+  }
+
+  /**
+   * Returns the name, version and instance scope declared by the {@link PluginMetadata}
+   * annotation of the Plugin class, without its attributes. The annotation is only read once per
+   * class, so that the default methods of {@link Pluggable} can call this on every call.
+   *
+   * @param pluginClass Plugin class.
+   * @return Plugin descriptor without attributes, or null if the Plugin class is not annotated.
+   */
+  static PluginDescriptor getDeclaredMetadata(Class<?> pluginClass) {
+    return DECLARED_METADATA.get(pluginClass);
+  }
+
+  /**
+   * Returns the descriptor declared by the manifest entry of the Plugin class, e.g.:
+   * <pre>
+   * Name: com/example/Husky.class
+   * Plugin-Name: Husky
+   * Plugin-Version: 1.2.0
+   * Plugin-Instance-Scope: SINGLETON
+   * </pre>
+   * Only the "Plugin-Version" attribute is required.
+   *
+   * @param pluginClassName Fully qualified name of the Plugin class.
+   * @param manifestAttributes Attributes of the manifest entry of the Plugin's class file.
+   * @return Plugin descriptor, or null if the manifest entry does not declare a Plugin version.
+   */
+  static PluginDescriptor fromManifest(String pluginClassName, Attributes manifestAttributes) {
+    if (manifestAttributes == null || manifestAttributes.getValue(PLUGIN_VERSION) == null) {
+      return null;
+    }
+
+    String pluginName = manifestAttributes.getValue(PLUGIN_NAME);
+    String instanceScope = manifestAttributes.getValue(PLUGIN_INSTANCE_SCOPE);
+
+    try {
+      return new PluginDescriptor(
+          (pluginName == null || pluginName.isBlank())
+              ? pluginClassName.substring(pluginClassName.lastIndexOf('.') + 1)
+              : pluginName.trim(),
+          PluginVersion.parse(manifestAttributes.getValue(PLUGIN_VERSION)),
+          (instanceScope == null)
+              ? InstanceScope.PROTOTYPE
+              : InstanceScope.valueOf(instanceScope.trim()));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(String.format(
+          "Invalid Plugin metadata in the manifest entry of [%s].", pluginClassName), e);
+    }
+  }
+
+  /**
+   * Returns the Plugin name.
+   *
+   * @return Plugin name.
+   */
+  String getPluginName() {
+    return pluginName;
+  }
+
+  /**
+   * Returns the Plugin version.
+   *
+   * @return Plugin version.
+   */
+  PluginVersion getPluginVersion() {
+    return pluginVersion;
+  }
+
+  /**
+   * Returns the Plugin instance scope.
+   *
+   * @return Instance scope.
+   */
+  InstanceScope getInstanceScope() {
+    return instanceScope;
+  }
+
+  /**
+   * Returns the Plugin attributes.
+   *
+   * @return Plugin attributes, or null if they were not declared.
+   */
+  PolymorphicMap getPluginAttributes() {
+    return pluginAttributes;
+  }
+}
@@ -1,6 +1,9 @@
 package techmoc.extensibility.pluginlibrary;
 
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import techmoc.extensibility.polymorphicmap.PolymorphicMap;
 
 
@@ -12,28 +15,168 @@ class PluginEntry implements Comparable<PluginEntry> {
   private final Class<? extends Pluggable> pluggableClass;
   private final String pluginName;
   private final PluginVersion pluginVersion;
-  private final PolymorphicMap pluginAttributes;
+  private final InstanceScope instanceScope;
+  private final Supplier<Pluggable> pluginFactory;
+  private final PluginInstanceProvider instanceProvider;
+  private final CallStatistics callStatistics;
+  private final String pluginSource;
+  private final RegistryMetrics metrics;
 
   /**
-   * Constructor.
+   * Instrumentation of the Plugin per registered Plugin Interface (see {@link
+   * #getPluginAsInterface(Class)}), shared with the copies of this Plugin Entry.
+   */
+  private final Map<Class<? extends Pluggable>, Instrumentation> instrumentations;
+
+  /**
+   * Recorders of the calls made to a Plugin through a Plugin Interface, and the wrapper of the
+   * Plugin's singleton (so that every lookup of a singleton returns the same wrapper).
+   */
+  private static final class Instrumentation {
+
+    private final MethodMetrics[] recorders;
+    private volatile InstrumentedSingleton instrumentedSingleton;
+
+    Instrumentation(MethodMetrics[] recorders) {
+      this.recorders = recorders;
+    }
+  }
+
+  /**
+   * Singleton instance of a Plugin, and its wrapper.
+   */
+  private static final class InstrumentedSingleton {
+
+    private final Pluggable instance;
+    private final Pluggable wrapper;
+
+    InstrumentedSingleton(Pluggable instance, Pluggable wrapper) {
+      this.instance = instance;
+      this.wrapper = wrapper;
+    }
+  }
+
+  /**
+   * Plugin attributes, or null until first needed (for Plugins registered from declared metadata).
+   */
+  private volatile PolymorphicMap pluginAttributes;
+
+  /**
+   * Constructor. Plugins that declare their metadata with a {@link PluginMetadata} annotation are
+   * not instantiated; other Plugins are instantiated once to read their metadata and attributes.
    *
    * @param pluggableClass Plugin class.
    */
   public PluginEntry(Class<? extends Pluggable> pluggableClass) {
+    this(pluggableClass, PluginDescriptor.fromAnnotation(Objects.requireNonNull(pluggableClass)));
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param pluggableClass Plugin class.
+   * @param pluginDescriptor Declared Plugin metadata, or null to instantiate the Plugin once to
+   *     read its metadata and attributes.
+   */
+  PluginEntry(Class<? extends Pluggable> pluggableClass, PluginDescriptor pluginDescriptor) {
+    this(pluggableClass, pluginDescriptor, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param pluggableClass Plugin class.
+   * @param pluginDescriptor Declared Plugin metadata, or null to instantiate the Plugin once to
+   *     read its metadata and attributes.
+   * @param pluginSource Path to the JAR file or package directory that the Plugin was scanned
+   *     from, or null if the Plugin was registered directly.
+   */
+  PluginEntry(
+      Class<? extends Pluggable> pluggableClass,
+      PluginDescriptor pluginDescriptor,
+      String pluginSource) {
+    this(pluggableClass, pluginDescriptor, pluginSource, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param pluggableClass Plugin class.
+   * @param pluginDescriptor Declared Plugin metadata, or null to instantiate the Plugin once to
+   *     read its metadata and attributes.
+   * @param pluginSource Path to the JAR file or package directory that the Plugin was scanned
+   *     from, or null if the Plugin was registered directly.
+   * @param metrics Metrics of the registry that the Plugin is registered in, or null to record no
+   *     metrics.
+   */
+  PluginEntry(
+      Class<? extends Pluggable> pluggableClass,
+      PluginDescriptor pluginDescriptor,
+      String pluginSource,
+      RegistryMetrics metrics) {
     Objects.requireNonNull(pluggableClass);
 
-    Pluggable pluggable = instantiatePluginAsPluggable(pluggableClass);
-    PolymorphicMap pluginAttributes = new PolymorphicMap();
-    pluggable.initializePluginAttributes(pluginAttributes);
+    // Instantiations are counted by the registry's metrics (if any).
+    Supplier<Pluggable> pluginFactory = (metrics == null)
+        ? PluginFactory.createLazily(pluggableClass)
+        : metrics.countInstantiations(pluggableClass, PluginFactory.createLazily(pluggableClass));
+
+    if (pluginDescriptor != null) {
+      // The Plugin is constructed on first use.
+      this.pluginName = pluginDescriptor.getPluginName();
+      this.pluginVersion = pluginDescriptor.getPluginVersion();
+      this.instanceScope = pluginDescriptor.getInstanceScope();
+      this.pluginAttributes = pluginDescriptor.getPluginAttributes();
+    } else {
+      Pluggable pluggable = instantiatePluginAsPluggable(pluggableClass, pluginFactory);
+      PolymorphicMap pluginAttributes = new PolymorphicMap();
+      pluggable.initializePluginAttributes(pluginAttributes);
 
-    Objects.requireNonNull(pluggable.getPluginName());
-    Objects.requireNonNull(pluggable.getPluginVersion());
-    Objects.requireNonNull(pluginAttributes);
+      Objects.requireNonNull(pluggable.getPluginName());
+      Objects.requireNonNull(pluggable.getPluginVersion());
+      Objects.requireNonNull(pluginAttributes);
+      Objects.requireNonNull(pluggable.getInstanceScope());
+
+      this.pluginName = pluggable.getPluginName();
+      this.pluginVersion = pluggable.getPluginVersion();
+      this.instanceScope = pluggable.getInstanceScope();
+      this.pluginAttributes = pluginAttributes;
+    }
 
     this.pluggableClass = pluggableClass;
-    this.pluginName = pluggable.getPluginName();
-    this.pluginVersion = pluggable.getPluginVersion();
+    this.pluginFactory = pluginFactory;
+    this.pluginSource = pluginSource;
+    this.metrics = metrics;
+    this.instrumentations = new ConcurrentHashMap<>();
+    this.instanceProvider = PluginInstanceProvider.create(
+        instanceScope, () -> instantiatePluginAsPluggable(pluggableClass, pluginFactory));
+    this.callStatistics = new CallStatistics();
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param pluginEntry Plugin Entry to copy the Plugin class, name, version and scope from.
+   * @param pluginAttributes Plugin attributes.
+   * @param instanceProvider Provider of the Plugin's instances.
+   * @param callStatistics Load of the Plugin's instances.
+   */
+  private PluginEntry(
+      PluginEntry pluginEntry,
+      PolymorphicMap pluginAttributes,
+      PluginInstanceProvider instanceProvider,
+      CallStatistics callStatistics) {
+    this.pluggableClass = pluginEntry.pluggableClass;
+    this.pluginName = pluginEntry.pluginName;
+    this.pluginVersion = pluginEntry.pluginVersion;
     this.pluginAttributes = pluginAttributes;
+    this.instanceScope = pluginEntry.instanceScope;
+    this.pluginFactory = pluginEntry.pluginFactory;
+    this.pluginSource = pluginEntry.pluginSource;
+    this.metrics = pluginEntry.metrics;
+    this.instrumentations = pluginEntry.instrumentations;
+    this.instanceProvider = instanceProvider;
+    this.callStatistics = callStatistics;
   }
 
   /**
@@ -64,22 +207,103 @@ class PluginEntry implements Comparable<PluginEntry> {
   }
 
   /**
-   * Returns an instantiated Plugin object, cast as the interface that it implements.
+   * Returns the instance scope of this plugin.
+   *
+   * @return Instance scope.
+   */
+  final InstanceScope getInstanceScope() {
+    return instanceScope;
+  }
+
+  /**
+   * Returns the path to the JAR file or package directory that the Plugin was scanned from.
+   *
+   * @return Plugin source, or null if the Plugin was registered directly.
+   */
+  final String getPluginSource() {
+    return pluginSource;
+  }
+
+  /**
+   * Returns the load of the Plugin's instances (calls in flight and their moving latency).
+   *
+   * @return Call statistics, shared with the copies of this Plugin Entry.
+   */
+  final CallStatistics getCallStatistics() {
+    return callStatistics;
+  }
+
+  /**
+   * Returns the Plugin attributes if they are already known, without instantiating the Plugin.
+   *
+   * @return Plugin attributes, or null.
+   */
+  final PolymorphicMap peekPluginAttributes() {
+    return pluginAttributes;
+  }
+
+  /**
+   * Returns a Plugin object (created or reused according to the Plugin's instance scope), cast as
+   * the interface that it implements.
    *
    * @param registeredPluginInterface Registered Plugin Interface class.
    * @return Instance of an instantiated Plugin, as a Pluggable.
    */
   final <T extends Pluggable> T getPluginAsInterface(Class<T> registeredPluginInterface) {
+    long startTime = (metrics == null) ? 0 : System.nanoTime();
+    T plugin;
     try {
-      @SuppressWarnings("unchecked")
-      T pluginInstance = (T) pluggableClass.getConstructor().newInstance();
-      return pluginInstance;
+      plugin = registeredPluginInterface.cast(instanceProvider.get());
+      if (metrics != null) {
+        metrics.recordPluginAsInterface(System.nanoTime() - startTime);
+      }
     } catch (Exception e) {
       throw new IllegalArgumentException(String.format(
           "Plugin [%s] either could not be instantiated, or could not be casted to [%s].",
           pluggableClass.getCanonicalName(),
           registeredPluginInterface.getCanonicalName()), e);
     }
+
+    // While instrumentation is enabled, the Plugin is wrapped to record the calls made to it.
+    return (metrics != null && metrics.isInstrumentationEnabled())
+        ? instrument(registeredPluginInterface, plugin)
+        : plugin;
+  }
+
+  /**
+   * Wraps a Plugin instance, so that the calls made to it through the specified Plugin Interface
+   * are recorded by the registry's metrics. The recorders are looked up once per Plugin Interface,
+   * and singletons are only wrapped once.
+   *
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @param plugin Plugin instance.
+   * @param <T> Registered Plugin Interface type.
+   * @return Instrumented Plugin.
+   */
+  private <T extends Pluggable> T instrument(Class<T> registeredPluginInterface, T plugin) {
+    Instrumentation instrumentation = instrumentations.get(registeredPluginInterface);
+    if (instrumentation == null) {
+      instrumentation = instrumentations.computeIfAbsent(registeredPluginInterface,
+          x -> new Instrumentation(metrics.getMethodMetrics(pluginName, pluginVersion, x)));
+    }
+    if (instanceScope != InstanceScope.SINGLETON) {
+      return PluginInstrumenter.instrument(
+          registeredPluginInterface, plugin, instrumentation.recorders);
+    }
+
+    // Copies of this Plugin Entry may return another singleton (see withInstancesOf).
+    InstrumentedSingleton instrumentedSingleton = instrumentation.instrumentedSingleton;
+    if (instrumentedSingleton == null || instrumentedSingleton.instance != plugin) {
+      synchronized (instrumentation) {
+        instrumentedSingleton = instrumentation.instrumentedSingleton;
+        if (instrumentedSingleton == null || instrumentedSingleton.instance != plugin) {
+          instrumentedSingleton = new InstrumentedSingleton(plugin, PluginInstrumenter.instrument(
+              registeredPluginInterface, plugin, instrumentation.recorders));
+          instrumentation.instrumentedSingleton = instrumentedSingleton;
+        }
+      }
+    }
+    return registeredPluginInterface.cast(instrumentedSingleton.wrapper);
   }
 
   /**
@@ -88,7 +312,17 @@ class PluginEntry implements Comparable<PluginEntry> {
    * @return Instance of an instantiated Plugin, as a Pluggable.
    */
   final Pluggable getPluginAsPluggable() {
-    return instantiatePluginAsPluggable(pluggableClass);
+    return instantiatePluginAsPluggable(pluggableClass, pluginFactory);
+  }
+
+  /**
+   * Returns a Plugin instance to this Plugin's pool (if the Plugin is POOLED).
+   *
+   * @param pluginInstance Plugin instance (instrumented or not), previously returned by this Plugin
+   *     Entry.
+   */
+  final void releasePluginInstance(Pluggable pluginInstance) {
+    instanceProvider.release(PluginInstrumenter.unwrap(pluginInstance));
   }
 
   /**
@@ -97,7 +331,59 @@ class PluginEntry implements Comparable<PluginEntry> {
    * @return Plugin attributes map.
    */
   final PolymorphicMap getPluginAttributes() {
-    return pluginAttributes;
+    PolymorphicMap result = pluginAttributes;
+    if (result == null) {
+      synchronized (this) {
+        result = pluginAttributes;
+        if (result == null) {
+          result = new PolymorphicMap();
+          instantiatePluginAsPluggable(pluggableClass, pluginFactory)
+              .initializePluginAttributes(result);
+          pluginAttributes = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns a copy of the Plugin Attributes map.
+   *
+   * @return Copy of the plugin attributes map.
+   */
+  final PolymorphicMap copyPluginAttributes() {
+    PolymorphicMap copy = new PolymorphicMap();
+    copy.putAll(getPluginAttributes());
+    return copy;
+  }
+
+  /**
+   * Returns a copy of this Plugin Entry, with the specified Plugin Attributes map.
+   *
+   * @param pluginAttributes Plugin attributes map.
+   * @return Plugin Entry.
+   */
+  final PluginEntry withPluginAttributes(PolymorphicMap pluginAttributes) {
+    return new PluginEntry(
+        this, Objects.requireNonNull(pluginAttributes), instanceProvider, callStatistics);
+  }
+
+  /**
+   * Returns a copy of this Plugin Entry, which shares its Plugin instances (e.g. its singleton or
+   * its pool), and their call statistics, with the specified Plugin Entry of the same Plugin
+   * class.
+   *
+   * @param pluginEntry Plugin Entry of the same Plugin class.
+   * @return Plugin Entry.
+   */
+  final PluginEntry withInstancesOf(PluginEntry pluginEntry) {
+    if (!pluggableClass.equals(pluginEntry.pluggableClass)) {
+      throw new IllegalArgumentException(String.format(
+          "Plugin Entries do not share the same Plugin class [%s, %s].",
+          pluggableClass.getName(), pluginEntry.pluggableClass.getName()));
+    }
+    return new PluginEntry(
+        this, pluginAttributes, pluginEntry.instanceProvider, pluginEntry.callStatistics);
   }
 
   @Override
@@ -127,14 +413,25 @@ class PluginEntry implements Comparable<PluginEntry> {
   }
 
   /**
-   * Returns an instantiated Plugin object, cast as a Pluggable.
+   * Returns an instantiated Plugin object, cast as a Pluggable. Slow instantiations are recorded
+   * as Java Flight Recorder events (see {@link FlightRecorderEvents.PluginInstantiated}).
    *
    * @param pluginClazz The Plugin class object.
+   * @param pluginFactory Factory of the Plugin class.
    * @return Instance of an instantiated Plugin, as a Pluggable.
    */
-  private Pluggable instantiatePluginAsPluggable(Class<? extends Pluggable> pluginClazz) {
+  private static Pluggable instantiatePluginAsPluggable(
+      Class<? extends Pluggable> pluginClazz,
+      Supplier<Pluggable> pluginFactory) {
+    FlightRecorderEvents.PluginInstantiated event = new FlightRecorderEvents.PluginInstantiated();
+    event.begin();
     try {
-      return pluginClazz.getConstructor().newInstance();
+      Pluggable pluggable = pluginFactory.get();
+      if (event.shouldCommit()) {
+        event.pluginClass = pluginClazz;
+        event.commit();
+      }
+      return pluggable;
     } catch (Exception e) {
       throw new IllegalArgumentException(String.format(
           "Plugin [%s] could not be instantiated.", pluginClazz.getName()), e);
@@ -0,0 +1,197 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Plugin Entries of a batch of Plugins (e.g. the Plugins found by a scan) that are instantiated
+ * once to read their metadata and attributes: the Plugins without declared metadata, and the
+ * Plugins whose attributes are about to be indexed, but were not declared.
+ * <p>
+ * The Plugins are instantiated in parallel, up to {@code parallelism} at once. A Plugin whose
+ * instantiation takes longer than the timeout is interrupted and given up on, so that a Plugin
+ * with a slow or blocking constructor does not stall the rest of the batch. A Plugin's timeout
+ * starts once its instantiation is submitted: if the executor's threads are all stuck in Plugins
+ * that ignored the interruption, the instantiations waiting for a thread time out as well.
+ */
+final class PluginEntryBatch {
+
+  private final Map<Class<? extends Pluggable>, PluginEntry> pluginEntries = new HashMap<>();
+  private final Set<Class<? extends Pluggable>> timedOutPlugins = new HashSet<>();
+
+  /**
+   * Instantiation of a Plugin that is running.
+   */
+  private static final class Task {
+
+    private final Class<? extends Pluggable> plugin;
+    private final long deadline;
+
+    Task(Class<? extends Pluggable> plugin, long deadline) {
+      this.plugin = plugin;
+      this.deadline = deadline;
+    }
+  }
+
+  private PluginEntryBatch() {
+  }
+
+  /**
+   * Returns an empty batch.
+   *
+   * @return Batch without Plugin Entries.
+   */
+  static PluginEntryBatch empty() {
+    return new PluginEntryBatch();
+  }
+
+  /**
+   * Creates the Plugin Entries of the specified Plugins, and returns once every Plugin was
+   * either instantiated or timed out.
+   *
+   * @param pluginDescriptors Declared Plugin metadata (or null), keyed by Plugin class.
+   * @param pluginSource Path to the JAR file or package directory that the Plugins were scanned
+   *     from, or null if the Plugins are registered directly.
+   * @param metrics Metrics of the registry that the Plugins are registered in.
+   * @param executor Executor to instantiate the Plugins on.
+   * @param parallelism Maximum number of Plugins instantiated at once.
+   * @param timeoutNanos Maximum duration of a Plugin's instantiation, in nanoseconds.
+   * @return Batch of Plugin Entries.
+   * @throws RuntimeException If a Plugin could not be instantiated (other Plugins are then
+   *     interrupted).
+   */
+  static PluginEntryBatch create(
+      Map<Class<? extends Pluggable>, PluginDescriptor> pluginDescriptors,
+      String pluginSource,
+      RegistryMetrics metrics,
+      Executor executor,
+      int parallelism,
+      long timeoutNanos) {
+
+    // Validate input.
+    if (parallelism < 1) {
+      throw new IllegalArgumentException(
+          String.format("Parallelism must be positive [%d].", parallelism));
+    } else if (timeoutNanos <= 0) {
+      throw new IllegalArgumentException(
+          String.format("Timeout must be positive [%d ns].", timeoutNanos));
+    }
+
+    PluginEntryBatch batch = new PluginEntryBatch();
+    CompletionService<PluginEntry> completionService = new ExecutorCompletionService<>(executor);
+    Iterator<Map.Entry<Class<? extends Pluggable>, PluginDescriptor>> pendingPlugins =
+        pluginDescriptors.entrySet().iterator();
+    Map<Future<PluginEntry>, Task> runningTasks = new HashMap<>();
+
+    try {
+      while (pendingPlugins.hasNext() || !runningTasks.isEmpty()) {
+
+        // Start instantiating Plugins, up to the parallelism.
+        while (runningTasks.size() < parallelism && pendingPlugins.hasNext()) {
+          Map.Entry<Class<? extends Pluggable>, PluginDescriptor> pendingPlugin =
+              pendingPlugins.next();
+          Class<? extends Pluggable> plugin = pendingPlugin.getKey();
+          Future<PluginEntry> future = completionService.submit(() -> {
+            PluginEntry pluginEntry =
+                new PluginEntry(plugin, pendingPlugin.getValue(), pluginSource, metrics);
+            pluginEntry.getPluginAttributes();
+            return pluginEntry;
+          });
+          runningTasks.put(future, new Task(plugin, System.nanoTime() + timeoutNanos));
+        }
+
+        // Wait for an instantiation to complete, or for the earliest deadline.
+        long earliestDeadline = runningTasks.values().stream()
+            .mapToLong(x -> x.deadline)
+            .reduce((x, y) -> (x - y < 0) ? x : y)
+            .getAsLong();
+        Future<PluginEntry> future = completionService.poll(
+            earliestDeadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+
+        if (future != null) {
+          // Instantiations interrupted on timeout complete as well.
+          Task task = runningTasks.remove(future);
+          if (task != null) {
+            batch.pluginEntries.put(task.plugin, getPluginEntry(task.plugin, future));
+          }
+        } else {
+          // Give up on the instantiations that timed out.
+          long now = System.nanoTime();
+          Iterator<Map.Entry<Future<PluginEntry>, Task>> iterator =
+              runningTasks.entrySet().iterator();
+          while (iterator.hasNext()) {
+            Map.Entry<Future<PluginEntry>, Task> runningTask = iterator.next();
+            if (now - runningTask.getValue().deadline >= 0) {
+              runningTask.getKey().cancel(true);
+              batch.timedOutPlugins.add(runningTask.getValue().plugin);
+              iterator.remove();
+            }
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new PluginLibraryException(
+          "Interrupted while instantiating Plugins to read their metadata.", e);
+    } finally {
+      // Interrupt the instantiations still running after a failure.
+      runningTasks.keySet().forEach(x -> x.cancel(true));
+    }
+
+    return batch;
+  }
+
+  /**
+   * Returns the Plugin Entry created by a completed instantiation.
+   *
+   * @param plugin Plugin class.
+   * @param future Completed instantiation.
+   * @return Plugin Entry.
+   */
+  private static PluginEntry getPluginEntry(
+      Class<? extends Pluggable> plugin,
+      Future<PluginEntry> future) throws InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      // Rethrow the exception thrown by the Plugin, as if it was instantiated on this thread.
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new PluginRegistrationException(plugin.getName(), cause);
+    }
+  }
+
+  /**
+   * Returns the Plugin Entry of the specified Plugin.
+   *
+   * @param plugin Plugin class.
+   * @return Plugin Entry, or null if the Plugin is not part of the batch, or timed out.
+   */
+  PluginEntry get(Class<? extends Pluggable> plugin) {
+    return pluginEntries.get(plugin);
+  }
+
+  /**
+   * Returns true if the instantiation of the specified Plugin timed out.
+   *
+   * @param plugin Plugin class.
+   * @return True if timed out, false otherwise.
+   */
+  boolean isTimedOut(Class<? extends Pluggable> plugin) {
+    return timedOutPlugins.contains(plugin);
+  }
+}
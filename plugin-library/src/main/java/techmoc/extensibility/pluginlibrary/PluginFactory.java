@@ -0,0 +1,218 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+
+/**
+ * Creates the factories used to instantiate Plugins.
+ * <p>
+ * A factory is generated once per Plugin class with {@link LambdaMetafactory}, so that each
+ * instantiation costs about as much as a plain {@code new}. Plugins that a lambda cannot be
+ * generated for (e.g. Plugins loaded by another class loader) get a factory that invokes a method
+ * handle of their constructor instead. Only if the constructor is not accessible to method handles
+ * is a factory that calls the Plugin's {@link Constructor} reflectively returned.
+ */
+final class PluginFactory {
+
+  /**
+   * Private constructor, to prevent instantiation.
+   */
+  private PluginFactory() {
+  }
+
+  /**
+   * Returns a factory that creates new instances of the specified Plugin class, using the Plugin's
+   * public no-argument constructor.
+   * <p>
+   * Exceptions thrown by the Plugin's constructor are propagated by the factory, unwrapped.
+   * Plugins without a public no-argument constructor get a factory that fails on every call.
+   *
+   * @param pluginClass Plugin class.
+   * @return Plugin factory.
+   */
+  static Supplier<Pluggable> create(Class<? extends Pluggable> pluginClass) {
+    Objects.requireNonNull(pluginClass);
+
+    Constructor<? extends Pluggable> constructor;
+    try {
+      constructor = pluginClass.getConstructor();
+    } catch (NoSuchMethodException e) {
+      return () -> {
+        throw new IllegalArgumentException(String.format(
+            "Plugin [%s] does not have a public no-argument constructor.",
+            pluginClass.getName()), e);
+      };
+    }
+
+    Supplier<Pluggable> generatedFactory = generateFactory(pluginClass, constructor);
+    return (generatedFactory != null) ? generatedFactory : reflectiveFactory(constructor);
+  }
+
+  /**
+   * Returns a factory that creates new instances of the specified Plugin class, like {@link
+   * #create(Class)}, but which only looks up the Plugin's constructor and generates the factory on
+   * its first call.
+   *
+   * @param pluginClass Plugin class.
+   * @return Plugin factory.
+   */
+  static Supplier<Pluggable> createLazily(Class<? extends Pluggable> pluginClass) {
+    Objects.requireNonNull(pluginClass);
+
+    return new Supplier<>() {
+      private volatile Supplier<Pluggable> factory;
+
+      @Override
+      public Pluggable get() {
+        Supplier<Pluggable> result = factory;
+        if (result == null) {
+          // Racing threads may both create the factory; either one may be kept.
+          result = create(pluginClass);
+          factory = result;
+        }
+        return result.get();
+      }
+    };
+  }
+
+  /**
+   * Generates a factory that invokes the specified constructor directly.
+   * <p>
+   * A lambda is generated in the Plugin class when the Plugin Factory can gain full privilege
+   * access to it, which is what {@link LambdaMetafactory} requires (on Java 15 and later, it cannot
+   * for Plugins loaded by another class loader, e.g. scanned Plugins). Otherwise, the factory
+   * invokes a method handle of the constructor.
+   *
+   * @param pluginClass Plugin class.
+   * @param constructor Public no-argument constructor of the Plugin class.
+   * @return Plugin factory, or null if the constructor is not accessible to method handles.
+   */
+  @SuppressWarnings("unchecked")
+  private static Supplier<Pluggable> generateFactory(
+      Class<? extends Pluggable> pluginClass,
+      Constructor<? extends Pluggable> constructor) {
+
+    // Abstract classes (and interfaces) cannot be instantiated; leave the error to reflection.
+    if (Modifier.isAbstract(pluginClass.getModifiers())) {
+      return null;
+    }
+
+    // The lookup is made in the Plugin class itself, so that Plugins that are not public can be
+    // linked. Classes of named modules that are not open to this library only get public access.
+    MethodHandles.Lookup lookup;
+    try {
+      lookup = MethodHandles.privateLookupIn(pluginClass, MethodHandles.lookup());
+    } catch (IllegalAccessException e) {
+      lookup = MethodHandles.publicLookup();
+    }
+
+    MethodHandle constructorHandle;
+    try {
+      constructorHandle = lookup.unreflectConstructor(constructor);
+    } catch (IllegalAccessException e) {
+      return null;
+    }
+
+    try {
+      CallSite callSite = LambdaMetafactory.metafactory(
+          lookup,
+          "get",
+          MethodType.methodType(Supplier.class),
+          MethodType.methodType(Object.class),
+          constructorHandle,
+          MethodType.methodType(pluginClass));
+
+      return (Supplier<Pluggable>) callSite.getTarget().invoke();
+    } catch (LambdaConversionException e) {
+      // The lookup does not have full privilege access to the Plugin class.
+      return new MethodHandleFactory(pluginClass, constructorHandle);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new IllegalStateException(String.format(
+          "Factory of Plugin [%s] could not be generated.", pluginClass.getName()), t);
+    }
+  }
+
+  /**
+   * Returns a factory that invokes the specified constructor reflectively.
+   *
+   * @param constructor Public no-argument constructor of the Plugin class.
+   * @return Plugin factory.
+   */
+  private static Supplier<Pluggable> reflectiveFactory(
+      Constructor<? extends Pluggable> constructor) {
+    return new ReflectiveFactory(constructor);
+  }
+
+  /**
+   * Factory that invokes a method handle of a Plugin's constructor.
+   */
+  static final class MethodHandleFactory implements Supplier<Pluggable> {
+
+    private final Class<? extends Pluggable> pluginClass;
+    private final MethodHandle constructorHandle;
+
+    /**
+     * Constructor.
+     *
+     * @param pluginClass Plugin class.
+     * @param constructorHandle Method handle of the Plugin's no-argument constructor.
+     */
+    MethodHandleFactory(Class<? extends Pluggable> pluginClass, MethodHandle constructorHandle) {
+      this.pluginClass = pluginClass;
+      this.constructorHandle =
+          constructorHandle.asType(MethodType.methodType(Pluggable.class));
+    }
+
+    @Override
+    public Pluggable get() {
+      try {
+        return (Pluggable) constructorHandle.invokeExact();
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable t) {
+        // Checked exceptions thrown by the constructor, which a plain new would propagate.
+        throw new IllegalArgumentException(String.format(
+            "Plugin [%s] could not be instantiated.", pluginClass.getName()), t);
+      }
+    }
+  }
+
+  /**
+   * Factory that invokes a Plugin's constructor reflectively.
+   */
+  static final class ReflectiveFactory implements Supplier<Pluggable> {
+
+    private final Constructor<? extends Pluggable> constructor;
+
+    /**
+     * Constructor.
+     *
+     * @param constructor Public no-argument constructor of the Plugin class.
+     */
+    ReflectiveFactory(Constructor<? extends Pluggable> constructor) {
+      this.constructor = constructor;
+    }
+
+    @Override
+    public Pluggable get() {
+      try {
+        return constructor.newInstance();
+      } catch (Exception e) {
+        throw new IllegalArgumentException(String.format(
+            "Plugin [%s] could not be instantiated.", constructor.getDeclaringClass().getName()),
+            e);
+      }
+    }
+  }
+}
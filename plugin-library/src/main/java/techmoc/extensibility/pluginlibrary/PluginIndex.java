@@ -0,0 +1,402 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Container for the Plugin Entries registered under a single Plugin Interface, indexed by Plugin
+ * name and Plugin version, and by any attributes that have been declared as indexed.
+ * <p>
+ * A Plugin Index is not thread safe. Once it has been published as part of a {@link
+ * RegistrySnapshot} it is never modified again; changes are made to a copy instead.
+ */
+final class PluginIndex implements Iterable<PluginEntry> {
+
+  // All Plugin Entries, in registry order.
+  private final TreeSet<PluginEntry> pluginEntries = new TreeSet<>();
+
+  // Plugin Entries keyed by Plugin name, and then by Plugin version.
+  private final Map<String, NavigableMap<PluginVersion, PluginEntry>> pluginEntriesByName =
+      new HashMap<>();
+
+  // Plugin Entries keyed by the name of the Plugin class.
+  private final Map<String, PluginEntry> pluginEntriesByClassName = new HashMap<>();
+
+  // Attribute indexes keyed by attribute name.
+  private final Map<String, AttributeIndex> attributeIndexes = new HashMap<>();
+
+  // All Plugin Entries as an array, in registry order (created on demand, for spliterators).
+  private volatile PluginEntry[] pluginEntryArray = null;
+
+  // Number of Plugins selected from this index (for round-robin selection, not part of its state,
+  // and shared with its copies so that round-robin selection carries on across registry changes).
+  private final AtomicInteger selectionCounter;
+
+  /**
+   * Constructor.
+   */
+  PluginIndex() {
+    selectionCounter = new AtomicInteger();
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param selectionCounter Selection counter.
+   */
+  private PluginIndex(AtomicInteger selectionCounter) {
+    this.selectionCounter = selectionCounter;
+  }
+
+  /**
+   * Copy constructor (the copy shares the selection counter of the original).
+   *
+   * @param other Plugin Index to copy.
+   */
+  PluginIndex(PluginIndex other) {
+    selectionCounter = other.selectionCounter;
+    pluginEntries.addAll(other.pluginEntries);
+    for (Map.Entry<String, NavigableMap<PluginVersion, PluginEntry>> entry
+        : other.pluginEntriesByName.entrySet()) {
+      pluginEntriesByName.put(entry.getKey(), new TreeMap<>(entry.getValue()));
+    }
+    pluginEntriesByClassName.putAll(other.pluginEntriesByClassName);
+    for (AttributeIndex attributeIndex : other.attributeIndexes.values()) {
+      attributeIndexes.put(attributeIndex.getAttributeName(), new AttributeIndex(attributeIndex));
+    }
+  }
+
+  /**
+   * Returns an empty Plugin Index, with the same attribute indexes declared as this one.
+   *
+   * @return Empty Plugin Index.
+   */
+  PluginIndex emptyCopy() {
+    PluginIndex pluginIndex = new PluginIndex(selectionCounter);
+    for (AttributeIndex attributeIndex : attributeIndexes.values()) {
+      pluginIndex.attributeIndexes.put(attributeIndex.getAttributeName(), new AttributeIndex(
+          attributeIndex.getAttributeName(), attributeIndex.getAttributeIndexType()));
+    }
+    return pluginIndex;
+  }
+
+  /**
+   * Adds the specified Plugin Entry to the index.
+   *
+   * @param pluginEntry Plugin Entry.
+   * @return True if the Plugin Entry was added, false if its name and version already exist.
+   */
+  boolean add(PluginEntry pluginEntry) {
+    if (!pluginEntries.add(pluginEntry)) {
+      return false;
+    }
+    pluginEntryArray = null;
+
+    pluginEntriesByName
+        .computeIfAbsent(pluginEntry.getPluginName(), x -> new TreeMap<>())
+        .put(pluginEntry.getPluginVersion(), pluginEntry);
+    pluginEntriesByClassName.put(pluginEntry.getPluginClass().getName(), pluginEntry);
+    for (AttributeIndex attributeIndex : attributeIndexes.values()) {
+      attributeIndex.add(pluginEntry);
+    }
+    return true;
+  }
+
+  /**
+   * Removes the specified Plugin Entry from the index.
+   *
+   * @param pluginEntry Plugin Entry.
+   * @return True if the Plugin Entry was removed, false if it was not found.
+   */
+  boolean remove(PluginEntry pluginEntry) {
+    // The indexed entry may differ from the specified one (e.g. in its attributes).
+    PluginEntry indexedPluginEntry =
+        get(pluginEntry.getPluginName(), pluginEntry.getPluginVersion());
+    if (!pluginEntries.remove(pluginEntry)) {
+      return false;
+    }
+    pluginEntryArray = null;
+    for (AttributeIndex attributeIndex : attributeIndexes.values()) {
+      attributeIndex.remove(indexedPluginEntry);
+    }
+
+    NavigableMap<PluginVersion, PluginEntry> versions =
+        pluginEntriesByName.get(pluginEntry.getPluginName());
+    versions.remove(pluginEntry.getPluginVersion());
+    if (versions.isEmpty()) {
+      pluginEntriesByName.remove(pluginEntry.getPluginName());
+    }
+    pluginEntriesByClassName.remove(pluginEntry.getPluginClass().getName());
+    return true;
+  }
+
+  /**
+   * Removes all Plugin Entries from the index.
+   */
+  void clear() {
+    pluginEntries.clear();
+    pluginEntryArray = null;
+    pluginEntriesByName.clear();
+    pluginEntriesByClassName.clear();
+    attributeIndexes.replaceAll((attributeName, attributeIndex) ->
+        new AttributeIndex(attributeName, attributeIndex.getAttributeIndexType()));
+  }
+
+  /**
+   * Declares an index over the specified attribute, and indexes all Plugin Entries. An existing
+   * index over the attribute is replaced if it is of a different type.
+   *
+   * @param attributeName Attribute name.
+   * @param attributeIndexType Index type.
+   * @return True if the index was created, false if an identical index already exists.
+   */
+  boolean createAttributeIndex(String attributeName, AttributeIndexType attributeIndexType) {
+    AttributeIndex attributeIndex = attributeIndexes.get(attributeName);
+    if (attributeIndex != null && attributeIndex.getAttributeIndexType() == attributeIndexType) {
+      return false;
+    }
+
+    attributeIndex = new AttributeIndex(attributeName, attributeIndexType);
+    for (PluginEntry pluginEntry : pluginEntries) {
+      attributeIndex.add(pluginEntry);
+    }
+    attributeIndexes.put(attributeName, attributeIndex);
+    return true;
+  }
+
+  /**
+   * Removes the index over the specified attribute.
+   *
+   * @param attributeName Attribute name.
+   * @return True if the index was removed, false if the attribute was not indexed.
+   */
+  boolean dropAttributeIndex(String attributeName) {
+    return attributeIndexes.remove(attributeName) != null;
+  }
+
+  /**
+   * Returns true if at least one attribute is indexed.
+   *
+   * @return True if attributes are indexed, false otherwise.
+   */
+  boolean hasAttributeIndexes() {
+    return !attributeIndexes.isEmpty();
+  }
+
+  /**
+   * Returns the index over the specified attribute, or null if the attribute is not indexed.
+   *
+   * @param attributeName Attribute name.
+   * @return Attribute Index, or null.
+   */
+  AttributeIndex getAttributeIndex(String attributeName) {
+    return attributeIndexes.get(attributeName);
+  }
+
+  /**
+   * Returns the indexed attributes, and the type of their indexes.
+   *
+   * @return Index type keyed by attribute name.
+   */
+  Map<String, AttributeIndexType> getAttributeIndexTypes() {
+    Map<String, AttributeIndexType> attributeIndexTypes = new HashMap<>();
+    for (AttributeIndex attributeIndex : attributeIndexes.values()) {
+      attributeIndexTypes.put(
+          attributeIndex.getAttributeName(), attributeIndex.getAttributeIndexType());
+    }
+    return attributeIndexTypes;
+  }
+
+  /**
+   * Returns the Plugin Entry with the specified name and version, or null if none exists.
+   *
+   * @param pluginName Plugin name.
+   * @param pluginVersion Plugin version.
+   * @return Plugin Entry, or null.
+   */
+  PluginEntry get(String pluginName, PluginVersion pluginVersion) {
+    NavigableMap<PluginVersion, PluginEntry> versions = pluginEntriesByName.get(pluginName);
+    return (versions == null) ? null : versions.get(pluginVersion);
+  }
+
+  /**
+   * Returns the latest version of the Plugin Entry with the specified name, or null if none
+   * exists.
+   *
+   * @param pluginName Plugin name.
+   * @return Plugin Entry, or null.
+   */
+  PluginEntry getLatestVersion(String pluginName) {
+    NavigableMap<PluginVersion, PluginEntry> versions = pluginEntriesByName.get(pluginName);
+    return (versions == null) ? null : versions.lastEntry().getValue();
+  }
+
+  /**
+   * Returns all versions of the Plugin Entry with the specified name, ordered from the oldest
+   * version to the latest version.
+   *
+   * @param pluginName Plugin name.
+   * @return Versions of the Plugin Entry (empty if none exist).
+   */
+  NavigableMap<PluginVersion, PluginEntry> getVersions(String pluginName) {
+    NavigableMap<PluginVersion, PluginEntry> versions = pluginEntriesByName.get(pluginName);
+    return (versions == null) ?
+        Collections.emptyNavigableMap() :
+        Collections.unmodifiableNavigableMap(versions);
+  }
+
+  /**
+   * Returns the latest version of every Plugin in the index.
+   *
+   * @return Latest version of each Plugin Entry.
+   */
+  List<PluginEntry> getLatestVersions() {
+    List<PluginEntry> latestVersions = new ArrayList<>(pluginEntriesByName.size());
+    for (NavigableMap<PluginVersion, PluginEntry> versions : pluginEntriesByName.values()) {
+      latestVersions.add(versions.lastEntry().getValue());
+    }
+    return latestVersions;
+  }
+
+  /**
+   * Returns the Plugin Entry registered for the specified Plugin class, or null if none exists.
+   *
+   * @param pluginClass Plugin class.
+   * @return Plugin Entry, or null.
+   */
+  PluginEntry getByPluginClass(Class<?> pluginClass) {
+    PluginEntry pluginEntry = pluginEntriesByClassName.get(pluginClass.getName());
+    return (pluginEntry != null && pluginEntry.getPluginClass().equals(pluginClass)) ?
+        pluginEntry :
+        null;
+  }
+
+  /**
+   * Returns true if a Plugin class with the specified name has been indexed.
+   *
+   * @param pluginClassName Fully qualified name of the Plugin class.
+   * @return True if a Plugin class with that name exists, false otherwise.
+   */
+  boolean containsPluginClassName(String pluginClassName) {
+    return pluginEntriesByClassName.containsKey(pluginClassName);
+  }
+
+  /**
+   * Returns true if a Plugin with the specified name has been indexed.
+   *
+   * @param pluginName Plugin name.
+   * @return True if the Plugin name exists, false otherwise.
+   */
+  boolean containsPluginName(String pluginName) {
+    return pluginEntriesByName.containsKey(pluginName);
+  }
+
+  /**
+   * Returns the set of Plugin names in the index.
+   *
+   * @return Set of Plugin names.
+   */
+  Set<String> getPluginNames() {
+    return Collections.unmodifiableSet(pluginEntriesByName.keySet());
+  }
+
+  /**
+   * Returns the number of versions of the Plugin with the specified name.
+   *
+   * @param pluginName Plugin name.
+   * @return Number of versions.
+   */
+  int count(String pluginName) {
+    NavigableMap<PluginVersion, PluginEntry> versions = pluginEntriesByName.get(pluginName);
+    return (versions == null) ? 0 : versions.size();
+  }
+
+  /**
+   * Returns the total number of Plugin Entries in the index.
+   *
+   * @return Total Plugin Entries.
+   */
+  int size() {
+    return pluginEntries.size();
+  }
+
+  /**
+   * Returns all Plugin Entries, in registry order.
+   *
+   * @return Plugin Entries.
+   */
+  Collection<PluginEntry> getAll() {
+    return Collections.unmodifiableSet(pluginEntries);
+  }
+
+  /**
+   * Returns all Plugin Entries as an array, in registry order. The array is created once, and
+   * shared by every caller: it must not be modified.
+   *
+   * @return Plugin Entries.
+   */
+  PluginEntry[] toArray() {
+    PluginEntry[] result = pluginEntryArray;
+    if (result == null) {
+      result = pluginEntries.toArray(new PluginEntry[0]);
+      pluginEntryArray = result;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the counter of the Plugins selected from this index.
+   *
+   * @return Selection counter.
+   */
+  AtomicInteger getSelectionCounter() {
+    return selectionCounter;
+  }
+
+  @Override
+  public Iterator<PluginEntry> iterator() {
+    return getAll().iterator();
+  }
+
+  /**
+   * Returns a spliterator over all Plugin Entries, in registry order. Unlike the spliterator of
+   * the underlying sorted set, it splits evenly and reports exact sizes after splitting.
+   *
+   * @return Sized, splittable spliterator.
+   */
+  @Override
+  public Spliterator<PluginEntry> spliterator() {
+    return Spliterators.spliterator(toArray(),
+        Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    PluginIndex that = (PluginIndex) o;
+    return pluginEntries.equals(that.pluginEntries);
+  }
+
+  @Override
+  public int hashCode() {
+    return pluginEntries.hashCode();
+  }
+}
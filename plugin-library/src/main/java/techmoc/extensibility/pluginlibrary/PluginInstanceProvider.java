@@ -0,0 +1,148 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Supplier;
+
+
+/**
+ * Provides the instances of a registered Plugin, according to the Plugin's instance scope.
+ */
+abstract class PluginInstanceProvider {
+
+  /**
+   * Maximum number of idle instances held by the pool of a POOLED Plugin.
+   */
+  static final int POOL_CAPACITY = 16;
+
+  /**
+   * Returns an instance provider for the specified instance scope.
+   *
+   * @param instanceScope Instance scope.
+   * @param factory Creates new instances of the Plugin.
+   * @return Instance provider.
+   */
+  static PluginInstanceProvider create(
+      InstanceScope instanceScope,
+      Supplier<Pluggable> factory) {
+
+    Objects.requireNonNull(instanceScope);
+    Objects.requireNonNull(factory);
+
+    switch (instanceScope) {
+      case SINGLETON:
+        return new Singleton(factory);
+      case THREAD:
+        return new PerThread(factory);
+      case POOLED:
+        return new Pooled(factory);
+      case PROTOTYPE:
+      default:
+        return new Prototype(factory);
+    }
+  }
+
+  /**
+   * Returns an instance of the Plugin.
+   *
+   * @return Plugin instance.
+   */
+  abstract Pluggable get();
+
+  /**
+   * Hands back an instance that was obtained from this provider. Has no effect unless the provider
+   * is pooled.
+   *
+   * @param instance Plugin instance.
+   */
+  void release(Pluggable instance) {
+  }
+
+  /**
+   * Creates a new instance on every call.
+   */
+  private static final class Prototype extends PluginInstanceProvider {
+
+    private final Supplier<Pluggable> factory;
+
+    Prototype(Supplier<Pluggable> factory) {
+      this.factory = factory;
+    }
+
+    @Override
+    Pluggable get() {
+      return factory.get();
+    }
+  }
+
+  /**
+   * Creates a single instance on first use, and returns it on every call.
+   */
+  private static final class Singleton extends PluginInstanceProvider {
+
+    private final Supplier<Pluggable> factory;
+    private volatile Pluggable instance;
+
+    Singleton(Supplier<Pluggable> factory) {
+      this.factory = factory;
+    }
+
+    @Override
+    Pluggable get() {
+      Pluggable result = instance;
+      if (result == null) {
+        synchronized (this) {
+          result = instance;
+          if (result == null) {
+            result = factory.get();
+            instance = result;
+          }
+        }
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Creates one instance per thread.
+   */
+  private static final class PerThread extends PluginInstanceProvider {
+
+    private final ThreadLocal<Pluggable> instances;
+
+    PerThread(Supplier<Pluggable> factory) {
+      this.instances = ThreadLocal.withInitial(factory);
+    }
+
+    @Override
+    Pluggable get() {
+      return instances.get();
+    }
+  }
+
+  /**
+   * Reuses released instances, creating new instances only when no idle instance is available.
+   */
+  private static final class Pooled extends PluginInstanceProvider {
+
+    private final Supplier<Pluggable> factory;
+    private final ArrayBlockingQueue<Pluggable> idleInstances =
+        new ArrayBlockingQueue<>(POOL_CAPACITY);
+
+    Pooled(Supplier<Pluggable> factory) {
+      this.factory = factory;
+    }
+
+    @Override
+    Pluggable get() {
+      Pluggable instance = idleInstances.poll();
+      return (instance != null) ? instance : factory.get();
+    }
+
+    @Override
+    void release(Pluggable instance) {
+      // Instances beyond the capacity of the pool are discarded.
+      idleInstances.offer(instance);
+    }
+  }
+}
@@ -0,0 +1,653 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ObjLongConsumer;
+import java.util.stream.Collectors;
+
+
+/**
+ * Wraps Plugins in classes that record the count, errors and latency of every call made to them.
+ * <p>
+ * A wrapper class is generated once per Plugin Interface, and defined next to it (in its package
+ * and class loader). Each of its methods reads {@link System#nanoTime()}, calls the wrapped
+ * Plugin directly, and hands the outcome to the recorder of the method, so that a call costs a
+ * few nanoseconds more than a direct call. If the wrapper class cannot be generated (e.g. its
+ * package cannot be accessed), Plugins are wrapped in a {@link Proxy} that records the same
+ * metrics, reflectively.
+ */
+final class PluginInstrumenter {
+
+  // Suffix of the names of the generated wrapper classes.
+  private static final String WRAPPER_SUFFIX = "$$Instrumented";
+
+  private static final String OBJECT = "java/lang/Object";
+  private static final String RECORDER = "java/util/function/ObjLongConsumer";
+  private static final String RECORDER_ARRAY = "[Ljava/util/function/ObjLongConsumer;";
+
+  // Instrumented methods and wrapper constructor, by Plugin Interface.
+  private static final ClassValue<Wrapper> WRAPPERS = new ClassValue<>() {
+    @Override
+    protected Wrapper computeValue(Class<?> type) {
+      return new Wrapper(type);
+    }
+  };
+
+  // Getter of the wrapped Plugin, by generated wrapper class (null for other classes).
+  private static final ClassValue<MethodHandle> TARGET_GETTERS = new ClassValue<>() {
+    @Override
+    protected MethodHandle computeValue(Class<?> type) {
+      if (!type.getName().endsWith(WRAPPER_SUFFIX) || type.getInterfaces().length != 1
+          || WRAPPERS.get(type.getInterfaces()[0]).wrapperClass != type) {
+        return null;
+      }
+      try {
+        return MethodHandles.privateLookupIn(type, MethodHandles.lookup())
+            .findGetter(type, "target", type.getInterfaces()[0])
+            .asType(MethodType.methodType(Object.class, Object.class));
+      } catch (ReflectiveOperationException e) {
+        return null;
+      }
+    }
+  };
+
+  /**
+   * Private constructor, to prevent instantiation.
+   */
+  private PluginInstrumenter() {
+  }
+
+  /**
+   * Returns the methods of the specified Plugin Interface that are recorded by its wrappers, as
+   * method names and parameter types (e.g. "calculate(double, double)"). The recorders passed to
+   * {@link #instrument} must be in the same order.
+   *
+   * @param registeredPluginInterface Plugin Interface class.
+   * @return Method names and parameter types.
+   */
+  static List<String> getInstrumentedMethods(
+      Class<? extends Pluggable> registeredPluginInterface) {
+    return WRAPPERS.get(registeredPluginInterface).methodNames;
+  }
+
+  /**
+   * Wraps a Plugin, so that every call made to a method of the specified Plugin Interface is
+   * recorded.
+   *
+   * @param registeredPluginInterface Plugin Interface class.
+   * @param plugin Plugin instance.
+   * @param recorders Recorder of each instrumented method (see {@link #getInstrumentedMethods}).
+   * @param <T> Plugin Interface type.
+   * @return Instrumented Plugin.
+   */
+  static <T extends Pluggable> T instrument(
+      Class<T> registeredPluginInterface,
+      T plugin,
+      ObjLongConsumer<?>[] recorders) {
+    Wrapper wrapper = WRAPPERS.get(registeredPluginInterface);
+    if (recorders.length != wrapper.methods.length) {
+      throw new IllegalArgumentException(String.format(
+          "Plugin Interface [%s] has %d instrumented methods, but %d recorders were specified.",
+          registeredPluginInterface.getName(), wrapper.methods.length, recorders.length));
+    }
+
+    if (wrapper.constructor != null) {
+      try {
+        return registeredPluginInterface.cast(
+            wrapper.constructor.invokeExact((Object) plugin, (Object[]) recorders));
+      } catch (Throwable t) {
+        throw new PluginLibraryException(String.format(
+            "Plugin [%s] could not be instrumented.", plugin.getClass().getName()), t);
+      }
+    }
+
+    return registeredPluginInterface.cast(Proxy.newProxyInstance(
+        registeredPluginInterface.getClassLoader(),
+        new Class<?>[]{registeredPluginInterface},
+        new RecordingHandler(plugin, wrapper.methodIndexes, recorders)));
+  }
+
+  /**
+   * Returns the Plugin wrapped by an instrumented Plugin.
+   *
+   * @param plugin Plugin instance, instrumented or not.
+   * @return Wrapped Plugin, or the specified Plugin if it is not instrumented.
+   */
+  static Pluggable unwrap(Pluggable plugin) {
+    try {
+      MethodHandle targetGetter = TARGET_GETTERS.get(plugin.getClass());
+      if (targetGetter != null) {
+        return (Pluggable) (Object) targetGetter.invokeExact((Object) plugin);
+      }
+    } catch (Throwable t) {
+      throw new PluginLibraryException(String.format(
+          "Plugin [%s] could not be unwrapped.", plugin.getClass().getName()), t);
+    }
+
+    if (Proxy.isProxyClass(plugin.getClass())) {
+      InvocationHandler handler = Proxy.getInvocationHandler(plugin);
+      if (handler instanceof RecordingHandler) {
+        return ((RecordingHandler) handler).target;
+      }
+    }
+    return plugin;
+  }
+
+  /**
+   * Returns the name and parameter types of a method (e.g. "calculate(double, double)").
+   *
+   * @param method Method.
+   * @return Method name and parameter types.
+   */
+  private static String getMethodName(Method method) {
+    return Arrays.stream(method.getParameterTypes())
+        .map(Class::getSimpleName)
+        .collect(Collectors.joining(", ", method.getName() + "(", ")"));
+  }
+
+  /**
+   * Returns the type descriptor of a class (e.g. "I" or "Ljava/lang/String;").
+   *
+   * @param type Class.
+   * @return Type descriptor.
+   */
+  private static String getDescriptor(Class<?> type) {
+    if (type.isPrimitive()) {
+      return String.valueOf(MethodType.methodType(type).toMethodDescriptorString().charAt(2));
+    } else if (type.isArray()) {
+      return type.getName().replace('.', '/');
+    }
+    return "L" + type.getName().replace('.', '/') + ";";
+  }
+
+  /**
+   * Returns the number of local variable slots taken by a value of the specified type.
+   *
+   * @param type Class.
+   * @return 0 for void, 2 for long and double, 1 otherwise.
+   */
+  private static int getSlotCount(Class<?> type) {
+    if (type == void.class) {
+      return 0;
+    }
+    return (type == long.class || type == double.class) ? 2 : 1;
+  }
+
+  /**
+   * Returns the opcode offset of a type, from the int variant of a load, store or return
+   * instruction (0 for int, 1 for long, 2 for float, 3 for double, 4 for references).
+   *
+   * @param type Class (not void).
+   * @return Opcode offset.
+   */
+  private static int getOpcodeOffset(Class<?> type) {
+    if (type == long.class) {
+      return 1;
+    } else if (type == float.class) {
+      return 2;
+    } else if (type == double.class) {
+      return 3;
+    }
+    return type.isPrimitive() ? 0 : 4;
+  }
+
+  /**
+   * Instrumented methods of a Plugin Interface, and the wrapper class generated for it.
+   */
+  private static final class Wrapper {
+
+    private final Method[] methods;
+    private final List<String> methodNames;
+    private final Map<Method, Integer> methodIndexes = new HashMap<>();
+    private final Class<?> wrapperClass;
+
+    // Wrapper constructor, as (Object plugin, Object[] recorders) -> Object, or null.
+    private final MethodHandle constructor;
+
+    Wrapper(Class<?> pluginInterface) {
+      // Public instance methods (including inherited ones), in a stable order.
+      Map<String, Method> methodsBySignature = new TreeMap<>();
+      boolean conflicting = false;
+      for (Method method : pluginInterface.getMethods()) {
+        if (Modifier.isStatic(method.getModifiers())) {
+          continue;
+        }
+        String signature = method.getName() + MethodType.methodType(
+            void.class, method.getParameterTypes()).toMethodDescriptorString();
+        Method existing = methodsBySignature.putIfAbsent(signature, method);
+        conflicting |= existing != null && existing.getReturnType() != method.getReturnType();
+      }
+      this.methods = methodsBySignature.values().toArray(new Method[0]);
+      this.methodNames = Arrays.stream(methods)
+          .map(PluginInstrumenter::getMethodName)
+          .collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList));
+      for (int i = 0; i < methods.length; i++) {
+        methodIndexes.put(methods[i], i);
+      }
+
+      // Methods inherited with different return types would need bridges; use a proxy instead.
+      Class<?> wrapperClass = null;
+      MethodHandle constructor = null;
+      if (!conflicting) {
+        try {
+          // The class is initialized right away, so that it is verified before it is used.
+          wrapperClass = defineWrapperClass(pluginInterface, methods);
+          Class.forName(wrapperClass.getName(), true, wrapperClass.getClassLoader());
+          constructor = MethodHandles.privateLookupIn(wrapperClass, MethodHandles.lookup())
+              .findConstructor(wrapperClass, MethodType.methodType(
+                  void.class, pluginInterface, ObjLongConsumer[].class))
+              .asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+          wrapperClass = null;
+          constructor = null;
+        }
+      }
+      this.wrapperClass = wrapperClass;
+      this.constructor = constructor;
+    }
+
+    /**
+     * Defines the wrapper class of the specified Plugin Interface, in its package (unless a
+     * wrapper class was already defined there, e.g. by another Plugin Registry).
+     *
+     * @param pluginInterface Plugin Interface class.
+     * @param methods Instrumented methods.
+     * @return Wrapper class.
+     * @throws ReflectiveOperationException Thrown if the class could not be defined.
+     */
+    private static Class<?> defineWrapperClass(Class<?> pluginInterface, Method[] methods)
+        throws ReflectiveOperationException {
+      MethodHandles.Lookup lookup =
+          MethodHandles.privateLookupIn(pluginInterface, MethodHandles.lookup());
+      String className = pluginInterface.getName() + WRAPPER_SUFFIX;
+      synchronized (PluginInstrumenter.class) {
+        try {
+          return lookup.findClass(className);
+        } catch (ClassNotFoundException e) {
+          return lookup.defineClass(generateWrapperClass(
+              className.replace('.', '/'), pluginInterface, methods));
+        }
+      }
+    }
+  }
+
+  /**
+   * Generates the class file of a wrapper class, equivalent to:
+   * <pre>{@code
+   * final class Interface$$Instrumented implements Interface {
+   *   private final Interface target;
+   *   private final ObjLongConsumer[] recorders;
+   *
+   *   public final R method(A a) {
+   *     long start = System.nanoTime();
+   *     R result;
+   *     try {
+   *       result = target.method(a);
+   *     } catch (Throwable t) {
+   *       recorders[i].accept(t, System.nanoTime() - start);
+   *       throw t;
+   *     }
+   *     recorders[i].accept(null, System.nanoTime() - start);
+   *     return result;
+   *   }
+   * }
+   * }</pre>
+   * The class file targets Java 5 (version 49), whose verifier infers stack map frames, so that
+   * none have to be computed.
+   *
+   * @param className Internal name of the wrapper class.
+   * @param pluginInterface Plugin Interface class.
+   * @param methods Instrumented methods.
+   * @return Class file.
+   */
+  private static byte[] generateWrapperClass(
+      String className,
+      Class<?> pluginInterface,
+      Method[] methods) {
+    String interfaceName = pluginInterface.getName().replace('.', '/');
+    String interfaceDescriptor = getDescriptor(pluginInterface);
+
+    try {
+      ConstantPool cp = new ConstantPool();
+      int thisClass = cp.classRef(className);
+      int superClass = cp.classRef(OBJECT);
+      int interfaceClass = cp.classRef(interfaceName);
+      int targetField = cp.fieldRef(className, "target", interfaceDescriptor);
+      int recordersField = cp.fieldRef(className, "recorders", RECORDER_ARRAY);
+      int objectConstructor = cp.methodRef(OBJECT, "<init>", "()V");
+      int nanoTime = cp.methodRef("java/lang/System", "nanoTime", "()J");
+      int accept = cp.interfaceMethodRef(RECORDER, "accept", "(Ljava/lang/Object;J)V");
+      int codeAttribute = cp.utf8("Code");
+
+      ByteArrayOutputStream body = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(body);
+      out.writeShort(Modifier.FINAL | 0x0020); // ACC_SUPER
+      out.writeShort(thisClass);
+      out.writeShort(superClass);
+      out.writeShort(1);
+      out.writeShort(interfaceClass);
+
+      // Fields.
+      out.writeShort(2);
+      for (String[] field : new String[][]{
+          {"target", interfaceDescriptor}, {"recorders", RECORDER_ARRAY}}) {
+        out.writeShort(Modifier.PRIVATE | Modifier.FINAL);
+        out.writeShort(cp.utf8(field[0]));
+        out.writeShort(cp.utf8(field[1]));
+        out.writeShort(0);
+      }
+
+      out.writeShort(methods.length + 1);
+
+      // Constructor.
+      Code constructor = new Code();
+      constructor.op(0x2a).op(0xb7).u2(objectConstructor); // aload_0, invokespecial
+      constructor.op(0x2a).op(0x2b).op(0xb5).u2(targetField); // aload_0, aload_1, putfield
+      constructor.op(0x2a).op(0x2c).op(0xb5).u2(recordersField); // aload_0, aload_2, putfield
+      constructor.op(0xb1); // return
+      out.writeShort(Modifier.PUBLIC);
+      out.writeShort(cp.utf8("<init>"));
+      out.writeShort(cp.utf8("(" + interfaceDescriptor + RECORDER_ARRAY + ")V"));
+      constructor.write(out, codeAttribute, 2, 3, null);
+
+      // Instrumented methods.
+      for (int i = 0; i < methods.length; i++) {
+        Method method = methods[i];
+        Class<?> returnType = method.getReturnType();
+        String descriptor = Arrays.stream(method.getParameterTypes())
+            .map(PluginInstrumenter::getDescriptor)
+            .collect(Collectors.joining("", "(", ")" + getDescriptor(returnType)));
+        int parameterSlots = Arrays.stream(method.getParameterTypes())
+            .mapToInt(PluginInstrumenter::getSlotCount).sum();
+        int startSlot = parameterSlots + 1;
+        int resultSlot = startSlot + 2;
+        int returnSlots = getSlotCount(returnType);
+
+        Code code = new Code();
+        code.op(0xb8).u2(nanoTime).local(0x37, startSlot); // invokestatic, lstore
+
+        // Call the wrapped Plugin.
+        int tryStart = code.size();
+        code.op(0x2a).op(0xb4).u2(targetField); // aload_0, getfield
+        int slot = 1;
+        for (Class<?> parameterType : method.getParameterTypes()) {
+          code.local(0x15 + getOpcodeOffset(parameterType), slot); // iload...aload
+          slot += getSlotCount(parameterType);
+        }
+        code.op(0xb9).u2(cp.interfaceMethodRef(interfaceName, method.getName(), descriptor))
+            .u1(parameterSlots + 1).u1(0); // invokeinterface
+        int tryEnd = code.size();
+
+        // Record the call, and return its result.
+        if (returnType != void.class) {
+          code.local(0x36 + getOpcodeOffset(returnType), resultSlot); // istore...astore
+        }
+        code.record(recordersField, i, -1, nanoTime, startSlot, accept);
+        if (returnType != void.class) {
+          code.local(0x15 + getOpcodeOffset(returnType), resultSlot); // iload...aload
+          code.op(0xac + getOpcodeOffset(returnType)); // ireturn...areturn
+        } else {
+          code.op(0xb1); // return
+        }
+
+        // Record the failed call, and rethrow its exception.
+        int handler = code.size();
+        code.local(0x3a, resultSlot); // astore
+        code.record(recordersField, i, resultSlot, nanoTime, startSlot, accept);
+        code.local(0x19, resultSlot).op(0xbf); // aload, athrow
+
+        out.writeShort(Modifier.PUBLIC | Modifier.FINAL);
+        out.writeShort(cp.utf8(method.getName()));
+        out.writeShort(cp.utf8(descriptor));
+        code.write(out, codeAttribute, Math.max(parameterSlots + 1, 6),
+            resultSlot + Math.max(returnSlots, 1), new int[]{tryStart, tryEnd, handler});
+      }
+
+      // No class attributes.
+      out.writeShort(0);
+
+      ByteArrayOutputStream classFile = new ByteArrayOutputStream();
+      DataOutputStream header = new DataOutputStream(classFile);
+      header.writeInt(0xCAFEBABE);
+      header.writeShort(0);
+      header.writeShort(49);
+      cp.write(header);
+      body.writeTo(classFile);
+      return classFile.toByteArray();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Constant pool of a generated class file, which reuses identical constants.
+   */
+  private static final class ConstantPool {
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(bytes);
+    private final Map<String, Integer> indexes = new HashMap<>();
+
+    int utf8(String value) throws IOException {
+      Integer index = indexes.get("U" + value);
+      if (index == null) {
+        out.writeByte(1);
+        out.writeUTF(value);
+        index = add("U" + value);
+      }
+      return index;
+    }
+
+    int classRef(String internalName) throws IOException {
+      Integer index = indexes.get("C" + internalName);
+      if (index == null) {
+        int name = utf8(internalName);
+        out.writeByte(7);
+        out.writeShort(name);
+        index = add("C" + internalName);
+      }
+      return index;
+    }
+
+    int fieldRef(String owner, String name, String descriptor) throws IOException {
+      return memberRef(9, owner, name, descriptor);
+    }
+
+    int methodRef(String owner, String name, String descriptor) throws IOException {
+      return memberRef(10, owner, name, descriptor);
+    }
+
+    int interfaceMethodRef(String owner, String name, String descriptor) throws IOException {
+      return memberRef(11, owner, name, descriptor);
+    }
+
+    void write(DataOutputStream classFile) throws IOException {
+      classFile.writeShort(indexes.size() + 1);
+      bytes.writeTo(classFile);
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor)
+        throws IOException {
+      String key = tag + owner + "." + name + descriptor;
+      Integer index = indexes.get(key);
+      if (index == null) {
+        int ownerClass = classRef(owner);
+        int nameAndType = nameAndType(name, descriptor);
+        out.writeByte(tag);
+        out.writeShort(ownerClass);
+        out.writeShort(nameAndType);
+        index = add(key);
+      }
+      return index;
+    }
+
+    private int nameAndType(String name, String descriptor) throws IOException {
+      String key = "N" + name + ":" + descriptor;
+      Integer index = indexes.get(key);
+      if (index == null) {
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        out.writeByte(12);
+        out.writeShort(nameIndex);
+        out.writeShort(descriptorIndex);
+        index = add(key);
+      }
+      return index;
+    }
+
+    private int add(String key) {
+      int index = indexes.size() + 1;
+      if (index > 0xFFFF) {
+        throw new IllegalStateException("Constant pool is full.");
+      }
+      indexes.put(key, index);
+      return index;
+    }
+  }
+
+  /**
+   * Bytecode of a generated method.
+   */
+  private static final class Code {
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    Code op(int opcode) {
+      bytes.write(opcode);
+      return this;
+    }
+
+    Code u1(int value) {
+      bytes.write(value);
+      return this;
+    }
+
+    Code u2(int value) {
+      bytes.write(value >>> 8);
+      bytes.write(value);
+      return this;
+    }
+
+    /**
+     * Adds a load or store instruction of a local variable.
+     */
+    Code local(int opcode, int slot) {
+      if (slot > 0xFF) {
+        return op(0xc4).op(opcode).u2(slot); // wide
+      }
+      return op(opcode).u1(slot);
+    }
+
+    /**
+     * Adds the recording of a call: {@code recorders[index].accept(failure, nanoTime() - start)}.
+     *
+     * @param failureSlot Slot of the exception thrown by the call, or -1 to pass null.
+     */
+    Code record(
+        int recordersField,
+        int index,
+        int failureSlot,
+        int nanoTime,
+        int startSlot,
+        int accept) {
+      op(0x2a).op(0xb4).u2(recordersField); // aload_0, getfield
+      op(0x11).u2(index).op(0x32); // sipush, aaload
+      if (failureSlot < 0) {
+        op(0x01); // aconst_null
+      } else {
+        local(0x19, failureSlot); // aload
+      }
+      op(0xb8).u2(nanoTime).local(0x16, startSlot).op(0x65); // invokestatic, lload, lsub
+      return op(0xb9).u2(accept).u1(4).u1(0); // invokeinterface
+    }
+
+    int size() {
+      return bytes.size();
+    }
+
+    /**
+     * Writes the Code attribute of the method.
+     *
+     * @param exceptionHandler Start, end and handler offsets of a catch-all handler, or null.
+     */
+    void write(
+        DataOutputStream out,
+        int codeAttribute,
+        int maxStack,
+        int maxLocals,
+        int[] exceptionHandler) throws IOException {
+      int exceptionTableLength = (exceptionHandler == null) ? 0 : 1;
+      out.writeShort(1);
+      out.writeShort(codeAttribute);
+      out.writeInt(12 + bytes.size() + 8 * exceptionTableLength);
+      out.writeShort(maxStack);
+      out.writeShort(maxLocals);
+      out.writeInt(bytes.size());
+      bytes.writeTo(out);
+      out.writeShort(exceptionTableLength);
+      if (exceptionHandler != null) {
+        out.writeShort(exceptionHandler[0]);
+        out.writeShort(exceptionHandler[1]);
+        out.writeShort(exceptionHandler[2]);
+        out.writeShort(0);
+      }
+      out.writeShort(0);
+    }
+  }
+
+  /**
+   * Records the calls made to a Plugin wrapped in a {@link Proxy} (when no wrapper class could be
+   * generated).
+   */
+  private static final class RecordingHandler implements InvocationHandler {
+
+    private final Pluggable target;
+    private final Map<Method, Integer> methodIndexes;
+    private final ObjLongConsumer<?>[] recorders;
+
+    RecordingHandler(
+        Pluggable target,
+        Map<Method, Integer> methodIndexes,
+        ObjLongConsumer<?>[] recorders) {
+      this.target = target;
+      this.methodIndexes = methodIndexes;
+      this.recorders = recorders;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      Integer index = methodIndexes.get(method);
+      if (index == null) {
+        return method.invoke(target, args);
+      }
+
+      ObjLongConsumer<Throwable> recorder = (ObjLongConsumer<Throwable>) recorders[index];
+      long startTime = System.nanoTime();
+      try {
+        Object result = method.invoke(target, args);
+        recorder.accept(null, System.nanoTime() - startTime);
+        return result;
+      } catch (InvocationTargetException e) {
+        recorder.accept(e.getCause(), System.nanoTime() - startTime);
+        throw e.getCause();
+      }
+    }
+  }
+}
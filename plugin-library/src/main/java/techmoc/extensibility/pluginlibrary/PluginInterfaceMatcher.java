@@ -0,0 +1,95 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+
+/**
+ * Matches classes against a fixed set of registered Plugin Interfaces, without throwing exceptions.
+ * <p>
+ * The registered Plugin Interfaces implemented by each class are computed once, and cached in a
+ * {@link ClassValue}, so scanning a class again (e.g. once per registered Plugin Interface) only
+ * costs a lookup. A matcher is immutable; a new matcher must be created whenever Plugin Interfaces
+ * are registered or unregistered.
+ */
+final class PluginInterfaceMatcher {
+
+  private final Set<Class<? extends Pluggable>> pluginInterfaces;
+
+  private final ClassValue<Set<Class<? extends Pluggable>>> implementedPluginInterfaces =
+      new ClassValue<>() {
+        @Override
+        protected Set<Class<? extends Pluggable>> computeValue(Class<?> clazz) {
+          if (!isValidPlugin(clazz)) {
+            return Set.of();
+          }
+
+          Set<Class<? extends Pluggable>> result = new LinkedHashSet<>();
+          for (Class<? extends Pluggable> pluginInterface : pluginInterfaces) {
+            if (pluginInterface.isAssignableFrom(clazz)) {
+              result.add(pluginInterface);
+            }
+          }
+          return result.isEmpty() ? Set.of() : Collections.unmodifiableSet(result);
+        }
+      };
+
+  /**
+   * Constructor.
+   *
+   * @param pluginInterfaces Registered Plugin Interfaces.
+   */
+  PluginInterfaceMatcher(Set<Class<? extends Pluggable>> pluginInterfaces) {
+    this.pluginInterfaces = Collections.unmodifiableSet(new LinkedHashSet<>(pluginInterfaces));
+  }
+
+  /**
+   * Returns true if the specified class is a valid Plugin, i.e. it is not a Java interface, and it
+   * implements the Pluggable interface.
+   *
+   * @param clazz Class being tested.
+   * @return True if the class is a valid Plugin, false otherwise.
+   */
+  static boolean isValidPlugin(Class<?> clazz) {
+    return !clazz.isInterface() && Pluggable.class.isAssignableFrom(clazz);
+  }
+
+  /**
+   * Returns true if this matcher was created for exactly the specified Plugin Interfaces.
+   *
+   * @param pluginInterfaces Registered Plugin Interfaces.
+   * @return True if the Plugin Interfaces match, false otherwise.
+   */
+  boolean isMatcherFor(Set<Class<? extends Pluggable>> pluginInterfaces) {
+    return this.pluginInterfaces.size() == pluginInterfaces.size() &&
+        this.pluginInterfaces.containsAll(pluginInterfaces);
+  }
+
+  /**
+   * Returns the registered Plugin Interfaces that the specified class implements (empty if the
+   * class is not a valid Plugin).
+   *
+   * @param clazz Class being tested.
+   * @return Implemented Plugin Interfaces.
+   */
+  Set<Class<? extends Pluggable>> getImplementedPluginInterfaces(Class<?> clazz) {
+    return implementedPluginInterfaces.get(clazz);
+  }
+
+  /**
+   * Returns true if the specified class is a valid Plugin, and implements the specified Plugin
+   * Interface.
+   *
+   * @param clazz Class being tested.
+   * @param pluginInterface Plugin Interface class.
+   * @return True if the class is a valid Plugin of the Plugin Interface, false otherwise.
+   */
+  boolean isValidPlugin(Class<?> clazz, Class<? extends Pluggable> pluginInterface) {
+    // Plugin Interfaces that this matcher was not created for are tested directly.
+    if (!pluginInterfaces.contains(pluginInterface)) {
+      return isValidPlugin(clazz) && pluginInterface.isAssignableFrom(clazz);
+    }
+    return getImplementedPluginInterfaces(clazz).contains(pluginInterface);
+  }
+}
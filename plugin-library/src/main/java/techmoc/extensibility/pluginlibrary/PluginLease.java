@@ -0,0 +1,87 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * Plugin instance handed out for the duration of a call (see {@link PluginRegistry#lease(String,
+ * Class)}).
+ * <p>
+ * While a lease is open, the class loader of the leased Plugin stays open, even if the Plugin is
+ * unregistered or upgraded in the meantime, so that calls in flight on the old version drain
+ * before its class loader is released. Leases should be closed as soon as the call completes,
+ * preferably with a try-with-resources statement. Closing a lease also returns the instance to its
+ * pool, if the Plugin is {@link InstanceScope#POOLED}.
+ * <p>
+ * The time for which leases are held is recorded per Plugin, and used by the {@link
+ * SelectionPolicy}s that route calls to the least loaded Plugin.
+ *
+ * @param <T> Plugin Interface type.
+ */
+public final class PluginLease<T extends Pluggable> implements AutoCloseable {
+
+  private final PluginEntry pluginEntry;
+  private final PluginClassLoader classLoader;
+  private final T plugin;
+  private final long startTime = System.nanoTime();
+  private final AtomicBoolean closed = new AtomicBoolean(false);
+
+  /**
+   * Constructor.
+   *
+   * @param pluginEntry Leased Plugin Entry.
+   * @param classLoader Class loader held by the lease (null if the Plugin was not scanned).
+   * @param plugin Plugin instance.
+   */
+  PluginLease(PluginEntry pluginEntry, PluginClassLoader classLoader, T plugin) {
+    this.pluginEntry = pluginEntry;
+    this.classLoader = classLoader;
+    this.plugin = plugin;
+    pluginEntry.getCallStatistics().callStarted();
+  }
+
+  /**
+   * Returns the leased Plugin instance.
+   *
+   * @return Plugin instance.
+   */
+  public T get() {
+    if (closed.get()) {
+      throw new IllegalStateException(String.format(
+          "Lease on Plugin [%s (%s)] is closed.", getPluginName(), getPluginVersion()));
+    }
+    return plugin;
+  }
+
+  /**
+   * Returns the name of the leased Plugin.
+   *
+   * @return Plugin name.
+   */
+  public String getPluginName() {
+    return pluginEntry.getPluginName();
+  }
+
+  /**
+   * Returns the version of the leased Plugin.
+   *
+   * @return Plugin version.
+   */
+  public PluginVersion getPluginVersion() {
+    return pluginEntry.getPluginVersion();
+  }
+
+  /**
+   * Closes the lease (closing it again has no effect).
+   */
+  @Override
+  public void close() {
+    if (closed.compareAndSet(false, true)) {
+      pluginEntry.getCallStatistics().callCompleted(System.nanoTime() - startTime);
+      pluginEntry.releasePluginInstance(plugin);
+      if (classLoader != null) {
+        classLoader.releaseLease();
+      }
+    }
+  }
+}
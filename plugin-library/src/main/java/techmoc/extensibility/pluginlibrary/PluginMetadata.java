@@ -0,0 +1,57 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * Declares the name, version and instance scope of a Plugin (and optionally, its attributes).
+ * <p>
+ * Plugins annotated with {@code @PluginMetadata} are registered without being instantiated (or
+ * even initialized): the Plugin Registry reads the metadata from the annotation, and constructs
+ * the Plugin on first use. The Plugin's attributes are initialized (by calling {@link
+ * Pluggable#initializePluginAttributes}) the first time they are needed.
+ * <p>
+ * The default implementations of {@link Pluggable#getPluginName()}, {@link
+ * Pluggable#getPluginVersion()} and {@link Pluggable#getInstanceScope()} return the annotated
+ * values, so annotated Plugins do not need to override them.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface PluginMetadata {
+
+  /**
+   * Plugin name. By default (when empty), the simple name of the Plugin class.
+   *
+   * @return Plugin name.
+   */
+  String name() default "";
+
+  /**
+   * Plugin version, in the format parsed by {@link PluginVersion#parse(String)}.
+   *
+   * @return Plugin version.
+   */
+  String version() default "0.0.0";
+
+  /**
+   * Plugin instance scope.
+   *
+   * @return Instance scope.
+   */
+  InstanceScope scope() default InstanceScope.PROTOTYPE;
+
+  /**
+   * Plugin attributes, each declared as {@code "name=value"} (values are Strings). When declared,
+   * these are the Plugin's attributes, and {@link Pluggable#initializePluginAttributes} is not
+   * called: the Plugin can then be indexed by attribute without being instantiated. By default
+   * (when empty), the attributes are initialized by the Plugin.
+   *
+   * @return Plugin attributes.
+   */
+  String[] attributes() default {};
+}
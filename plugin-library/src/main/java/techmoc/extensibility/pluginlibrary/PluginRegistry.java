@@ -6,11 +6,15 @@ import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.Thread.State;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.lang.management.ManagementFactory;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.net.URLClassLoader;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -18,9 +22,12 @@ import java.nio.file.Paths;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.AbstractList;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -29,20 +36,39 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
-import java.util.TreeSet;
-import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiPredicate;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.jar.JarEntry;
 import java.util.jar.JarInputStream;
+import java.util.jar.Manifest;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
 import techmoc.extensibility.polymorphicmap.PolymorphicMap;
 
 
@@ -52,10 +78,87 @@ import techmoc.extensibility.polymorphicmap.PolymorphicMap;
 public final class PluginRegistry {
 
   /**
-   * Plugin Registry.
+   * Plugin Registry (an immutable snapshot, which writers replace in a single atomic step).
    */
-  private final ConcurrentSkipListMap<Class<? extends Pluggable>, TreeSet<PluginEntry>>
-      pluginRegistry = new ConcurrentSkipListMap<>(Comparator.comparing(Class::getSimpleName));
+  private final AtomicReference<RegistrySnapshot> registrySnapshot =
+      new AtomicReference<>(RegistrySnapshot.EMPTY);
+
+  /**
+   * Lock that serializes writers (readers never lock).
+   */
+  private final ReentrantLock writeLock = new ReentrantLock();
+
+  /**
+   * Builder of the change currently being made by the thread holding the write lock.
+   */
+  private RegistrySnapshot.Builder pendingChange = null;
+
+  /**
+   * Cache of query results (null if query caching is disabled).
+   */
+  private volatile QueryCache queryCache = null;
+
+  /**
+   * Matches classes against the registered Plugin Interfaces (replaced when they change).
+   */
+  private volatile PluginInterfaceMatcher pluginInterfaceMatcher = null;
+
+  /**
+   * JAR files and package directories that Plugins were scanned from, keyed by absolute path.
+   */
+  private final Map<String, PluginSource> pluginSources = new ConcurrentHashMap<>();
+
+  /**
+   * Publisher of registry events (null until first requested).
+   */
+  private volatile SubmissionPublisher<RegistryEvent> eventPublisher = null;
+
+  /**
+   * Thread pool running the calls of {@link #invokeAll(Class, Function, Duration)} (created on
+   * first use), its number of threads, and the number of calls that can wait for a thread.
+   */
+  private volatile ExecutorService invocationExecutor = null;
+  private final int invocationParallelism = 4 * Runtime.getRuntime().availableProcessors();
+  private final int maxQueuedInvocations = 1024;
+
+  /**
+   * Thread pool instantiating the Plugins without declared metadata during registrations and
+   * scans (created on first use), its number of threads, and the maximum duration of each
+   * instantiation (see {@link #setPluginInstantiationTimeout(Duration)}).
+   */
+  private volatile ExecutorService scanExecutor = null;
+  private final int scanParallelism = Runtime.getRuntime().availableProcessors();
+  private volatile Duration pluginInstantiationTimeout = Duration.ofSeconds(30);
+
+  /**
+   * Caches of the results of {@link Cacheable} methods, by registered Plugin Interface and Plugin
+   * Entry (see {@link #getLatestVersionWithCache(String, Class)}), and the capacity of the caches
+   * created from now on.
+   */
+  private final Map<Class<? extends Pluggable>, Map<PluginEntry, MethodCache>> methodCaches =
+      new ConcurrentHashMap<>();
+  private volatile int methodCacheSize = 1000;
+
+  /**
+   * Number of events dropped because a subscriber's buffer was full.
+   */
+  private final LongAdder droppedEventCount = new LongAdder();
+
+  /**
+   * Number of registered Plugin Entries, per class loader of scanned Plugins that are still
+   * registered (updated under the write lock).
+   */
+  private final Map<PluginClassLoader, Integer> classLoaderReferences = new ConcurrentHashMap<>();
+
+  /**
+   * Registry metrics (see {@link #getMetrics()}).
+   */
+  private final RegistryMetrics metrics = new RegistryMetrics(() -> queryCache);
+
+  /**
+   * Name that the registry's MBean is registered under (null unless registered).
+   */
+  private volatile ObjectName mbeanName = null;
 
   /**
    * Directory Monitor service.
@@ -135,9 +238,14 @@ public final class PluginRegistry {
             WatchKey key = watcherService.take();
 
             for (WatchEvent<?> event : key.pollEvents()) {
+              FlightRecorderEvents.DirectoryMonitorEvent monitorEvent =
+                  new FlightRecorderEvents.DirectoryMonitorEvent();
+              monitorEvent.begin();
+
               // This key is registered only for ENTRY_CREATE events, but an OVERFLOW event can occur
               // regardless if events are lost or discarded.
               if (event.kind() == OVERFLOW) {
+                commitMonitorEvent(monitorEvent, targetDirectory, "OVERFLOW");
                 continue;
               }
 
@@ -149,28 +257,26 @@ public final class PluginRegistry {
 
               // Check the file type.
               if (newFile.isDirectory()) {
-                // Scan the newly added package directory.
-                for (Class<? extends Pluggable> registeredPluginInterface
-                    : pluginRegistry.keySet()) {
-                  scanPackageDirectory(newFile.getAbsolutePath(), registeredPluginInterface);
-                }
+                // Scan the newly added package directory (for all registered Plugin Interfaces at
+                // once, so that its Plugins become visible together).
+                scanPackageDirectory(newFile.getAbsolutePath());
+                commitMonitorEvent(monitorEvent, newFile, "SCAN_PACKAGE_DIRECTORY");
               } else if (newFile.getName().endsWith(".jar")) {
                 // Scan the newly added JAR file.
-                for (Class<? extends Pluggable> registeredPluginInterface : pluginRegistry
-                    .keySet()) {
-                  try {
-                    scanJar(newFile.getAbsolutePath(), registeredPluginInterface);
-                  } catch (IOException e) {
-                    throw new IllegalStateException(String.format(
-                        "FATAL ERROR: IOException exception thrown by registered Plugin Interface [%s]: %s",
-                        registeredPluginInterface.getCanonicalName(),
-                        e.getMessage()));
-                  }
+                try {
+                  scanJar(newFile.getAbsolutePath());
+                } catch (IOException e) {
+                  throw new IllegalStateException(String.format(
+                      "FATAL ERROR: IOException exception thrown while scanning JAR file [%s]: %s",
+                      newFile.getPath(),
+                      e.getMessage()));
                 }
+                commitMonitorEvent(monitorEvent, newFile, "SCAN_JAR");
               } else {
                 debug(String.format("Ignoring new file detected by the DirectoryMonitorThread, " +
                         "which is neither a package directory nor a JAR file [%s].",
                     newFile.getPath()));
+                commitMonitorEvent(monitorEvent, newFile, "IGNORED");
               }
             }
 
@@ -269,6 +375,17 @@ public final class PluginRegistry {
       }
     }
 
+    private void commitMonitorEvent(
+        FlightRecorderEvents.DirectoryMonitorEvent monitorEvent,
+        File file,
+        String action) {
+      if (monitorEvent.shouldCommit()) {
+        monitorEvent.path = file.getAbsolutePath();
+        monitorEvent.action = action;
+        monitorEvent.commit();
+      }
+    }
+
     void init(File targetDirectory) throws IOException {
 
       // Validate input.
@@ -308,13 +425,16 @@ public final class PluginRegistry {
    */
   public final void registerPluginInterfaces(
       Set<Class<? extends Pluggable>> pluginInterfaces) {
-    for (Class<? extends Pluggable> pluginInterface : pluginInterfaces) {
-      // Validate the Plugin Interface.
-      validatePluginInterfaceArgument(pluginInterface);
+    write(builder -> {
+      for (Class<? extends Pluggable> pluginInterface : pluginInterfaces) {
+        // Validate the Plugin Interface.
+        validatePluginInterfaceArgument(pluginInterface);
 
-      // Add the Plugin Interface to the Registry.
-      pluginRegistry.putIfAbsent(pluginInterface, new TreeSet<>());
-    }
+        // Add the Plugin Interface to the Registry.
+        builder.addPluginInterface(pluginInterface);
+      }
+      return null;
+    });
   }
 
   /**
@@ -336,15 +456,18 @@ public final class PluginRegistry {
   public final void unregisterPluginInterfaces(
       Set<Class<? extends Pluggable>> registeredPluginInterfaces) {
 
-    // Validate the Plugin Interface.
-    for (Class<? extends Pluggable> registeredPluginInterface : registeredPluginInterfaces) {
-      validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
-    }
+    write(builder -> {
+      // Validate the Plugin Interface.
+      for (Class<? extends Pluggable> registeredPluginInterface : registeredPluginInterfaces) {
+        validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
+      }
 
-    // Remove the Plugin Interface from the Registry.
-    for (Class<? extends Pluggable> pluginInterface : registeredPluginInterfaces) {
-      pluginRegistry.remove(pluginInterface);
-    }
+      // Remove the Plugin Interface from the Registry.
+      for (Class<? extends Pluggable> pluginInterface : registeredPluginInterfaces) {
+        builder.removePluginInterface(pluginInterface);
+      }
+      return null;
+    });
   }
 
   /**
@@ -359,7 +482,7 @@ public final class PluginRegistry {
     // Validate input.
     validatePluginInterfaceArgument(pluginInterface);
 
-    return pluginRegistry.containsKey(pluginInterface);
+    return getRegisteredPluginInterfaces().contains(pluginInterface);
   }
 
   //---------- Plugin Interface Statistics Methods ----------//
@@ -371,7 +494,7 @@ public final class PluginRegistry {
    * @return Set of registered Plugin Interfaces.
    */
   public final List<Class<? extends Pluggable>> getRegisteredInterfaces() {
-    return List.copyOf(pluginRegistry.navigableKeySet());
+    return List.copyOf(getRegisteredPluginInterfaces());
   }
 
   /**
@@ -380,14 +503,17 @@ public final class PluginRegistry {
    * @return Total Plugin Interfaces registered.
    */
   public final int getRegisteredInterfaceCount() {
-    return pluginRegistry.keySet().size();
+    return getRegisteredPluginInterfaces().size();
   }
 
   /**
    * Delete all registered Plugin Interfaces and Plugins from the registry.
    */
   public final void clear() {
-    pluginRegistry.clear();
+    write(builder -> {
+      builder.clear();
+      return null;
+    });
   }
 
   //---------- Plugin Registration Methods ----------//
@@ -400,28 +526,70 @@ public final class PluginRegistry {
    */
   public final ScanResults registerPlugin(
       Class<? extends Pluggable> plugin) {
+    long startTime = System.nanoTime();
+    ScanResults scanResults = registerPlugins(List.of(plugin));
+    metrics.recordRegisterPlugin(System.nanoTime() - startTime);
+    return scanResults;
+  }
+
+  /**
+   * Registers multiple Plugins under all registered Plugin Interfaces that each Plugin implements,
+   * as a single change to the Plugin Registry. Plugins listed more than once are registered once.
+   * <p>
+   * No Plugin is registered if any of the Plugins does not implement a registered Plugin
+   * Interface.
+   *
+   * @param plugins Plugin classes to be registered.
+   * @return Scan results.
+   */
+  public final ScanResults registerPlugins(
+      Collection<Class<? extends Pluggable>> plugins) {
+
+    // Validate input.
+    Objects.requireNonNull(plugins);
+
     // Check that Plugin Interfaces are currently registered in the Plugin Registry.
     validatePluginInterfacesAreRegistered();
 
-    boolean pluginImplementsARegisteredInterface = false;
-    List<ScanLog> scanLogs = new ArrayList<>();
+    PluginInterfaceMatcher matcher = getPluginInterfaceMatcher();
+    Map<Class<? extends Pluggable>, PluginDescriptor> pluginDescriptors = new LinkedHashMap<>();
 
-    for (Class<? extends Pluggable> pluginInterface : pluginRegistry.keySet()) {
+    for (Class<? extends Pluggable> plugin : plugins) {
+      Objects.requireNonNull(plugin);
 
-      // Validate the Plugin against the specified Plugin Interface.
-      if (isValidPlugin(plugin, pluginInterface)) {
-        scanLogs.add(registerPlugin(plugin, pluginInterface));
-        pluginImplementsARegisteredInterface = true;
+      // Skip Plugins that were already listed.
+      if (pluginDescriptors.containsKey(plugin)) {
+        continue;
+      }
+
+      if (matcher.getImplementedPluginInterfaces(plugin).isEmpty()) {
+        throw new IllegalArgumentException(String.format(
+            "Plugin class [%s] does not implement any registered Plugin Interface.",
+            plugin.getCanonicalName()));
       }
+      pluginDescriptors.put(plugin, PluginDescriptor.fromAnnotation(plugin));
     }
 
-    if (!pluginImplementsARegisteredInterface) {
-      throw new IllegalArgumentException(String.format(
-          "Plugin class [%s] does not implement any registered Plugin Interface.",
-          plugin.getCanonicalName()));
+    // Plugins are instantiated (if needed) before the registry is locked.
+    return new ScanResults(
+        registerPlugins(pluginDescriptors, getRegisteredPluginInterfaces(), null, null, false));
+  }
+
+  /**
+   * Sets the maximum duration of instantiating a Plugin without declared metadata to read its
+   * metadata, during registrations and scans (30 seconds by default). Such Plugins are
+   * instantiated in parallel, before the registry is locked; a Plugin that is not instantiated in
+   * time is interrupted, and reported as a failed scan log instead of being registered.
+   *
+   * @param timeout Maximum duration of a Plugin's instantiation.
+   */
+  public final void setPluginInstantiationTimeout(Duration timeout) {
+    // Validate input.
+    if (timeout == null || timeout.isNegative() || timeout.isZero()) {
+      throw new IllegalArgumentException(String.format("Invalid timeout [%s].", timeout));
     }
 
-    return new ScanResults(scanLogs);
+    pluginInstantiationTimeout = timeout;
   }
 
   /**
@@ -433,6 +601,25 @@ public final class PluginRegistry {
   public final ScanLog registerPlugin(
       Class<? extends Pluggable> plugin,
       Class<? extends Pluggable> registeredPluginInterface) {
+    long startTime = System.nanoTime();
+    ScanLog scanLog = registerPlugin(
+        plugin, registeredPluginInterface, PluginDescriptor.fromAnnotation(plugin));
+    metrics.recordRegisterPlugin(System.nanoTime() - startTime);
+    return scanLog;
+  }
+
+  /**
+   * Registers a Plugin under the specified Plugin Interface.
+   *
+   * @param plugin Plugin class to be registered.
+   * @param registeredPluginInterface Registered Plugin Interface to register the Plugin under.
+   * @param pluginDescriptor Declared Plugin metadata, or null to read the metadata from an instance
+   *     of the Plugin.
+   */
+  private ScanLog registerPlugin(
+      Class<? extends Pluggable> plugin,
+      Class<? extends Pluggable> registeredPluginInterface,
+      PluginDescriptor pluginDescriptor) {
 
     // Check that Plugin Interfaces are currently registered in the Plugin Registry.
     validatePluginInterfacesAreRegistered();
@@ -443,19 +630,255 @@ public final class PluginRegistry {
     // Validate the Plugin against the specified Plugin Interface.
     validatePluginArgument(plugin, registeredPluginInterface);
 
+    // Retrieve the path to the class file (if possible).
+    String pathToClassFile = getPathToClassFile(plugin);
+
+    // Instantiate the Plugin (if it has no declared metadata) before locking the registry.
+    PluginEntryBatch pluginEntryBatch = createPluginEntries(
+        Collections.singletonMap(plugin, pluginDescriptor), Set.of(registeredPluginInterface),
+        null, false);
+    if (pluginEntryBatch.isTimedOut(plugin)) {
+      return createTimedOutScanLog(plugin, pathToClassFile);
+    }
+
+    return write(builder -> addPlugin(builder, plugin, registeredPluginInterface,
+        pluginDescriptor, pluginEntryBatch.get(plugin), pathToClassFile, null, false));
+  }
+
+  /**
+   * Registers the specified Plugins, each under the specified Plugin Interfaces that it implements,
+   * as a single change to the Plugin Registry.
+   *
+   * @param pluginDescriptors Declared Plugin metadata (or null to read the metadata from an
+   *     instance of the Plugin), keyed by Plugin class.
+   * @param pluginInterfaces Registered Plugin Interfaces to register the Plugins under.
+   * @param pluginSource Path to the JAR file or package directory that the Plugins were scanned
+   *     from, or null if the Plugins are registered directly.
+   * @param classLoader Class loader that the Plugins were scanned with (closed once none of its
+   *     Plugins are registered), or null if the Plugins are registered directly.
+   * @param upgrade True if the Plugins replace registered Plugins with the same name.
+   * @return Scan logs.
+   */
+  private List<ScanLog> registerPlugins(
+      Map<Class<? extends Pluggable>, PluginDescriptor> pluginDescriptors,
+      Set<Class<? extends Pluggable>> pluginInterfaces,
+      String pluginSource,
+      PluginClassLoader classLoader,
+      boolean upgrade) {
+
+    // Instantiate the Plugins without declared metadata in parallel, before locking the registry.
+    PluginEntryBatch pluginEntryBatch =
+        createPluginEntries(pluginDescriptors, pluginInterfaces, pluginSource, upgrade);
+
+    return write(builder -> addPlugins(builder, pluginDescriptors, pluginInterfaces,
+        pluginSource, classLoader, upgrade, pluginEntryBatch));
+  }
+
+  /**
+   * Adds the specified Plugins to the pending change, each under the specified Plugin Interfaces
+   * that it implements.
+   *
+   * @param builder Pending change to the Plugin Registry.
+   * @param pluginDescriptors Declared Plugin metadata (or null to read the metadata from an
+   *     instance of the Plugin), keyed by Plugin class.
+   * @param pluginInterfaces Registered Plugin Interfaces to register the Plugins under.
+   * @param pluginSource Path to the JAR file or package directory that the Plugins were scanned
+   *     from, or null if the Plugins are registered directly.
+   * @param classLoader Class loader that the Plugins were scanned with (closed once none of its
+   *     Plugins are registered), or null if the Plugins are registered directly.
+   * @param upgrade True if the Plugins replace registered Plugins with the same name.
+   * @param pluginEntryBatch Plugin Entries created ahead of the change (see {@link
+   *     #createPluginEntries(Map, Set, String, boolean)}).
+   * @return Scan logs.
+   */
+  private List<ScanLog> addPlugins(
+      RegistrySnapshot.Builder builder,
+      Map<Class<? extends Pluggable>, PluginDescriptor> pluginDescriptors,
+      Set<Class<? extends Pluggable>> pluginInterfaces,
+      String pluginSource,
+      PluginClassLoader classLoader,
+      boolean upgrade,
+      PluginEntryBatch pluginEntryBatch) {
+    if (classLoader != null) {
+      builder.trackClassLoader(classLoader);
+    }
+    PluginInterfaceMatcher matcher = getPluginInterfaceMatcher();
+    List<ScanLog> scanLogs = new ArrayList<>();
+    int firstEvent = builder.getEventCount();
+
+    for (Map.Entry<Class<? extends Pluggable>, PluginDescriptor> entry
+        : pluginDescriptors.entrySet()) {
+      Class<? extends Pluggable> plugin = entry.getKey();
+      String pathToClassFile = null;
+
+      for (Class<? extends Pluggable> pluginInterface
+          : matcher.getImplementedPluginInterfaces(plugin)) {
+        if (pluginInterfaces.contains(pluginInterface)) {
+          // Retrieve the path to the class file once per Plugin.
+          if (pathToClassFile == null) {
+            pathToClassFile = getPathToClassFile(plugin);
+          }
+
+          if (pluginEntryBatch.isTimedOut(plugin)) {
+            scanLogs.add(createTimedOutScanLog(plugin, pathToClassFile));
+          } else {
+            scanLogs.add(addPlugin(builder, plugin, pluginInterface, entry.getValue(),
+                pluginEntryBatch.get(plugin), pathToClassFile, pluginSource, upgrade));
+          }
+        }
+      }
+    }
+
+    // Deliver the Plugins registered by a scan as a single event.
+    if (pluginSource != null) {
+      builder.coalesceScanEvents(firstEvent, pluginSource);
+    }
+    return scanLogs;
+  }
+
+  /**
+   * Creates the Plugin Entries of the Plugins that are about to be registered, and need to be
+   * instantiated (see {@link PluginEntryBatch}): the Plugins without declared metadata, and the
+   * Plugins without declared attributes registered under a Plugin Interface with indexed
+   * attributes. Plugins already registered under every targeted Plugin Interface are not
+   * instantiated, unless upgrading.
+   *
+   * @param pluginDescriptors Declared Plugin metadata (or null), keyed by Plugin class.
+   * @param pluginInterfaces Registered Plugin Interfaces to register the Plugins under.
+   * @param pluginSource Path to the JAR file or package directory that the Plugins were scanned
+   *     from, or null if the Plugins are registered directly.
+   * @param upgrade True if the Plugins replace registered Plugins with the same name.
+   * @return Batch of Plugin Entries.
+   */
+  private PluginEntryBatch createPluginEntries(
+      Map<Class<? extends Pluggable>, PluginDescriptor> pluginDescriptors,
+      Set<Class<? extends Pluggable>> pluginInterfaces,
+      String pluginSource,
+      boolean upgrade) {
+    PluginInterfaceMatcher matcher = getPluginInterfaceMatcher();
+    Map<Class<? extends Pluggable>, PluginDescriptor> plugins = new LinkedHashMap<>();
+
+    for (Map.Entry<Class<? extends Pluggable>, PluginDescriptor> entry
+        : pluginDescriptors.entrySet()) {
+      Class<? extends Pluggable> plugin = entry.getKey();
+      PluginDescriptor pluginDescriptor = entry.getValue();
+      if (pluginDescriptor != null && pluginDescriptor.getPluginAttributes() != null) {
+        continue;
+      }
+
+      // Plugins without declared attributes are only instantiated if their attributes are indexed.
+      List<PluginIndex> pluginIndexes = matcher.getImplementedPluginInterfaces(plugin).stream()
+          .filter(pluginInterfaces::contains)
+          .map(this::findPluginIndex)
+          .filter(x -> x != null && (upgrade || !x.containsPluginClassName(plugin.getName())))
+          .collect(Collectors.toList());
+      if (!pluginIndexes.isEmpty() && (pluginDescriptor == null ||
+          pluginIndexes.stream().anyMatch(PluginIndex::hasAttributeIndexes))) {
+        plugins.put(plugin, pluginDescriptor);
+      }
+    }
+
+    if (plugins.isEmpty()) {
+      return PluginEntryBatch.empty();
+    }
+    return PluginEntryBatch.create(plugins, pluginSource, metrics, getScanExecutor(),
+        scanParallelism, pluginInstantiationTimeout.toNanos());
+  }
+
+  /**
+   * Creates the scan log of a Plugin that was not registered, because its instantiation timed out
+   * (see {@link #setPluginInstantiationTimeout(Duration)}).
+   *
+   * @param plugin Plugin class.
+   * @param pathToClassFile Path to the class file of the Plugin.
+   * @return Scan log.
+   */
+  private ScanLog createTimedOutScanLog(Class<? extends Pluggable> plugin, String pathToClassFile) {
+    return new ScanLog(
+        false,
+        true,
+        "PLUGIN",
+        pathToClassFile,
+        plugin.getCanonicalName(),
+        String.format("Plugin class [%s] was not instantiated within [%s].",
+            plugin.getCanonicalName(), pluginInstantiationTimeout));
+  }
+
+  /**
+   * Adds a Plugin to the pending change, under the specified Plugin Interface (unless the Plugin
+   * class, or a Plugin with the same name and version, is already registered under it). When
+   * upgrading, the registered Plugins with the same name or class name (but another class) are
+   * removed first.
+   *
+   * @param builder Pending change to the Plugin Registry.
+   * @param plugin Plugin class to be registered.
+   * @param registeredPluginInterface Registered Plugin Interface to register the Plugin under.
+   * @param pluginDescriptor Declared Plugin metadata, or null to read the metadata from an instance
+   *     of the Plugin.
+   * @param createdPluginEntry Plugin Entry created ahead of the change, or null to create it from
+   *     the declared Plugin metadata (the Plugin is not registered if it has none).
+   * @param pathToClassFile Path to the class file of the Plugin.
+   * @param pluginSource Path to the JAR file or package directory that the Plugin was scanned
+   *     from, or null if the Plugin is registered directly.
+   * @param upgrade True if the Plugin replaces registered Plugins with the same name.
+   * @return Scan log.
+   */
+  private ScanLog addPlugin(
+      RegistrySnapshot.Builder builder,
+      Class<? extends Pluggable> plugin,
+      Class<? extends Pluggable> registeredPluginInterface,
+      PluginDescriptor pluginDescriptor,
+      PluginEntry createdPluginEntry,
+      String pathToClassFile,
+      String pluginSource,
+      boolean upgrade) {
+
+    FlightRecorderEvents.PluginRegistered registeredEvent =
+        new FlightRecorderEvents.PluginRegistered();
+    registeredEvent.begin();
+
     ScanLog scanLog;
 
-    // Retrieve the path to the class file (if possible).
-    String pathToClassFile;
-    try {
-      pathToClassFile = plugin.getResource(plugin.getSimpleName() + ".class").getPath();
-    } catch (Exception e) {
-      pathToClassFile = "";
+    // Plugins are never instantiated while the registry is locked. A Plugin without declared
+    // metadata, whose entry was not created ahead of the change because it was registered already
+    // (e.g. it was unregistered since), is not registered.
+    if (createdPluginEntry == null && pluginDescriptor == null && (upgrade
+        || !getPluginIndex(registeredPluginInterface).containsPluginClassName(plugin.getName()))) {
+      return new ScanLog(
+          false,
+          true,
+          "PLUGIN",
+          pathToClassFile,
+          plugin.getCanonicalName(),
+          String.format("Plugin class [%s] changed state under Plugin Interface [%s] while "
+                  + "being registered (e.g. it was unregistered), and must be registered again.",
+              plugin.getCanonicalName(), registeredPluginInterface.getCanonicalName()));
+    }
+
+    // Remove the Plugins replaced by an upgrade (older builds of the same class included).
+    // Entries that were not created ahead of the change have declared metadata, and are created
+    // without instantiating the Plugin.
+    PluginEntry upgradePluginEntry = null;
+    if (upgrade) {
+      upgradePluginEntry = (createdPluginEntry != null) ?
+          createdPluginEntry :
+          new PluginEntry(plugin, pluginDescriptor, pluginSource, metrics);
+      for (PluginEntry registeredPluginEntry
+          : new ArrayList<>(getPluginIndex(registeredPluginInterface).getAll())) {
+        if (registeredPluginEntry.getPluginClass() != plugin &&
+            (registeredPluginEntry.getPluginClass().getName().equals(plugin.getName()) ||
+                registeredPluginEntry.getPluginName()
+                    .equals(upgradePluginEntry.getPluginName()))) {
+          builder.remove(registeredPluginInterface, registeredPluginEntry);
+        }
+      }
     }
 
+    // Retrieve the Plugins registered under the specified Plugin Interface.
+    PluginIndex pluginIndex = getPluginIndex(registeredPluginInterface);
+
     // Check if this class is already registered.
-    if (pluginRegistry.get(registeredPluginInterface).stream()
-        .anyMatch(x -> x.getPluginClass().getCanonicalName().equals(plugin.getCanonicalName()))) {
+    if (pluginIndex.containsPluginClassName(plugin.getName())) {
 
       // Create the scan log.
       scanLog = new ScanLog(
@@ -468,14 +891,24 @@ public final class PluginRegistry {
               plugin.getCanonicalName(), registeredPluginInterface.getCanonicalName()));
     } else {
 
-      // Create the PluginEntry.
-      PluginEntry pluginEntry = new PluginEntry(plugin);
+      // Create the PluginEntry (unless already created ahead of the change, or by an upgrade).
+      PluginEntry pluginEntry;
+      if (upgradePluginEntry != null) {
+        pluginEntry = upgradePluginEntry;
+      } else if (createdPluginEntry != null) {
+        pluginEntry = createdPluginEntry;
+      } else {
+        pluginEntry = new PluginEntry(plugin, pluginDescriptor, pluginSource, metrics);
+      }
+
+      // Share instances with the same Plugin class, if registered under another Plugin Interface.
+      PluginEntry registeredPluginEntry = findPluginEntry(plugin);
+      if (registeredPluginEntry != null) {
+        pluginEntry = pluginEntry.withInstancesOf(registeredPluginEntry);
+      }
 
       // Check if the Plugin Name and Version is already registered.
-      if (pluginRegistry.get(registeredPluginInterface).stream()
-          .anyMatch(x ->
-              x.getPluginName().equals(pluginEntry.getPluginName()) &&
-                  x.getPluginVersion().equals(pluginEntry.getPluginVersion()))) {
+      if (pluginIndex.get(pluginEntry.getPluginName(), pluginEntry.getPluginVersion()) != null) {
 
         // Create the scan log.
         scanLog = new ScanLog(
@@ -490,7 +923,16 @@ public final class PluginRegistry {
                 registeredPluginInterface.getCanonicalName()));
       } else {
         // Add the Plugin to the Registry.
-        pluginRegistry.get(registeredPluginInterface).add(pluginEntry);
+        builder.add(registeredPluginInterface, pluginEntry);
+
+        if (registeredEvent.shouldCommit()) {
+          registeredEvent.pluginInterface = registeredPluginInterface;
+          registeredEvent.pluginClass = plugin;
+          registeredEvent.pluginName = pluginEntry.getPluginName();
+          registeredEvent.pluginVersion = pluginEntry.getPluginVersion().toString();
+          registeredEvent.pluginSource = pluginSource;
+          registeredEvent.commit();
+        }
 
         // Create the scan log.
         scanLog = new ScanLog(
@@ -514,25 +956,29 @@ public final class PluginRegistry {
   public final void unregisterPlugin(
       Class<? extends Pluggable> plugin) {
 
-    // Check that Plugin Interfaces are currently registered in the Plugin Registry.
-    validatePluginInterfacesAreRegistered();
+    write(builder -> {
+      // Check that Plugin Interfaces are currently registered in the Plugin Registry.
+      validatePluginInterfacesAreRegistered();
 
-    boolean pluginImplementsARegisteredInterface = false;
+      boolean pluginImplementsARegisteredInterface = false;
 
-    for (Class<? extends Pluggable> registeredPluginInterface : pluginRegistry.keySet()) {
-      for (PluginEntry pluginEntry : pluginRegistry.get(registeredPluginInterface)) {
-        if (pluginEntry.getPluginClass().equals(plugin)) {
-          unregisterPlugin(pluginEntry.getPluginClass(), registeredPluginInterface);
+      for (Class<? extends Pluggable> registeredPluginInterface
+          : builder.getRegisteredInterfaces()) {
+        PluginEntry pluginEntry =
+            builder.getPluginIndex(registeredPluginInterface).getByPluginClass(plugin);
+        if (pluginEntry != null) {
+          builder.remove(registeredPluginInterface, pluginEntry);
           pluginImplementsARegisteredInterface = true;
         }
       }
-    }
 
-    if (!pluginImplementsARegisteredInterface) {
-      throw new IllegalArgumentException(String.format(
-          "Plugin class [%s] was not found under any registered Plugin Interface.",
-          plugin.getCanonicalName()));
-    }
+      if (!pluginImplementsARegisteredInterface) {
+        throw new IllegalArgumentException(String.format(
+            "Plugin class [%s] was not found under any registered Plugin Interface.",
+            plugin.getCanonicalName()));
+      }
+      return null;
+    });
   }
 
   /**
@@ -545,32 +991,31 @@ public final class PluginRegistry {
       Class<? extends Pluggable> plugin,
       Class<? extends Pluggable> registeredPluginInterface) {
 
-    // Check that Plugin Interfaces are currently registered in the Plugin Registry.
-    validatePluginInterfacesAreRegistered();
-
-    // Validate the Plugin Interface.
-    validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
+    write(builder -> {
+      // Check that Plugin Interfaces are currently registered in the Plugin Registry.
+      validatePluginInterfacesAreRegistered();
 
-    // Validate the Plugin.
-    validatePluginArgument(plugin, registeredPluginInterface);
+      // Validate the Plugin Interface.
+      validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
 
-    // Retrieve the Plugins registered under the specified Plugin Interface.
-    Set<PluginEntry> registeredPlugins = pluginRegistry.get(registeredPluginInterface);
+      // Validate the Plugin.
+      validatePluginArgument(plugin, registeredPluginInterface);
 
-    // Identify the Plugin targeted for removal.
-    Optional<PluginEntry> targetPluginOptional = registeredPlugins.stream()
-        .filter(x -> x.getPluginClass().equals(plugin))
-        .findFirst();
+      // Identify the Plugin targeted for removal.
+      PluginEntry targetPluginEntry =
+          builder.getPluginIndex(registeredPluginInterface).getByPluginClass(plugin);
 
-    // Check that the plugin exists in the set.
-    if (targetPluginOptional.isEmpty()) {
-      throw new IllegalArgumentException(String.format(
-          "Plugin class [%s] is not registered under the [%s] Plugin Interface.",
-          plugin.getCanonicalName(), registeredPluginInterface.getSimpleName()));
-    }
+      // Check that the plugin exists in the set.
+      if (targetPluginEntry == null) {
+        throw new IllegalArgumentException(String.format(
+            "Plugin class [%s] is not registered under the [%s] Plugin Interface.",
+            plugin.getCanonicalName(), registeredPluginInterface.getSimpleName()));
+      }
 
-    // Remove the Plugin from the plugin registry.
-    registeredPlugins.remove(targetPluginOptional.get());
+      // Remove the Plugin from the plugin registry.
+      builder.remove(registeredPluginInterface, targetPluginEntry);
+      return null;
+    });
   }
 
   /**
@@ -581,25 +1026,29 @@ public final class PluginRegistry {
   public final void unregisterPlugin(
       String pluginName) {
 
-    // Check that Plugin Interfaces are currently registered in the Plugin Registry.
-    validatePluginInterfacesAreRegistered();
+    write(builder -> {
+      // Check that Plugin Interfaces are currently registered in the Plugin Registry.
+      validatePluginInterfacesAreRegistered();
 
-    boolean pluginImplementsARegisteredInterface = false;
+      boolean pluginImplementsARegisteredInterface = false;
 
-    for (Class<? extends Pluggable> registeredPluginInterface : pluginRegistry.keySet()) {
-      for (PluginEntry pluginEntry : pluginRegistry.get(registeredPluginInterface)) {
-        if (pluginEntry.getPluginName().equals(pluginName)) {
-          unregisterPlugin(pluginEntry.getPluginClass(), registeredPluginInterface);
+      for (Class<? extends Pluggable> registeredPluginInterface
+          : List.copyOf(builder.getPluginInterfacesByPluginName(pluginName))) {
+        for (PluginEntry pluginEntry
+            : builder.getPluginIndex(registeredPluginInterface).getVersions(pluginName).values()
+            .toArray(new PluginEntry[0])) {
+          builder.remove(registeredPluginInterface, pluginEntry);
           pluginImplementsARegisteredInterface = true;
         }
       }
-    }
 
-    if (!pluginImplementsARegisteredInterface) {
-      throw new IllegalArgumentException(String.format(
-          "Plugin [%s] does not implement any registered Plugin Interface.",
-          pluginName));
-    }
+      if (!pluginImplementsARegisteredInterface) {
+        throw new IllegalArgumentException(String.format(
+            "Plugin [%s] does not implement any registered Plugin Interface.",
+            pluginName));
+      }
+      return null;
+    });
   }
 
   /**
@@ -612,27 +1061,30 @@ public final class PluginRegistry {
       String pluginName,
       Class<? extends Pluggable> registeredPluginInterface) {
 
-    // Check that Plugin Interfaces are currently registered in the Plugin Registry.
-    validatePluginInterfacesAreRegistered();
+    write(builder -> {
+      // Check that Plugin Interfaces are currently registered in the Plugin Registry.
+      validatePluginInterfacesAreRegistered();
 
-    // Validate input.
-    validatePluginNameArgument(pluginName);
-    validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
+      // Validate input.
+      validatePluginNameArgument(pluginName);
+      validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
 
-    boolean pluginImplementsARegisteredInterface = false;
+      boolean pluginImplementsARegisteredInterface = false;
 
-    for (PluginEntry pluginEntry : pluginRegistry.get(registeredPluginInterface)) {
-      if (pluginEntry.getPluginName().equals(pluginName)) {
-        unregisterPlugin(pluginEntry.getPluginClass(), registeredPluginInterface);
+      for (PluginEntry pluginEntry
+          : builder.getPluginIndex(registeredPluginInterface).getVersions(pluginName).values()
+          .toArray(new PluginEntry[0])) {
+        builder.remove(registeredPluginInterface, pluginEntry);
         pluginImplementsARegisteredInterface = true;
       }
-    }
 
-    if (!pluginImplementsARegisteredInterface) {
-      throw new IllegalArgumentException(String.format(
-          "Plugin [%s] was not registered under the [%s] Plugin Interface.",
-          pluginName, registeredPluginInterface.getSimpleName()));
-    }
+      if (!pluginImplementsARegisteredInterface) {
+        throw new IllegalArgumentException(String.format(
+            "Plugin [%s] was not registered under the [%s] Plugin Interface.",
+            pluginName, registeredPluginInterface.getSimpleName()));
+      }
+      return null;
+    });
   }
 
   /**
@@ -648,30 +1100,33 @@ public final class PluginRegistry {
       String pluginName,
       int majorVersion, int minorVersion, int buildNumber) {
 
-    // Check that Plugin Interfaces are currently registered in the Plugin Registry.
-    validatePluginInterfacesAreRegistered();
+    write(builder -> {
+      // Check that Plugin Interfaces are currently registered in the Plugin Registry.
+      validatePluginInterfacesAreRegistered();
 
-    // Validate input, and create the PluginVersion object.
-    validatePluginNameArgument(pluginName);
-    PluginVersion pluginVersion = new PluginVersion(majorVersion, minorVersion, buildNumber);
+      // Validate input, and create the PluginVersion object.
+      validatePluginNameArgument(pluginName);
+      PluginVersion pluginVersion = new PluginVersion(majorVersion, minorVersion, buildNumber);
 
-    boolean pluginImplementsARegisteredInterface = false;
+      boolean pluginImplementsARegisteredInterface = false;
 
-    for (Class<? extends Pluggable> registeredPluginInterface : pluginRegistry.keySet()) {
-      for (PluginEntry pluginEntry : pluginRegistry.get(registeredPluginInterface)) {
-        if (pluginEntry.getPluginName().equals(pluginName) &&
-            pluginEntry.getPluginVersion().equals(pluginVersion)) {
-          unregisterPlugin(pluginEntry.getPluginClass(), registeredPluginInterface);
+      for (Class<? extends Pluggable> registeredPluginInterface
+          : List.copyOf(builder.getPluginInterfacesByPluginName(pluginName))) {
+        PluginEntry pluginEntry =
+            builder.getPluginIndex(registeredPluginInterface).get(pluginName, pluginVersion);
+        if (pluginEntry != null) {
+          builder.remove(registeredPluginInterface, pluginEntry);
           pluginImplementsARegisteredInterface = true;
         }
       }
-    }
 
-    if (!pluginImplementsARegisteredInterface) {
-      throw new IllegalArgumentException(String.format(
-          "Plugin [%s] does not implement any registered Plugin Interface.",
-          pluginName));
-    }
+      if (!pluginImplementsARegisteredInterface) {
+        throw new IllegalArgumentException(String.format(
+            "Plugin [%s] does not implement any registered Plugin Interface.",
+            pluginName));
+      }
+      return null;
+    });
   }
 
   /**
@@ -689,29 +1144,31 @@ public final class PluginRegistry {
       int majorVersion, int minorVersion, int buildNumber,
       Class<? extends Pluggable> registeredPluginInterface) {
 
-    // Check that Plugin Interfaces are currently registered in the Plugin Registry.
-    validatePluginInterfacesAreRegistered();
+    write(builder -> {
+      // Check that Plugin Interfaces are currently registered in the Plugin Registry.
+      validatePluginInterfacesAreRegistered();
 
-    // Validate input, and create the PluginVersion object.
-    validatePluginNameArgument(pluginName);
-    validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
-    PluginVersion pluginVersion = new PluginVersion(majorVersion, minorVersion, buildNumber);
+      // Validate input, and create the PluginVersion object.
+      validatePluginNameArgument(pluginName);
+      validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
+      PluginVersion pluginVersion = new PluginVersion(majorVersion, minorVersion, buildNumber);
 
-    boolean pluginImplementsARegisteredInterface = false;
+      boolean pluginImplementsARegisteredInterface = false;
 
-    for (PluginEntry pluginEntry : pluginRegistry.get(registeredPluginInterface)) {
-      if (pluginEntry.getPluginName().equals(pluginName) &&
-          pluginEntry.getPluginVersion().equals(pluginVersion)) {
-        unregisterPlugin(pluginEntry.getPluginClass(), registeredPluginInterface);
+      PluginEntry pluginEntry =
+          builder.getPluginIndex(registeredPluginInterface).get(pluginName, pluginVersion);
+      if (pluginEntry != null) {
+        builder.remove(registeredPluginInterface, pluginEntry);
         pluginImplementsARegisteredInterface = true;
       }
-    }
 
-    if (!pluginImplementsARegisteredInterface) {
-      throw new IllegalArgumentException(String.format(
-          "Plugin [%s] was not registered under the [%s] Plugin Interface.",
-          pluginName, registeredPluginInterface.getSimpleName()));
-    }
+      if (!pluginImplementsARegisteredInterface) {
+        throw new IllegalArgumentException(String.format(
+            "Plugin [%s] was not registered under the [%s] Plugin Interface.",
+            pluginName, registeredPluginInterface.getSimpleName()));
+      }
+      return null;
+    });
   }
 
   /**
@@ -723,18 +1180,8 @@ public final class PluginRegistry {
   public final boolean isRegisteredPlugin(
       String pluginName) {
 
-    // Loop through each registered Plugin Interface.
-    for (Class<? extends Pluggable> registeredPluginInterface : pluginRegistry.keySet()) {
-
-      // Loop through each Plugin registered under the specified Plugin Interface.
-      for (PluginEntry pluginEntry : pluginRegistry.get(registeredPluginInterface)) {
-        // Check if this plugin matches the specified name.
-        if (pluginEntry.getPluginName().equals(pluginName)) {
-          return true;
-        }
-      }
-    }
-    return false;
+    // Check the Plugin name index.
+    return pluginName != null && !getPluginInterfacesByPluginName(pluginName).isEmpty();
   }
 
   /**
@@ -752,14 +1199,8 @@ public final class PluginRegistry {
     validatePluginNameArgument(pluginName);
     validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
 
-    // Loop through each Plugin registered under the specified Plugin Interface.
-    for (PluginEntry pluginEntry : pluginRegistry.get(registeredPluginInterface)) {
-      // Check if this plugin matches the specified name.
-      if (pluginEntry.getPluginName().equals(pluginName)) {
-        return true;
-      }
-    }
-    return false;
+    // Check the Plugins registered under the specified Plugin Interface.
+    return getPluginIndex(registeredPluginInterface).containsPluginName(pluginName);
   }
 
   /**
@@ -776,8 +1217,9 @@ public final class PluginRegistry {
     validatePluginNameArgument(pluginName);
     PluginVersion pluginVersion = new PluginVersion(majorVersion, minorVersion, buildNumber);
 
-    // Loop through each registered Plugin Interface.
-    for (Class<? extends Pluggable> registeredPluginInterface : pluginRegistry.keySet()) {
+    // Loop through each Plugin Interface that the named Plugin is registered under.
+    for (Class<? extends Pluggable> registeredPluginInterface
+        : getPluginInterfacesByPluginName(pluginName)) {
       if (isRegisteredPlugin(pluginName, pluginVersion, registeredPluginInterface)) {
         return true;
       }
@@ -825,15 +1267,18 @@ public final class PluginRegistry {
    */
   public final void clear(Set<Class<? extends Pluggable>> registeredPluginInterfaces) {
 
-    // Validate input.
-    for (Class<? extends Pluggable> registeredPluginInterface : registeredPluginInterfaces) {
-      validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
-    }
+    write(builder -> {
+      // Validate input.
+      for (Class<? extends Pluggable> registeredPluginInterface : registeredPluginInterfaces) {
+        validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
+      }
 
-    // Remove the Plugin records.
-    for (Class<? extends Pluggable> registeredPluginInterface : registeredPluginInterfaces) {
-      pluginRegistry.get(registeredPluginInterface).clear();
-    }
+      // Remove the Plugin records.
+      for (Class<? extends Pluggable> registeredPluginInterface : registeredPluginInterfaces) {
+        builder.clearPluginInterface(registeredPluginInterface);
+      }
+      return null;
+    });
   }
 
   //---------- Plugin Scanning Methods ----------//
@@ -846,7 +1291,7 @@ public final class PluginRegistry {
    * @return Scan results.
    */
   public final ScanResults scan() throws IOException {
-    Set<Class<? extends Pluggable>> registeredPluginInterfaces = pluginRegistry.keySet();
+    Set<Class<? extends Pluggable>> registeredPluginInterfaces = getRegisteredPluginInterfaces();
 
     if (registeredPluginInterfaces.size() <= 0) {
       throw new IllegalStateException("No interfaces have been registered to the plugin registry.");
@@ -865,7 +1310,7 @@ public final class PluginRegistry {
    */
   public final ScanResults scan(Set<String> targetPackages, boolean scanSubpackages)
       throws IOException {
-    Set<Class<? extends Pluggable>> registeredPluginInterfaces = pluginRegistry.keySet();
+    Set<Class<? extends Pluggable>> registeredPluginInterfaces = getRegisteredPluginInterfaces();
 
     if (registeredPluginInterfaces.size() <= 0) {
       throw new IllegalStateException("No interfaces have been registered to the plugin registry.");
@@ -959,7 +1404,7 @@ public final class PluginRegistry {
 //   * Scans the classpath for Plugins that implement any registered Plugin Interface.
 //   */
 //  public final void scanClasspath() throws IOException {
-//    Set<Class<? extends Pluggable>> registeredPluginInterfaces = pluginRegistry.keySet();
+//    Set<Class<? extends Pluggable>> registeredPluginInterfaces = getRegisteredPluginInterfaces();
 //
 //    if (registeredPluginInterfaces.size() <= 0) {
 //      throw new IllegalStateException("No interfaces have been registered to the plugin registry.");
@@ -1083,7 +1528,7 @@ public final class PluginRegistry {
    * @return Scan results.
    */
   public final ScanResults scanJar(String jarFilePath) throws IOException {
-    Set<Class<? extends Pluggable>> registeredPluginInterfaces = pluginRegistry.keySet();
+    Set<Class<? extends Pluggable>> registeredPluginInterfaces = getRegisteredPluginInterfaces();
 
     if (registeredPluginInterfaces.size() <= 0) {
       throw new IllegalStateException("No interfaces have been registered to the plugin registry.");
@@ -1104,7 +1549,7 @@ public final class PluginRegistry {
       String jarFilePath,
       Set<String> targetPackages,
       boolean scanSubpackages) throws IOException {
-    Set<Class<? extends Pluggable>> registeredPluginInterfaces = pluginRegistry.keySet();
+    Set<Class<? extends Pluggable>> registeredPluginInterfaces = getRegisteredPluginInterfaces();
 
     if (registeredPluginInterfaces.size() <= 0) {
       throw new IllegalStateException("No interfaces have been registered to the plugin registry.");
@@ -1172,6 +1617,25 @@ public final class PluginRegistry {
       Set<Class<? extends Pluggable>> registeredPluginInterfaces,
       Set<String> targetPackages,
       boolean scanSubpackages) throws IOException {
+    return scanJar(jarFilePath, registeredPluginInterfaces, targetPackages, scanSubpackages, false);
+  }
+
+  /**
+   * Scan the specified JAR file for Plugins that implement the specified Plugin Interfaces.
+   *
+   * @param jarFilePath Path to JAR file to be scanned.
+   * @param registeredPluginInterfaces Set of registered Plugin Interfaces.
+   * @param targetPackages Set of packages to scan for plugins (or null, to scan all packages).
+   * @param scanSubpackages Recursively scan subpackages of target packages.
+   * @param upgrade True if the Plugins found replace registered Plugins with the same name.
+   * @return Scan results.
+   */
+  private ScanResults scanJar(
+      String jarFilePath,
+      Set<Class<? extends Pluggable>> registeredPluginInterfaces,
+      Set<String> targetPackages,
+      boolean scanSubpackages,
+      boolean upgrade) throws IOException {
 
     // Validate the Plugin Interface.
     validateRegisteredPluginInterfaceArguments(registeredPluginInterfaces);
@@ -1193,16 +1657,26 @@ public final class PluginRegistry {
     }
 
     // Track the scan.
+    FlightRecorderEvents.PluginScan scanEvent = new FlightRecorderEvents.PluginScan();
+    scanEvent.begin();
+    long startTime = System.nanoTime();
     List<ScanLog> scanLogs = new ArrayList<>();
+    int classesExamined = 0;
+    int classesLoaded = 0;
 
     // Open the specified JAR file.
     FileInputStream fis = new FileInputStream(jarFile);
     JarInputStream jis = new JarInputStream(fis);
 
     // Loop through each package found in the current JAR.
+    PluginClassLoader cl = null;
     try {
       JarEntry jarEntry = jis.getNextJarEntry();
       Map<String, URL> urlsFound = new HashMap<>();
+      Map<String, PluginDescriptor> pluginDescriptors = new HashMap<>();
+
+      // Plugin metadata may be declared in the manifest, so that Plugins are not instantiated.
+      Manifest manifest = jis.getManifest();
 
       // Gather the URL and Full Class Name of all class definitions found in the JAR file.
       while (jarEntry != null) {
@@ -1212,6 +1686,7 @@ public final class PluginRegistry {
           scanLogs.add(new ScanLog(
               false, false, "DIRECTORY", jarEntry.getName(), "", ""));
         } else if (jarEntry.getName().endsWith(".class")) {
+          classesExamined++;
 
           // Generate the fully qualified class name.
           String fullClassName = jarEntry.getName()
@@ -1231,6 +1706,14 @@ public final class PluginRegistry {
 
             // Collect all of the class names and URLs.
             urlsFound.put(fullClassName, classPackageRootUrl);
+
+            // Collect the Plugin metadata declared in the manifest.
+            PluginDescriptor pluginDescriptor = (manifest == null) ? null
+                : PluginDescriptor.fromManifest(
+                    fullClassName, manifest.getAttributes(jarEntry.getName()));
+            if (pluginDescriptor != null) {
+              pluginDescriptors.put(fullClassName, pluginDescriptor);
+            }
           } else {
 
             // Add to scan logs.
@@ -1249,10 +1732,14 @@ public final class PluginRegistry {
         jarEntry = jis.getNextJarEntry();
       }
 
-      // Load all gathered class definitions into memory.
-      URLClassLoader cl = new URLClassLoader(urlsFound.values().toArray(new URL[]{}));
+      // Load all gathered class definitions into memory (with a class loader that is closed once
+      // none of its Plugins are registered).
+      cl = new PluginClassLoader(
+          jarFile.getAbsolutePath(), urlsFound.values().toArray(new URL[]{}));
 
-      // Loop through each class, and check for Plugins.
+      // Find the Plugins among the classes found in the JAR file.
+      PluginInterfaceMatcher matcher = getPluginInterfaceMatcher();
+      Map<Class<? extends Pluggable>, PluginDescriptor> pluginsFound = new LinkedHashMap<>();
       for (String fullClassName : urlsFound.keySet()) {
 
         // Load the class definition into memory.
@@ -1262,43 +1749,51 @@ public final class PluginRegistry {
         } catch (ClassNotFoundException e) {
           throw new PluginRegistrationException(fullClassName, e);
         }
+        classesLoaded++;
 
         // Perform basic plugin validation.
-        if (isValidPlugin(clazz)) {
-
-          // Register the plugin.
-          boolean pluginRegistered = false;
-          for (Class<? extends Pluggable> registeredPluginInterface : registeredPluginInterfaces) {
-            if (isValidPlugin(clazz, registeredPluginInterface)) {
-
-              @SuppressWarnings("unchecked")
-              Class<? extends Pluggable> pluggableClazz = (Class<? extends Pluggable>) clazz;
-
-              scanLogs.add(registerPlugin(pluggableClazz, registeredPluginInterface));
-
-              pluginRegistered = true;
-            }
-          }
-
-          // Check if this Plugin failed to match any of the registered Plugin Interfaces.
-          if (!pluginRegistered) {
-            // Add to scan logs.
-            scanLogs.add(new ScanLog(
-                false, true, "PLUGIN", urlsFound.get(fullClassName).getPath(), fullClassName,
-                "Does not implement any of the targeted Plugin Interfaces."));
-          }
-        } else {
+        if (!isValidPlugin(clazz)) {
           // Add to scan logs.
           scanLogs.add(new ScanLog(
               false, true, "CLASS", urlsFound.get(fullClassName).getPath(), fullClassName,
               "Not a valid Plugin."));
+        } else if (matcher.getImplementedPluginInterfaces(clazz).stream()
+            .noneMatch(registeredPluginInterfaces::contains)) {
+          // Add to scan logs.
+          scanLogs.add(new ScanLog(
+              false, true, "PLUGIN", urlsFound.get(fullClassName).getPath(), fullClassName,
+              "Does not implement any of the targeted Plugin Interfaces."));
+        } else {
+          @SuppressWarnings("unchecked")
+          Class<? extends Pluggable> pluggableClazz = (Class<? extends Pluggable>) clazz;
+
+          // Metadata declared in the manifest takes precedence over the annotation.
+          pluginsFound.put(pluggableClazz, pluginDescriptors.containsKey(fullClassName)
+              ? pluginDescriptors.get(fullClassName)
+              : PluginDescriptor.fromAnnotation(pluggableClazz));
         }
       }
+
+      // Register the Plugins found in the JAR file as a single change to the Plugin Registry.
+      scanLogs.addAll(registerPlugins(
+          pluginsFound, registeredPluginInterfaces, jarFile.getAbsolutePath(), cl, upgrade));
+    } catch (RuntimeException | Error e) {
+      // No Plugin was registered, so the class loader is no longer needed.
+      if (cl != null) {
+        cl.retireIfUnreferenced();
+      }
+      throw e;
     } finally {
       jis.close();
     }
 
-    return new ScanResults(scanLogs);
+    // Record the scanned JAR file, so that its Plugins can be saved to a registry snapshot.
+    recordPluginSource(jarFile, registeredPluginInterfaces, targetPackages, scanSubpackages);
+
+    metrics.recordScan(true, classesExamined, classesLoaded, System.nanoTime() - startTime);
+    ScanResults scanResults = new ScanResults(scanLogs);
+    commitScanEvent(scanEvent, jarFile, classesExamined, classesLoaded, scanResults);
+    return scanResults;
   }
 
   /**
@@ -1315,7 +1810,7 @@ public final class PluginRegistry {
       List<String> publicSignatureKeys) throws IOException {
 
     // Retrieve all registered plugin interfaces.
-    Set<Class<? extends Pluggable>> registeredPluginInterfaces = pluginRegistry.keySet();
+    Set<Class<? extends Pluggable>> registeredPluginInterfaces = getRegisteredPluginInterfaces();
     if (registeredPluginInterfaces.size() <= 0) {
       throw new IllegalStateException("No interfaces have been registered to the plugin registry.");
     }
@@ -1347,7 +1842,7 @@ public final class PluginRegistry {
       boolean scanSubpackages) throws IOException {
 
     // Retrieve all registered plugin interfaces.
-    Set<Class<? extends Pluggable>> registeredPluginInterfaces = pluginRegistry.keySet();
+    Set<Class<? extends Pluggable>> registeredPluginInterfaces = getRegisteredPluginInterfaces();
     if (registeredPluginInterfaces.size() <= 0) {
       throw new IllegalStateException("No interfaces have been registered to the plugin registry.");
     }
@@ -1482,7 +1977,7 @@ public final class PluginRegistry {
       String privateEncryptionKey) throws IOException {
 
     // Retrieve all registered plugin interfaces.
-    Set<Class<? extends Pluggable>> registeredPluginInterfaces = pluginRegistry.keySet();
+    Set<Class<? extends Pluggable>> registeredPluginInterfaces = getRegisteredPluginInterfaces();
     if (registeredPluginInterfaces.size() <= 0) {
       throw new IllegalStateException("No interfaces have been registered to the plugin registry.");
     }
@@ -1512,7 +2007,7 @@ public final class PluginRegistry {
       boolean scanSubpackages) throws IOException {
 
     // Retrieve all registered plugin interfaces.
-    Set<Class<? extends Pluggable>> registeredPluginInterfaces = pluginRegistry.keySet();
+    Set<Class<? extends Pluggable>> registeredPluginInterfaces = getRegisteredPluginInterfaces();
     if (registeredPluginInterfaces.size() <= 0) {
       throw new IllegalStateException("No interfaces have been registered to the plugin registry.");
     }
@@ -1632,7 +2127,7 @@ public final class PluginRegistry {
    * @return Scan results.
    */
   public final ScanResults scanPackageDirectory(String packageDirectoryPath) {
-    Set<Class<? extends Pluggable>> registeredPluginInterfaces = pluginRegistry.keySet();
+    Set<Class<? extends Pluggable>> registeredPluginInterfaces = getRegisteredPluginInterfaces();
 
     if (registeredPluginInterfaces.size() <= 0) {
       throw new IllegalStateException("No interfaces have been registered to the plugin registry.");
@@ -1654,7 +2149,7 @@ public final class PluginRegistry {
       String packageDirectoryPath,
       Set<String> targetPackages,
       boolean scanSubpackages) {
-    Set<Class<? extends Pluggable>> registeredPluginInterfaces = pluginRegistry.keySet();
+    Set<Class<? extends Pluggable>> registeredPluginInterfaces = getRegisteredPluginInterfaces();
 
     if (registeredPluginInterfaces.size() <= 0) {
       throw new IllegalStateException("No interfaces have been registered to the plugin registry.");
@@ -1744,6 +2239,27 @@ public final class PluginRegistry {
       Set<Class<? extends Pluggable>> registeredPluginInterfaces,
       Set<String> targetPackages,
       boolean scanSubpackages) {
+    return scanPackageDirectory(
+        packageDirectoryPath, registeredPluginInterfaces, targetPackages, scanSubpackages, false);
+  }
+
+  /**
+   * Scan the specified package directory for Plugins that implement the specified Plugin
+   * Interfaces.
+   *
+   * @param packageDirectoryPath Path to a package root directory.
+   * @param registeredPluginInterfaces Set of registered Plugin Interface.
+   * @param targetPackages Set of packages to scan for plugins (or null, to scan all packages).
+   * @param scanSubpackages Recursively scan subpackages of target packages.
+   * @param upgrade True if the Plugins found replace registered Plugins with the same name.
+   * @return Scan results.
+   */
+  private ScanResults scanPackageDirectory(
+      String packageDirectoryPath,
+      Set<Class<? extends Pluggable>> registeredPluginInterfaces,
+      Set<String> targetPackages,
+      boolean scanSubpackages,
+      boolean upgrade) {
 
     // Validate the Plugin Interface.
     validateRegisteredPluginInterfaceArguments(registeredPluginInterfaces);
@@ -1762,7 +2278,11 @@ public final class PluginRegistry {
     validateJavaPackageNames(targetPackages);
 
     // Track the scan.
+    FlightRecorderEvents.PluginScan scanEvent = new FlightRecorderEvents.PluginScan();
+    scanEvent.begin();
+    long startTime = System.nanoTime();
     List<ScanLog> scanLogs = new ArrayList<>();
+    int classesLoaded = 0;
 
     // Retrieve the package root.
     String packageRoot = pkgDir.getAbsolutePath();
@@ -1773,84 +2293,195 @@ public final class PluginRegistry {
     // Loop through each package found in the specified package directory.
     Set<File> classFiles = retrieveClassFilesFromDirectoryTree(pkgDir, scanLogs);
 
-    // Load all gathered class definitions into memory.
-    URLClassLoader cl;
+    // Load all gathered class definitions into memory (with a class loader that is closed once
+    // none of its Plugins are registered).
+    PluginClassLoader cl;
     try {
-      cl = new URLClassLoader(new URL[]{pkgDir.toURI().toURL()});
+      cl = new PluginClassLoader(packageRoot, pkgDir.toURI().toURL());
     } catch (MalformedURLException e) {
       throw new PluginLibraryException("Package directory is invalid.", e);
     }
 
-    // Loop through each class file.
-    for (File classFile : classFiles) {
-
-      // Generate the fully qualified class name.
-      String fullClassName = classFile.getAbsolutePath()
-          .substring(packageRoot.length() + 1)
-          .replace("/", ".")   // Replace unix slashes with dots.
-          .replace("\\", "."); // Replace Windows backslashes with dots.
-
-      // Remove the .class extension.
-      fullClassName = fullClassName.substring(0, fullClassName.lastIndexOf('.'));
-
-      // Check whether this class is contained within a targeted package.
-      String pkgName = fullClassName.substring(0, fullClassName.lastIndexOf('.'));
-      if (targetPackages == null ||
-          (!scanSubpackages && targetPackages.contains(pkgName)) ||
-          (scanSubpackages && targetPackages.stream().anyMatch(pkgName::startsWith))) {
-
-        // Load the class definition into memory.
-        Class<?> clazz;
-        try {
-          clazz = cl.loadClass(fullClassName);
-        } catch (ClassNotFoundException e) {
-          throw new PluginRegistrationException(fullClassName, e);
-        }
-
-        // Perform basic plugin validation.
-        if (isValidPlugin(clazz)) {
-
-          // Register the plugin.
-          boolean pluginRegistered = false;
-          for (Class<? extends Pluggable> registeredPluginInterface : registeredPluginInterfaces) {
-            if (isValidPlugin(clazz, registeredPluginInterface)) {
-
-              @SuppressWarnings("unchecked")
-              Class<? extends Pluggable> pluggableClazz = (Class<? extends Pluggable>) clazz;
-
-              scanLogs.add(registerPlugin(pluggableClazz, registeredPluginInterface));
-
-              pluginRegistered = true;
-            }
+    try {
+      // Find the Plugins among the class files found in the package directory.
+      PluginInterfaceMatcher matcher = getPluginInterfaceMatcher();
+      Map<Class<? extends Pluggable>, PluginDescriptor> pluginsFound = new LinkedHashMap<>();
+      for (File classFile : classFiles) {
+
+        // Generate the fully qualified class name.
+        String fullClassName = classFile.getAbsolutePath()
+            .substring(packageRoot.length() + 1)
+            .replace("/", ".")   // Replace unix slashes with dots.
+            .replace("\\", "."); // Replace Windows backslashes with dots.
+
+        // Remove the .class extension.
+        fullClassName = fullClassName.substring(0, fullClassName.lastIndexOf('.'));
+
+        // Check whether this class is contained within a targeted package.
+        String pkgName = fullClassName.substring(0, fullClassName.lastIndexOf('.'));
+        if (targetPackages == null ||
+            (!scanSubpackages && targetPackages.contains(pkgName)) ||
+            (scanSubpackages && targetPackages.stream().anyMatch(pkgName::startsWith))) {
+
+          // Load the class definition into memory.
+          Class<?> clazz;
+          try {
+            clazz = cl.loadClass(fullClassName);
+          } catch (ClassNotFoundException e) {
+            throw new PluginRegistrationException(fullClassName, e);
           }
+          classesLoaded++;
 
-          // Check if this Plugin failed to match any of the registered Plugin Interfaces.
-          if (!pluginRegistered) {
+          // Perform basic plugin validation.
+          if (!isValidPlugin(clazz)) {
+            // Add to scan logs.
+            scanLogs.add(new ScanLog(
+                false, true, "CLASS",
+                classFile.getAbsolutePath(),
+                fullClassName,
+                "Not a valid Plugin."));
+          } else if (matcher.getImplementedPluginInterfaces(clazz).stream()
+              .noneMatch(registeredPluginInterfaces::contains)) {
             // Add to scan logs.
             scanLogs.add(new ScanLog(
                 false, true, "PLUGIN",
                 classFile.getAbsolutePath(),
                 fullClassName,
                 "Does not implement any of the targeted Plugin Interfaces."));
+          } else {
+            @SuppressWarnings("unchecked")
+            Class<? extends Pluggable> pluggableClazz = (Class<? extends Pluggable>) clazz;
+            pluginsFound.put(pluggableClazz, PluginDescriptor.fromAnnotation(pluggableClazz));
           }
         } else {
+
           // Add to scan logs.
           scanLogs.add(new ScanLog(
-              false, true, "CLASS",
-              classFile.getAbsolutePath(),
-              fullClassName,
-              "Not a valid Plugin."));
+              false, true, "CLASS", classFile.getName(), fullClassName,
+              "Not located in a targeted package."));
         }
-      } else {
-
-        // Add to scan logs.
-        scanLogs.add(new ScanLog(
-            false, true, "CLASS", classFile.getName(), fullClassName,
-            "Not located in a targeted package."));
       }
+
+      // Register the Plugins found in the package directory as a single change to the Plugin
+      // Registry.
+      scanLogs.addAll(
+          registerPlugins(pluginsFound, registeredPluginInterfaces, packageRoot, cl, upgrade));
+    } catch (RuntimeException | Error e) {
+      // No Plugin was registered, so the class loader is no longer needed.
+      cl.retireIfUnreferenced();
+      throw e;
     }
 
-    return new ScanResults(scanLogs);
+    // Record the scanned package directory, so that its Plugins can be saved to a registry
+    // snapshot.
+    recordPluginSource(pkgDir, registeredPluginInterfaces, targetPackages, scanSubpackages);
+
+    metrics.recordScan(false, classFiles.size(), classesLoaded, System.nanoTime() - startTime);
+    ScanResults scanResults = new ScanResults(scanLogs);
+    commitScanEvent(scanEvent, pkgDir, classFiles.size(), classesLoaded, scanResults);
+    return scanResults;
+  }
+
+  /**
+   * Scan the specified JAR file for Plugins that implement any registered Plugin Interface, each
+   * of which replaces the registered Plugins with the same name (i.e. the Plugin's other
+   * versions) under the same Plugin Interface.
+   * <p>
+   * The replacement is a single change to the Plugin Registry: retrievals see either the old
+   * Plugins or the new ones, never both. The class loaders of the replaced Plugins are closed once
+   * the leases taken on them (see {@link #lease(String, Class)}) are closed.
+   *
+   * @param jarFilePath Path to JAR file to be scanned.
+   * @return Scan results.
+   * @throws IOException Thrown on IO exception.
+   */
+  public final ScanResults upgradeJar(String jarFilePath) throws IOException {
+    Set<Class<? extends Pluggable>> registeredPluginInterfaces = getRegisteredPluginInterfaces();
+
+    if (registeredPluginInterfaces.size() <= 0) {
+      throw new IllegalStateException("No interfaces have been registered to the plugin registry.");
+    }
+
+    return scanJar(jarFilePath, registeredPluginInterfaces, null, true, true);
+  }
+
+  /**
+   * Scan the specified package directory for Plugins that implement any registered Plugin
+   * Interface, each of which replaces the registered Plugins with the same name under the same
+   * Plugin Interface (see {@link #upgradeJar(String)}).
+   *
+   * @param packageDirectoryPath Path to a package root directory.
+   * @return Scan results.
+   */
+  public final ScanResults upgradePackageDirectory(String packageDirectoryPath) {
+    Set<Class<? extends Pluggable>> registeredPluginInterfaces = getRegisteredPluginInterfaces();
+
+    if (registeredPluginInterfaces.size() <= 0) {
+      throw new IllegalStateException("No interfaces have been registered to the plugin registry.");
+    }
+
+    return scanPackageDirectory(packageDirectoryPath, registeredPluginInterfaces, null, true, true);
+  }
+
+  //---------- Plugin Catalog Methods ----------//
+
+  /**
+   * Registers the Plugins of the specified catalog source that implement any registered Plugin
+   * Interface, each under the registered Plugin Interfaces that it implements.
+   * <p>
+   * The source is not scanned again: the Plugins share the classes and metadata of the catalog
+   * (see {@link PluginCatalog}), while their attributes and instances belong to this registry.
+   *
+   * @param catalog Plugin catalog.
+   * @param sourcePath Path of the JAR file or package directory, in the catalog.
+   * @return Scan results.
+   */
+  public final ScanResults enableCatalogSource(PluginCatalog catalog, String sourcePath) {
+    // Validate input.
+    Objects.requireNonNull(catalog);
+    Objects.requireNonNull(sourcePath);
+    Set<Class<? extends Pluggable>> registeredPluginInterfaces = getRegisteredPluginInterfaces();
+    if (registeredPluginInterfaces.size() <= 0) {
+      throw new IllegalStateException("No interfaces have been registered to the plugin registry.");
+    }
+
+    // The lease keeps the source's class loader open, should the source be removed meanwhile.
+    PluginCatalog.Source source = catalog.getSource(sourcePath);
+    PluginClassLoader classLoader = source.getClassLoader();
+    if (!classLoader.acquireLease()) {
+      throw new IllegalStateException(
+          String.format("Source was removed from the catalog [%s].", sourcePath));
+    }
+    try {
+      return new ScanResults(registerPlugins(source.getPlugins(), registeredPluginInterfaces,
+          source.getPath(), classLoader, false));
+    } finally {
+      classLoader.releaseLease();
+    }
+  }
+
+  /**
+   * Unregisters the Plugins enabled from the specified catalog source (see {@link
+   * #enableCatalogSource(PluginCatalog, String)}), from all registered Plugin Interfaces.
+   *
+   * @param sourcePath Path of the JAR file or package directory, in the catalog.
+   */
+  public final void disableCatalogSource(String sourcePath) {
+    // Validate input.
+    String path = new File(Objects.requireNonNull(sourcePath)).getAbsolutePath();
+
+    write(builder -> {
+      for (Class<? extends Pluggable> pluginInterface
+          : new ArrayList<>(builder.getRegisteredInterfaces())) {
+        for (PluginEntry pluginEntry
+            : new ArrayList<>(builder.getPluginIndex(pluginInterface).getAll())) {
+          if (path.equals(pluginEntry.getPluginSource())) {
+            builder.remove(pluginInterface, pluginEntry);
+          }
+        }
+      }
+      return null;
+    });
   }
 
   //---------- Plugin Retrieval Methods ----------//
@@ -1865,18 +2496,71 @@ public final class PluginRegistry {
    */
   public final <T extends Pluggable> List<T> getAll(
       Class<T> registeredPluginInterface) {
+    metrics.recordLookup(RegistryMetrics.Lookup.GET_ALL);
 
     validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
 
     List<T> plugins = new ArrayList<>();
 
     // Loop through all Plugins registered under the specified Plugin Interface.
-    for (PluginEntry pluginEntry : pluginRegistry.get(registeredPluginInterface)) {
+    for (PluginEntry pluginEntry : getPluginIndex(registeredPluginInterface)) {
       plugins.add(pluginEntry.getPluginAsInterface(registeredPluginInterface));
     }
     return plugins;
   }
 
+  /**
+   * Returns a stream of all Plugins registered under the specified Plugin Interface.
+   * <p>
+   * The stream is bound to the Plugins registered when this method is called, and instantiates (or
+   * reuses, according to the Plugin's instance scope) each Plugin only as it is consumed, so that
+   * short-circuiting operations (e.g. {@code findFirst()}) skip the remaining Plugins. The stream
+   * is sized and splits evenly, so it can be evaluated in parallel with {@code parallel()}.
+   *
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @param <T> Registered Plugin Interface type.
+   * @return Lazily instantiated Plugins.
+   */
+  public final <T extends Pluggable> Stream<T> stream(
+      Class<T> registeredPluginInterface) {
+    metrics.recordLookup(RegistryMetrics.Lookup.STREAM);
+
+    validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
+
+    return StreamSupport.stream(getPluginIndex(registeredPluginInterface).spliterator(), false)
+        .map(x -> x.getPluginAsInterface(registeredPluginInterface));
+  }
+
+  /**
+   * Returns a stream of the Plugins registered under the specified Plugin Interface that match the
+   * specified attribute query (see {@link #query}), which instantiates each Plugin only as it is
+   * consumed (see {@link #stream(Class)}).
+   *
+   * @param query Attribute query.
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @param <T> Registered Plugin Interface type.
+   * @return Lazily instantiated Plugins.
+   */
+  public final <T extends Pluggable> Stream<T> stream(
+      AttributeQuery query,
+      Class<T> registeredPluginInterface) {
+    metrics.recordLookup(RegistryMetrics.Lookup.STREAM);
+
+    // Validate input.
+    Objects.requireNonNull(query);
+    validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
+
+    PluginEntry[] pluginEntries = queryPluginEntries(
+        registeredPluginInterface, "query", query,
+        pluginIndex -> QueryPlan.plan(query, pluginIndex).execute())
+        .toArray(new PluginEntry[0]);
+
+    return StreamSupport.stream(Spliterators.<PluginEntry>spliterator(pluginEntries,
+            Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL
+                | Spliterator.IMMUTABLE), false)
+        .map(x -> x.getPluginAsInterface(registeredPluginInterface));
+  }
+
   /**
    * Returns all versions of the specified Plugin (i.e. all Plugins sharing the specified name),
    * that are registered under the specified Plugin Interface.
@@ -1888,6 +2572,7 @@ public final class PluginRegistry {
   public final <T extends Pluggable> List<T> getAll(
       String pluginName,
       Class<T> registeredPluginInterface) {
+    metrics.recordLookup(RegistryMetrics.Lookup.GET_ALL);
 
     // Validate input.
     validatePluginNameArgument(pluginName);
@@ -1895,11 +2580,10 @@ public final class PluginRegistry {
 
     List<T> plugins = new ArrayList<>();
 
-    // Loop through all Plugins registered under the specified Plugin Interface.
-    for (PluginEntry pluginEntry : pluginRegistry.get(registeredPluginInterface)) {
-      if (pluginEntry.getPluginName().equals(pluginName)) {
-        plugins.add(pluginEntry.getPluginAsInterface(registeredPluginInterface));
-      }
+    // Loop through all versions of the Plugin registered under the specified Plugin Interface.
+    for (PluginEntry pluginEntry
+        : getPluginIndex(registeredPluginInterface).getVersions(pluginName).values()) {
+      plugins.add(pluginEntry.getPluginAsInterface(registeredPluginInterface));
     }
     return plugins;
   }
@@ -1917,22 +2601,20 @@ public final class PluginRegistry {
       String pluginName,
       int majorVersion, int minorVersion, int buildNumber,
       Class<T> registeredPluginInterface) {
+    metrics.recordLookup(RegistryMetrics.Lookup.GET);
 
     // Validate input, and create PluginVersion object.
     validatePluginNameArgument(pluginName);
     validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
     PluginVersion pluginVersion = new PluginVersion(majorVersion, minorVersion, buildNumber);
 
-    // Loop through all Plugins registered under the specified Plugin Interface.
-    for (PluginEntry pluginEntry : pluginRegistry.get(registeredPluginInterface)) {
-      if (pluginEntry.getPluginName().equals(pluginName) &&
-          pluginEntry.getPluginVersion().equals(pluginVersion)) {
-
-        return pluginEntry.getPluginAsInterface(registeredPluginInterface);
-      }
-    }
+    // Look up the Plugin by name and version.
+    PluginEntry pluginEntry =
+        getPluginIndex(registeredPluginInterface).get(pluginName, pluginVersion);
 
-    return null;
+    return (pluginEntry == null) ?
+        null :
+        pluginEntry.getPluginAsInterface(registeredPluginInterface);
   }
 
   /**
@@ -1947,32 +2629,156 @@ public final class PluginRegistry {
   public final <T extends Pluggable> T getLatestVersion(
       String pluginName,
       Class<T> registeredPluginInterface) {
+    metrics.recordLookup(RegistryMetrics.Lookup.GET_LATEST_VERSION);
 
     // Validate input.
     validatePluginNameArgument(pluginName);
     validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
 
-    PluginVersion latestVersion = null;
-    PluginEntry targetPluginEntry = null;
+    // Look up the latest version of the Plugin.
+    PluginEntry targetPluginEntry =
+        getPluginIndex(registeredPluginInterface).getLatestVersion(pluginName);
 
-    // Loop through all Plugins registered under the specified Plugin Interface.
-    for (PluginEntry pluginEntry : pluginRegistry.get(registeredPluginInterface)) {
+    return (targetPluginEntry == null) ?
+        null :
+        targetPluginEntry.getPluginAsInterface(registeredPluginInterface);
+  }
+
+  /**
+   * Returns a lease on the latest version of a Plugin with the given name, that is registered under
+   * the specified Plugin Interface (if one exists). Otherwise, returns null.
+   * <p>
+   * While the lease is open, the class loader of the leased Plugin stays open, even if the Plugin
+   * is unregistered or upgraded (see {@link #upgradeJar(String)}) in the meantime. The lease must
+   * be closed once the call made on the Plugin completes. Taking a lease never locks.
+   *
+   * @param pluginName Plugin name.
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @param <T> Registered Plugin Interface type.
+   * @return A lease on an instantiated Plugin, or NULL if none was found.
+   */
+  public final <T extends Pluggable> PluginLease<T> lease(
+      String pluginName,
+      Class<T> registeredPluginInterface) {
+    metrics.recordLookup(RegistryMetrics.Lookup.LEASE);
+
+    // Validate input.
+    validatePluginNameArgument(pluginName);
+    validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
 
-      // Check the plugin name.
-      if (pluginEntry.getPluginName().equals(pluginName)) {
+    while (true) {
+      // Look up the latest version of the Plugin.
+      PluginEntry targetPluginEntry =
+          getPluginIndex(registeredPluginInterface).getLatestVersion(pluginName);
+      if (targetPluginEntry == null) {
+        return null;
+      }
 
-        // Filter for the latest version.
-        if (latestVersion == null ||
-            latestVersion.compareTo(pluginEntry.getPluginVersion()) < 0) {
-          latestVersion = pluginEntry.getPluginVersion();
-          targetPluginEntry = pluginEntry;
-        }
+      // A class loader is only closed after the Plugin Registry stopped referencing it, so if the
+      // Plugin was replaced in the meantime, the lookup is retried.
+      PluginLease<T> lease = leasePluginEntry(targetPluginEntry, registeredPluginInterface);
+      if (lease != null) {
+        return lease;
       }
     }
+  }
+
+  /**
+   * Returns the latest version of the specified Plugin within the specified version range (e.g.
+   * {@code "^1.2"} or {@code "[1.0,2.0)"}, see {@link VersionRange}), that is registered under
+   * the specified Plugin Interface. Otherwise, returns null.
+   *
+   * @param pluginName Plugin name.
+   * @param versionRange Version range.
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @param <T> Registered Plugin Interface type.
+   * @return An instantiated Plugin, or NULL if none was found.
+   */
+  public final <T extends Pluggable> T resolve(
+      String pluginName,
+      String versionRange,
+      Class<T> registeredPluginInterface) {
+    return resolve(pluginName, VersionRange.parse(versionRange), registeredPluginInterface);
+  }
+
+  /**
+   * Returns the latest version of the specified Plugin within the specified version range, that
+   * is registered under the specified Plugin Interface. Otherwise, returns null.
+   *
+   * @param pluginName Plugin name.
+   * @param versionRange Version range.
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @param <T> Registered Plugin Interface type.
+   * @return An instantiated Plugin, or NULL if none was found.
+   */
+  public final <T extends Pluggable> T resolve(
+      String pluginName,
+      VersionRange versionRange,
+      Class<T> registeredPluginInterface) {
+    metrics.recordLookup(RegistryMetrics.Lookup.RESOLVE);
+
+    // Validate input.
+    validatePluginNameArgument(pluginName);
+    Objects.requireNonNull(versionRange);
+    validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
+
+    // Look up the latest version within the range.
+    Map.Entry<PluginVersion, PluginEntry> targetPluginEntry = versionRange.highest(
+        getPluginIndex(registeredPluginInterface).getVersions(pluginName));
 
     return (targetPluginEntry == null) ?
         null :
-        targetPluginEntry.getPluginAsInterface(registeredPluginInterface);
+        targetPluginEntry.getValue().getPluginAsInterface(registeredPluginInterface);
+  }
+
+  /**
+   * Returns all versions of the specified Plugin within the specified version range (see {@link
+   * VersionRange}), that are registered under the specified Plugin Interface, ordered from the
+   * oldest version to the latest version.
+   *
+   * @param pluginName Plugin name.
+   * @param versionRange Version range.
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @param <T> Registered Plugin Interface type.
+   * @return A list of instantiated Plugins.
+   */
+  public final <T extends Pluggable> List<T> resolveAll(
+      String pluginName,
+      String versionRange,
+      Class<T> registeredPluginInterface) {
+    return resolveAll(pluginName, VersionRange.parse(versionRange), registeredPluginInterface);
+  }
+
+  /**
+   * Returns all versions of the specified Plugin within the specified version range, that are
+   * registered under the specified Plugin Interface, ordered from the oldest version to the latest
+   * version.
+   *
+   * @param pluginName Plugin name.
+   * @param versionRange Version range.
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @param <T> Registered Plugin Interface type.
+   * @return A list of instantiated Plugins.
+   */
+  public final <T extends Pluggable> List<T> resolveAll(
+      String pluginName,
+      VersionRange versionRange,
+      Class<T> registeredPluginInterface) {
+    metrics.recordLookup(RegistryMetrics.Lookup.RESOLVE_ALL);
+
+    // Validate input.
+    validatePluginNameArgument(pluginName);
+    Objects.requireNonNull(versionRange);
+    validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
+
+    List<T> plugins = new ArrayList<>();
+
+    // Loop through the versions of the Plugin within the range.
+    for (PluginEntry pluginEntry : versionRange.subMap(
+        getPluginIndex(registeredPluginInterface).getVersions(pluginName)).values()) {
+      plugins.add(pluginEntry.getPluginAsInterface(registeredPluginInterface));
+    }
+    return plugins;
   }
 
   /**
@@ -1990,31 +2796,23 @@ public final class PluginRegistry {
       Predicate<PolymorphicMap> attributesTest,
       String pluginName,
       Class<T> registeredPluginInterface) {
+    metrics.recordLookup(RegistryMetrics.Lookup.GET_LATEST_VERSION_BY_ATTRIBUTE);
 
     // Validate input.
     Objects.requireNonNull(attributesTest);
     validatePluginNameArgument(pluginName);
     validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
 
-    PluginVersion latestVersion = null;
     PluginEntry targetPluginEntry = null;
 
-    // Loop through all Plugins registered under the specified Plugin Interface.
-    for (PluginEntry pluginEntry : pluginRegistry.get(registeredPluginInterface)) {
-
-      // Check the plugin name.
-      if (pluginEntry.getPluginName().equals(pluginName)) {
+    // Loop through the versions of the Plugin, starting from the latest version.
+    for (PluginEntry pluginEntry : getPluginIndex(registeredPluginInterface)
+        .getVersions(pluginName).descendingMap().values()) {
 
-        // Check if this Plugin's attributes pass the "Attributes Test" provided by the user.
-        if (attributesTest.test(pluginEntry.getPluginAttributes())) {
-
-          // Filter for the latest version.
-          if (latestVersion == null ||
-              latestVersion.compareTo(pluginEntry.getPluginVersion()) < 0) {
-            latestVersion = pluginEntry.getPluginVersion();
-            targetPluginEntry = pluginEntry;
-          }
-        }
+      // Check if this Plugin's attributes pass the "Attributes Test" provided by the user.
+      if (attributesTest.test(pluginEntry.getPluginAttributes())) {
+        targetPluginEntry = pluginEntry;
+        break;
       }
     }
 
@@ -2038,31 +2836,23 @@ public final class PluginRegistry {
       BiPredicate<PolymorphicMap, PluginVersion> biPredicate,
       String pluginName,
       Class<T> registeredPluginInterface) {
+    metrics.recordLookup(RegistryMetrics.Lookup.GET_LATEST_VERSION_BY_ATTRIBUTE);
 
     // Validate input.
     Objects.requireNonNull(biPredicate);
     validatePluginNameArgument(pluginName);
     validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
 
-    PluginVersion latestVersion = null;
     PluginEntry targetPluginEntry = null;
 
-    // Loop through all Plugins registered under the specified Plugin Interface.
-    for (PluginEntry pluginEntry : pluginRegistry.get(registeredPluginInterface)) {
-
-      // Check the plugin name.
-      if (pluginEntry.getPluginName().equals(pluginName)) {
-
-        // Check if this Plugin's attributes pass the "Attributes & Plugin Version Test" provided by the user.
-        if (biPredicate.test(pluginEntry.getPluginAttributes(), pluginEntry.getPluginVersion())) {
+    // Loop through the versions of the Plugin, starting from the latest version.
+    for (PluginEntry pluginEntry : getPluginIndex(registeredPluginInterface)
+        .getVersions(pluginName).descendingMap().values()) {
 
-          // Filter for the latest version.
-          if (latestVersion == null ||
-              latestVersion.compareTo(pluginEntry.getPluginVersion()) < 0) {
-            latestVersion = pluginEntry.getPluginVersion();
-            targetPluginEntry = pluginEntry;
-          }
-        }
+      // Check if this Plugin's attributes pass the "Attributes & Plugin Version Test" provided by the user.
+      if (biPredicate.test(pluginEntry.getPluginAttributes(), pluginEntry.getPluginVersion())) {
+        targetPluginEntry = pluginEntry;
+        break;
       }
     }
 
@@ -2080,25 +2870,14 @@ public final class PluginRegistry {
    */
   public final <T extends Pluggable> List<T> getLatestVersions(
       Class<T> registeredPluginInterface) {
+    metrics.recordLookup(RegistryMetrics.Lookup.GET_LATEST_VERSIONS);
 
     // Validate input.
     validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
 
-    Map<String, PluginEntry> latestPluginMap = new HashMap<>();
-
-    // Loop through all Plugins registered under the specified Plugin Interface.
-    for (PluginEntry pluginEntry : pluginRegistry.get(registeredPluginInterface)) {
-
-      PluginEntry currentLatest = latestPluginMap.get(pluginEntry.getPluginName());
-
-      // Filter for the latest version.
-      if (currentLatest == null ||
-          currentLatest.getPluginVersion().compareTo(pluginEntry.getPluginVersion()) < 0) {
-        latestPluginMap.put(pluginEntry.getPluginName(), pluginEntry);
-      }
-    }
-
-    return latestPluginMap.values().stream()
+    // Read the latest version of each Plugin from the index.
+    return queryPluginEntries(registeredPluginInterface, "getLatestVersions", null,
+        PluginIndex::getLatestVersions).stream()
         .map(x -> x.getPluginAsInterface(registeredPluginInterface))
         .collect(Collectors.toList());
   }
@@ -2116,30 +2895,35 @@ public final class PluginRegistry {
   public final <T extends Pluggable> List<T> getLatestVersionsByAttribute(
       Predicate<PolymorphicMap> attributesTest,
       Class<T> registeredPluginInterface) {
+    metrics.recordLookup(RegistryMetrics.Lookup.GET_LATEST_VERSIONS_BY_ATTRIBUTE);
 
     // Validate input.
     Objects.requireNonNull(attributesTest);
     validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
 
-    Map<String, PluginEntry> latestPluginMap = new HashMap<>();
-
-    // Loop through all Plugins registered under the specified Plugin Interface.
-    for (PluginEntry pluginEntry : pluginRegistry.get(registeredPluginInterface)) {
+    Collection<PluginEntry> latestPluginEntries = queryPluginEntries(
+        registeredPluginInterface, "getLatestVersionsByAttribute", attributesTest, pluginIndex -> {
+          List<PluginEntry> results = new ArrayList<>();
 
-      // Check if this Plugin's attributes pass the "Attributes Test" provided by the user.
-      if (attributesTest.test(pluginEntry.getPluginAttributes())) {
+          // Loop through each Plugin name registered under the specified Plugin Interface.
+          for (String pluginName : pluginIndex.getPluginNames()) {
 
-        PluginEntry currentLatest = latestPluginMap.get(pluginEntry.getPluginName());
+            // Loop through the versions of the Plugin, starting from the latest version.
+            for (PluginEntry pluginEntry
+                : pluginIndex.getVersions(pluginName).descendingMap().values()) {
 
-        // Filter for the latest version.
-        if (currentLatest == null ||
-            currentLatest.getPluginVersion().compareTo(pluginEntry.getPluginVersion()) < 0) {
-          latestPluginMap.put(pluginEntry.getPluginName(), pluginEntry);
-        }
-      }
-    }
+              // Check if this Plugin's attributes pass the "Attributes Test" provided by the user.
+              if (attributesTest.test(pluginEntry.getPluginAttributes())) {
+                results.add(pluginEntry);
+                break;
+              }
+            }
+          }
+
+          return results;
+        });
 
-    return latestPluginMap.values().stream()
+    return latestPluginEntries.stream()
         .map(x -> x.getPluginAsInterface(registeredPluginInterface))
         .collect(Collectors.toList());
   }
@@ -2157,30 +2941,35 @@ public final class PluginRegistry {
   public final <T extends Pluggable> List<T> getLatestVersionsByAttribute(
       BiPredicate<PolymorphicMap, PluginVersion> biPredicate,
       Class<T> registeredPluginInterface) {
+    metrics.recordLookup(RegistryMetrics.Lookup.GET_LATEST_VERSIONS_BY_ATTRIBUTE);
 
     // Validate input.
     Objects.requireNonNull(biPredicate);
     validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
 
-    Map<String, PluginEntry> latestPluginMap = new HashMap<>();
+    Collection<PluginEntry> latestPluginEntries = queryPluginEntries(
+        registeredPluginInterface, "getLatestVersionsByAttribute", biPredicate, pluginIndex -> {
+          List<PluginEntry> results = new ArrayList<>();
 
-    // Loop through all Plugins registered under the specified Plugin Interface.
-    for (PluginEntry pluginEntry : pluginRegistry.get(registeredPluginInterface)) {
+          // Loop through each Plugin name registered under the specified Plugin Interface.
+          for (String pluginName : pluginIndex.getPluginNames()) {
 
-      // Check if this Plugin's attributes pass the "Attributes & Plugin Version Test" provided by the user.
-      if (biPredicate.test(pluginEntry.getPluginAttributes(), pluginEntry.getPluginVersion())) {
+            // Loop through the versions of the Plugin, starting from the latest version.
+            for (PluginEntry pluginEntry
+                : pluginIndex.getVersions(pluginName).descendingMap().values()) {
 
-        PluginEntry currentLatest = latestPluginMap.get(pluginEntry.getPluginName());
+              // Check if this Plugin's attributes pass the "Attributes & Plugin Version Test" provided by the user.
+              if (biPredicate.test(pluginEntry.getPluginAttributes(), pluginEntry.getPluginVersion())) {
+                results.add(pluginEntry);
+                break;
+              }
+            }
+          }
 
-        // Filter for the latest version.
-        if (currentLatest == null ||
-            currentLatest.getPluginVersion().compareTo(pluginEntry.getPluginVersion()) < 0) {
-          latestPluginMap.put(pluginEntry.getPluginName(), pluginEntry);
-        }
-      }
-    }
+          return results;
+        });
 
-    return latestPluginMap.values().stream()
+    return latestPluginEntries.stream()
         .map(x -> x.getPluginAsInterface(registeredPluginInterface))
         .collect(Collectors.toList());
   }
@@ -2198,23 +2987,31 @@ public final class PluginRegistry {
   public final <T extends Pluggable> List<T> getByAttribute(
       Predicate<PolymorphicMap> attributesTest,
       Class<T> registeredPluginInterface) {
+    metrics.recordLookup(RegistryMetrics.Lookup.GET_BY_ATTRIBUTE);
 
     // Validate input.
     Objects.requireNonNull(attributesTest);
     validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
 
-    List<T> results = new ArrayList<>();
+    Collection<PluginEntry> pluginEntries = queryPluginEntries(
+        registeredPluginInterface, "getByAttribute", attributesTest, pluginIndex -> {
+          List<PluginEntry> results = new ArrayList<>();
 
-    // Loop through all Plugins registered under the specified Plugin Interface.
-    for (PluginEntry pluginEntry : pluginRegistry.get(registeredPluginInterface)) {
+          // Loop through all Plugins registered under the specified Plugin Interface.
+          for (PluginEntry pluginEntry : pluginIndex) {
 
-      // Check if this Plugin's attributes pass the "Attributes Test" provided by the user.
-      if (attributesTest.test(pluginEntry.getPluginAttributes())) {
-        results.add(pluginEntry.getPluginAsInterface(registeredPluginInterface));
-      }
-    }
+            // Check if this Plugin's attributes pass the "Attributes Test" provided by the user.
+            if (attributesTest.test(pluginEntry.getPluginAttributes())) {
+              results.add(pluginEntry);
+            }
+          }
 
-    return results;
+          return results;
+        });
+
+    return pluginEntries.stream()
+        .map(x -> x.getPluginAsInterface(registeredPluginInterface))
+        .collect(Collectors.toList());
   }
 
   /**
@@ -2230,23 +3027,32 @@ public final class PluginRegistry {
   public final <T extends Pluggable> List<T> getByAttribute(
       BiPredicate<PolymorphicMap, PluginVersion> biPredicate,
       Class<T> registeredPluginInterface) {
+    metrics.recordLookup(RegistryMetrics.Lookup.GET_BY_ATTRIBUTE);
 
     // Validate input.
     Objects.requireNonNull(biPredicate);
     validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
 
-    List<T> results = new ArrayList<>();
+    Collection<PluginEntry> pluginEntries = queryPluginEntries(
+        registeredPluginInterface, "getByAttribute", biPredicate, pluginIndex -> {
+          List<PluginEntry> results = new ArrayList<>();
 
-    // Loop through all Plugins registered under the specified Plugin Interface.
-    for (PluginEntry pluginEntry : pluginRegistry.get(registeredPluginInterface)) {
+          // Loop through all Plugins registered under the specified Plugin Interface.
+          for (PluginEntry pluginEntry : pluginIndex) {
 
-      // Check if this Plugin's attributes pass the "Attributes Test" provided by the user.
-      if (biPredicate.test(pluginEntry.getPluginAttributes(), pluginEntry.getPluginVersion())) {
-        results.add(pluginEntry.getPluginAsInterface(registeredPluginInterface));
-      }
-    }
+            // Check if this Plugin's attributes pass the "Attributes Test" provided by the user.
+            if (biPredicate.test(
+                pluginEntry.getPluginAttributes(), pluginEntry.getPluginVersion())) {
+              results.add(pluginEntry);
+            }
+          }
 
-    return results;
+          return results;
+        });
+
+    return pluginEntries.stream()
+        .map(x -> x.getPluginAsInterface(registeredPluginInterface))
+        .collect(Collectors.toList());
   }
 
   /**
@@ -2264,6 +3070,7 @@ public final class PluginRegistry {
       Predicate<PolymorphicMap> attributesTest,
       String pluginName,
       Class<T> registeredPluginInterface) {
+    metrics.recordLookup(RegistryMetrics.Lookup.GET_BY_ATTRIBUTE);
 
     // Validate input.
     Objects.requireNonNull(attributesTest);
@@ -2272,16 +3079,13 @@ public final class PluginRegistry {
 
     List<T> results = new ArrayList<>();
 
-    // Loop through all Plugins registered under the specified Plugin Interface.
-    for (PluginEntry pluginEntry : pluginRegistry.get(registeredPluginInterface)) {
-
-      // Check the plugin name.
-      if (pluginEntry.getPluginName().equals(pluginName)) {
+    // Loop through all versions of the Plugin registered under the specified Plugin Interface.
+    for (PluginEntry pluginEntry
+        : getPluginIndex(registeredPluginInterface).getVersions(pluginName).values()) {
 
-        // Check if this Plugin's attributes pass the "Attributes Test" provided by the user.
-        if (attributesTest.test(pluginEntry.getPluginAttributes())) {
-          results.add(pluginEntry.getPluginAsInterface(registeredPluginInterface));
-        }
+      // Check if this Plugin's attributes pass the "Attributes Test" provided by the user.
+      if (attributesTest.test(pluginEntry.getPluginAttributes())) {
+        results.add(pluginEntry.getPluginAsInterface(registeredPluginInterface));
       }
     }
 
@@ -2303,6 +3107,7 @@ public final class PluginRegistry {
       BiPredicate<PolymorphicMap, PluginVersion> biPredicate,
       String pluginName,
       Class<T> registeredPluginInterface) {
+    metrics.recordLookup(RegistryMetrics.Lookup.GET_BY_ATTRIBUTE);
 
     // Validate input.
     Objects.requireNonNull(biPredicate);
@@ -2311,22 +3116,482 @@ public final class PluginRegistry {
 
     List<T> results = new ArrayList<>();
 
-    // Loop through all Plugins registered under the specified Plugin Interface.
-    for (PluginEntry pluginEntry : pluginRegistry.get(registeredPluginInterface)) {
+    // Loop through all versions of the Plugin registered under the specified Plugin Interface.
+    for (PluginEntry pluginEntry
+        : getPluginIndex(registeredPluginInterface).getVersions(pluginName).values()) {
+
+      // Check if this Plugin's attributes pass the "Attributes Test" provided by the user.
+      if (biPredicate.test(pluginEntry.getPluginAttributes(), pluginEntry.getPluginVersion())) {
+        results.add(pluginEntry.getPluginAsInterface(registeredPluginInterface));
+      }
+    }
+
+    return results;
+  }
+
+  /**
+   * Returns all Plugins registered under the specified Plugin Interface, whose specified attribute
+   * equals the specified value. Uses the attribute's index, if the attribute is indexed (see {@link
+   * #createPluginAttributeIndex}); otherwise, tests every registered Plugin.
+   *
+   * @param attributeName Attribute name.
+   * @param attributeValue Attribute value.
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @param <T> Registered Plugin Interface type.
+   * @return A set of instantiated Plugins.
+   */
+  public final <T extends Pluggable> List<T> getByAttributeValue(
+      String attributeName,
+      Object attributeValue,
+      Class<T> registeredPluginInterface) {
+    metrics.recordLookup(RegistryMetrics.Lookup.GET_BY_ATTRIBUTE_VALUE);
+
+    // Validate input.
+    validateAttributeNameArgument(attributeName);
+    Objects.requireNonNull(attributeValue);
+    validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
+
+    List<T> results = new ArrayList<>();
+    for (PluginEntry pluginEntry : QueryPlan.plan(
+        AttributeQuery.eq(attributeName, attributeValue),
+        getPluginIndex(registeredPluginInterface)).execute()) {
+      results.add(pluginEntry.getPluginAsInterface(registeredPluginInterface));
+    }
+
+    return results;
+  }
+
+  /**
+   * Returns all Plugins registered under the specified Plugin Interface, whose specified attribute
+   * lies within the specified (inclusive) range. Only attribute values of the same class as the
+   * range bounds are considered. Uses the attribute's index, if the attribute has a sorted index
+   * (see {@link #createPluginAttributeIndex}); otherwise, tests every registered Plugin.
+   *
+   * @param attributeName Attribute name.
+   * @param from Lower bound of the range (inclusive).
+   * @param to Upper bound of the range (inclusive).
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @param <T> Registered Plugin Interface type.
+   * @param <V> Attribute value type.
+   * @return A set of instantiated Plugins.
+   */
+  public final <T extends Pluggable, V extends Comparable<? super V>> List<T> getByAttributeRange(
+      String attributeName,
+      V from,
+      V to,
+      Class<T> registeredPluginInterface) {
+    metrics.recordLookup(RegistryMetrics.Lookup.GET_BY_ATTRIBUTE_RANGE);
+
+    // Validate input.
+    validateAttributeNameArgument(attributeName);
+    Objects.requireNonNull(from);
+    Objects.requireNonNull(to);
+    validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
+
+    List<T> results = new ArrayList<>();
+    for (PluginEntry pluginEntry : QueryPlan.plan(
+        AttributeQuery.range(attributeName, from, to),
+        getPluginIndex(registeredPluginInterface)).execute()) {
+      results.add(pluginEntry.getPluginAsInterface(registeredPluginInterface));
+    }
+
+    return results;
+  }
+
+  /**
+   * Returns all Plugins registered under the specified Plugin Interface that match the specified
+   * attribute query. The query is planned against the attribute indexes of the Plugin Interface
+   * (see {@link #explain}), so that only the Plugins that match are visited.
+   * <p>
+   * The returned list is a view over the matching Plugins, which instantiates (or reuses, according
+   * to the Plugin's instance scope) a Plugin each time one of its elements is accessed; no Plugin
+   * is instantiated by the query itself.
+   *
+   * @param query Attribute query.
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @param <T> Registered Plugin Interface type.
+   * @return Lazily instantiated Plugins.
+   */
+  public final <T extends Pluggable> List<T> query(
+      AttributeQuery query,
+      Class<T> registeredPluginInterface) {
+    metrics.recordLookup(RegistryMetrics.Lookup.QUERY);
+
+    // Validate input.
+    Objects.requireNonNull(query);
+    validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
+
+    List<PluginEntry> pluginEntries = new ArrayList<>(queryPluginEntries(
+        registeredPluginInterface, "query", query,
+        pluginIndex -> QueryPlan.plan(query, pluginIndex).execute()));
+
+    return new AbstractList<>() {
+      @Override
+      public T get(int index) {
+        return pluginEntries.get(index).getPluginAsInterface(registeredPluginInterface);
+      }
+
+      @Override
+      public int size() {
+        return pluginEntries.size();
+      }
+    };
+  }
+
+  /**
+   * Returns a description of how the specified attribute query would be executed against the
+   * Plugins registered under the specified Plugin Interface: which attribute indexes are used (from
+   * the most selective one up), and which terms are tested against each candidate.
+   *
+   * @param query Attribute query.
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @return Query plan description.
+   */
+  public final String explain(
+      AttributeQuery query,
+      Class<? extends Pluggable> registeredPluginInterface) {
+
+    // Validate input.
+    Objects.requireNonNull(query);
+    validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
+
+    return QueryPlan.plan(query, getPluginIndex(registeredPluginInterface)).explain();
+  }
+
+  /**
+   * Returns a Plugin instance to its pool, so that it can be reused by later lookups. Only applies
+   * to Plugins whose instance scope is {@link InstanceScope#POOLED}; for all other Plugins, and for
+   * Plugins that are no longer registered, this method has no effect.
+   *
+   * @param plugin Plugin instance, previously returned by this Plugin Registry.
+   */
+  public final void release(Pluggable plugin) {
+    Objects.requireNonNull(plugin);
+
+    // Return the instance (rather than its instrumentation wrapper) to the Plugin's pool.
+    Pluggable pluginInstance = PluginInstrumenter.unwrap(plugin);
+    PluginEntry pluginEntry = findPluginEntry(pluginInstance.getClass());
+    if (pluginEntry != null && pluginEntry.getInstanceScope() == InstanceScope.POOLED) {
+      pluginEntry.releasePluginInstance(pluginInstance);
+    }
+  }
+
+  //---------- Plugin Invocation Methods ----------//
+
+  /**
+   * Calls every Plugin registered under the specified Plugin Interface in parallel, and returns
+   * the outcome of each call, in the order of {@link #getAll(Class)}.
+   * <p>
+   * Calls run on a thread pool of the Plugin Registry, so that the invocation takes about as long
+   * as the slowest call, rather than the sum of all calls. A call that does not complete within
+   * the timeout is interrupted, and reported as {@link InvocationResult.Status#TIMED_OUT}, while
+   * the other results are kept. Cancelling the returned future interrupts the calls still
+   * running. Each call holds a lease on its Plugin (see {@link #lease(String, Class)}).
+   * <p>
+   * The thread pool is bounded: it runs up to four calls per available processor at once, and up
+   * to 1024 calls wait for a thread, within their timeout. A Plugin that ignores interrupts keeps
+   * its thread past the timeout, so repeatedly invoking such a Plugin eventually ties up the whole
+   * pool; calls that find no thread within their timeout are then reported as {@link
+   * InvocationResult.Status#TIMED_OUT}, and calls that find the queue full as {@link
+   * InvocationResult.Status#FAILED} (with a {@link RejectedExecutionException}). Use {@link
+   * #invokeAll(Class, Function, Duration, Executor)} to run calls on another executor.
+   *
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @param call Call to make on each Plugin.
+   * @param timeout Maximum duration of each call.
+   * @param <T> Registered Plugin Interface type.
+   * @param <R> Type of the value returned by the call.
+   * @return Future results, completed once every call completed, failed or timed out.
+   */
+  public final <T extends Pluggable, R> CompletableFuture<List<InvocationResult<R>>> invokeAll(
+      Class<T> registeredPluginInterface,
+      Function<? super T, ? extends R> call,
+      Duration timeout) {
+    return invokeAll(registeredPluginInterface, call, timeout, getInvocationExecutor());
+  }
+
+  /**
+   * Calls every Plugin registered under the specified Plugin Interface in parallel on the
+   * specified executor, and returns the outcome of each call, in the order of {@link
+   * #getAll(Class)} (see {@link #invokeAll(Class, Function, Duration)}).
+   *
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @param call Call to make on each Plugin.
+   * @param timeout Maximum duration of each call.
+   * @param executor Executor to run the calls on.
+   * @param <T> Registered Plugin Interface type.
+   * @param <R> Type of the value returned by the call.
+   * @return Future results, completed once every call completed, failed or timed out.
+   */
+  public final <T extends Pluggable, R> CompletableFuture<List<InvocationResult<R>>> invokeAll(
+      Class<T> registeredPluginInterface,
+      Function<? super T, ? extends R> call,
+      Duration timeout,
+      Executor executor) {
+    metrics.recordLookup(RegistryMetrics.Lookup.INVOKE_ALL);
 
-      // Check the plugin name.
-      if (pluginEntry.getPluginName().equals(pluginName)) {
+    // Validate input.
+    validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
+    Objects.requireNonNull(call);
+    Objects.requireNonNull(executor);
+    if (timeout == null || timeout.isNegative() || timeout.isZero()) {
+      throw new IllegalArgumentException(String.format("Invalid timeout [%s].", timeout));
+    }
 
-        // Check if this Plugin's attributes pass the "Attributes Test" provided by the user.
-        if (biPredicate.test(pluginEntry.getPluginAttributes(), pluginEntry.getPluginVersion())) {
-          results.add(pluginEntry.getPluginAsInterface(registeredPluginInterface));
+    // Start a call per Plugin.
+    List<CompletableFuture<InvocationResult<R>>> calls = new ArrayList<>();
+    for (PluginEntry pluginEntry : getPluginIndex(registeredPluginInterface)) {
+      CompletableFuture<InvocationResult<R>> result = new CompletableFuture<>();
+      FutureTask<Void> task = new FutureTask<>(() -> {
+        result.complete(invokePluginEntry(pluginEntry, registeredPluginInterface, call));
+        return null;
+      });
+
+      // Interrupt the call once it timed out or was cancelled (and free its place in the queue of
+      // a thread pool, if it did not start).
+      result.completeOnTimeout(
+          InvocationResult.timedOut(pluginEntry), timeout.toNanos(), TimeUnit.NANOSECONDS);
+      result.whenComplete((value, failure) -> {
+        task.cancel(true);
+        if (executor instanceof ThreadPoolExecutor) {
+          ((ThreadPoolExecutor) executor).remove(task);
         }
+      });
+      calls.add(result);
+
+      try {
+        executor.execute(task);
+      } catch (RejectedExecutionException e) {
+        result.complete(InvocationResult.failed(pluginEntry, e));
       }
     }
 
+    // Gather the results, and propagate a cancellation to the calls.
+    CompletableFuture<List<InvocationResult<R>>> results = new CompletableFuture<>();
+    CompletableFuture.allOf(calls.toArray(new CompletableFuture<?>[0])).thenRun(() ->
+        results.complete(calls.stream().map(CompletableFuture::join).collect(Collectors.toList())));
+    results.whenComplete((value, failure) -> {
+      if (results.isCancelled()) {
+        calls.forEach(x -> x.cancel(true));
+      }
+    });
     return results;
   }
 
+  /**
+   * Sets the limits of the Plugin bulkheads (see {@link #getLatestVersionWithBulkhead(String,
+   * Class)}). Limits apply to the Plugins that were not called through a bulkhead yet, so they
+   * are best set before the first call. By default, a Plugin runs up to 25 calls at once, and
+   * rejects any other call.
+   *
+   * @param maxConcurrentCalls Maximum number of calls running at once, per Plugin.
+   * @param maxQueuedCalls Maximum number of calls waiting to run, per Plugin.
+   */
+  public final void setBulkheadLimits(int maxConcurrentCalls, int maxQueuedCalls) {
+    // Validate input.
+    if (maxConcurrentCalls < 1) {
+      throw new IllegalArgumentException(String.format(
+          "Maximum number of concurrent calls must be positive [%d].", maxConcurrentCalls));
+    } else if (maxQueuedCalls < 0) {
+      throw new IllegalArgumentException(String.format(
+          "Maximum number of queued calls cannot be a negative number [%d].", maxQueuedCalls));
+    }
+
+    metrics.setBulkheadLimits(maxConcurrentCalls, maxQueuedCalls);
+  }
+
+  /**
+   * Returns the latest version of a Plugin with the given name, that is registered under the
+   * specified Plugin Interface (if one exists), wrapped so that every call made on it goes through
+   * the Plugin's bulkhead. Otherwise, returns null.
+   * <p>
+   * A bulkhead caps the number of calls running at once on a Plugin, and the number of calls
+   * waiting for them (see {@link #setBulkheadLimits(int, int)}); further calls fail fast with a
+   * {@link BulkheadFullException}. A slow or stuck Plugin thus only ties up its own share of the
+   * callers' threads, instead of every thread calling the Plugin Interface. All the instances of
+   * a Plugin class share its bulkhead, whose in-flight calls, rejections and latencies are
+   * reported by {@link #getMetrics()}.
+   *
+   * @param pluginName Plugin name.
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @param <T> Registered Plugin Interface type.
+   * @return An instantiated plugin behind its bulkhead, or NULL if none was found.
+   */
+  public final <T extends Pluggable> T getLatestVersionWithBulkhead(
+      String pluginName,
+      Class<T> registeredPluginInterface) {
+    metrics.recordLookup(RegistryMetrics.Lookup.GET_LATEST_VERSION_WITH_BULKHEAD);
+
+    // Validate input.
+    validatePluginNameArgument(pluginName);
+    validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
+
+    // Look up the latest version of the Plugin.
+    PluginEntry targetPluginEntry =
+        getPluginIndex(registeredPluginInterface).getLatestVersion(pluginName);
+    if (targetPluginEntry == null) {
+      return null;
+    }
+
+    T plugin = targetPluginEntry.getPluginAsInterface(registeredPluginInterface);
+    Bulkhead bulkhead = metrics.getBulkhead(targetPluginEntry.getPluginClass());
+    return registeredPluginInterface.cast(Proxy.newProxyInstance(
+        registeredPluginInterface.getClassLoader(),
+        new Class<?>[]{registeredPluginInterface},
+        (proxy, method, args) -> invokeThroughBulkhead(bulkhead, plugin, method, args)));
+  }
+
+  /**
+   * Selects one of the Plugins registered under the specified Plugin Interface according to the
+   * specified policy, and returns a lease on it (see {@link #lease(String, Class)}). Otherwise,
+   * returns null.
+   * <p>
+   * Selection is meant for interchangeable Plugins (e.g. several backends of the same service):
+   * the lease must be closed once the call completes, so that the time it was held is recorded,
+   * and used by the policies that route calls to the least loaded or fastest Plugin. Choosing
+   * among the Plugins never locks nor allocates (only the lease is allocated).
+   *
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @param selectionPolicy Selection policy.
+   * @param <T> Registered Plugin Interface type.
+   * @return A lease on the selected Plugin, or NULL if no Plugin is registered.
+   */
+  public final <T extends Pluggable> PluginLease<T> select(
+      Class<T> registeredPluginInterface,
+      SelectionPolicy selectionPolicy) {
+    metrics.recordLookup(RegistryMetrics.Lookup.SELECT);
+
+    // Validate input.
+    validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
+    Objects.requireNonNull(selectionPolicy);
+
+    while (true) {
+      PluginIndex pluginIndex = getPluginIndex(registeredPluginInterface);
+      PluginEntry[] pluginEntries = pluginIndex.toArray();
+      if (pluginEntries.length == 0) {
+        return null;
+      }
+
+      // If the Plugin was replaced in the meantime, the selection is retried (see lease()).
+      PluginEntry targetPluginEntry = pluginEntries[
+          selectionPolicy.select(pluginEntries, pluginIndex.getSelectionCounter())];
+      PluginLease<T> lease = leasePluginEntry(targetPluginEntry, registeredPluginInterface);
+      if (lease != null) {
+        return lease;
+      }
+    }
+  }
+
+  /**
+   * Selects one of the Plugins registered under the specified Plugin Interface that match the
+   * specified attribute query (see {@link #query}) according to the specified policy, and returns
+   * a lease on it (see {@link #select(Class, SelectionPolicy)}). Otherwise, returns null.
+   *
+   * @param query Attribute query.
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @param selectionPolicy Selection policy.
+   * @param <T> Registered Plugin Interface type.
+   * @return A lease on the selected Plugin, or NULL if no Plugin matches the query.
+   */
+  public final <T extends Pluggable> PluginLease<T> select(
+      AttributeQuery query,
+      Class<T> registeredPluginInterface,
+      SelectionPolicy selectionPolicy) {
+    metrics.recordLookup(RegistryMetrics.Lookup.SELECT);
+
+    // Validate input.
+    Objects.requireNonNull(query);
+    validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
+    Objects.requireNonNull(selectionPolicy);
+
+    while (true) {
+      PluginIndex pluginIndex = getPluginIndex(registeredPluginInterface);
+      PluginEntry[] pluginEntries = queryPluginEntries(
+          registeredPluginInterface, "query", query,
+          x -> QueryPlan.plan(query, x).execute())
+          .toArray(new PluginEntry[0]);
+      if (pluginEntries.length == 0) {
+        return null;
+      }
+
+      PluginEntry targetPluginEntry = pluginEntries[
+          selectionPolicy.select(pluginEntries, pluginIndex.getSelectionCounter())];
+      PluginLease<T> lease = leasePluginEntry(targetPluginEntry, registeredPluginInterface);
+      if (lease != null) {
+        return lease;
+      }
+    }
+  }
+
+  /**
+   * Sets the maximum number of results that each Plugin keeps for its {@link Cacheable} methods
+   * (see {@link #getLatestVersionWithCache(String, Class)}). The size applies to the Plugins that
+   * were not returned with a cache yet, so it is best set before the first lookup. By default,
+   * each Plugin keeps up to 1000 results.
+   * <p>
+   * Caches are bounded by their number of results, not by the memory that the results take up
+   * (which cannot be measured reliably): Plugins returning large results call for a smaller size.
+   *
+   * @param maxCachedResults Maximum number of cached results, per Plugin.
+   */
+  public final void setMethodCacheSize(int maxCachedResults) {
+    if (maxCachedResults <= 0) {
+      throw new IllegalArgumentException(String.format(
+          "Method cache size must be a positive number [%d].", maxCachedResults));
+    }
+
+    methodCacheSize = maxCachedResults;
+  }
+
+  /**
+   * Returns the latest version of a Plugin with the given name, that is registered under the
+   * specified Plugin Interface (if one exists), wrapped so that the results of its {@link
+   * Cacheable} methods are memoized. Otherwise, returns null.
+   * <p>
+   * Results are kept in a bounded, least-recently-used cache per Plugin and Plugin Interface (see
+   * {@link #setMethodCacheSize(int)}), shared by every wrapper of the Plugin that this registry
+   * returns for the Plugin Interface. The cache is discarded as soon as the Plugin is unregistered
+   * or upgraded; wrappers that are still held then call the Plugin without caching.
+   *
+   * @param pluginName Plugin name.
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @param <T> Registered Plugin Interface type.
+   * @return An instantiated plugin with memoized results, or NULL if none was found.
+   */
+  public final <T extends Pluggable> T getLatestVersionWithCache(
+      String pluginName,
+      Class<T> registeredPluginInterface) {
+    metrics.recordLookup(RegistryMetrics.Lookup.GET_LATEST_VERSION_WITH_CACHE);
+
+    // Validate input.
+    validatePluginNameArgument(pluginName);
+    validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
+
+    // Look up the latest version of the Plugin.
+    PluginEntry targetPluginEntry =
+        getPluginIndex(registeredPluginInterface).getLatestVersion(pluginName);
+    if (targetPluginEntry == null) {
+      return null;
+    }
+
+    T plugin = targetPluginEntry.getPluginAsInterface(registeredPluginInterface);
+    Map<PluginEntry, MethodCache> interfaceMethodCaches =
+        methodCaches.computeIfAbsent(registeredPluginInterface, x -> new ConcurrentHashMap<>());
+    MethodCache methodCache = interfaceMethodCaches.computeIfAbsent(targetPluginEntry,
+        x -> new MethodCache(x.getPluginClass(), registeredPluginInterface, methodCacheSize));
+
+    // The Plugin may have been unregistered since it was looked up.
+    if (isMethodCacheStale(methodCache)) {
+      interfaceMethodCaches.remove(targetPluginEntry, methodCache);
+      methodCache.invalidate();
+    }
+
+    return registeredPluginInterface.cast(Proxy.newProxyInstance(
+        registeredPluginInterface.getClassLoader(),
+        new Class<?>[]{registeredPluginInterface},
+        (proxy, method, args) -> invokeThroughMethodCache(methodCache, plugin, method, args)));
+  }
+
   //---------- Plugin Attribute Methods ----------//
 
 
@@ -2864,11 +4129,22 @@ public final class PluginRegistry {
     Objects.requireNonNull(attributeName);
     Objects.requireNonNull(attributeValue);
 
-    // Retrieve the specified Plugin Entry.
-    PluginEntry pluginEntry = getPluginEntry(pluginName, pluginVersion, registeredPluginInterface);
-
-    // Return the value of the specified attribute.
-    return pluginEntry.getPluginAttributes().put(attributeName, attributeValue);
+    return write(builder -> {
+      // Retrieve the specified Plugin Entry.
+      PluginEntry pluginEntry =
+          getPluginEntry(pluginName, pluginVersion, registeredPluginInterface);
+
+      // Update a copy of the attributes (the published Plugin Entry is never modified).
+      PolymorphicMap pluginAttributes = pluginEntry.copyPluginAttributes();
+      V previousAttributeValue = pluginAttributes.put(attributeName, attributeValue);
+      PluginEntry updatedPluginEntry = pluginEntry.withPluginAttributes(pluginAttributes);
+      builder.replace(registeredPluginInterface, updatedPluginEntry);
+      builder.addEvent(() -> RegistryEvent.attributeChanged(
+          registeredPluginInterface, updatedPluginEntry, attributeName));
+
+      // Return the previous value of the specified attribute.
+      return previousAttributeValue;
+    });
   }
 
   /**
@@ -2961,29 +4237,109 @@ public final class PluginRegistry {
     Objects.requireNonNull(attributeValue);
     Objects.requireNonNull(previousAttributeValueType);
 
-    // Retrieve the specified Plugin Entry.
-    PluginEntry pluginEntry = getPluginEntry(pluginName, pluginVersion, registeredPluginInterface);
-
-    // Return the value of the specified attribute.
-    return pluginEntry.getPluginAttributes()
-        .put(attributeName, attributeValue, previousAttributeValueType);
+    return write(builder -> {
+      // Retrieve the specified Plugin Entry.
+      PluginEntry pluginEntry =
+          getPluginEntry(pluginName, pluginVersion, registeredPluginInterface);
+
+      // Update a copy of the attributes (the published Plugin Entry is never modified).
+      PolymorphicMap pluginAttributes = pluginEntry.copyPluginAttributes();
+      R previousAttributeValue =
+          pluginAttributes.put(attributeName, attributeValue, previousAttributeValueType);
+      PluginEntry updatedPluginEntry = pluginEntry.withPluginAttributes(pluginAttributes);
+      builder.replace(registeredPluginInterface, updatedPluginEntry);
+      builder.addEvent(() -> RegistryEvent.attributeChanged(
+          registeredPluginInterface, updatedPluginEntry, attributeName));
+
+      // Return the previous value of the specified attribute.
+      return previousAttributeValue;
+    });
   }
 
-  //---------- Plugin Statistics Methods ----------//
+  //---------- Plugin Attribute Index Methods ----------//
 
 
   /**
-   * Returns the number of Plugins registered, across all registered Plugin Interfaces.
+   * Declares an index over the specified attribute of the Plugins registered under the specified
+   * Plugin Interface, which is then used by {@link #getByAttributeValue} and {@link
+   * #getByAttributeRange}. The index is kept up to date as Plugins are registered and unregistered,
+   * and as their attributes change.
+   * <p>
+   * Note that indexing an attribute initializes the attributes of every Plugin registered under
+   * the Plugin Interface, before the registry is locked. Plugins registered from declared metadata
+   * are instantiated to do so, unless their attributes are declared as well.
    *
-   * @return Total Plugins registered.
+   * @param attributeName Attribute name.
+   * @param attributeIndexType Index type: {@link AttributeIndexType#HASH} for equality queries, or
+   * {@link AttributeIndexType#SORTED} for equality and range queries over Comparable values.
+   * @param registeredPluginInterface Registered Plugin Interface class.
    */
-  public final int count() {
-    int total = 0;
-    for (Class<? extends Pluggable> registeredPluginInterface : pluginRegistry.keySet()) {
-      total += this.count(registeredPluginInterface);
-    }
-    return total;
-  }
+  public final void createPluginAttributeIndex(
+      String attributeName,
+      AttributeIndexType attributeIndexType,
+      Class<? extends Pluggable> registeredPluginInterface) {
+
+    // Validate input.
+    validateAttributeNameArgument(attributeName);
+    Objects.requireNonNull(attributeIndexType);
+    validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
+
+    // Read the attributes of the registered Plugins before locking the registry.
+    for (PluginEntry pluginEntry : getPluginIndex(registeredPluginInterface)) {
+      pluginEntry.getPluginAttributes();
+    }
+
+    write(builder -> {
+      builder.createAttributeIndex(registeredPluginInterface, attributeName, attributeIndexType);
+      return null;
+    });
+  }
+
+  /**
+   * Removes the index over the specified attribute of the Plugins registered under the specified
+   * Plugin Interface.
+   *
+   * @param attributeName Attribute name.
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @return True if the index was removed, false if the attribute was not indexed.
+   */
+  public final boolean dropPluginAttributeIndex(
+      String attributeName,
+      Class<? extends Pluggable> registeredPluginInterface) {
+
+    // Validate input.
+    validateAttributeNameArgument(attributeName);
+    validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
+
+    return write(builder -> builder.dropAttributeIndex(registeredPluginInterface, attributeName));
+  }
+
+  /**
+   * Returns the indexed attributes of the Plugins registered under the specified Plugin Interface.
+   *
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @return Index type, keyed by attribute name.
+   */
+  public final Map<String, AttributeIndexType> getPluginAttributeIndexes(
+      Class<? extends Pluggable> registeredPluginInterface) {
+
+    // Validate input.
+    validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
+
+    return getPluginIndex(registeredPluginInterface).getAttributeIndexTypes();
+  }
+
+  //---------- Plugin Statistics Methods ----------//
+
+
+  /**
+   * Returns the number of Plugins registered, across all registered Plugin Interfaces.
+   *
+   * @return Total Plugins registered.
+   */
+  public final int count() {
+    return registrySnapshot.get().count();
+  }
 
   /**
    * Returns the number of Plugins registered under the specified Plugin Interface.
@@ -2996,7 +4352,7 @@ public final class PluginRegistry {
     // Validate the Plugin Interface.
     validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
 
-    return pluginRegistry.get(registeredPluginInterface).size();
+    return getPluginIndex(registeredPluginInterface).size();
   }
 
   /**
@@ -3013,15 +4369,347 @@ public final class PluginRegistry {
     validatePluginNameArgument(pluginName);
     validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
 
-    // Loop through each Plugin registered under the specified Plugin Interface.
-    int total = 0;
-    for (PluginEntry pluginEntry : pluginRegistry.get(registeredPluginInterface)) {
-      if (pluginEntry.getPluginName().equals(pluginName)) {
-        total++;
+    // Count the versions of the Plugin registered under the specified Plugin Interface.
+    return getPluginIndex(registeredPluginInterface).count(pluginName);
+  }
+
+  //---------- Registry Generation and Query Cache Methods ----------//
+
+
+  /**
+   * Returns the generation of the Plugin Registry, which increases with every change made to it
+   * (registering or unregistering Plugin Interfaces or Plugins, changing Plugin attributes, etc.).
+   *
+   * @return Registry generation.
+   */
+  public final long getGeneration() {
+    return registrySnapshot.get().getGeneration();
+  }
+
+  /**
+   * Enables (or resizes) the query cache, which keeps the results of the most recently used
+   * queries made by {@link #getLatestVersions}, {@link #getLatestVersionsByAttribute}, {@link
+   * #getByAttribute} and {@link #query}, for the current registry generation. Repeating a cached
+   * query only instantiates the matching Plugins. Cached results are discarded as soon as the
+   * Plugin Registry changes.
+   * <p>
+   * Lambda predicates are cached by identity, so only repeated calls with the same predicate
+   * object (e.g. a non-capturing lambda from the same call site) are cache hits.
+   *
+   * @param maxCachedQueries Maximum number of cached query results, or 0 to disable the cache.
+   */
+  public final void setQueryCacheSize(int maxCachedQueries) {
+    if (maxCachedQueries < 0) {
+      throw new IllegalArgumentException(String.format(
+          "Query cache size cannot be a negative number [%d].", maxCachedQueries));
+    }
+
+    queryCache = (maxCachedQueries == 0) ? null : new QueryCache(maxCachedQueries);
+  }
+
+  //---------- Registry Event Methods ----------//
+
+
+  /**
+   * Returns the publisher of registry events, which notifies its subscribers of Plugins being
+   * registered or unregistered, Plugin attributes being changed, and scans being completed (see
+   * {@link RegistryEvent}).
+   * <p>
+   * Events are delivered asynchronously, after the change that caused them has been published, and
+   * in the order in which the changes were made. Each subscriber has a bounded buffer of {@link
+   * Flow#defaultBufferSize()} events, which are delivered as the subscriber requests them. Changes
+   * to the Plugin Registry never wait for subscribers: an event that does not fit into a slow
+   * subscriber's buffer is dropped for that subscriber (see {@link #getDroppedEventCount()}).
+   * Events are only recorded while the publisher has subscribers.
+   *
+   * @return Registry event publisher.
+   */
+  public final Flow.Publisher<RegistryEvent> getEventPublisher() {
+    SubmissionPublisher<RegistryEvent> publisher = eventPublisher;
+    if (publisher == null) {
+      writeLock.lock();
+      try {
+        publisher = eventPublisher;
+        if (publisher == null) {
+          publisher = new SubmissionPublisher<>();
+          eventPublisher = publisher;
+        }
+      } finally {
+        writeLock.unlock();
+      }
+    }
+    return publisher;
+  }
+
+  /**
+   * Returns the number of events dropped because a subscriber's buffer was full.
+   *
+   * @return Number of dropped events.
+   */
+  public final long getDroppedEventCount() {
+    return droppedEventCount.sum();
+  }
+
+  //---------- Registry Metrics Methods ----------//
+
+  /**
+   * Returns the metrics of the Plugin Registry: lookups by method, instantiations by Plugin, query
+   * cache hit rates, scan counts, and the latencies of scans, registrations and Plugin instance
+   * retrievals.
+   * <p>
+   * Metrics are recorded without locking, and are only aggregated when they are read.
+   *
+   * @return Registry metrics.
+   */
+  public final PluginRegistryMXBean getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Enables or disables instrumentation. While it is enabled, every Plugin returned by the
+   * registry is wrapped in a class generated for its Plugin Interface, which records the number of
+   * calls, the number of calls that threw an exception, and a latency histogram for each method
+   * of each Plugin version (see {@link PluginRegistryMXBean#getMethodSummaries()}). A recorded
+   * call costs a few nanoseconds more than a direct call.
+   * <p>
+   * Instrumented Plugins are not instances of their Plugin class, only of their Plugin Interface;
+   * instrumentation is therefore disabled by default.
+   *
+   * @param instrumentationEnabled True to instrument the Plugins returned from now on, false to
+   *     return Plugins as is.
+   */
+  public final void setInstrumentationEnabled(boolean instrumentationEnabled) {
+    metrics.setInstrumentationEnabled(instrumentationEnabled);
+  }
+
+  /**
+   * Returns true if the Plugins returned by the registry are instrumented (see {@link
+   * #setInstrumentationEnabled(boolean)}).
+   *
+   * @return True if instrumentation is enabled, false otherwise.
+   */
+  public final boolean isInstrumentationEnabled() {
+    return metrics.isInstrumentationEnabled();
+  }
+
+  /**
+   * Registers the registry's metrics with the platform MBean server, under a name derived from
+   * the registry's identity hash code.
+   *
+   * @return Name of the registered MBean.
+   */
+  public final ObjectName registerMBean() {
+    return registerMBean(Integer.toHexString(System.identityHashCode(this)));
+  }
+
+  /**
+   * Registers the registry's metrics with the platform MBean server, under the name
+   * "techmoc.extensibility.pluginlibrary:type=PluginRegistry,name=[name]".
+   *
+   * @param name Name of the Plugin Registry.
+   * @return Name of the registered MBean.
+   */
+  public final ObjectName registerMBean(String name) {
+
+    // Validate input.
+    Objects.requireNonNull(name);
+
+    writeLock.lock();
+    try {
+      if (mbeanName != null) {
+        throw new IllegalStateException(
+            String.format("Plugin Registry MBean is already registered [%s].", mbeanName));
+      }
+
+      ObjectName objectName = new ObjectName(String.format(
+          "techmoc.extensibility.pluginlibrary:type=PluginRegistry,name=%s",
+          ObjectName.quote(name)));
+      ManagementFactory.getPlatformMBeanServer().registerMBean(
+          new StandardMBean(metrics, PluginRegistryMXBean.class, true), objectName);
+      mbeanName = objectName;
+      return objectName;
+    } catch (JMException e) {
+      throw new PluginLibraryException("Plugin Registry MBean could not be registered.", e);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Unregisters the registry's metrics from the platform MBean server (if registered).
+   */
+  public final void unregisterMBean() {
+    writeLock.lock();
+    try {
+      if (mbeanName != null) {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(mbeanName);
+        mbeanName = null;
+      }
+    } catch (JMException e) {
+      throw new PluginLibraryException("Plugin Registry MBean could not be unregistered.", e);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  //---------- Registry Snapshot File Methods ----------//
+
+
+  /**
+   * Saves the Plugins scanned from JAR files and package directories to a snapshot file, so that a
+   * later {@link #loadSnapshot(Path)} can restore them without scanning. The snapshot holds a hash
+   * of each scanned source, so that sources that changed since are scanned again when the snapshot
+   * is loaded. Plugins registered directly (rather than scanned) are not saved.
+   *
+   * @param snapshotFile Path to the snapshot file (replaced if it exists).
+   * @throws IOException Thrown on IO exception.
+   */
+  public final void saveSnapshot(Path snapshotFile) throws IOException {
+
+    // Validate input.
+    Objects.requireNonNull(snapshotFile);
+
+    // Save a consistent view of the Plugin Registry.
+    RegistrySnapshot snapshot = registrySnapshot.get();
+    Map<Class<? extends Pluggable>, PluginIndex> pluginEntries = new LinkedHashMap<>();
+    Set<String> scannedSources = new HashSet<>();
+    for (Class<? extends Pluggable> pluginInterface : snapshot.getRegisteredInterfaces()) {
+      PluginIndex pluginIndex = snapshot.getPluginIndex(pluginInterface);
+      pluginEntries.put(pluginInterface, pluginIndex);
+      for (PluginEntry pluginEntry : pluginIndex) {
+        if (pluginEntry.getPluginSource() != null) {
+          scannedSources.add(pluginEntry.getPluginSource());
+        }
       }
     }
 
-    return total;
+    List<PluginSource> sources = scannedSources.stream()
+        .sorted()
+        .map(pluginSources::get)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+
+    SnapshotFile.write(
+        snapshotFile, snapshot.getRegisteredInterfaces(), sources, pluginEntries);
+  }
+
+  /**
+   * Restores the Plugins saved to a snapshot file by {@link #saveSnapshot(Path)}, registering the
+   * saved Plugin Interfaces if needed. Plugins of JAR files and package directories that are
+   * unchanged since the snapshot was saved are registered from the snapshot, without scanning the
+   * sources or instantiating the Plugins. Sources that changed are scanned again (with the same
+   * target packages and Plugin Interfaces), and sources that no longer exist are skipped.
+   *
+   * @param snapshotFile Path to the snapshot file.
+   * @return Scan results.
+   * @throws IOException Thrown on IO exception, or if the file is not a valid snapshot file.
+   */
+  public final ScanResults loadSnapshot(Path snapshotFile) throws IOException {
+
+    // Validate input.
+    Objects.requireNonNull(snapshotFile);
+
+    SnapshotFile snapshot = SnapshotFile.read(snapshotFile);
+
+    // Register the saved Plugin Interfaces.
+    Map<String, Class<? extends Pluggable>> pluginInterfaces = new HashMap<>();
+    for (String pluginInterfaceName : snapshot.getPluginInterfaceNames()) {
+      pluginInterfaces.put(pluginInterfaceName, loadPluginInterface(pluginInterfaceName));
+    }
+    registerPluginInterfaces(new HashSet<>(pluginInterfaces.values()));
+
+    List<SnapshotFile.Source> changedSources = new ArrayList<>();
+    Map<PluginSource, Map<Class<? extends Pluggable>, PluginDescriptor>> unchangedSources =
+        new LinkedHashMap<>();
+    Map<PluginSource, PluginClassLoader> classLoaders = new HashMap<>();
+
+    for (SnapshotFile.Source source : snapshot.getSources()) {
+      PluginSource pluginSource = source.getPluginSource();
+      if (!source.isComplete() || !pluginSource.isUnchanged()) {
+        changedSources.add(source);
+        continue;
+      }
+
+      // Load the Plugin classes from the unchanged source, without scanning it.
+      File file = new File(pluginSource.getPath());
+      Map<Class<? extends Pluggable>, PluginDescriptor> pluginDescriptors = new LinkedHashMap<>();
+      PluginClassLoader cl = null;
+      try {
+        cl = new PluginClassLoader(pluginSource.getPath(), pluginSource.isJarFile()
+            ? new URL("jar:" + file.toURI().toURL().toString() + "!/")
+            : file.toURI().toURL());
+        for (SnapshotFile.Plugin plugin : source.getPlugins()) {
+          Class<?> clazz = Class.forName(plugin.getPluginClassName(), false, cl);
+          if (!isValidPlugin(clazz)) {
+            throw new IOException(String.format(
+                "Not a valid Plugin [%s].", plugin.getPluginClassName()));
+          }
+          pluginDescriptors.putIfAbsent(
+              clazz.asSubclass(Pluggable.class), plugin.toPluginDescriptor(cl));
+        }
+      } catch (ClassNotFoundException | IOException | LinkageError e) {
+        // Scan the source again, if it cannot be restored.
+        if (cl != null) {
+          cl.retireIfUnreferenced();
+        }
+        changedSources.add(source);
+        continue;
+      }
+      unchangedSources.put(pluginSource, pluginDescriptors);
+      classLoaders.put(pluginSource, cl);
+    }
+
+    // Register the Plugins of all unchanged sources as a single change to the Plugin Registry
+    // (instantiating the Plugins without declared metadata before the registry is locked).
+    List<ScanLog> scanLogs;
+    try {
+      Map<PluginSource, PluginEntryBatch> pluginEntryBatches = new HashMap<>();
+      for (Map.Entry<PluginSource, Map<Class<? extends Pluggable>, PluginDescriptor>> entry
+          : unchangedSources.entrySet()) {
+        PluginSource pluginSource = entry.getKey();
+        pluginEntryBatches.put(pluginSource, createPluginEntries(entry.getValue(),
+            getPluginInterfaces(pluginSource, pluginInterfaces), pluginSource.getPath(), false));
+      }
+
+      scanLogs = write(builder -> {
+        List<ScanLog> restoredScanLogs = new ArrayList<>();
+        for (Map.Entry<PluginSource, Map<Class<? extends Pluggable>, PluginDescriptor>> entry
+            : unchangedSources.entrySet()) {
+          PluginSource pluginSource = entry.getKey();
+          restoredScanLogs.addAll(addPlugins(builder, entry.getValue(),
+              getPluginInterfaces(pluginSource, pluginInterfaces), pluginSource.getPath(),
+              classLoaders.get(pluginSource), false, pluginEntryBatches.get(pluginSource)));
+          pluginSources.put(pluginSource.getPath(), pluginSource);
+        }
+        return restoredScanLogs;
+      });
+    } catch (RuntimeException | Error e) {
+      // No Plugin was restored, so the class loaders are no longer needed.
+      classLoaders.values().forEach(PluginClassLoader::retireIfUnreferenced);
+      throw e;
+    }
+
+    // Scan the changed sources again.
+    for (SnapshotFile.Source source : changedSources) {
+      PluginSource pluginSource = source.getPluginSource();
+      File file = new File(pluginSource.getPath());
+      Set<Class<? extends Pluggable>> scannedPluginInterfaces =
+          getPluginInterfaces(pluginSource, pluginInterfaces);
+
+      if (!file.exists() || scannedPluginInterfaces.isEmpty()) {
+        scanLogs.add(new ScanLog(
+            false, pluginSource.isJarFile(), pluginSource.isJarFile() ? "JAR" : "DIRECTORY",
+            pluginSource.getPath(), "", "Plugin source no longer exists."));
+      } else if (pluginSource.isJarFile()) {
+        scanLogs.addAll(scanJar(pluginSource.getPath(), scannedPluginInterfaces,
+            pluginSource.getTargetPackages(), pluginSource.isScanSubpackages()).getScanLogs());
+      } else {
+        scanLogs.addAll(scanPackageDirectory(pluginSource.getPath(), scannedPluginInterfaces,
+            pluginSource.getTargetPackages(), pluginSource.isScanSubpackages()).getScanLogs());
+      }
+    }
+
+    return new ScanResults(scanLogs);
   }
 
   //---------- Registry State Methods ----------//
@@ -3187,7 +4875,7 @@ public final class PluginRegistry {
       return false;
     }
     PluginRegistry that = (PluginRegistry) o;
-    return pluginRegistry.equals(that.pluginRegistry);
+    return registrySnapshot.get().equals(that.registrySnapshot.get());
   }
 
   /**
@@ -3197,7 +4885,7 @@ public final class PluginRegistry {
    */
   @Override
   public int hashCode() {
-    return Objects.hash(pluginRegistry);
+    return Objects.hash(registrySnapshot.get());
   }
 
   /**
@@ -3218,7 +4906,7 @@ public final class PluginRegistry {
    * @return Representation of the state of the Plugin Registry.
    */
   public String toJson(boolean useCanonicalNames, boolean prettyPrint) {
-    if (pluginRegistry.isEmpty()) {
+    if (getRegisteredPluginInterfaces().isEmpty()) {
       return "[]";
     }
 
@@ -3301,6 +4989,94 @@ public final class PluginRegistry {
   //---------- Private Methods ----------//
 
 
+  /**
+   * Records a scanned JAR file or package directory, fingerprinting its current content (it is
+   * only hashed once a registry snapshot is saved).
+   *
+   * @param file JAR file or package directory.
+   * @param pluginInterfaces Plugin Interfaces scanned for.
+   * @param targetPackages Scanned packages (or null, if all packages were scanned).
+   * @param scanSubpackages True if subpackages of the target packages were scanned.
+   */
+  private void recordPluginSource(
+      File file,
+      Set<Class<? extends Pluggable>> pluginInterfaces,
+      Set<String> targetPackages,
+      boolean scanSubpackages) {
+    try {
+      PluginSource pluginSource =
+          PluginSource.of(file, pluginInterfaces, targetPackages, scanSubpackages);
+      pluginSources.put(pluginSource.getPath(), pluginSource);
+    } catch (UncheckedIOException e) {
+      // A source that cannot be fingerprinted is left out of registry snapshots.
+      pluginSources.remove(file.getAbsolutePath());
+    }
+  }
+
+  /**
+   * Commits a scan event to the Java Flight Recorder (if recorded).
+   *
+   * @param scanEvent Scan event, begun when the scan started.
+   * @param file Scanned JAR file or package directory.
+   * @param classesExamined Number of class files examined.
+   * @param classesLoaded Number of classes loaded.
+   * @param scanResults Scan results.
+   */
+  private static void commitScanEvent(
+      FlightRecorderEvents.PluginScan scanEvent,
+      File file,
+      int classesExamined,
+      int classesLoaded,
+      ScanResults scanResults) {
+    if (scanEvent.shouldCommit()) {
+      scanEvent.sourcePath = file.getAbsolutePath();
+      scanEvent.classesExamined = classesExamined;
+      scanEvent.classesLoaded = classesLoaded;
+      scanEvent.pluginsRegistered = scanResults.getTotalPluginsRegistered();
+      scanEvent.commit();
+    }
+  }
+
+  /**
+   * Returns the Plugin Interfaces that a Plugin Source was scanned for.
+   *
+   * @param pluginSource Plugin Source.
+   * @param pluginInterfaces Plugin Interfaces, keyed by name.
+   * @return Plugin Interfaces (those not found by name are left out).
+   */
+  private static Set<Class<? extends Pluggable>> getPluginInterfaces(
+      PluginSource pluginSource,
+      Map<String, Class<? extends Pluggable>> pluginInterfaces) {
+    return pluginSource.getPluginInterfaceNames().stream()
+        .map(pluginInterfaces::get)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toSet());
+  }
+
+  /**
+   * Loads a Plugin Interface saved to a registry snapshot.
+   *
+   * @param pluginInterfaceName Name of the Plugin Interface.
+   * @return Plugin Interface class.
+   * @throws IOException Thrown if the Plugin Interface cannot be loaded.
+   */
+  private static Class<? extends Pluggable> loadPluginInterface(String pluginInterfaceName)
+      throws IOException {
+    Class<?> clazz;
+    try {
+      clazz = Class.forName(pluginInterfaceName);
+    } catch (ClassNotFoundException e) {
+      throw new IOException(
+          String.format("Plugin Interface not found [%s].", pluginInterfaceName), e);
+    }
+    if (!clazz.isInterface() || !Pluggable.class.isAssignableFrom(clazz)) {
+      throw new IOException(
+          String.format("Not a Plugin Interface [%s].", pluginInterfaceName));
+    }
+    return clazz.asSubclass(Pluggable.class);
+  }
+
+
   /**
    * Returns a sorted collection of the contents of the Plugin Registry (i.e. describes the current
    * state of the Plugin Registry).
@@ -3311,10 +5087,11 @@ public final class PluginRegistry {
   private LinkedHashMap<String, ArrayList<String>> getSortedRegistryContents(
       boolean useCanonicalNames) {
     LinkedHashMap<String, ArrayList<String>> results = new LinkedHashMap<>();
+    RegistrySnapshot snapshot = registrySnapshot.get();
 
-    for (Class<? extends Pluggable> pluginInterface : pluginRegistry.navigableKeySet()) {
+    for (Class<? extends Pluggable> pluginInterface : snapshot.getRegisteredInterfaces()) {
       ArrayList<String> pluginStrings = new ArrayList<>();
-      for (PluginEntry pluginEntry : pluginRegistry.get(pluginInterface)) {
+      for (PluginEntry pluginEntry : snapshot.getPluginIndex(pluginInterface)) {
         pluginStrings.add(
             String.format("%1$s %2$s",
                 pluginEntry.getPluginName(),
@@ -3351,15 +5128,8 @@ public final class PluginRegistry {
     Objects.requireNonNull(pluginVersion);
     validateRegisteredPluginInterfaceArgument(registeredPluginInterface);
 
-    // Loop through each Plugin registered under the specified Plugin Interface.
-    for (PluginEntry pluginEntry : pluginRegistry.get(registeredPluginInterface)) {
-      // Check if this plugin matches the specified name and version.
-      if (pluginEntry.getPluginName().equals(pluginName) &&
-          pluginEntry.getPluginVersion().equals(pluginVersion)) {
-        return true;
-      }
-    }
-    return false;
+    // Look up the Plugin by name and version.
+    return getPluginIndex(registeredPluginInterface).get(pluginName, pluginVersion) != null;
   }
 
   /**
@@ -3488,7 +5258,7 @@ public final class PluginRegistry {
    * Throws an exception if no Plugin Interfaces are registered.
    */
   private void validatePluginInterfacesAreRegistered() {
-    if (pluginRegistry.size() <= 0) {
+    if (getRegisteredPluginInterfaces().isEmpty()) {
       throw new IllegalStateException(
           "No Plugin Interfaces are currently registered in the Plugin Registry.");
     }
@@ -3539,7 +5309,7 @@ public final class PluginRegistry {
 
     validatePluginInterfaceArgument(registeredPluginInterface);
 
-    if (!pluginRegistry.containsKey(registeredPluginInterface)) {
+    if (!getRegisteredPluginInterfaces().contains(registeredPluginInterface)) {
       throw new IllegalArgumentException(String.format(
           "Plugin Interface [%s] is not registered.", registeredPluginInterface.getSimpleName()));
     }
@@ -3608,6 +5378,17 @@ public final class PluginRegistry {
     }
   }
 
+  /**
+   * Validates that the string contains a valid attribute name.
+   *
+   * @param attributeName Attribute name.
+   */
+  private void validateAttributeNameArgument(String attributeName) {
+    if (attributeName == null || attributeName.isBlank()) {
+      throw new IllegalArgumentException("Attribute names may not be null or blank.");
+    }
+  }
+
   /**
    * Validates that the package names are valid.
    *
@@ -3637,17 +5418,10 @@ public final class PluginRegistry {
    */
   private boolean isValidPlugin(
       Class<?> clazz) {
-    try {
-      // Check that plugin:
-      //   1) is not a Java interface, and
-      //   2) implements the Pluggable interface.
-      validatePluginArgument(clazz);
-
-      return true;
-
-    } catch (Exception e) {
-      return false;
-    }
+    // Check that plugin:
+    //   1) is not a Java interface, and
+    //   2) implements the Pluggable interface.
+    return PluginInterfaceMatcher.isValidPlugin(clazz);
   }
 
   /**
@@ -3660,18 +5434,28 @@ public final class PluginRegistry {
   private boolean isValidPlugin(
       Class<?> clazz,
       Class<? extends Pluggable> registeredPluginInterface) {
-    try {
-      // Check that plugin:
-      //   1) is not a Java interface,
-      //   2) implements the Pluggable interface, and
-      //   3) implements the specified Java interface.
-      validatePluginArgument(clazz, registeredPluginInterface);
+    // Check that plugin:
+    //   1) is not a Java interface,
+    //   2) implements the Pluggable interface, and
+    //   3) implements the specified Java interface.
+    return getPluginInterfaceMatcher().isValidPlugin(clazz, registeredPluginInterface);
+  }
 
-      return true;
+  /**
+   * Returns the Plugin Interface matcher for the currently registered Plugin Interfaces, replacing
+   * the cached matcher if Plugin Interfaces were registered or unregistered since it was created.
+   *
+   * @return Plugin Interface matcher.
+   */
+  private PluginInterfaceMatcher getPluginInterfaceMatcher() {
+    Set<Class<? extends Pluggable>> registeredPluginInterfaces = getRegisteredPluginInterfaces();
 
-    } catch (Exception e) {
-      return false;
+    PluginInterfaceMatcher matcher = pluginInterfaceMatcher;
+    if (matcher == null || !matcher.isMatcherFor(registeredPluginInterfaces)) {
+      matcher = new PluginInterfaceMatcher(registeredPluginInterfaces);
+      pluginInterfaceMatcher = matcher;
     }
+    return matcher;
   }
 
   /**
@@ -3689,26 +5473,465 @@ public final class PluginRegistry {
       Class<T> registeredPluginInterface) {
 
     // Retrieve the specified Plugin Entry.
-    List<PluginEntry> pluginEntries = pluginRegistry
-        .get(registeredPluginInterface)
-        .stream()
-        .filter(x -> x.getPluginName().equals(pluginName) &&
-            x.getPluginVersion().equals(pluginVersion))
-        .collect(Collectors.toList());
+    PluginEntry pluginEntry =
+        getPluginIndex(registeredPluginInterface).get(pluginName, pluginVersion);
 
-    if (pluginEntries.size() <= 0) {
+    if (pluginEntry == null) {
       throw new IllegalArgumentException(String.format(
           "Plugin does not exist in the Plugin Registry [%s, (version %s)].",
           pluginName,
           pluginVersion.toVersionNumber()));
-    } else if (pluginEntries.size() > 1) {
-      throw new IllegalStateException(String.format(
-          "Multiple plugins of the given name and version found (this should never occur) [%s, (version %s)].",
-          pluginName,
-          pluginVersion.toVersionNumber()));
     }
 
-    return pluginEntries.get(0);
+    return pluginEntry;
+  }
+
+  /**
+   * Returns a Plugin Entry of the specified Plugin class, registered under any registered Plugin
+   * Interface.
+   *
+   * @param plugin Plugin class.
+   * @return Plugin Entry, or null if the Plugin class is not registered.
+   */
+  private PluginEntry findPluginEntry(Class<?> plugin) {
+    for (Class<? extends Pluggable> registeredPluginInterface : getRegisteredPluginInterfaces()) {
+      PluginIndex pluginIndex = findPluginIndex(registeredPluginInterface);
+      PluginEntry pluginEntry = (pluginIndex == null) ? null : pluginIndex.getByPluginClass(plugin);
+      if (pluginEntry != null) {
+        return pluginEntry;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the Plugin Entries registered under the specified Plugin Interface that match the
+   * specified query, reusing the cached result of an identical query against the current registry
+   * generation (if query caching is enabled).
+   *
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @param queryMethod Name of the query method.
+   * @param query Query argument.
+   * @param executor Executes the query against a Plugin Index.
+   * @return Matching Plugin Entries.
+   */
+  private Collection<PluginEntry> queryPluginEntries(
+      Class<? extends Pluggable> registeredPluginInterface,
+      String queryMethod,
+      Object query,
+      Function<PluginIndex, Collection<PluginEntry>> executor) {
+
+    // Queries made within a change to the Plugin Registry are never cached.
+    QueryCache queryCache = this.queryCache;
+    if (queryCache == null || writeLock.isHeldByCurrentThread()) {
+      return executor.apply(getPluginIndex(registeredPluginInterface));
+    }
+
+    // Read the snapshot once, so that the result matches the generation it is cached under.
+    RegistrySnapshot snapshot = registrySnapshot.get();
+    PluginIndex pluginIndex = snapshot.getPluginIndex(registeredPluginInterface);
+    if (pluginIndex == null) {
+      throw new IllegalArgumentException(String.format(
+          "Plugin Interface [%s] is not registered.", registeredPluginInterface.getSimpleName()));
+    }
+
+    List<PluginEntry> result = queryCache.get(
+        registeredPluginInterface, queryMethod, query, snapshot.getGeneration());
+    if (result == null) {
+      result = queryCache.put(registeredPluginInterface, queryMethod, query,
+          snapshot.getGeneration(), executor.apply(pluginIndex));
+    }
+    return result;
+  }
+
+  /**
+   * Returns the query cache (null if query caching is disabled).
+   *
+   * @return Query cache, or null.
+   */
+  QueryCache getQueryCache() {
+    return queryCache;
+  }
+
+  /**
+   * Returns the class loaders of scanned Plugins that are still registered.
+   *
+   * @return Open Plugin class loaders.
+   */
+  Set<PluginClassLoader> getOpenClassLoaders() {
+    return Set.copyOf(classLoaderReferences.keySet());
+  }
+
+  /**
+   * Takes a lease on an instance of the specified Plugin Entry.
+   *
+   * @param pluginEntry Plugin Entry.
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @param <T> Registered Plugin Interface type.
+   * @return Lease, or null if the Plugin's class loader is already closed.
+   */
+  private <T extends Pluggable> PluginLease<T> leasePluginEntry(
+      PluginEntry pluginEntry,
+      Class<T> registeredPluginInterface) {
+    PluginClassLoader classLoader = PluginClassLoader.of(pluginEntry.getPluginClass());
+    if (classLoader != null && !classLoader.acquireLease()) {
+      return null;
+    }
+
+    try {
+      return new PluginLease<>(
+          pluginEntry, classLoader, pluginEntry.getPluginAsInterface(registeredPluginInterface));
+    } catch (RuntimeException | Error e) {
+      if (classLoader != null) {
+        classLoader.releaseLease();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Calls a Plugin under a lease, capturing the outcome of the call.
+   *
+   * @param pluginEntry Plugin Entry.
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @param call Call to make on the Plugin.
+   * @param <T> Registered Plugin Interface type.
+   * @param <R> Type of the value returned by the call.
+   * @return Outcome of the call.
+   */
+  private <T extends Pluggable, R> InvocationResult<R> invokePluginEntry(
+      PluginEntry pluginEntry,
+      Class<T> registeredPluginInterface,
+      Function<? super T, ? extends R> call) {
+    try (PluginLease<T> lease = leasePluginEntry(pluginEntry, registeredPluginInterface)) {
+      if (lease == null) {
+        return InvocationResult.failed(pluginEntry, new IllegalStateException(String.format(
+            "Plugin [%s] was unregistered.", pluginEntry.getPluginName())));
+      }
+      return InvocationResult.completed(pluginEntry, call.apply(lease.get()));
+    } catch (RuntimeException | Error e) {
+      return InvocationResult.failed(pluginEntry, e);
+    }
+  }
+
+  /**
+   * Calls a method of a Plugin through the Plugin's bulkhead. Methods declared by {@link Object}
+   * (e.g. {@code hashCode()}) bypass the bulkhead.
+   *
+   * @param bulkhead Bulkhead of the Plugin.
+   * @param plugin Plugin instance.
+   * @param method Called method.
+   * @param args Arguments of the call (or null).
+   * @return Value returned by the call.
+   * @throws Throwable Thrown by the call, or by the bulkhead if it is full.
+   */
+  private static Object invokeThroughBulkhead(
+      Bulkhead bulkhead,
+      Pluggable plugin,
+      Method method,
+      Object[] args) throws Throwable {
+    try {
+      if (method.getDeclaringClass() == Object.class) {
+        return method.invoke(plugin, args);
+      }
+      return bulkhead.call(() -> method.invoke(plugin, args));
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Calls a method of a Plugin through the Plugin's method cache. Methods declared by {@link
+   * Object} (e.g. {@code hashCode()}) bypass the cache.
+   *
+   * @param methodCache Method cache of the Plugin.
+   * @param plugin Plugin instance.
+   * @param method Called method.
+   * @param args Arguments of the call (or null).
+   * @return Value returned by the call, or a cached value.
+   * @throws Throwable Thrown by the call.
+   */
+  private static Object invokeThroughMethodCache(
+      MethodCache methodCache,
+      Pluggable plugin,
+      Method method,
+      Object[] args) throws Throwable {
+    try {
+      if (method.getDeclaringClass() == Object.class) {
+        return method.invoke(plugin, args);
+      }
+      return methodCache.invoke(plugin, method, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Returns true if the Plugin whose results are kept by the specified method cache is no longer
+   * registered under its Plugin Interface (e.g. it was unregistered, or upgraded to a new class).
+   *
+   * @param methodCache Method cache.
+   * @return True if the cache must be discarded, false otherwise.
+   */
+  private boolean isMethodCacheStale(MethodCache methodCache) {
+    PluginIndex pluginIndex =
+        registrySnapshot.get().getPluginIndex(methodCache.getRegisteredPluginInterface());
+    return pluginIndex == null
+        || pluginIndex.getByPluginClass(methodCache.getPluginClass()) == null;
+  }
+
+  /**
+   * Discards the method caches of the Plugins that are no longer registered.
+   */
+  private void invalidateMethodCaches() {
+    for (Map<PluginEntry, MethodCache> interfaceMethodCaches : methodCaches.values()) {
+      for (Map.Entry<PluginEntry, MethodCache> entry : interfaceMethodCaches.entrySet()) {
+        if (isMethodCacheStale(entry.getValue())) {
+          interfaceMethodCaches.remove(entry.getKey(), entry.getValue());
+          entry.getValue().invalidate();
+        }
+      }
+    }
+  }
+
+  /**
+   * Discards the method metrics of the Plugin versions that are no longer registered, so that
+   * upgrades and redeployments do not accumulate metrics.
+   */
+  private void dropMethodMetrics() {
+    RegistrySnapshot snapshot = registrySnapshot.get();
+    metrics.retainMethodMetrics(snapshot.getRegisteredInterfaces().stream()
+        .map(snapshot::getPluginIndex)
+        .collect(Collectors.toList()));
+  }
+
+  /**
+   * Returns the thread pool running the calls of {@link #invokeAll(Class, Function, Duration)},
+   * creating it on first use. It runs up to four calls per available processor, and queues up to
+   * 1024 other calls, so that Plugins ignoring interrupts cannot tie up more threads; further calls
+   * are rejected. Its threads are daemon threads, which end once idle for a minute.
+   *
+   * @return Invocation thread pool.
+   */
+  private Executor getInvocationExecutor() {
+    ExecutorService executor = invocationExecutor;
+    if (executor == null) {
+      writeLock.lock();
+      try {
+        executor = invocationExecutor;
+        if (executor == null) {
+          AtomicInteger threadCount = new AtomicInteger();
+          ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+              invocationParallelism, invocationParallelism, 1, TimeUnit.MINUTES,
+              new LinkedBlockingQueue<>(maxQueuedInvocations),
+              runnable -> {
+                Thread thread = new Thread(
+                    runnable, "PluginInvoker-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+              });
+          threadPoolExecutor.allowCoreThreadTimeOut(true);
+          executor = threadPoolExecutor;
+          invocationExecutor = executor;
+        }
+      } finally {
+        writeLock.unlock();
+      }
+    }
+    return executor;
+  }
+
+  /**
+   * Returns the thread pool instantiating the Plugins without declared metadata during
+   * registrations and scans, creating it on first use. It runs up to one instantiation per
+   * available processor, so that Plugins stuck in their constructors cannot tie up more threads.
+   * Its threads are daemon threads, which end once idle for a minute.
+   *
+   * @return Scan thread pool.
+   */
+  private Executor getScanExecutor() {
+    ExecutorService executor = scanExecutor;
+    if (executor == null) {
+      writeLock.lock();
+      try {
+        executor = scanExecutor;
+        if (executor == null) {
+          AtomicInteger threadCount = new AtomicInteger();
+          ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+              scanParallelism, scanParallelism, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(),
+              runnable -> {
+                Thread thread = new Thread(
+                    runnable, "PluginScanner-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+              });
+          threadPoolExecutor.allowCoreThreadTimeOut(true);
+          executor = threadPoolExecutor;
+          scanExecutor = executor;
+        }
+      } finally {
+        writeLock.unlock();
+      }
+    }
+    return executor;
+  }
+
+  /**
+   * Returns the path to the class file of the specified class (if possible).
+   *
+   * @param clazz Class.
+   * @return Path to the class file, or an empty string if it could not be determined.
+   */
+  private String getPathToClassFile(Class<?> clazz) {
+    try {
+      return clazz.getResource(clazz.getSimpleName() + ".class").getPath();
+    } catch (Exception e) {
+      return "";
+    }
+  }
+
+  /**
+   * Returns the Plugin Index of the specified registered Plugin Interface. Within a change to the
+   * Plugin Registry, the Plugin Index reflects the change made so far.
+   *
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @return Plugin Index.
+   */
+  private PluginIndex getPluginIndex(Class<? extends Pluggable> registeredPluginInterface) {
+    PluginIndex pluginIndex = findPluginIndex(registeredPluginInterface);
+
+    if (pluginIndex == null) {
+      throw new IllegalArgumentException(String.format(
+          "Plugin Interface [%s] is not registered.", registeredPluginInterface.getSimpleName()));
+    }
+
+    return pluginIndex;
+  }
+
+  /**
+   * Returns the Plugin Index of the specified Plugin Interface, or null if the Plugin Interface is
+   * not registered. Within a change to the Plugin Registry, the Plugin Index reflects the change
+   * made so far.
+   *
+   * @param pluginInterface Plugin Interface class.
+   * @return Plugin Index, or null.
+   */
+  private PluginIndex findPluginIndex(Class<? extends Pluggable> pluginInterface) {
+    return writeLock.isHeldByCurrentThread() ?
+        pendingChange.getPluginIndex(pluginInterface) :
+        registrySnapshot.get().getPluginIndex(pluginInterface);
+  }
+
+  /**
+   * Returns the registered Plugin Interfaces, ordered by simple name. Within a change to the Plugin
+   * Registry, the set reflects the change made so far.
+   *
+   * @return Registered Plugin Interfaces.
+   */
+  private Set<Class<? extends Pluggable>> getRegisteredPluginInterfaces() {
+    return writeLock.isHeldByCurrentThread() ?
+        pendingChange.getRegisteredInterfaces() :
+        registrySnapshot.get().getRegisteredInterfaces();
+  }
+
+  /**
+   * Returns the registered Plugin Interfaces that a Plugin with the specified name is registered
+   * under.
+   *
+   * @param pluginName Plugin name.
+   * @return Registered Plugin Interfaces (empty if the Plugin name is not registered).
+   */
+  private List<Class<? extends Pluggable>> getPluginInterfacesByPluginName(String pluginName) {
+    return List.copyOf(writeLock.isHeldByCurrentThread() ?
+        pendingChange.getPluginInterfacesByPluginName(pluginName) :
+        registrySnapshot.get().getPluginInterfacesByPluginName(pluginName));
+  }
+
+  /**
+   * Offers events to the subscribers of the event publisher, without waiting for them (events that
+   * do not fit into a subscriber's buffer are dropped for that subscriber).
+   *
+   * @param events Registry events.
+   */
+  private void publishEvents(List<RegistryEvent> events) {
+    SubmissionPublisher<RegistryEvent> publisher = eventPublisher;
+    if (publisher == null) {
+      return;
+    }
+    for (RegistryEvent event : events) {
+      publisher.offer(event, (subscriber, droppedEvent) -> {
+        droppedEventCount.increment();
+        return false;
+      });
+    }
+  }
+
+  /**
+   * Applies the reference count changes of a published change to the Plugin class loaders, retiring
+   * those that no registered Plugin references anymore (in this or any other Plugin Registry that
+   * shares them through a {@link PluginCatalog}).
+   *
+   * @param referenceChanges Reference count changes, by Plugin class loader.
+   */
+  private void updateClassLoaderReferences(Map<PluginClassLoader, Integer> referenceChanges) {
+    boolean released = false;
+    for (Map.Entry<PluginClassLoader, Integer> entry : referenceChanges.entrySet()) {
+      PluginClassLoader classLoader = entry.getKey();
+      int references = classLoaderReferences.getOrDefault(classLoader, 0) + entry.getValue();
+      if (references > 0) {
+        classLoaderReferences.put(classLoader, references);
+      } else if (classLoaderReferences.remove(classLoader) != null) {
+        released = true;
+      }
+      classLoader.addReferences(entry.getValue());
+    }
+
+    // Cached query results of older generations may still hold the unregistered Plugins.
+    QueryCache queryCache = this.queryCache;
+    if (released && queryCache != null) {
+      queryCache.clear();
+    }
+  }
+
+  /**
+   * Makes a change to the Plugin Registry, and publishes the result as a new snapshot.
+   * <p>
+   * Writers are serialized, while readers continue to use the previously published snapshot until
+   * the change is complete. A change made while another change is in progress on the same thread
+   * (e.g. a registration made by a scan) becomes part of the outer change, so that it is published
+   * together with it. If the change throws an exception, nothing is published.
+   *
+   * @param change Change to be made.
+   * @param <R> Type of the result of the change.
+   * @return Result of the change.
+   */
+  private <R> R write(Function<RegistrySnapshot.Builder, R> change) {
+    writeLock.lock();
+    try {
+      // Join the change already in progress.
+      if (pendingChange != null) {
+        return change.apply(pendingChange);
+      }
+
+      pendingChange = registrySnapshot.get().toBuilder();
+      SubmissionPublisher<RegistryEvent> publisher = eventPublisher;
+      if (publisher != null && publisher.hasSubscribers()) {
+        pendingChange.recordEvents();
+      }
+      try {
+        R result = change.apply(pendingChange);
+        registrySnapshot.set(pendingChange.build());
+        publishEvents(pendingChange.takeEvents());
+        updateClassLoaderReferences(pendingChange.takeClassLoaderReferences());
+        invalidateMethodCaches();
+        dropMethodMetrics();
+        return result;
+      } finally {
+        pendingChange = null;
+      }
+    } finally {
+      writeLock.unlock();
+    }
   }
 
   /**
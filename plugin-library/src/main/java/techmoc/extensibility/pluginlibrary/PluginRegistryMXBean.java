@@ -0,0 +1,130 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Management interface of a Plugin Registry's metrics, exposed over JMX by {@link
+ * PluginRegistry#registerMBean()}, or read directly from {@link PluginRegistry#getMetrics()}.
+ * <p>
+ * All counters are cumulative since the registry was created.
+ */
+public interface PluginRegistryMXBean {
+
+  /**
+   * Returns the number of Plugin lookups, by registry method name (e.g. "getLatestVersion").
+   *
+   * @return Lookup counts, by method name.
+   */
+  Map<String, Long> getLookupCounts();
+
+  /**
+   * Returns the number of times each Plugin class was instantiated.
+   *
+   * @return Instantiation counts, by Plugin class name.
+   */
+  Map<String, Long> getInstantiationCounts();
+
+  /**
+   * Returns the number of calls currently running through each Plugin's bulkhead (see {@link
+   * PluginRegistry#getLatestVersionWithBulkhead(String, Class)}).
+   *
+   * @return In-flight call counts, by Plugin class name.
+   */
+  Map<String, Integer> getBulkheadInFlightCounts();
+
+  /**
+   * Returns the number of calls rejected by each Plugin's bulkhead, because it was full.
+   *
+   * @return Rejected call counts, by Plugin class name.
+   */
+  Map<String, Long> getBulkheadRejectionCounts();
+
+  /**
+   * Returns the latencies of the calls made through each Plugin's bulkhead (excluding the time
+   * spent waiting to run).
+   *
+   * @return Latency summaries, by Plugin class name.
+   */
+  Map<String, LatencySummary> getBulkheadLatencies();
+
+  /**
+   * Returns the calls made to each method of each Plugin version while instrumentation was enabled
+   * (see {@link PluginRegistry#setInstrumentationEnabled(boolean)}).
+   *
+   * @return Method summaries, ordered by Plugin name, version and method.
+   */
+  List<MethodSummary> getMethodSummaries();
+
+  /**
+   * Returns the number of attribute query results served from the query cache.
+   *
+   * @return Query cache hit count.
+   */
+  long getQueryCacheHitCount();
+
+  /**
+   * Returns the number of attribute queries that were not served from the query cache.
+   *
+   * @return Query cache miss count.
+   */
+  long getQueryCacheMissCount();
+
+  /**
+   * Returns the fraction of attribute queries served from the query cache.
+   *
+   * @return Query cache hit rate (from 0 to 1), or 0 if no query was made.
+   */
+  double getQueryCacheHitRate();
+
+  /**
+   * Returns the number of JAR files and package directories scanned.
+   *
+   * @return Scan count.
+   */
+  long getScanCount();
+
+  /**
+   * Returns the number of class files examined by scans.
+   *
+   * @return Classes examined.
+   */
+  long getClassesExamined();
+
+  /**
+   * Returns the number of classes loaded by scans.
+   *
+   * @return Classes loaded.
+   */
+  long getClassesLoaded();
+
+  /**
+   * Returns the latencies of JAR file scans.
+   *
+   * @return Latency summary.
+   */
+  LatencySummary getScanJarLatency();
+
+  /**
+   * Returns the latencies of package directory scans.
+   *
+   * @return Latency summary.
+   */
+  LatencySummary getScanPackageDirectoryLatency();
+
+  /**
+   * Returns the latencies of Plugin registrations.
+   *
+   * @return Latency summary.
+   */
+  LatencySummary getRegisterPluginLatency();
+
+  /**
+   * Returns the latencies of Plugin instance retrievals (including instantiation, if the Plugin's
+   * instance scope requires a new instance).
+   *
+   * @return Latency summary.
+   */
+  LatencySummary getPluginAsInterfaceLatency();
+}
@@ -0,0 +1,266 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/**
+ * JAR file or package directory that Plugins were scanned from, with the parameters of the scan and
+ * a hash of the source's content at the time of the scan, so that the scan's results can be reused
+ * for as long as the source does not change.
+ * <p>
+ * Hashing a source reads all of it, so a scan only records a fingerprint of the source (the sizes
+ * and modification times of its files). The content hash is computed once it is needed (e.g. when
+ * a registry snapshot is saved), provided that the fingerprint shows that the source did not
+ * change since the scan.
+ */
+final class PluginSource {
+
+  private static final String CONTENT_HASH_ALGORITHM = "SHA-256";
+
+  private final String path;
+  private final boolean jarFile;
+  private final Set<String> pluginInterfaceNames;
+  private final Set<String> targetPackages;
+  private final boolean scanSubpackages;
+  private final byte[] fingerprint;
+  private volatile byte[] contentHash;
+
+  /**
+   * Constructor.
+   *
+   * @param path Absolute path to the JAR file or package directory.
+   * @param jarFile True if the source is a JAR file, false if it is a package directory.
+   * @param pluginInterfaceNames Names of the Plugin Interfaces scanned for.
+   * @param targetPackages Scanned packages (or null, if all packages were scanned).
+   * @param scanSubpackages True if subpackages of the target packages were scanned.
+   * @param contentHash Hash of the source's content.
+   */
+  PluginSource(
+      String path,
+      boolean jarFile,
+      Set<String> pluginInterfaceNames,
+      Set<String> targetPackages,
+      boolean scanSubpackages,
+      byte[] contentHash) {
+    this(path, jarFile, pluginInterfaceNames, targetPackages, scanSubpackages, null,
+        contentHash.clone());
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param path Absolute path to the JAR file or package directory.
+   * @param jarFile True if the source is a JAR file, false if it is a package directory.
+   * @param pluginInterfaceNames Names of the Plugin Interfaces scanned for.
+   * @param targetPackages Scanned packages (or null, if all packages were scanned).
+   * @param scanSubpackages True if subpackages of the target packages were scanned.
+   * @param fingerprint Fingerprint of the source (or null, if the content hash is known).
+   * @param contentHash Hash of the source's content (or null, if not computed yet).
+   */
+  private PluginSource(
+      String path,
+      boolean jarFile,
+      Set<String> pluginInterfaceNames,
+      Set<String> targetPackages,
+      boolean scanSubpackages,
+      byte[] fingerprint,
+      byte[] contentHash) {
+    this.path = Objects.requireNonNull(path);
+    this.jarFile = jarFile;
+    this.pluginInterfaceNames =
+        Collections.unmodifiableSet(new TreeSet<>(pluginInterfaceNames));
+    this.targetPackages = (targetPackages == null) ? null :
+        Collections.unmodifiableSet(new TreeSet<>(targetPackages));
+    this.scanSubpackages = scanSubpackages;
+    this.fingerprint = fingerprint;
+    this.contentHash = contentHash;
+  }
+
+  /**
+   * Creates the Plugin Source of a scan, fingerprinting the source's current content.
+   *
+   * @param file JAR file or package directory.
+   * @param pluginInterfaces Plugin Interfaces scanned for.
+   * @param targetPackages Scanned packages (or null, if all packages were scanned).
+   * @param scanSubpackages True if subpackages of the target packages were scanned.
+   * @return Plugin Source.
+   */
+  static PluginSource of(
+      File file,
+      Set<Class<? extends Pluggable>> pluginInterfaces,
+      Set<String> targetPackages,
+      boolean scanSubpackages) {
+    boolean jarFile = !file.isDirectory();
+    return new PluginSource(
+        file.getAbsolutePath(),
+        jarFile,
+        pluginInterfaces.stream().map(Class::getName).collect(Collectors.toSet()),
+        targetPackages,
+        scanSubpackages,
+        computeFingerprint(file.toPath(), jarFile),
+        null);
+  }
+
+  String getPath() {
+    return path;
+  }
+
+  boolean isJarFile() {
+    return jarFile;
+  }
+
+  Set<String> getPluginInterfaceNames() {
+    return pluginInterfaceNames;
+  }
+
+  Set<String> getTargetPackages() {
+    return targetPackages;
+  }
+
+  boolean isScanSubpackages() {
+    return scanSubpackages;
+  }
+
+  /**
+   * Returns the hash of the source's content at the time of the scan, hashing the source first if
+   * needed. If the source changed (or was deleted) since the scan, its content at the time of the
+   * scan is unknown, and an empty hash (that matches no content) is returned.
+   *
+   * @return Content hash.
+   */
+  byte[] getContentHash() {
+    byte[] hash = contentHash;
+    if (hash == null) {
+      try {
+        Path sourcePath = Path.of(path);
+        hash = Arrays.equals(fingerprint, computeFingerprint(sourcePath, jarFile))
+            ? computeContentHash(sourcePath, jarFile)
+            : new byte[0];
+      } catch (UncheckedIOException e) {
+        hash = new byte[0];
+      }
+      contentHash = hash;
+    }
+    return hash.clone();
+  }
+
+  /**
+   * Returns true if the source still exists, and its content has not changed since it was scanned.
+   * Sources that were not hashed yet are compared by fingerprint, without reading their content.
+   *
+   * @return True if the source is unchanged, false otherwise.
+   */
+  boolean isUnchanged() {
+    Path sourcePath = Path.of(path);
+    if (jarFile ? !Files.isRegularFile(sourcePath) : !Files.isDirectory(sourcePath)) {
+      return false;
+    }
+    byte[] hash = contentHash;
+    return (hash == null)
+        ? Arrays.equals(fingerprint, computeFingerprint(sourcePath, jarFile))
+        : Arrays.equals(hash, computeContentHash(sourcePath, jarFile));
+  }
+
+  /**
+   * Fingerprints a JAR file by its size and modification time, or a package directory by the
+   * names, sizes and modification times of its class files, without reading their content.
+   *
+   * @param sourcePath Path to the JAR file or package directory.
+   * @param jarFile True if the source is a JAR file, false if it is a package directory.
+   * @return Fingerprint.
+   */
+  static byte[] computeFingerprint(Path sourcePath, boolean jarFile) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance(CONTENT_HASH_ALGORITHM);
+      for (Path file : jarFile ? List.of(sourcePath) : listClassFiles(sourcePath)) {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        digest.update(String.format("%s:%d:%d;",
+            sourcePath.relativize(file), attributes.size(),
+            attributes.lastModifiedTime().toMillis()).getBytes(StandardCharsets.UTF_8));
+      }
+      return digest.digest();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Hashes the content of a JAR file, or the names and content of the class files within a package
+   * directory.
+   *
+   * @param sourcePath Path to the JAR file or package directory.
+   * @param jarFile True if the source is a JAR file, false if it is a package directory.
+   * @return Content hash.
+   */
+  static byte[] computeContentHash(Path sourcePath, boolean jarFile) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance(CONTENT_HASH_ALGORITHM);
+      if (jarFile) {
+        update(digest, sourcePath);
+      } else {
+        for (Path classFile : listClassFiles(sourcePath)) {
+          digest.update(sourcePath.relativize(classFile).toString()
+              .getBytes(StandardCharsets.UTF_8));
+          update(digest, classFile);
+        }
+      }
+      return digest.digest();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Lists the class files within a package directory, sorted by path.
+   *
+   * @param pkgDir Path to the package directory.
+   * @return Class files.
+   * @throws IOException Thrown on IO exception.
+   */
+  private static List<Path> listClassFiles(Path pkgDir) throws IOException {
+    try (Stream<Path> files = Files.walk(pkgDir)) {
+      return files
+          .filter(x -> Files.isRegularFile(x) && x.toString().endsWith(".class"))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Adds the content of the specified file to the digest.
+   *
+   * @param digest Message digest.
+   * @param file File.
+   * @throws IOException Thrown on IO exception.
+   */
+  private static void update(MessageDigest digest, Path file) throws IOException {
+    byte[] buffer = new byte[8192];
+    try (InputStream in = Files.newInputStream(file)) {
+      int read;
+      while ((read = in.read(buffer)) >= 0) {
+        digest.update(buffer, 0, read);
+      }
+    }
+  }
+}
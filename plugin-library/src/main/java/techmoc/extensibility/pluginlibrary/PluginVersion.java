@@ -11,6 +11,13 @@ public final class PluginVersion implements Comparable<PluginVersion> {
   private final int buildNumber;
   private final String revisionTag;
 
+  // The version numbers packed into a single comparison key (21 bits each), or -1 if any of them
+  // is too large to be packed.
+  private final long comparisonKey;
+
+  private static final int PACKED_NUMBER_BITS = 21;
+  private static final int PACKED_NUMBER_MAX = (1 << PACKED_NUMBER_BITS) - 1;
+
   public PluginVersion() {
     this(0, 0, 0, null);
   }
@@ -52,6 +59,47 @@ public final class PluginVersion implements Comparable<PluginVersion> {
     this.minorVersion = minorVersion;
     this.buildNumber = buildNumber;
     this.revisionTag = revisionTag;
+    this.comparisonKey = (majorVersion > PACKED_NUMBER_MAX ||
+        minorVersion > PACKED_NUMBER_MAX ||
+        buildNumber > PACKED_NUMBER_MAX) ? -1 :
+        ((long) majorVersion << (2 * PACKED_NUMBER_BITS)) |
+            ((long) minorVersion << PACKED_NUMBER_BITS) |
+            buildNumber;
+  }
+
+  /**
+   * Parses a version string of the form "major[.minor[.build]][-revisionTag]", e.g. "1.2",
+   * "1.2.345" or "1.2.345-SNAPSHOT".
+   *
+   * @param version Version string.
+   * @return Plugin version.
+   */
+  public static PluginVersion parse(String version) {
+    Objects.requireNonNull(version, "Version cannot be null.");
+
+    String versionNumber = version.trim();
+    String revisionTag = null;
+    int tagIndex = versionNumber.indexOf('-');
+    if (tagIndex >= 0) {
+      revisionTag = versionNumber.substring(tagIndex + 1);
+      versionNumber = versionNumber.substring(0, tagIndex);
+    }
+
+    String[] parts = versionNumber.split("\\.", -1);
+    if (parts.length > 3 || (revisionTag != null && revisionTag.isEmpty())) {
+      throw new IllegalArgumentException(String.format("Invalid version [%s].", version));
+    }
+
+    int[] numbers = new int[3];
+    for (int i = 0; i < parts.length; i++) {
+      try {
+        numbers[i] = Integer.parseInt(parts[i]);
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException(String.format("Invalid version [%s].", version), e);
+      }
+    }
+
+    return new PluginVersion(numbers[0], numbers[1], numbers[2], revisionTag);
   }
 
   public final int getMajorVersion() {
@@ -89,6 +137,11 @@ public final class PluginVersion implements Comparable<PluginVersion> {
 
   @Override
   public final int compareTo(PluginVersion that) {
+    // Compare the packed version numbers, if both versions could be packed.
+    if (this.comparisonKey >= 0 && that.comparisonKey >= 0) {
+      return Long.compare(this.comparisonKey, that.comparisonKey);
+    }
+
     // Compare the Major Version numbers.
     if (this.majorVersion < that.majorVersion) {
       return -1;
@@ -129,6 +182,8 @@ public final class PluginVersion implements Comparable<PluginVersion> {
 
   @Override
   public final int hashCode() {
-    return Objects.hash(majorVersion, minorVersion, buildNumber);
+    return (comparisonKey >= 0) ?
+        Long.hashCode(comparisonKey) :
+        Objects.hash(majorVersion, minorVersion, buildNumber);
   }
 }
@@ -0,0 +1,253 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * Bounded cache of the Plugin Entries matched by registry queries, which evicts the least recently
+ * used results.
+ * <p>
+ * Cached results belong to a single registry generation: as soon as a query is made against a
+ * newer generation (i.e. after any change to the registry), every cached result is discarded.
+ * Queries are keyed by Plugin Interface, query method and query argument, where the query argument
+ * is compared with {@code equals} (so a lambda predicate only matches itself).
+ * <p>
+ * Lookups never lock: results are held in a concurrent map per generation, and a hit only stamps
+ * the time of its access. Once the cache is full, the thread caching a new result scans the
+ * stamps, and evicts the least recently used results (a sixteenth of the capacity at once, so
+ * that large caches are not scanned on every insertion). Recency is thus approximate when
+ * results are used concurrently.
+ */
+final class QueryCache {
+
+  private final int capacity;
+  private final AtomicReference<Generation> current = new AtomicReference<>(new Generation(-1));
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+
+  /**
+   * Results cached for a single registry generation.
+   */
+  private static final class Generation {
+
+    private final long generation;
+    private final Map<Key, CachedResult> results = new ConcurrentHashMap<>();
+
+    Generation(long generation) {
+      this.generation = generation;
+    }
+  }
+
+  /**
+   * Cached result of a query, and the time it was last used.
+   */
+  private static final class CachedResult {
+
+    private final List<PluginEntry> pluginEntries;
+    private volatile long lastAccessTime = System.nanoTime();
+
+    CachedResult(List<PluginEntry> pluginEntries) {
+      this.pluginEntries = pluginEntries;
+    }
+  }
+
+  /**
+   * Key of a cached query.
+   */
+  private static final class Key {
+
+    private final Class<? extends Pluggable> registeredPluginInterface;
+    private final String queryMethod;
+    private final Object query;
+
+    Key(Class<? extends Pluggable> registeredPluginInterface, String queryMethod, Object query) {
+      this.registeredPluginInterface = registeredPluginInterface;
+      this.queryMethod = queryMethod;
+      this.query = query;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key that = (Key) o;
+      return registeredPluginInterface.equals(that.registeredPluginInterface) &&
+          queryMethod.equals(that.queryMethod) &&
+          Objects.equals(query, that.query);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(registeredPluginInterface, queryMethod, query);
+    }
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param capacity Maximum number of cached query results.
+   */
+  QueryCache(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException(String.format(
+          "Query cache capacity must be a positive number [%d].", capacity));
+    }
+
+    this.capacity = capacity;
+  }
+
+  /**
+   * Returns the cached result of the specified query, or null if it is not cached for the
+   * specified generation.
+   *
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @param queryMethod Name of the query method.
+   * @param query Query argument.
+   * @param generation Registry generation that the query is made against.
+   * @return Matching Plugin Entries, or null.
+   */
+  List<PluginEntry> get(
+      Class<? extends Pluggable> registeredPluginInterface,
+      String queryMethod,
+      Object query,
+      long generation) {
+
+    Generation cachedGeneration = advanceTo(generation);
+    CachedResult result = (generation == cachedGeneration.generation)
+        ? cachedGeneration.results.get(new Key(registeredPluginInterface, queryMethod, query))
+        : null;
+
+    if (result != null) {
+      result.lastAccessTime = System.nanoTime();
+      hitCount.increment();
+      return result.pluginEntries;
+    }
+    missCount.increment();
+    return null;
+  }
+
+  /**
+   * Caches the result of the specified query, unless the registry has moved on to a newer
+   * generation since the query was made.
+   *
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @param queryMethod Name of the query method.
+   * @param query Query argument.
+   * @param generation Registry generation that the query was made against.
+   * @param result Matching Plugin Entries.
+   * @return Cached (immutable) result.
+   */
+  List<PluginEntry> put(
+      Class<? extends Pluggable> registeredPluginInterface,
+      String queryMethod,
+      Object query,
+      long generation,
+      Collection<PluginEntry> result) {
+
+    List<PluginEntry> cachedResult = List.copyOf(result);
+    Generation cachedGeneration = advanceTo(generation);
+    if (generation == cachedGeneration.generation) {
+      cachedGeneration.results.put(
+          new Key(registeredPluginInterface, queryMethod, query), new CachedResult(cachedResult));
+      if (cachedGeneration.results.size() > capacity) {
+        evict(cachedGeneration);
+      }
+    }
+    return cachedResult;
+  }
+
+  /**
+   * Returns the number of queries answered from the cache.
+   *
+   * @return Hit count.
+   */
+  long getHitCount() {
+    return hitCount.sum();
+  }
+
+  /**
+   * Returns the number of queries that were not answered from the cache.
+   *
+   * @return Miss count.
+   */
+  long getMissCount() {
+    return missCount.sum();
+  }
+
+  /**
+   * Discards every cached result.
+   */
+  void clear() {
+    current.get().results.clear();
+  }
+
+  /**
+   * Returns the number of cached query results.
+   *
+   * @return Number of cached results.
+   */
+  int size() {
+    return current.get().results.size();
+  }
+
+  /**
+   * Discards every cached result, if the specified generation is newer than the cached one.
+   *
+   * @param generation Registry generation.
+   * @return Results of the current generation (which may be newer than the specified one).
+   */
+  private Generation advanceTo(long generation) {
+    Generation cachedGeneration = current.get();
+    while (generation > cachedGeneration.generation) {
+      Generation newGeneration = new Generation(generation);
+      if (current.compareAndSet(cachedGeneration, newGeneration)) {
+        return newGeneration;
+      }
+      cachedGeneration = current.get();
+    }
+    return cachedGeneration;
+  }
+
+  /**
+   * Evicts the least recently used results of the specified generation, down to the capacity
+   * (less a sixteenth of it). Only one thread evicts at a time; others skip the eviction.
+   *
+   * @param cachedGeneration Results of a generation.
+   */
+  private void evict(Generation cachedGeneration) {
+    if (!evictionLock.tryLock()) {
+      return;
+    }
+    try {
+      int excess = cachedGeneration.results.size() - (capacity - capacity / 16);
+      if (excess <= 0) {
+        return;
+      }
+
+      List<Map.Entry<Key, CachedResult>> entries =
+          new ArrayList<>(cachedGeneration.results.entrySet());
+      entries.sort(Comparator.comparingLong(x -> x.getValue().lastAccessTime));
+      for (Map.Entry<Key, CachedResult> entry :
+          entries.subList(0, Math.min(excess, entries.size()))) {
+        cachedGeneration.results.remove(entry.getKey(), entry.getValue());
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+}
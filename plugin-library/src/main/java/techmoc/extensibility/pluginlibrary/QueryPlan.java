@@ -0,0 +1,197 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * Execution plan of an {@link AttributeQuery} over the Plugin Entries of a single Plugin Index.
+ * <p>
+ * The query is split into the terms that must all match (the operands of its top-level ANDs).
+ * Terms that can be answered by an attribute index are looked up, and their candidate sets are
+ * intersected from the most selective (smallest) one up; all other terms are tested against the
+ * remaining candidates. Without any usable index, every Plugin Entry is tested.
+ */
+final class QueryPlan {
+
+  private final AttributeQuery query;
+  private final PluginIndex pluginIndex;
+
+  // Terms answered by an index, with their candidate sets, from the most selective up.
+  private final List<IndexedTerm> indexedTerms = new ArrayList<>();
+
+  // Terms tested against each candidate.
+  private final List<AttributeQuery> residualTerms = new ArrayList<>();
+
+  /**
+   * Term answered by an attribute index.
+   */
+  private static final class IndexedTerm {
+
+    private final AttributeQuery term;
+    private final AttributeIndex attributeIndex;
+    private final Set<PluginEntry> candidates;
+
+    IndexedTerm(AttributeQuery term, AttributeIndex attributeIndex, Set<PluginEntry> candidates) {
+      this.term = term;
+      this.attributeIndex = attributeIndex;
+      this.candidates = candidates;
+    }
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param query Attribute query.
+   * @param pluginIndex Plugin Index to query.
+   */
+  private QueryPlan(AttributeQuery query, PluginIndex pluginIndex) {
+    this.query = query;
+    this.pluginIndex = pluginIndex;
+  }
+
+  /**
+   * Plans the specified query over the specified Plugin Index.
+   *
+   * @param query Attribute query.
+   * @param pluginIndex Plugin Index to query.
+   * @return Query plan.
+   */
+  static QueryPlan plan(AttributeQuery query, PluginIndex pluginIndex) {
+    QueryPlan queryPlan = new QueryPlan(query, pluginIndex);
+
+    List<AttributeQuery> terms = new ArrayList<>();
+    query.addTerms(terms);
+
+    for (AttributeQuery term : terms) {
+      String attributeName = term.getIndexableAttributeName();
+      AttributeIndex attributeIndex =
+          (attributeName == null) ? null : pluginIndex.getAttributeIndex(attributeName);
+      Set<PluginEntry> candidates =
+          (attributeIndex == null) ? null : lookUp(term, attributeIndex);
+
+      if (candidates != null) {
+        queryPlan.indexedTerms.add(new IndexedTerm(term, attributeIndex, candidates));
+      } else {
+        queryPlan.residualTerms.add(term);
+      }
+    }
+
+    queryPlan.indexedTerms.sort(Comparator.comparingInt(x -> x.candidates.size()));
+    return queryPlan;
+  }
+
+  /**
+   * Executes the plan.
+   *
+   * @return Matching Plugin Entries, in registry order.
+   */
+  Collection<PluginEntry> execute() {
+    Collection<PluginEntry> candidates;
+    if (indexedTerms.isEmpty()) {
+      candidates = pluginIndex.getAll();
+    } else {
+      // Intersect the candidate sets, starting from the smallest.
+      candidates = indexedTerms.get(0).candidates;
+      for (int i = 1; i < indexedTerms.size() && !candidates.isEmpty(); i++) {
+        List<PluginEntry> intersection = new ArrayList<>(candidates.size());
+        for (PluginEntry pluginEntry : candidates) {
+          if (indexedTerms.get(i).candidates.contains(pluginEntry)) {
+            intersection.add(pluginEntry);
+          }
+        }
+        candidates = intersection;
+      }
+    }
+
+    if (residualTerms.isEmpty()) {
+      return candidates;
+    }
+
+    // Test the remaining terms.
+    List<PluginEntry> results = new ArrayList<>();
+    for (PluginEntry pluginEntry : candidates) {
+      if (matchesResidualTerms(pluginEntry)) {
+        results.add(pluginEntry);
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Returns a description of the plan.
+   *
+   * @return Plan description.
+   */
+  String explain() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("Query: ").append(query).append(System.lineSeparator());
+
+    int step = 1;
+    if (indexedTerms.isEmpty()) {
+      sb.append(String.format("  %d. Full scan (%d plugins)", step++, pluginIndex.size()))
+          .append(System.lineSeparator());
+    }
+    for (IndexedTerm indexedTerm : indexedTerms) {
+      String operation = (indexedTerm == indexedTerms.get(0)) ? "Look up" : "Intersect with";
+      sb.append(String.format("  %d. %s %s index on [%s]: %s (%d candidates)",
+          step++,
+          operation,
+          indexedTerm.attributeIndex.getAttributeIndexType(),
+          indexedTerm.attributeIndex.getAttributeName(),
+          indexedTerm.term,
+          indexedTerm.candidates.size()))
+          .append(System.lineSeparator());
+    }
+    for (AttributeQuery residualTerm : residualTerms) {
+      sb.append(String.format("  %d. Filter: %s", step++, residualTerm))
+          .append(System.lineSeparator());
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public String toString() {
+    return explain();
+  }
+
+  /**
+   * Returns true if the Plugin Entry matches every residual term.
+   *
+   * @param pluginEntry Plugin Entry.
+   * @return True if the Plugin Entry matches, false otherwise.
+   */
+  private boolean matchesResidualTerms(PluginEntry pluginEntry) {
+    for (AttributeQuery residualTerm : residualTerms) {
+      if (!residualTerm.test(pluginEntry.getPluginAttributes())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Looks up the candidates of the specified term in the specified index.
+   *
+   * @param term Query term.
+   * @param attributeIndex Index over the term's attribute.
+   * @return Candidate Plugin Entries, or null if the index cannot answer the term.
+   */
+  private static Set<PluginEntry> lookUp(AttributeQuery term, AttributeIndex attributeIndex) {
+    boolean sorted = attributeIndex.getAttributeIndexType() == AttributeIndexType.SORTED;
+
+    if (term instanceof AttributeQuery.Equals) {
+      Object value = ((AttributeQuery.Equals) term).getValue();
+      // A sorted index only holds Comparable values.
+      return (!sorted || value instanceof Comparable) ? attributeIndex.get(value) : null;
+    }
+    if (term instanceof AttributeQuery.Range && sorted) {
+      AttributeQuery.Range range = (AttributeQuery.Range) term;
+      return attributeIndex.getRange(range.getFrom(), range.getTo());
+    }
+    return null;
+  }
+}
@@ -0,0 +1,236 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.util.List;
+import java.util.Objects;
+
+
+/**
+ * Change made to the Plugin Registry, delivered to the subscribers of the registry's event
+ * publisher (see {@link PluginRegistry#getEventPublisher()}).
+ * <p>
+ * Plugins registered by a scan are not delivered one by one; a single {@link Type#SCAN_COMPLETED}
+ * event is delivered once the scan's changes are published, holding the coalesced {@link
+ * Type#REGISTERED} events of the scan (preceded by the {@link Type#UNREGISTERED} events of the
+ * Plugins replaced by an upgrade, see {@link PluginRegistry#upgradeJar(String)}).
+ */
+public final class RegistryEvent {
+
+  /**
+   * Kind of change.
+   */
+  public enum Type {
+    /**
+     * A Plugin was registered under a Plugin Interface.
+     */
+    REGISTERED,
+
+    /**
+     * A Plugin was unregistered from a Plugin Interface.
+     */
+    UNREGISTERED,
+
+    /**
+     * An attribute of a registered Plugin was changed.
+     */
+    ATTRIBUTE_CHANGED,
+
+    /**
+     * A JAR file or package directory was scanned.
+     */
+    SCAN_COMPLETED
+  }
+
+  private final Type type;
+  private final Class<? extends Pluggable> pluginInterface;
+  private final Class<? extends Pluggable> pluginClass;
+  private final String pluginName;
+  private final PluginVersion pluginVersion;
+  private final String attributeName;
+  private final String pluginSource;
+  private final List<RegistryEvent> coalescedEvents;
+
+  /**
+   * Constructor.
+   *
+   * @param type Kind of change.
+   * @param pluginInterface Plugin Interface (null for scan events).
+   * @param pluginEntry Plugin Entry (null for scan events).
+   * @param attributeName Name of the changed attribute (null unless an attribute changed).
+   * @param pluginSource Path to the scanned JAR file or package directory (null unless a scan
+   *     completed).
+   * @param coalescedEvents Events coalesced into this event.
+   */
+  private RegistryEvent(
+      Type type,
+      Class<? extends Pluggable> pluginInterface,
+      PluginEntry pluginEntry,
+      String attributeName,
+      String pluginSource,
+      List<RegistryEvent> coalescedEvents) {
+    this.type = type;
+    this.pluginInterface = pluginInterface;
+    this.pluginClass = (pluginEntry == null) ? null : pluginEntry.getPluginClass();
+    this.pluginName = (pluginEntry == null) ? null : pluginEntry.getPluginName();
+    this.pluginVersion = (pluginEntry == null) ? null : pluginEntry.getPluginVersion();
+    this.attributeName = attributeName;
+    this.pluginSource = pluginSource;
+    this.coalescedEvents = List.copyOf(coalescedEvents);
+  }
+
+  /**
+   * Creates an event for a Plugin registered under a Plugin Interface.
+   *
+   * @param pluginInterface Plugin Interface.
+   * @param pluginEntry Registered Plugin Entry.
+   * @return Registry event.
+   */
+  static RegistryEvent registered(
+      Class<? extends Pluggable> pluginInterface,
+      PluginEntry pluginEntry) {
+    return new RegistryEvent(Type.REGISTERED, pluginInterface, pluginEntry, null, null, List.of());
+  }
+
+  /**
+   * Creates an event for a Plugin unregistered from a Plugin Interface.
+   *
+   * @param pluginInterface Plugin Interface.
+   * @param pluginEntry Unregistered Plugin Entry.
+   * @return Registry event.
+   */
+  static RegistryEvent unregistered(
+      Class<? extends Pluggable> pluginInterface,
+      PluginEntry pluginEntry) {
+    return new RegistryEvent(
+        Type.UNREGISTERED, pluginInterface, pluginEntry, null, null, List.of());
+  }
+
+  /**
+   * Creates an event for a changed attribute of a registered Plugin.
+   *
+   * @param pluginInterface Plugin Interface.
+   * @param pluginEntry Updated Plugin Entry.
+   * @param attributeName Attribute name.
+   * @return Registry event.
+   */
+  static RegistryEvent attributeChanged(
+      Class<? extends Pluggable> pluginInterface,
+      PluginEntry pluginEntry,
+      String attributeName) {
+    return new RegistryEvent(
+        Type.ATTRIBUTE_CHANGED, pluginInterface, pluginEntry, attributeName, null, List.of());
+  }
+
+  /**
+   * Creates an event for a completed scan.
+   *
+   * @param pluginSource Path to the scanned JAR file or package directory.
+   * @param coalescedEvents Events of the Plugins registered by the scan.
+   * @return Registry event.
+   */
+  static RegistryEvent scanCompleted(String pluginSource, List<RegistryEvent> coalescedEvents) {
+    return new RegistryEvent(
+        Type.SCAN_COMPLETED, null, null, null, pluginSource, coalescedEvents);
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * Returns the Plugin Interface that the Plugin was registered under, or unregistered from.
+   *
+   * @return Plugin Interface, or null for {@link Type#SCAN_COMPLETED} events.
+   */
+  public Class<? extends Pluggable> getPluginInterface() {
+    return pluginInterface;
+  }
+
+  /**
+   * Returns the Plugin class.
+   *
+   * @return Plugin class, or null for {@link Type#SCAN_COMPLETED} events.
+   */
+  public Class<? extends Pluggable> getPluginClass() {
+    return pluginClass;
+  }
+
+  /**
+   * Returns the Plugin name.
+   *
+   * @return Plugin name, or null for {@link Type#SCAN_COMPLETED} events.
+   */
+  public String getPluginName() {
+    return pluginName;
+  }
+
+  /**
+   * Returns the Plugin version.
+   *
+   * @return Plugin version, or null for {@link Type#SCAN_COMPLETED} events.
+   */
+  public PluginVersion getPluginVersion() {
+    return pluginVersion;
+  }
+
+  /**
+   * Returns the name of the changed attribute.
+   *
+   * @return Attribute name, or null unless the event is an {@link Type#ATTRIBUTE_CHANGED} event.
+   */
+  public String getAttributeName() {
+    return attributeName;
+  }
+
+  /**
+   * Returns the path to the scanned JAR file or package directory.
+   *
+   * @return Path, or null unless the event is a {@link Type#SCAN_COMPLETED} event.
+   */
+  public String getPluginSource() {
+    return pluginSource;
+  }
+
+  /**
+   * Returns the events coalesced into this event (i.e. the Plugins registered by a scan, and the
+   * Plugins that they replaced, if the scan was an upgrade).
+   *
+   * @return Coalesced events (empty unless the event is a {@link Type#SCAN_COMPLETED} event).
+   */
+  public List<RegistryEvent> getCoalescedEvents() {
+    return coalescedEvents;
+  }
+
+  @Override
+  public String toString() {
+    if (type == Type.SCAN_COMPLETED) {
+      return String.format("%s [%s] (%d registered)", type, pluginSource, coalescedEvents.size());
+    }
+    return String.format("%s [%s (%s)] %s%s", type, pluginName, pluginVersion,
+        pluginInterface.getSimpleName(), (attributeName == null) ? "" : " " + attributeName);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    RegistryEvent that = (RegistryEvent) o;
+    return type == that.type &&
+        Objects.equals(pluginInterface, that.pluginInterface) &&
+        Objects.equals(pluginClass, that.pluginClass) &&
+        Objects.equals(pluginName, that.pluginName) &&
+        Objects.equals(pluginVersion, that.pluginVersion) &&
+        Objects.equals(attributeName, that.attributeName) &&
+        Objects.equals(pluginSource, that.pluginSource) &&
+        coalescedEvents.equals(that.coalescedEvents);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(type, pluginInterface, pluginClass, pluginName, pluginVersion,
+        attributeName, pluginSource, coalescedEvents);
+  }
+}
@@ -0,0 +1,368 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+
+/**
+ * Metrics of a Plugin Registry.
+ * <p>
+ * Recording a metric never takes a lock: counters are {@link LongAdder}s and latencies are kept in
+ * {@link LatencyHistogram}s, so that lookups made concurrently by many threads do not contend on
+ * shared counters. Metrics are only aggregated when they are read.
+ */
+final class RegistryMetrics implements PluginRegistryMXBean {
+
+  /**
+   * Registry methods whose lookups are counted.
+   */
+  enum Lookup {
+    GET("get"),
+    GET_ALL("getAll"),
+    STREAM("stream"),
+    GET_LATEST_VERSION("getLatestVersion"),
+    GET_LATEST_VERSIONS("getLatestVersions"),
+    GET_LATEST_VERSION_BY_ATTRIBUTE("getLatestVersionByAttribute"),
+    GET_LATEST_VERSIONS_BY_ATTRIBUTE("getLatestVersionsByAttribute"),
+    GET_BY_ATTRIBUTE("getByAttribute"),
+    GET_BY_ATTRIBUTE_VALUE("getByAttributeValue"),
+    GET_BY_ATTRIBUTE_RANGE("getByAttributeRange"),
+    QUERY("query"),
+    RESOLVE("resolve"),
+    RESOLVE_ALL("resolveAll"),
+    LEASE("lease"),
+    INVOKE_ALL("invokeAll"),
+    GET_LATEST_VERSION_WITH_BULKHEAD("getLatestVersionWithBulkhead"),
+    SELECT("select"),
+    GET_LATEST_VERSION_WITH_CACHE("getLatestVersionWithCache");
+
+    private final String methodName;
+
+    Lookup(String methodName) {
+      this.methodName = methodName;
+    }
+  }
+
+  private final Supplier<QueryCache> queryCache;
+
+  private final LongAdder[] lookupCounts = new LongAdder[Lookup.values().length];
+  private final Map<String, LongAdder> instantiationCounts = new ConcurrentHashMap<>();
+  private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+  private int bulkheadMaxConcurrentCalls = 25;
+  private int bulkheadMaxQueuedCalls = 0;
+  private final Map<String, MethodMetrics> methodMetrics = new ConcurrentHashMap<>();
+  private volatile boolean instrumentationEnabled = false;
+
+  private final LongAdder scanCount = new LongAdder();
+  private final LongAdder classesExamined = new LongAdder();
+  private final LongAdder classesLoaded = new LongAdder();
+
+  private final LatencyHistogram scanJarLatency = new LatencyHistogram();
+  private final LatencyHistogram scanPackageDirectoryLatency = new LatencyHistogram();
+  private final LatencyHistogram registerPluginLatency = new LatencyHistogram();
+  private final LatencyHistogram pluginAsInterfaceLatency = new LatencyHistogram();
+
+  /**
+   * Constructor.
+   *
+   * @param queryCache Supplier of the registry's current query cache (which supplies null while
+   *     query caching is disabled).
+   */
+  RegistryMetrics(Supplier<QueryCache> queryCache) {
+    this.queryCache = Objects.requireNonNull(queryCache);
+    for (int i = 0; i < lookupCounts.length; i++) {
+      lookupCounts[i] = new LongAdder();
+    }
+  }
+
+  //---------- Recording Methods ----------//
+
+  /**
+   * Records a lookup.
+   *
+   * @param lookup Registry method.
+   */
+  void recordLookup(Lookup lookup) {
+    lookupCounts[lookup.ordinal()].increment();
+  }
+
+  /**
+   * Returns a factory that counts the instances created by the specified factory.
+   *
+   * @param pluginClass Plugin class.
+   * @param pluginFactory Plugin factory.
+   * @return Counting Plugin factory.
+   */
+  Supplier<Pluggable> countInstantiations(
+      Class<? extends Pluggable> pluginClass,
+      Supplier<Pluggable> pluginFactory) {
+    // The counter is looked up once, so that instantiations only increment it.
+    LongAdder counter =
+        instantiationCounts.computeIfAbsent(pluginClass.getName(), x -> new LongAdder());
+    return () -> {
+      Pluggable pluggable = pluginFactory.get();
+      counter.increment();
+      return pluggable;
+    };
+  }
+
+  /**
+   * Returns the bulkhead of the specified Plugin class, creating it with the current bulkhead
+   * limits if the Plugin was not called through a bulkhead yet.
+   *
+   * @param pluginClass Plugin class.
+   * @return Bulkhead.
+   */
+  Bulkhead getBulkhead(Class<? extends Pluggable> pluginClass) {
+    Bulkhead bulkhead = bulkheads.get(pluginClass.getName());
+    return (bulkhead != null) ? bulkhead
+        : bulkheads.computeIfAbsent(pluginClass.getName(), this::createBulkhead);
+  }
+
+  /**
+   * Sets the limits of the bulkheads created from now on.
+   *
+   * @param maxConcurrentCalls Maximum number of calls running at once, per Plugin.
+   * @param maxQueuedCalls Maximum number of calls waiting to run, per Plugin.
+   */
+  synchronized void setBulkheadLimits(int maxConcurrentCalls, int maxQueuedCalls) {
+    bulkheadMaxConcurrentCalls = maxConcurrentCalls;
+    bulkheadMaxQueuedCalls = maxQueuedCalls;
+  }
+
+  /**
+   * Creates the bulkhead of a Plugin class, with the current bulkhead limits.
+   *
+   * @param pluginClassName Name of the Plugin class.
+   * @return Bulkhead.
+   */
+  private synchronized Bulkhead createBulkhead(String pluginClassName) {
+    return new Bulkhead(pluginClassName, bulkheadMaxConcurrentCalls, bulkheadMaxQueuedCalls);
+  }
+
+  /**
+   * Enables or disables the instrumentation of the Plugins returned by the registry.
+   *
+   * @param instrumentationEnabled True to instrument Plugins, false otherwise.
+   */
+  void setInstrumentationEnabled(boolean instrumentationEnabled) {
+    this.instrumentationEnabled = instrumentationEnabled;
+  }
+
+  /**
+   * Returns true if the Plugins returned by the registry are instrumented.
+   *
+   * @return True if instrumentation is enabled, false otherwise.
+   */
+  boolean isInstrumentationEnabled() {
+    return instrumentationEnabled;
+  }
+
+  /**
+   * Returns the recorders of the calls made to each method of the specified Plugin Interface, for
+   * a Plugin version (see {@link PluginInstrumenter#instrument}). Calls are recorded per Plugin
+   * name, version and method.
+   *
+   * @param pluginName Plugin name.
+   * @param pluginVersion Plugin version.
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @return Method metrics, in the order of the instrumented methods.
+   */
+  MethodMetrics[] getMethodMetrics(
+      String pluginName,
+      PluginVersion pluginVersion,
+      Class<? extends Pluggable> registeredPluginInterface) {
+    String version = pluginVersion.toString();
+    String prefix = getPluginKey(pluginName, version);
+
+    List<String> methods = PluginInstrumenter.getInstrumentedMethods(registeredPluginInterface);
+    MethodMetrics[] recorders = new MethodMetrics[methods.size()];
+    for (int i = 0; i < recorders.length; i++) {
+      String method = methods.get(i);
+      recorders[i] = methodMetrics.computeIfAbsent(prefix + " " + method,
+          x -> new MethodMetrics(pluginName, version, method));
+    }
+    return recorders;
+  }
+
+  /**
+   * Discards the method metrics of the Plugin versions that are no longer registered.
+   *
+   * @param registeredPluginEntries Plugin Entries of every registered Plugin Interface.
+   */
+  void retainMethodMetrics(Iterable<? extends Iterable<PluginEntry>> registeredPluginEntries) {
+    if (methodMetrics.isEmpty()) {
+      return;
+    }
+
+    Set<String> registeredPlugins = new HashSet<>();
+    for (Iterable<PluginEntry> pluginEntries : registeredPluginEntries) {
+      for (PluginEntry pluginEntry : pluginEntries) {
+        registeredPlugins.add(getPluginKey(
+            pluginEntry.getPluginName(), pluginEntry.getPluginVersion().toString()));
+      }
+    }
+    methodMetrics.values().removeIf(x -> !registeredPlugins.contains(
+        getPluginKey(x.getPluginName(), x.getPluginVersion())));
+  }
+
+  /**
+   * Returns the key of a Plugin version, which prefixes the keys of its method metrics.
+   *
+   * @param pluginName Plugin name.
+   * @param pluginVersion Plugin version.
+   * @return Plugin key.
+   */
+  private static String getPluginKey(String pluginName, String pluginVersion) {
+    return pluginName + " (" + pluginVersion + ")";
+  }
+
+  /**
+   * Records a scan of a JAR file or package directory.
+   *
+   * @param jarFile True if a JAR file was scanned, false if a package directory was scanned.
+   * @param classesExamined Number of class files examined by the scan.
+   * @param classesLoaded Number of classes loaded by the scan.
+   * @param nanos Latency in nanoseconds.
+   */
+  void recordScan(boolean jarFile, long classesExamined, long classesLoaded, long nanos) {
+    scanCount.increment();
+    this.classesExamined.add(classesExamined);
+    this.classesLoaded.add(classesLoaded);
+    (jarFile ? scanJarLatency : scanPackageDirectoryLatency).record(nanos);
+  }
+
+  /**
+   * Records a Plugin registration.
+   *
+   * @param nanos Latency in nanoseconds.
+   */
+  void recordRegisterPlugin(long nanos) {
+    registerPluginLatency.record(nanos);
+  }
+
+  /**
+   * Records a Plugin instance retrieval.
+   *
+   * @param nanos Latency in nanoseconds.
+   */
+  void recordPluginAsInterface(long nanos) {
+    pluginAsInterfaceLatency.record(nanos);
+  }
+
+  //---------- PluginRegistryMXBean Methods ----------//
+
+  @Override
+  public Map<String, Long> getLookupCounts() {
+    Map<String, Long> result = new TreeMap<>();
+    for (Lookup lookup : Lookup.values()) {
+      result.put(lookup.methodName, lookupCounts[lookup.ordinal()].sum());
+    }
+    return result;
+  }
+
+  @Override
+  public Map<String, Long> getInstantiationCounts() {
+    Map<String, Long> result = new TreeMap<>();
+    instantiationCounts.forEach((pluginClassName, count) ->
+        result.put(pluginClassName, count.sum()));
+    return result;
+  }
+
+  @Override
+  public Map<String, Integer> getBulkheadInFlightCounts() {
+    Map<String, Integer> result = new TreeMap<>();
+    bulkheads.forEach((pluginClassName, bulkhead) ->
+        result.put(pluginClassName, bulkhead.getInFlightCount()));
+    return result;
+  }
+
+  @Override
+  public Map<String, Long> getBulkheadRejectionCounts() {
+    Map<String, Long> result = new TreeMap<>();
+    bulkheads.forEach((pluginClassName, bulkhead) ->
+        result.put(pluginClassName, bulkhead.getRejectedCount()));
+    return result;
+  }
+
+  @Override
+  public Map<String, LatencySummary> getBulkheadLatencies() {
+    Map<String, LatencySummary> result = new TreeMap<>();
+    bulkheads.forEach((pluginClassName, bulkhead) ->
+        result.put(pluginClassName, bulkhead.getLatency()));
+    return result;
+  }
+
+  @Override
+  public List<MethodSummary> getMethodSummaries() {
+    List<MethodSummary> result = new ArrayList<>();
+    new TreeMap<>(methodMetrics).forEach((key, metrics) -> result.add(metrics.summarize()));
+    return result;
+  }
+
+  @Override
+  public long getQueryCacheHitCount() {
+    QueryCache queryCache = this.queryCache.get();
+    return (queryCache == null) ? 0 : queryCache.getHitCount();
+  }
+
+  @Override
+  public long getQueryCacheMissCount() {
+    QueryCache queryCache = this.queryCache.get();
+    return (queryCache == null) ? 0 : queryCache.getMissCount();
+  }
+
+  @Override
+  public double getQueryCacheHitRate() {
+    QueryCache queryCache = this.queryCache.get();
+    if (queryCache == null) {
+      return 0;
+    }
+    long hitCount = queryCache.getHitCount();
+    long total = hitCount + queryCache.getMissCount();
+    return (total == 0) ? 0 : (double) hitCount / total;
+  }
+
+  @Override
+  public long getScanCount() {
+    return scanCount.sum();
+  }
+
+  @Override
+  public long getClassesExamined() {
+    return classesExamined.sum();
+  }
+
+  @Override
+  public long getClassesLoaded() {
+    return classesLoaded.sum();
+  }
+
+  @Override
+  public LatencySummary getScanJarLatency() {
+    return scanJarLatency.summarize();
+  }
+
+  @Override
+  public LatencySummary getScanPackageDirectoryLatency() {
+    return scanPackageDirectoryLatency.summarize();
+  }
+
+  @Override
+  public LatencySummary getRegisterPluginLatency() {
+    return registerPluginLatency.summarize();
+  }
+
+  @Override
+  public LatencySummary getPluginAsInterfaceLatency() {
+    return pluginAsInterfaceLatency.summarize();
+  }
+}
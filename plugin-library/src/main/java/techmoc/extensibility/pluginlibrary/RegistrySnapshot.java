@@ -0,0 +1,605 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+
+/**
+ * Immutable view of the contents of a Plugin Registry.
+ * <p>
+ * A snapshot is never modified once it has been published. Changes are made through a {@link
+ * Builder}, which copies only the parts of the snapshot that it modifies, and produces a new
+ * snapshot that replaces the old one in a single step.
+ */
+final class RegistrySnapshot {
+
+  /**
+   * Snapshot of an empty Plugin Registry.
+   */
+  static final RegistrySnapshot EMPTY = new RegistrySnapshot(
+      new TreeMap<>(Comparator.comparing(Class::getSimpleName)),
+      new HashMap<>(),
+      0);
+
+  // Plugin Indexes, keyed by registered Plugin Interface.
+  private final NavigableMap<Class<? extends Pluggable>, PluginIndex> pluginIndexes;
+
+  // Registered Plugin Interfaces, keyed by the names of the Plugins registered under them.
+  private final Map<String, Set<Class<? extends Pluggable>>> pluginInterfacesByPluginName;
+
+  // Generation of the snapshot, incremented by every change to the Plugin Registry.
+  private final long generation;
+
+  /**
+   * Constructor.
+   *
+   * @param pluginIndexes Plugin Indexes, keyed by registered Plugin Interface.
+   * @param pluginInterfacesByPluginName Registered Plugin Interfaces, keyed by Plugin name.
+   * @param generation Generation of the snapshot.
+   */
+  private RegistrySnapshot(
+      NavigableMap<Class<? extends Pluggable>, PluginIndex> pluginIndexes,
+      Map<String, Set<Class<? extends Pluggable>>> pluginInterfacesByPluginName,
+      long generation) {
+    this.pluginIndexes = Collections.unmodifiableNavigableMap(pluginIndexes);
+    this.pluginInterfacesByPluginName = Collections.unmodifiableMap(pluginInterfacesByPluginName);
+    this.generation = generation;
+  }
+
+  /**
+   * Returns the generation of the snapshot. Every snapshot that replaces another has a greater
+   * generation than the snapshot it replaces.
+   *
+   * @return Generation.
+   */
+  long getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Returns the Plugin Index of the specified Plugin Interface, or null if it is not registered.
+   *
+   * @param registeredPluginInterface Registered Plugin Interface class.
+   * @return Plugin Index, or null.
+   */
+  PluginIndex getPluginIndex(Class<? extends Pluggable> registeredPluginInterface) {
+    return pluginIndexes.get(registeredPluginInterface);
+  }
+
+  /**
+   * Returns the registered Plugin Interfaces, ordered by simple name.
+   *
+   * @return Registered Plugin Interfaces.
+   */
+  NavigableSet<Class<? extends Pluggable>> getRegisteredInterfaces() {
+    return pluginIndexes.navigableKeySet();
+  }
+
+  /**
+   * Returns true if the specified Plugin Interface is registered.
+   *
+   * @param pluginInterface Plugin Interface class.
+   * @return True if the Plugin Interface is registered, false otherwise.
+   */
+  boolean containsPluginInterface(Class<? extends Pluggable> pluginInterface) {
+    return pluginIndexes.containsKey(pluginInterface);
+  }
+
+  /**
+   * Returns the registered Plugin Interfaces that a Plugin with the specified name is registered
+   * under.
+   *
+   * @param pluginName Plugin name.
+   * @return Registered Plugin Interfaces (empty if the Plugin name is not registered).
+   */
+  Set<Class<? extends Pluggable>> getPluginInterfacesByPluginName(String pluginName) {
+    return pluginInterfacesByPluginName.getOrDefault(pluginName, Set.of());
+  }
+
+  /**
+   * Returns true if a Plugin with the specified name is registered under any Plugin Interface.
+   *
+   * @param pluginName Plugin name.
+   * @return True if the Plugin name is registered, false otherwise.
+   */
+  boolean containsPluginName(String pluginName) {
+    return pluginInterfacesByPluginName.containsKey(pluginName);
+  }
+
+  /**
+   * Returns the total number of Plugin Entries, across all registered Plugin Interfaces.
+   *
+   * @return Total Plugin Entries.
+   */
+  int count() {
+    int total = 0;
+    for (PluginIndex pluginIndex : pluginIndexes.values()) {
+      total += pluginIndex.size();
+    }
+    return total;
+  }
+
+  /**
+   * Returns a builder that starts from the contents of this snapshot.
+   *
+   * @return Snapshot builder.
+   */
+  Builder toBuilder() {
+    return new Builder(this);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    RegistrySnapshot that = (RegistrySnapshot) o;
+    return pluginIndexes.equals(that.pluginIndexes);
+  }
+
+  @Override
+  public int hashCode() {
+    return pluginIndexes.hashCode();
+  }
+
+  /**
+   * Builds a new snapshot from an existing one.
+   * <p>
+   * Plugin Indexes are shared with the original snapshot until they are first modified, at which
+   * point they are copied. A builder is not thread safe, and must be confined to a single writer.
+   */
+  static final class Builder {
+
+    private final RegistrySnapshot original;
+    private NavigableMap<Class<? extends Pluggable>, PluginIndex> pluginIndexes;
+    private Map<String, Set<Class<? extends Pluggable>>> pluginInterfacesByPluginName;
+
+    // Plugin Indexes that have already been copied by this builder.
+    private final Set<PluginIndex> copiedPluginIndexes =
+        Collections.newSetFromMap(new IdentityHashMap<>());
+
+    // Events describing the changes made by this builder (null, unless events are recorded).
+    private List<RegistryEvent> events = null;
+
+    // Changes to the reference counts of Plugin class loaders, made by this builder.
+    private final Map<PluginClassLoader, Integer> classLoaderReferences = new IdentityHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param original Snapshot to start from.
+     */
+    private Builder(RegistrySnapshot original) {
+      this.original = original;
+      this.pluginIndexes = original.pluginIndexes;
+      this.pluginInterfacesByPluginName = original.pluginInterfacesByPluginName;
+    }
+
+    /**
+     * Returns the Plugin Index of the specified Plugin Interface (read only), or null if it is not
+     * registered.
+     *
+     * @param registeredPluginInterface Registered Plugin Interface class.
+     * @return Plugin Index, or null.
+     */
+    PluginIndex getPluginIndex(Class<? extends Pluggable> registeredPluginInterface) {
+      return pluginIndexes.get(registeredPluginInterface);
+    }
+
+    /**
+     * Returns the registered Plugin Interfaces, ordered by simple name.
+     *
+     * @return Registered Plugin Interfaces.
+     */
+    NavigableSet<Class<? extends Pluggable>> getRegisteredInterfaces() {
+      return Collections.unmodifiableNavigableSet(pluginIndexes.navigableKeySet());
+    }
+
+    /**
+     * Returns the registered Plugin Interfaces that a Plugin with the specified name is registered
+     * under.
+     *
+     * @param pluginName Plugin name.
+     * @return Registered Plugin Interfaces (empty if the Plugin name is not registered).
+     */
+    Set<Class<? extends Pluggable>> getPluginInterfacesByPluginName(String pluginName) {
+      return pluginInterfacesByPluginName.getOrDefault(pluginName, Set.of());
+    }
+
+    /**
+     * Registers the specified Plugin Interface, if it is not already registered.
+     *
+     * @param pluginInterface Plugin Interface class.
+     */
+    void addPluginInterface(Class<? extends Pluggable> pluginInterface) {
+      if (!pluginIndexes.containsKey(pluginInterface)) {
+        PluginIndex pluginIndex = new PluginIndex();
+        mutablePluginIndexes().put(pluginInterface, pluginIndex);
+        copiedPluginIndexes.add(pluginIndex);
+      }
+    }
+
+    /**
+     * Removes the specified Plugin Interface, and all Plugins registered under it.
+     *
+     * @param registeredPluginInterface Registered Plugin Interface class.
+     */
+    void removePluginInterface(Class<? extends Pluggable> registeredPluginInterface) {
+      PluginIndex pluginIndex = pluginIndexes.get(registeredPluginInterface);
+      if (pluginIndex != null) {
+        releaseAll(registeredPluginInterface, pluginIndex);
+        removePluginNames(registeredPluginInterface, pluginIndex.getPluginNames());
+        mutablePluginIndexes().remove(registeredPluginInterface);
+      }
+    }
+
+    /**
+     * Removes all Plugins registered under the specified Plugin Interface.
+     *
+     * @param registeredPluginInterface Registered Plugin Interface class.
+     */
+    void clearPluginInterface(Class<? extends Pluggable> registeredPluginInterface) {
+      PluginIndex pluginIndex = pluginIndexes.get(registeredPluginInterface);
+      if (pluginIndex != null && pluginIndex.size() > 0) {
+        releaseAll(registeredPluginInterface, pluginIndex);
+        removePluginNames(registeredPluginInterface, pluginIndex.getPluginNames());
+        PluginIndex emptyPluginIndex = pluginIndex.emptyCopy();
+        mutablePluginIndexes().put(registeredPluginInterface, emptyPluginIndex);
+        copiedPluginIndexes.add(emptyPluginIndex);
+      }
+    }
+
+    /**
+     * Removes all Plugin Interfaces and Plugins.
+     */
+    void clear() {
+      for (Map.Entry<Class<? extends Pluggable>, PluginIndex> entry : pluginIndexes.entrySet()) {
+        releaseAll(entry.getKey(), entry.getValue());
+      }
+      pluginIndexes = new TreeMap<>(Comparator.comparing(Class::getSimpleName));
+      pluginInterfacesByPluginName = new HashMap<>();
+      copiedPluginIndexes.clear();
+    }
+
+    /**
+     * Adds the Plugin Entry under the specified Plugin Interface.
+     *
+     * @param registeredPluginInterface Registered Plugin Interface class.
+     * @param pluginEntry Plugin Entry.
+     * @return True if the Plugin Entry was added, false if its name and version already exist.
+     */
+    boolean add(Class<? extends Pluggable> registeredPluginInterface, PluginEntry pluginEntry) {
+      if (!mutablePluginIndex(registeredPluginInterface).add(pluginEntry)) {
+        return false;
+      }
+      if (events != null) {
+        events.add(RegistryEvent.registered(registeredPluginInterface, pluginEntry));
+      }
+      addClassLoaderReferences(pluginEntry, 1);
+
+      Set<Class<? extends Pluggable>> pluginInterfaces =
+          pluginInterfacesByPluginName.get(pluginEntry.getPluginName());
+      if (pluginInterfaces == null || !pluginInterfaces.contains(registeredPluginInterface)) {
+        Set<Class<? extends Pluggable>> updated =
+            (pluginInterfaces == null) ? new HashSet<>() : new HashSet<>(pluginInterfaces);
+        updated.add(registeredPluginInterface);
+        mutablePluginInterfacesByPluginName()
+            .put(pluginEntry.getPluginName(), Collections.unmodifiableSet(updated));
+      }
+      return true;
+    }
+
+    /**
+     * Removes the Plugin Entry from under the specified Plugin Interface.
+     *
+     * @param registeredPluginInterface Registered Plugin Interface class.
+     * @param pluginEntry Plugin Entry.
+     * @return True if the Plugin Entry was removed, false if it was not found.
+     */
+    boolean remove(Class<? extends Pluggable> registeredPluginInterface, PluginEntry pluginEntry) {
+      PluginIndex pluginIndex = mutablePluginIndex(registeredPluginInterface);
+      if (!pluginIndex.remove(pluginEntry)) {
+        return false;
+      }
+      if (events != null) {
+        events.add(RegistryEvent.unregistered(registeredPluginInterface, pluginEntry));
+      }
+      addClassLoaderReferences(pluginEntry, -1);
+
+      if (!pluginIndex.containsPluginName(pluginEntry.getPluginName())) {
+        removePluginNames(registeredPluginInterface, Set.of(pluginEntry.getPluginName()));
+      }
+      return true;
+    }
+
+    /**
+     * Replaces a registered Plugin Entry with another that has the same Plugin class, name and
+     * version (e.g. one with updated attributes).
+     *
+     * @param registeredPluginInterface Registered Plugin Interface class.
+     * @param pluginEntry Replacement Plugin Entry.
+     */
+    void replace(Class<? extends Pluggable> registeredPluginInterface, PluginEntry pluginEntry) {
+      PluginIndex pluginIndex = mutablePluginIndex(registeredPluginInterface);
+      pluginIndex.remove(pluginEntry);
+      pluginIndex.add(pluginEntry);
+    }
+
+    /**
+     * Declares an index over the specified attribute of the Plugins registered under the specified
+     * Plugin Interface.
+     *
+     * @param registeredPluginInterface Registered Plugin Interface class.
+     * @param attributeName Attribute name.
+     * @param attributeIndexType Index type.
+     */
+    void createAttributeIndex(
+        Class<? extends Pluggable> registeredPluginInterface,
+        String attributeName,
+        AttributeIndexType attributeIndexType) {
+      PluginIndex pluginIndex = pluginIndexes.get(registeredPluginInterface);
+      AttributeIndex attributeIndex =
+          (pluginIndex == null) ? null : pluginIndex.getAttributeIndex(attributeName);
+      if (attributeIndex == null || attributeIndex.getAttributeIndexType() != attributeIndexType) {
+        mutablePluginIndex(registeredPluginInterface)
+            .createAttributeIndex(attributeName, attributeIndexType);
+      }
+    }
+
+    /**
+     * Removes the index over the specified attribute of the Plugins registered under the specified
+     * Plugin Interface.
+     *
+     * @param registeredPluginInterface Registered Plugin Interface class.
+     * @param attributeName Attribute name.
+     * @return True if the index was removed, false if the attribute was not indexed.
+     */
+    boolean dropAttributeIndex(
+        Class<? extends Pluggable> registeredPluginInterface,
+        String attributeName) {
+      PluginIndex pluginIndex = pluginIndexes.get(registeredPluginInterface);
+      if (pluginIndex == null || pluginIndex.getAttributeIndex(attributeName) == null) {
+        return false;
+      }
+      return mutablePluginIndex(registeredPluginInterface).dropAttributeIndex(attributeName);
+    }
+
+    /**
+     * Starts recording events describing the changes made by this builder.
+     */
+    void recordEvents() {
+      if (events == null) {
+        events = new ArrayList<>();
+      }
+    }
+
+    /**
+     * Returns true if events describing the changes made by this builder are recorded.
+     *
+     * @return True if events are recorded, false otherwise.
+     */
+    boolean isRecordingEvents() {
+      return events != null;
+    }
+
+    /**
+     * Records an event, if events are recorded.
+     *
+     * @param event Supplier of the event (only called if events are recorded).
+     */
+    void addEvent(Supplier<RegistryEvent> event) {
+      if (events != null) {
+        events.add(event.get());
+      }
+    }
+
+    /**
+     * Returns the number of recorded events.
+     *
+     * @return Number of recorded events (0, if events are not recorded).
+     */
+    int getEventCount() {
+      return (events == null) ? 0 : events.size();
+    }
+
+    /**
+     * Replaces the events recorded since the specified position with a single scan event, which
+     * holds them.
+     *
+     * @param fromIndex Number of events recorded before the scan.
+     * @param pluginSource Path to the scanned JAR file or package directory.
+     */
+    void coalesceScanEvents(int fromIndex, String pluginSource) {
+      if (events != null) {
+        List<RegistryEvent> scanEvents = events.subList(fromIndex, events.size());
+        RegistryEvent scanCompleted = RegistryEvent.scanCompleted(pluginSource, scanEvents);
+        scanEvents.clear();
+        events.add(scanCompleted);
+      }
+    }
+
+    /**
+     * Returns the recorded events, and starts recording anew.
+     *
+     * @return Recorded events (empty, if events are not recorded).
+     */
+    List<RegistryEvent> takeEvents() {
+      if (events == null || events.isEmpty()) {
+        return List.of();
+      }
+      List<RegistryEvent> result = events;
+      events = new ArrayList<>();
+      return result;
+    }
+
+    /**
+     * Tracks the specified Plugin class loader, so that it is closed if no Plugin loaded by it is
+     * registered once the change is published.
+     *
+     * @param classLoader Plugin class loader.
+     */
+    void trackClassLoader(PluginClassLoader classLoader) {
+      classLoaderReferences.putIfAbsent(classLoader, 0);
+    }
+
+    /**
+     * Returns the changes to the reference counts of Plugin class loaders made by this builder,
+     * and starts tracking anew.
+     *
+     * @return Reference count changes, by Plugin class loader.
+     */
+    Map<PluginClassLoader, Integer> takeClassLoaderReferences() {
+      if (classLoaderReferences.isEmpty()) {
+        return Map.of();
+      }
+      Map<PluginClassLoader, Integer> result = new IdentityHashMap<>(classLoaderReferences);
+      classLoaderReferences.clear();
+      return result;
+    }
+
+    /**
+     * Returns the new snapshot.
+     *
+     * @return Registry snapshot (the original snapshot, if nothing was changed).
+     */
+    RegistrySnapshot build() {
+      if (pluginIndexes == original.pluginIndexes &&
+          pluginInterfacesByPluginName == original.pluginInterfacesByPluginName) {
+        return original;
+      }
+
+      RegistrySnapshot snapshot = new RegistrySnapshot(
+          pluginIndexes, pluginInterfacesByPluginName, original.generation + 1);
+
+      // The new snapshot now owns the copied indexes, so further changes must copy them again.
+      pluginIndexes = snapshot.pluginIndexes;
+      pluginInterfacesByPluginName = snapshot.pluginInterfacesByPluginName;
+      copiedPluginIndexes.clear();
+      return snapshot;
+    }
+
+    /**
+     * Records an unregistered event for each Plugin registered under the specified Plugin
+     * Interface, and releases their class loaders.
+     *
+     * @param registeredPluginInterface Registered Plugin Interface class.
+     * @param pluginIndex Plugin Index of the Plugin Interface.
+     */
+    private void releaseAll(
+        Class<? extends Pluggable> registeredPluginInterface,
+        PluginIndex pluginIndex) {
+      for (PluginEntry pluginEntry : pluginIndex) {
+        if (events != null) {
+          events.add(RegistryEvent.unregistered(registeredPluginInterface, pluginEntry));
+        }
+        addClassLoaderReferences(pluginEntry, -1);
+      }
+    }
+
+    /**
+     * Changes the reference count of the class loader of the specified Plugin Entry's Plugin class
+     * (if it was loaded by a Plugin class loader).
+     *
+     * @param pluginEntry Plugin Entry.
+     * @param delta Reference count change.
+     */
+    private void addClassLoaderReferences(PluginEntry pluginEntry, int delta) {
+      PluginClassLoader classLoader = PluginClassLoader.of(pluginEntry.getPluginClass());
+      if (classLoader != null) {
+        classLoaderReferences.merge(classLoader, delta, Integer::sum);
+      }
+    }
+
+    /**
+     * Removes the specified Plugin names from the Plugin name index of the specified Plugin
+     * Interface.
+     *
+     * @param registeredPluginInterface Registered Plugin Interface class.
+     * @param pluginNames Plugin names.
+     */
+    private void removePluginNames(
+        Class<? extends Pluggable> registeredPluginInterface,
+        Set<String> pluginNames) {
+
+      Map<String, Set<Class<? extends Pluggable>>> mutableMap = null;
+      for (String pluginName : pluginNames) {
+        Set<Class<? extends Pluggable>> pluginInterfaces =
+            pluginInterfacesByPluginName.get(pluginName);
+        if (pluginInterfaces == null || !pluginInterfaces.contains(registeredPluginInterface)) {
+          continue;
+        }
+
+        if (mutableMap == null) {
+          mutableMap = mutablePluginInterfacesByPluginName();
+        }
+        if (pluginInterfaces.size() == 1) {
+          mutableMap.remove(pluginName);
+        } else {
+          Set<Class<? extends Pluggable>> updated = new HashSet<>(pluginInterfaces);
+          updated.remove(registeredPluginInterface);
+          mutableMap.put(pluginName, Collections.unmodifiableSet(updated));
+        }
+      }
+    }
+
+    /**
+     * Returns a modifiable copy of the Plugin Index of the specified Plugin Interface, copying it on
+     * first use.
+     *
+     * @param registeredPluginInterface Registered Plugin Interface class.
+     * @return Modifiable Plugin Index.
+     */
+    private PluginIndex mutablePluginIndex(Class<? extends Pluggable> registeredPluginInterface) {
+      PluginIndex pluginIndex = pluginIndexes.get(registeredPluginInterface);
+      if (pluginIndex == null) {
+        throw new IllegalArgumentException(String.format(
+            "Plugin Interface [%s] is not registered.", registeredPluginInterface.getSimpleName()));
+      }
+
+      if (!copiedPluginIndexes.contains(pluginIndex)) {
+        pluginIndex = new PluginIndex(pluginIndex);
+        mutablePluginIndexes().put(registeredPluginInterface, pluginIndex);
+        copiedPluginIndexes.add(pluginIndex);
+      }
+      return pluginIndex;
+    }
+
+    /**
+     * Returns a modifiable copy of the Plugin Index map, copying it on first use.
+     *
+     * @return Modifiable Plugin Index map.
+     */
+    private NavigableMap<Class<? extends Pluggable>, PluginIndex> mutablePluginIndexes() {
+      if (!(pluginIndexes instanceof TreeMap)) {
+        pluginIndexes = new TreeMap<>(pluginIndexes);
+      }
+      return pluginIndexes;
+    }
+
+    /**
+     * Returns a modifiable copy of the Plugin name index, copying it on first use.
+     *
+     * @return Modifiable Plugin name index.
+     */
+    private Map<String, Set<Class<? extends Pluggable>>> mutablePluginInterfacesByPluginName() {
+      if (!(pluginInterfacesByPluginName instanceof HashMap)) {
+        pluginInterfacesByPluginName = new HashMap<>(pluginInterfacesByPluginName);
+      }
+      return pluginInterfacesByPluginName;
+    }
+  }
+}
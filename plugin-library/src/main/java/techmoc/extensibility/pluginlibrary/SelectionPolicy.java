@@ -0,0 +1,96 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Determines which of several interchangeable Plugins is called (see {@link
+ * PluginRegistry#select(Class, SelectionPolicy)}).
+ * <p>
+ * Policies that depend on load use the calls made under leases (see {@link PluginLease}): the
+ * number of leases currently open on each Plugin, and a moving average of how long they were held.
+ * Selecting a Plugin never locks nor allocates.
+ */
+public enum SelectionPolicy {
+
+  /**
+   * Plugins are selected in turn.
+   */
+  ROUND_ROBIN {
+    @Override
+    int select(PluginEntry[] pluginEntries, AtomicInteger counter) {
+      return Math.floorMod(counter.getAndIncrement(), pluginEntries.length);
+    }
+  },
+
+  /**
+   * The Plugin with the fewest calls in flight is selected (the first one, on a tie).
+   */
+  LEAST_IN_FLIGHT {
+    @Override
+    int select(PluginEntry[] pluginEntries, AtomicInteger counter) {
+      int selected = 0;
+      int lowest = Integer.MAX_VALUE;
+      for (int i = 0; i < pluginEntries.length; i++) {
+        int inFlightCount = pluginEntries[i].getCallStatistics().getInFlightCount();
+        if (inFlightCount < lowest) {
+          selected = i;
+          lowest = inFlightCount;
+        }
+      }
+      return selected;
+    }
+  },
+
+  /**
+   * The Plugin with the lowest moving average latency is selected. Plugins that were never called
+   * are selected first, so that every Plugin gets measured.
+   */
+  EWMA_LATENCY {
+    @Override
+    int select(PluginEntry[] pluginEntries, AtomicInteger counter) {
+      int selected = 0;
+      long lowest = Long.MAX_VALUE;
+      for (int i = 0; i < pluginEntries.length; i++) {
+        long latency = pluginEntries[i].getCallStatistics().getEwmaLatency();
+        if (latency < lowest) {
+          selected = i;
+          lowest = latency;
+        }
+      }
+      return selected;
+    }
+  },
+
+  /**
+   * Two Plugins are picked at random, and the one with the lowest expected cost (its moving
+   * average latency, scaled by its calls in flight) is selected. This spreads the load almost as
+   * well as comparing every Plugin, without herding every caller onto the same Plugin.
+   */
+  POWER_OF_TWO_CHOICES {
+    @Override
+    int select(PluginEntry[] pluginEntries, AtomicInteger counter) {
+      if (pluginEntries.length == 1) {
+        return 0;
+      }
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      int first = random.nextInt(pluginEntries.length);
+      int second = random.nextInt(pluginEntries.length - 1);
+      if (second >= first) {
+        second++;
+      }
+      return (pluginEntries[second].getCallStatistics().getCost()
+          < pluginEntries[first].getCallStatistics().getCost()) ? second : first;
+    }
+  };
+
+  /**
+   * Selects one of the specified Plugin Entries.
+   *
+   * @param pluginEntries Candidate Plugin Entries (at least one).
+   * @param counter Counter of the selections made among these candidates.
+   * @return Index of the selected Plugin Entry.
+   */
+  abstract int select(PluginEntry[] pluginEntries, AtomicInteger counter);
+}
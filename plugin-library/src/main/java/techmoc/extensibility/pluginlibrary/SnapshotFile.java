@@ -0,0 +1,561 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import techmoc.extensibility.polymorphicmap.PolymorphicMap;
+
+
+/**
+ * Compact binary file holding the Plugins scanned from each Plugin Source, so that a Plugin
+ * Registry can be restored without scanning (see {@link PluginRegistry#saveSnapshot(Path)}).
+ * <p>
+ * The file holds the names of the registered Plugin Interfaces, followed by each Plugin Source (its
+ * scan parameters and content hash) and the Plugins registered from it: the Plugin class name, the
+ * Plugin Interface it is registered under, its name, version, instance scope and attributes (if
+ * they were read from a Plugin instance; otherwise they are still read lazily once restored).
+ * Attribute values of common types (strings, numbers, booleans, characters and Plugin versions)
+ * are written directly, and other {@link Serializable} values with Java serialization. The Plugins
+ * of a source that has attributes which cannot be written are left out, so that the source is
+ * rescanned when the snapshot is loaded.
+ */
+final class SnapshotFile {
+
+  private static final int MAGIC = 0x4A53454C; // "JSEL"
+  private static final int FORMAT_VERSION = 1;
+
+  // Attribute value tags.
+  private static final byte STRING = 1;
+  private static final byte INTEGER = 2;
+  private static final byte LONG = 3;
+  private static final byte DOUBLE = 4;
+  private static final byte FLOAT = 5;
+  private static final byte BOOLEAN = 6;
+  private static final byte SHORT = 7;
+  private static final byte BYTE = 8;
+  private static final byte CHARACTER = 9;
+  private static final byte PLUGIN_VERSION = 10;
+  private static final byte SERIALIZED = 11;
+
+  private final List<String> pluginInterfaceNames;
+  private final List<Source> sources;
+
+  /**
+   * Plugin Source, and the Plugins registered from it.
+   */
+  static final class Source {
+
+    private final PluginSource pluginSource;
+    private final boolean complete;
+    private final List<Plugin> plugins;
+
+    Source(PluginSource pluginSource, boolean complete, List<Plugin> plugins) {
+      this.pluginSource = pluginSource;
+      this.complete = complete;
+      this.plugins = plugins;
+    }
+
+    PluginSource getPluginSource() {
+      return pluginSource;
+    }
+
+    /**
+     * Returns true if all Plugins registered from the source were written.
+     *
+     * @return True if the source can be restored, false if it must be rescanned.
+     */
+    boolean isComplete() {
+      return complete;
+    }
+
+    List<Plugin> getPlugins() {
+      return plugins;
+    }
+  }
+
+  /**
+   * Plugin registered under a Plugin Interface.
+   */
+  static final class Plugin {
+
+    private final String pluginClassName;
+    private final String pluginInterfaceName;
+    private final String pluginName;
+    private final PluginVersion pluginVersion;
+    private final InstanceScope instanceScope;
+    private final byte[] encodedAttributes;
+
+    Plugin(
+        String pluginClassName,
+        String pluginInterfaceName,
+        String pluginName,
+        PluginVersion pluginVersion,
+        InstanceScope instanceScope,
+        byte[] encodedAttributes) {
+      this.pluginClassName = pluginClassName;
+      this.pluginInterfaceName = pluginInterfaceName;
+      this.pluginName = pluginName;
+      this.pluginVersion = pluginVersion;
+      this.instanceScope = instanceScope;
+      this.encodedAttributes = encodedAttributes;
+    }
+
+    String getPluginClassName() {
+      return pluginClassName;
+    }
+
+    String getPluginInterfaceName() {
+      return pluginInterfaceName;
+    }
+
+    /**
+     * Returns the Plugin's metadata, with its attributes decoded by the specified class loader.
+     *
+     * @param classLoader Class loader of the Plugin Source.
+     * @return Plugin descriptor.
+     * @throws IOException Thrown if the attributes cannot be decoded.
+     */
+    PluginDescriptor toPluginDescriptor(ClassLoader classLoader) throws IOException {
+      return new PluginDescriptor(pluginName, pluginVersion, instanceScope,
+          (encodedAttributes == null) ? null : decodeAttributes(encodedAttributes, classLoader));
+    }
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param pluginInterfaceNames Names of the registered Plugin Interfaces.
+   * @param sources Plugin Sources.
+   */
+  private SnapshotFile(List<String> pluginInterfaceNames, List<Source> sources) {
+    this.pluginInterfaceNames = pluginInterfaceNames;
+    this.sources = sources;
+  }
+
+  List<String> getPluginInterfaceNames() {
+    return pluginInterfaceNames;
+  }
+
+  List<Source> getSources() {
+    return sources;
+  }
+
+  /**
+   * Writes a snapshot file.
+   *
+   * @param file Path to the snapshot file.
+   * @param pluginInterfaces Registered Plugin Interfaces.
+   * @param pluginSources Plugin Sources.
+   * @param pluginEntries Registered Plugin Entries, keyed by the Plugin Interface they are
+   *     registered under.
+   * @throws IOException Thrown on IO exception.
+   */
+  static void write(
+      Path file,
+      Set<Class<? extends Pluggable>> pluginInterfaces,
+      List<PluginSource> pluginSources,
+      Map<Class<? extends Pluggable>, ? extends Iterable<PluginEntry>> pluginEntries)
+      throws IOException {
+
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(file)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+
+      out.writeInt(pluginInterfaces.size());
+      for (Class<? extends Pluggable> pluginInterface : pluginInterfaces) {
+        out.writeUTF(pluginInterface.getName());
+      }
+
+      out.writeInt(pluginSources.size());
+      for (PluginSource pluginSource : pluginSources) {
+        writeSource(out, pluginSource, pluginEntries);
+      }
+    }
+  }
+
+  /**
+   * Reads a snapshot file.
+   *
+   * @param file Path to the snapshot file.
+   * @return Snapshot file.
+   * @throws IOException Thrown on IO exception, or if the file is not a snapshot file.
+   */
+  static SnapshotFile read(Path file) throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+        throw new IOException(String.format("Not a registry snapshot file [%s].", file));
+      }
+
+      List<String> pluginInterfaceNames = new ArrayList<>();
+      for (int i = in.readInt(); i > 0; i--) {
+        pluginInterfaceNames.add(in.readUTF());
+      }
+
+      List<Source> sources = new ArrayList<>();
+      for (int i = in.readInt(); i > 0; i--) {
+        sources.add(readSource(in));
+      }
+
+      return new SnapshotFile(
+          Collections.unmodifiableList(pluginInterfaceNames),
+          Collections.unmodifiableList(sources));
+    }
+  }
+
+  /**
+   * Writes a Plugin Source, and the Plugins registered from it.
+   *
+   * @param out Output stream.
+   * @param pluginSource Plugin Source.
+   * @param pluginEntries Registered Plugin Entries, keyed by Plugin Interface.
+   * @throws IOException Thrown on IO exception.
+   */
+  private static void writeSource(
+      DataOutputStream out,
+      PluginSource pluginSource,
+      Map<Class<? extends Pluggable>, ? extends Iterable<PluginEntry>> pluginEntries)
+      throws IOException {
+
+    out.writeUTF(pluginSource.getPath());
+    out.writeBoolean(pluginSource.isJarFile());
+    writeStrings(out, pluginSource.getPluginInterfaceNames());
+    out.writeBoolean(pluginSource.getTargetPackages() != null);
+    if (pluginSource.getTargetPackages() != null) {
+      writeStrings(out, pluginSource.getTargetPackages());
+    }
+    out.writeBoolean(pluginSource.isScanSubpackages());
+    byte[] contentHash = pluginSource.getContentHash();
+    out.writeShort(contentHash.length);
+    out.write(contentHash);
+
+    // Encode the Plugins first, as the source is left incomplete if any of them cannot be encoded.
+    ByteArrayOutputStream plugins = new ByteArrayOutputStream();
+    DataOutputStream pluginsOut = new DataOutputStream(plugins);
+    int pluginCount = 0;
+    boolean complete = true;
+    for (Map.Entry<Class<? extends Pluggable>, ? extends Iterable<PluginEntry>> entry
+        : pluginEntries.entrySet()) {
+      for (PluginEntry pluginEntry : entry.getValue()) {
+        if (!pluginSource.getPath().equals(pluginEntry.getPluginSource())) {
+          continue;
+        }
+
+        byte[] encodedAttributes;
+        try {
+          encodedAttributes = (pluginEntry.peekPluginAttributes() == null)
+              ? null
+              : encodeAttributes(pluginEntry.peekPluginAttributes());
+        } catch (NotSerializableException e) {
+          complete = false;
+          break;
+        }
+
+        pluginsOut.writeUTF(pluginEntry.getPluginClass().getName());
+        pluginsOut.writeUTF(entry.getKey().getName());
+        pluginsOut.writeUTF(pluginEntry.getPluginName());
+        writeVersion(pluginsOut, pluginEntry.getPluginVersion());
+        pluginsOut.writeByte(pluginEntry.getInstanceScope().ordinal());
+        pluginsOut.writeBoolean(encodedAttributes != null);
+        if (encodedAttributes != null) {
+          pluginsOut.writeInt(encodedAttributes.length);
+          pluginsOut.write(encodedAttributes);
+        }
+        pluginCount++;
+      }
+    }
+
+    out.writeBoolean(complete);
+    out.writeInt(complete ? pluginCount : 0);
+    if (complete) {
+      plugins.writeTo(out);
+    }
+  }
+
+  /**
+   * Reads a Plugin Source, and the Plugins registered from it.
+   *
+   * @param in Input stream.
+   * @return Source.
+   * @throws IOException Thrown on IO exception.
+   */
+  private static Source readSource(DataInputStream in) throws IOException {
+    String path = in.readUTF();
+    boolean jarFile = in.readBoolean();
+    Set<String> pluginInterfaceNames = readStrings(in);
+    Set<String> targetPackages = in.readBoolean() ? readStrings(in) : null;
+    boolean scanSubpackages = in.readBoolean();
+    byte[] contentHash = new byte[in.readUnsignedShort()];
+    in.readFully(contentHash);
+    PluginSource pluginSource = new PluginSource(
+        path, jarFile, pluginInterfaceNames, targetPackages, scanSubpackages, contentHash);
+
+    boolean complete = in.readBoolean();
+    List<Plugin> plugins = new ArrayList<>();
+    for (int i = in.readInt(); i > 0; i--) {
+      String pluginClassName = in.readUTF();
+      String pluginInterfaceName = in.readUTF();
+      String pluginName = in.readUTF();
+      PluginVersion pluginVersion = readVersion(in);
+      InstanceScope instanceScope = InstanceScope.values()[in.readUnsignedByte()];
+      byte[] encodedAttributes = null;
+      if (in.readBoolean()) {
+        encodedAttributes = new byte[in.readInt()];
+        in.readFully(encodedAttributes);
+      }
+      plugins.add(new Plugin(pluginClassName, pluginInterfaceName, pluginName, pluginVersion,
+          instanceScope, encodedAttributes));
+    }
+    return new Source(pluginSource, complete, Collections.unmodifiableList(plugins));
+  }
+
+  /**
+   * Encodes Plugin attributes.
+   *
+   * @param pluginAttributes Plugin attributes.
+   * @return Encoded attributes.
+   * @throws NotSerializableException Thrown if an attribute value cannot be encoded.
+   */
+  private static byte[] encodeAttributes(PolymorphicMap pluginAttributes)
+      throws NotSerializableException {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+
+      Set<String> keys = new HashSet<>(pluginAttributes.keySet());
+      out.writeInt(keys.size());
+      for (String key : keys) {
+        Object value = pluginAttributes.get(key, Object.class);
+        out.writeUTF(key);
+        writeValue(out, value);
+      }
+      return bytes.toByteArray();
+    } catch (NotSerializableException e) {
+      throw e;
+    } catch (IOException e) {
+      // Writing to memory only fails if a value cannot be serialized.
+      NotSerializableException exception = new NotSerializableException(e.getMessage());
+      exception.initCause(e);
+      throw exception;
+    }
+  }
+
+  /**
+   * Decodes Plugin attributes.
+   *
+   * @param encodedAttributes Encoded attributes.
+   * @param classLoader Class loader that resolves the types of the attributes.
+   * @return Plugin attributes.
+   * @throws IOException Thrown if the attributes cannot be decoded.
+   */
+  private static PolymorphicMap decodeAttributes(byte[] encodedAttributes, ClassLoader classLoader)
+      throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(encodedAttributes));
+    PolymorphicMap pluginAttributes = new PolymorphicMap();
+    for (int i = in.readInt(); i > 0; i--) {
+      String key = in.readUTF();
+      pluginAttributes.put(key, readValue(in, classLoader));
+    }
+    return pluginAttributes;
+  }
+
+  /**
+   * Writes an attribute value, preceded by its tag.
+   *
+   * @param out Output stream.
+   * @param value Attribute value.
+   * @throws IOException Thrown if the value cannot be written.
+   */
+  private static void writeValue(DataOutputStream out, Object value) throws IOException {
+    if (value instanceof String) {
+      out.writeByte(STRING);
+      out.writeUTF((String) value);
+    } else if (value instanceof Integer) {
+      out.writeByte(INTEGER);
+      out.writeInt((Integer) value);
+    } else if (value instanceof Long) {
+      out.writeByte(LONG);
+      out.writeLong((Long) value);
+    } else if (value instanceof Double) {
+      out.writeByte(DOUBLE);
+      out.writeDouble((Double) value);
+    } else if (value instanceof Float) {
+      out.writeByte(FLOAT);
+      out.writeFloat((Float) value);
+    } else if (value instanceof Boolean) {
+      out.writeByte(BOOLEAN);
+      out.writeBoolean((Boolean) value);
+    } else if (value instanceof Short) {
+      out.writeByte(SHORT);
+      out.writeShort((Short) value);
+    } else if (value instanceof Byte) {
+      out.writeByte(BYTE);
+      out.writeByte((Byte) value);
+    } else if (value instanceof Character) {
+      out.writeByte(CHARACTER);
+      out.writeChar((Character) value);
+    } else if (value instanceof PluginVersion) {
+      out.writeByte(PLUGIN_VERSION);
+      writeVersion(out, (PluginVersion) value);
+    } else if (value instanceof Serializable) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream objectOut = new ObjectOutputStream(bytes)) {
+        objectOut.writeObject(value);
+      }
+      out.writeByte(SERIALIZED);
+      out.writeInt(bytes.size());
+      bytes.writeTo(out);
+    } else {
+      throw new NotSerializableException(value.getClass().getName());
+    }
+  }
+
+  /**
+   * Reads an attribute value, preceded by its tag.
+   *
+   * @param in Input stream.
+   * @param classLoader Class loader that resolves the classes of serialized values.
+   * @return Attribute value.
+   * @throws IOException Thrown if the value cannot be read.
+   */
+  private static Object readValue(DataInputStream in, ClassLoader classLoader) throws IOException {
+    byte tag = in.readByte();
+    switch (tag) {
+      case STRING:
+        return in.readUTF();
+      case INTEGER:
+        return in.readInt();
+      case LONG:
+        return in.readLong();
+      case DOUBLE:
+        return in.readDouble();
+      case FLOAT:
+        return in.readFloat();
+      case BOOLEAN:
+        return in.readBoolean();
+      case SHORT:
+        return in.readShort();
+      case BYTE:
+        return in.readByte();
+      case CHARACTER:
+        return in.readChar();
+      case PLUGIN_VERSION:
+        return readVersion(in);
+      case SERIALIZED:
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        try (ObjectInputStream objectIn =
+            new ClassLoaderObjectInputStream(new ByteArrayInputStream(bytes), classLoader)) {
+          return objectIn.readObject();
+        } catch (ClassNotFoundException e) {
+          throw new IOException("Unknown class of a serialized Plugin attribute.", e);
+        }
+      default:
+        throw new IOException(String.format("Unknown Plugin attribute tag [%d].", tag));
+    }
+  }
+
+  /**
+   * Writes a Plugin version.
+   *
+   * @param out Output stream.
+   * @param pluginVersion Plugin version.
+   * @throws IOException Thrown on IO exception.
+   */
+  private static void writeVersion(DataOutputStream out, PluginVersion pluginVersion)
+      throws IOException {
+    out.writeInt(pluginVersion.getMajorVersion());
+    out.writeInt(pluginVersion.getMinorVersion());
+    out.writeInt(pluginVersion.getBuildNumber());
+    out.writeBoolean(pluginVersion.getRevisionTag() != null);
+    if (pluginVersion.getRevisionTag() != null) {
+      out.writeUTF(pluginVersion.getRevisionTag());
+    }
+  }
+
+  /**
+   * Reads a Plugin version.
+   *
+   * @param in Input stream.
+   * @return Plugin version.
+   * @throws IOException Thrown on IO exception.
+   */
+  private static PluginVersion readVersion(DataInputStream in) throws IOException {
+    int majorVersion = in.readInt();
+    int minorVersion = in.readInt();
+    int buildNumber = in.readInt();
+    String revisionTag = in.readBoolean() ? in.readUTF() : null;
+    return new PluginVersion(majorVersion, minorVersion, buildNumber, revisionTag);
+  }
+
+  /**
+   * Writes a set of strings.
+   *
+   * @param out Output stream.
+   * @param strings Strings.
+   * @throws IOException Thrown on IO exception.
+   */
+  private static void writeStrings(DataOutputStream out, Set<String> strings) throws IOException {
+    out.writeInt(strings.size());
+    for (String string : strings) {
+      out.writeUTF(string);
+    }
+  }
+
+  /**
+   * Reads a set of strings.
+   *
+   * @param in Input stream.
+   * @return Strings.
+   * @throws IOException Thrown on IO exception.
+   */
+  private static Set<String> readStrings(DataInputStream in) throws IOException {
+    Set<String> strings = new HashSet<>();
+    for (int i = in.readInt(); i > 0; i--) {
+      strings.add(in.readUTF());
+    }
+    return strings;
+  }
+
+  /**
+   * Object input stream that resolves classes with a specific class loader.
+   */
+  private static final class ClassLoaderObjectInputStream extends ObjectInputStream {
+
+    private final ClassLoader classLoader;
+
+    ClassLoaderObjectInputStream(InputStream in, ClassLoader classLoader) throws IOException {
+      super(in);
+      this.classLoader = classLoader;
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc)
+        throws IOException, ClassNotFoundException {
+      try {
+        return Class.forName(desc.getName(), false, classLoader);
+      } catch (ClassNotFoundException e) {
+        return super.resolveClass(desc);
+      }
+    }
+  }
+}
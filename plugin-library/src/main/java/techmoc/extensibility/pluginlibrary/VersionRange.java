@@ -0,0 +1,216 @@
+package techmoc.extensibility.pluginlibrary;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+
+
+/**
+ * Range of Plugin versions, used to resolve a Plugin by compatible versions rather than by an exact
+ * version. Ranges are parsed from one of the following forms:
+ * <ul>
+ * <li> {@code "1.2.3"}: exactly version 1.2.3, </li>
+ * <li> {@code "^1.2"}: versions compatible with 1.2, i.e. from 1.2.0 up to (but excluding) the
+ * next version that changes the leftmost non-zero number (2.0.0 here, 0.3.0 for {@code "^0.2"}),
+ * and </li>
+ * <li> {@code "[1.0,2.0)"}: an interval, where square brackets include the bound and parentheses
+ * exclude it. Either bound may be left out (e.g. {@code "[1.0,)"}). </li>
+ * </ul>
+ * Revision tags are ignored, as they are when Plugin versions are compared.
+ *
+ * @see PluginRegistry#resolve(String, String, Class)
+ */
+public final class VersionRange {
+
+  private final PluginVersion lowerBound;
+  private final boolean lowerBoundInclusive;
+  private final PluginVersion upperBound;
+  private final boolean upperBoundInclusive;
+
+  /**
+   * Constructor.
+   *
+   * @param lowerBound Lower bound, or null if the range has no lower bound.
+   * @param lowerBoundInclusive True if the lower bound is part of the range.
+   * @param upperBound Upper bound, or null if the range has no upper bound.
+   * @param upperBoundInclusive True if the upper bound is part of the range.
+   */
+  public VersionRange(
+      PluginVersion lowerBound,
+      boolean lowerBoundInclusive,
+      PluginVersion upperBound,
+      boolean upperBoundInclusive) {
+    this.lowerBound = lowerBound;
+    this.lowerBoundInclusive = lowerBound != null && lowerBoundInclusive;
+    this.upperBound = upperBound;
+    this.upperBoundInclusive = upperBound != null && upperBoundInclusive;
+  }
+
+  /**
+   * Parses a version range (see {@link VersionRange} for the supported forms).
+   *
+   * @param versionRange Version range string.
+   * @return Version range.
+   */
+  public static VersionRange parse(String versionRange) {
+    Objects.requireNonNull(versionRange, "Version range cannot be null.");
+
+    String range = versionRange.trim();
+    if (range.isEmpty()) {
+      throw new IllegalArgumentException("Version range cannot be blank.");
+    }
+
+    // Caret range.
+    if (range.charAt(0) == '^') {
+      PluginVersion version = PluginVersion.parse(range.substring(1));
+      PluginVersion nextVersion;
+      if (version.getMajorVersion() > 0) {
+        nextVersion = new PluginVersion(version.getMajorVersion() + 1, 0, 0);
+      } else if (version.getMinorVersion() > 0) {
+        nextVersion = new PluginVersion(0, version.getMinorVersion() + 1, 0);
+      } else {
+        nextVersion = new PluginVersion(0, 0, version.getBuildNumber() + 1);
+      }
+      return new VersionRange(version, true, nextVersion, false);
+    }
+
+    // Interval.
+    char first = range.charAt(0);
+    if (first == '[' || first == '(') {
+      char last = range.charAt(range.length() - 1);
+      int comma = range.indexOf(',');
+      if ((last != ']' && last != ')') || comma < 0 || comma != range.lastIndexOf(',')) {
+        throw new IllegalArgumentException(
+            String.format("Invalid version range [%s].", versionRange));
+      }
+
+      String lower = range.substring(1, comma).trim();
+      String upper = range.substring(comma + 1, range.length() - 1).trim();
+      VersionRange result = new VersionRange(
+          lower.isEmpty() ? null : PluginVersion.parse(lower), first == '[',
+          upper.isEmpty() ? null : PluginVersion.parse(upper), last == ']');
+
+      // Only open bounds may be left out (e.g. "[1.0,)").
+      if ((lower.isEmpty() && first == '[') || (upper.isEmpty() && last == ']')) {
+        throw new IllegalArgumentException(
+            String.format("Invalid version range [%s].", versionRange));
+      }
+      return result;
+    }
+
+    // Exact version.
+    PluginVersion version = PluginVersion.parse(range);
+    return new VersionRange(version, true, version, true);
+  }
+
+  public final PluginVersion getLowerBound() {
+    return lowerBound;
+  }
+
+  public final boolean isLowerBoundInclusive() {
+    return lowerBoundInclusive;
+  }
+
+  public final PluginVersion getUpperBound() {
+    return upperBound;
+  }
+
+  public final boolean isUpperBoundInclusive() {
+    return upperBoundInclusive;
+  }
+
+  /**
+   * Returns true if the specified version lies within this range.
+   *
+   * @param pluginVersion Plugin version.
+   * @return True if the version lies within the range, false otherwise.
+   */
+  public final boolean contains(PluginVersion pluginVersion) {
+    Objects.requireNonNull(pluginVersion);
+
+    if (lowerBound != null) {
+      int comparison = pluginVersion.compareTo(lowerBound);
+      if (comparison < 0 || (comparison == 0 && !lowerBoundInclusive)) {
+        return false;
+      }
+    }
+    if (upperBound != null) {
+      int comparison = pluginVersion.compareTo(upperBound);
+      if (comparison > 0 || (comparison == 0 && !upperBoundInclusive)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the entry of the specified version map with the highest version within this range,
+   * using a single floor lookup.
+   *
+   * @param versions Map sorted by version.
+   * @param <V> Value type.
+   * @return Map entry, or null if no version lies within the range.
+   */
+  final <V> Map.Entry<PluginVersion, V> highest(NavigableMap<PluginVersion, V> versions) {
+    Map.Entry<PluginVersion, V> entry;
+    if (upperBound == null) {
+      entry = versions.lastEntry();
+    } else {
+      entry = upperBoundInclusive ?
+          versions.floorEntry(upperBound) :
+          versions.lowerEntry(upperBound);
+    }
+    return (entry == null || !contains(entry.getKey())) ? null : entry;
+  }
+
+  /**
+   * Returns a view of the entries of the specified version map within this range.
+   *
+   * @param versions Map sorted by version.
+   * @param <V> Value type.
+   * @return Map view, ordered from the lowest to the highest version.
+   */
+  final <V> NavigableMap<PluginVersion, V> subMap(NavigableMap<PluginVersion, V> versions) {
+    NavigableMap<PluginVersion, V> result = versions;
+    if (lowerBound != null) {
+      result = result.tailMap(lowerBound, lowerBoundInclusive);
+    }
+    if (upperBound != null) {
+      // An empty range (upper bound below the lower bound) would be rejected by the map.
+      if (lowerBound != null && upperBound.compareTo(lowerBound) < 0) {
+        return Collections.emptyNavigableMap();
+      }
+      result = result.headMap(upperBound, upperBoundInclusive);
+    }
+    return result;
+  }
+
+  @Override
+  public final String toString() {
+    return (lowerBoundInclusive ? "[" : "(") +
+        (lowerBound == null ? "" : lowerBound.toVersionNumber()) + "," +
+        (upperBound == null ? "" : upperBound.toVersionNumber()) +
+        (upperBoundInclusive ? "]" : ")");
+  }
+
+  @Override
+  public final boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    VersionRange that = (VersionRange) o;
+    return lowerBoundInclusive == that.lowerBoundInclusive &&
+        upperBoundInclusive == that.upperBoundInclusive &&
+        Objects.equals(lowerBound, that.lowerBound) &&
+        Objects.equals(upperBound, that.upperBound);
+  }
+
+  @Override
+  public final int hashCode() {
+    return Objects.hash(lowerBound, lowerBoundInclusive, upperBound, upperBoundInclusive);
+  }
+}
@@ -1,9 +1,15 @@
 package techmoc.extensibility.pluginlibrary;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BooleanSupplier;
 import java.util.function.IntSupplier;
 import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
 
 
 public final class AssertUtil {
@@ -11,6 +17,7 @@ public final class AssertUtil {
   private static String MAX_TIMEOUT_EXPIRED_ERROR_MESSAGE =
       "Max wait time expired before the expected value appeared.";
   private static long SLEEP_TIME_MS = 5;
+  private static final Map<Class<?>, AtomicInteger> INSTANCES_CREATED = new ConcurrentHashMap<>();
 
   private static long minWaitTimeMs() {
     return SLEEP_TIME_MS * 2;
@@ -154,6 +161,19 @@ public final class AssertUtil {
     throw new AssertionError(errorMsg);
   }
 
+  public static Set<String> classNames(List<? extends Pluggable> plugins) {
+    return plugins.stream().map(x -> x.getClass().getSimpleName()).collect(Collectors.toSet());
+  }
+
+  public static void countInstanceCreated(Class<?> clazz) {
+    INSTANCES_CREATED.computeIfAbsent(clazz, x -> new AtomicInteger()).incrementAndGet();
+  }
+
+  public static int getInstancesCreated(Class<?> clazz) {
+    AtomicInteger instancesCreated = INSTANCES_CREATED.get(clazz);
+    return (instancesCreated == null) ? 0 : instancesCreated.get();
+  }
+
   private static long adjustMaxWaitTimeMsIfSetTooLow(long maxWaitTimeMs) {
     return (maxWaitTimeMs < minWaitTimeMs()) ? minWaitTimeMs() : maxWaitTimeMs;
   }
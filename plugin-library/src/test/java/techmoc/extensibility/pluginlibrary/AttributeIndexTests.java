@@ -0,0 +1,172 @@
+package techmoc.extensibility.pluginlibrary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static techmoc.extensibility.pluginlibrary.AssertUtil.classNames;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import techmoc.extensibility.pluginlibrary.test_objects.Calico;
+import techmoc.extensibility.pluginlibrary.test_objects.Calico2;
+import techmoc.extensibility.pluginlibrary.test_objects.Calico3;
+import techmoc.extensibility.pluginlibrary.test_objects.Tabby;
+import techmoc.extensibility.pluginlibrary.test_objects.Tabby2;
+import techmoc.extensibility.pluginlibrary.test_objects.some_plugin_interfaces.Cat;
+import techmoc.extensibility.polymorphicmap.PolymorphicMap;
+
+
+/**
+ * Plugin attribute index unit tests.
+ */
+class AttributeIndexTests {
+
+  private PluginRegistry pr;
+
+  @PluginMetadata(name = "LazyCat")
+  public static class LazyCat implements Cat {
+
+    @Override
+    public String meow() {
+      return "...";
+    }
+
+    @Override
+    public void initializePluginAttributes(PolymorphicMap pluginAttributes) {
+      pluginAttributes.put("MeowVolume", 5);
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Cat.class);
+    pr.registerPlugin(Calico.class);
+    pr.registerPlugin(Calico2.class);
+    pr.registerPlugin(Calico3.class);
+    pr.registerPlugin(Tabby.class);
+  }
+
+  @Test
+  void testHashIndex() {
+    pr.createPluginAttributeIndex("HasPuffyTail", AttributeIndexType.HASH, Cat.class);
+    assertEquals(Map.of("HasPuffyTail", AttributeIndexType.HASH),
+        pr.getPluginAttributeIndexes(Cat.class));
+
+    assertEquals(Set.of("Calico3"),
+        classNames(pr.getByAttributeValue("HasPuffyTail", true, Cat.class)));
+    assertEquals(Set.of("Calico", "Calico2"),
+        classNames(pr.getByAttributeValue("HasPuffyTail", false, Cat.class)));
+    assertTrue(pr.getByAttributeValue("HasPuffyTail", "true", Cat.class).isEmpty());
+
+    // The index follows attribute changes.
+    pr.putPluginAttribute("Calico", Cat.class, "HasPuffyTail", true);
+    assertEquals(Set.of("Calico", "Calico3"),
+        classNames(pr.getByAttributeValue("HasPuffyTail", true, Cat.class)));
+    assertEquals(Set.of("Calico2"),
+        classNames(pr.getByAttributeValue("HasPuffyTail", false, Cat.class)));
+
+    // The index follows registrations and unregistrations.
+    pr.unregisterPlugin(Calico3.class);
+    assertEquals(Set.of("Calico"),
+        classNames(pr.getByAttributeValue("HasPuffyTail", true, Cat.class)));
+    pr.registerPlugin(Calico3.class);
+    assertEquals(Set.of("Calico", "Calico3"),
+        classNames(pr.getByAttributeValue("HasPuffyTail", true, Cat.class)));
+  }
+
+  @Test
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  void testSortedIndex() {
+    pr.createPluginAttributeIndex("MeowVolume", AttributeIndexType.SORTED, Cat.class);
+
+    assertEquals(Set.of("Calico", "Calico2", "Calico3"),
+        classNames(pr.getByAttributeRange("MeowVolume", 3, 7, Cat.class)));
+    assertEquals(Set.of("Calico2", "Calico3", "Tabby"),
+        classNames(pr.getByAttributeRange("MeowVolume", 4, 100, Cat.class)));
+    assertEquals(Set.of("Tabby"),
+        classNames(pr.getByAttributeValue("MeowVolume", 12, Cat.class)));
+    assertTrue(pr.getByAttributeRange("MeowVolume", 7, 3, Cat.class).isEmpty());
+
+    // Values of a different class than the bounds are not in range.
+    assertTrue(pr.getByAttributeRange("MeowVolume", 3L, 7L, Cat.class).isEmpty());
+    assertThrows(IllegalArgumentException.class,
+        () -> pr.getByAttributeRange("MeowVolume", (Comparable) 3, (Comparable) 7L, Cat.class));
+
+    // Plugins registered after the index was created are indexed.
+    pr.registerPlugin(Tabby2.class);
+    assertEquals(Set.of("Tabby2", "Calico"),
+        classNames(pr.getByAttributeRange("MeowVolume", 0, 3, Cat.class)));
+  }
+
+  @Test
+  void testIndexedQueriesMatchScans() {
+    pr.registerPlugin(Tabby2.class);
+
+    List<Cat> scanned = pr.getByAttributeRange("MeowVolume", 2, 7, Cat.class);
+    List<Cat> filtered = pr.getByAttribute((PolymorphicMap x) ->
+        x.containsKeyOfType("MeowVolume", Integer.class) &&
+            x.get("MeowVolume", Integer.class) >= 2 &&
+            x.get("MeowVolume", Integer.class) <= 7, Cat.class);
+    assertEquals(classNames(filtered), classNames(scanned));
+
+    pr.createPluginAttributeIndex("MeowVolume", AttributeIndexType.SORTED, Cat.class);
+    assertEquals(classNames(scanned),
+        classNames(pr.getByAttributeRange("MeowVolume", 2, 7, Cat.class)));
+
+    assertTrue(pr.dropPluginAttributeIndex("MeowVolume", Cat.class));
+    assertFalse(pr.dropPluginAttributeIndex("MeowVolume", Cat.class));
+    assertTrue(pr.getPluginAttributeIndexes(Cat.class).isEmpty());
+    assertEquals(classNames(scanned),
+        classNames(pr.getByAttributeRange("MeowVolume", 2, 7, Cat.class)));
+  }
+
+  @Test
+  void testIndexSurvivesClear() {
+    pr.createPluginAttributeIndex("MeowVolume", AttributeIndexType.HASH, Cat.class);
+    pr.clear(Cat.class);
+
+    assertEquals(Map.of("MeowVolume", AttributeIndexType.HASH),
+        pr.getPluginAttributeIndexes(Cat.class));
+    assertTrue(pr.getByAttributeValue("MeowVolume", 12, Cat.class).isEmpty());
+
+    pr.registerPlugin(Tabby.class);
+    assertEquals(Set.of("Tabby"),
+        classNames(pr.getByAttributeValue("MeowVolume", 12, Cat.class)));
+  }
+
+  @Test
+  void testUnresolvedPluginEntries() {
+    // Plugin Entries whose attributes are not known are indexed without instantiating the Plugin.
+    PluginEntry lazyCat = new PluginEntry(LazyCat.class);
+    AttributeIndex attributeIndex = new AttributeIndex("MeowVolume", AttributeIndexType.SORTED);
+    attributeIndex.add(lazyCat);
+    assertNull(lazyCat.peekPluginAttributes());
+
+    // They are matched when the index is queried.
+    AttributeIndex copy = new AttributeIndex(attributeIndex);
+    assertEquals(Set.of(lazyCat), copy.get(5));
+    assertEquals(Set.of(lazyCat), copy.getRange(1, 9));
+    assertTrue(copy.get(6).isEmpty());
+    assertTrue(copy.getRange(1L, 9L).isEmpty());
+
+    copy.remove(lazyCat);
+    assertTrue(copy.get(5).isEmpty());
+    assertEquals(Set.of(lazyCat), attributeIndex.get(5));
+  }
+
+  @Test
+  void testIllegalArguments() {
+    assertThrows(IllegalArgumentException.class,
+        () -> pr.createPluginAttributeIndex(" ", AttributeIndexType.HASH, Cat.class));
+    assertThrows(NullPointerException.class,
+        () -> pr.createPluginAttributeIndex("MeowVolume", null, Cat.class));
+    assertThrows(NullPointerException.class,
+        () -> pr.getByAttributeValue("MeowVolume", null, Cat.class));
+  }
+}
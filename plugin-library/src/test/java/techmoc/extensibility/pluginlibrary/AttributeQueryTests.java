@@ -0,0 +1,117 @@
+package techmoc.extensibility.pluginlibrary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static techmoc.extensibility.pluginlibrary.AssertUtil.classNames;
+import static techmoc.extensibility.pluginlibrary.AssertUtil.countInstanceCreated;
+import static techmoc.extensibility.pluginlibrary.AssertUtil.getInstancesCreated;
+import static techmoc.extensibility.pluginlibrary.AttributeQuery.eq;
+import static techmoc.extensibility.pluginlibrary.AttributeQuery.not;
+import static techmoc.extensibility.pluginlibrary.AttributeQuery.range;
+
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import techmoc.extensibility.pluginlibrary.test_objects.Calico;
+import techmoc.extensibility.pluginlibrary.test_objects.Calico2;
+import techmoc.extensibility.pluginlibrary.test_objects.Calico3;
+import techmoc.extensibility.pluginlibrary.test_objects.Tabby;
+import techmoc.extensibility.pluginlibrary.test_objects.Tabby2;
+import techmoc.extensibility.pluginlibrary.test_objects.some_plugin_interfaces.Cat;
+import techmoc.extensibility.polymorphicmap.PolymorphicMap;
+
+
+/**
+ * Attribute query unit tests.
+ */
+class AttributeQueryTests {
+
+  public interface Sensor extends Pluggable {
+
+  }
+
+  public static class Thermometer implements Sensor {
+
+    public Thermometer() {
+      countInstanceCreated(Thermometer.class);
+    }
+
+    @Override
+    public void initializePluginAttributes(PolymorphicMap pluginAttributes) {
+      pluginAttributes.put("Unit", "Celsius");
+    }
+  }
+
+  private PluginRegistry pr;
+
+  @BeforeEach
+  void setUp() {
+    pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Cat.class);
+    pr.registerPlugin(Calico.class);
+    pr.registerPlugin(Calico2.class);
+    pr.registerPlugin(Calico3.class);
+    pr.registerPlugin(Tabby.class);
+    pr.registerPlugin(Tabby2.class);
+  }
+
+  @Test
+  void testQuery() {
+    assertEquals(Set.of("Calico2", "Calico3"),
+        classNames(pr.query(eq("HasGreyWhiskers", false), Cat.class)));
+    assertEquals(Set.of("Calico", "Calico2", "Calico3"),
+        classNames(pr.query(range("MeowVolume", 3, 7), Cat.class)));
+    assertEquals(Set.of("Calico", "Calico2"),
+        classNames(pr.query(range("MeowVolume", 3, 7).and(not("HasPuffyTail")), Cat.class)));
+    assertEquals(Set.of("Calico2"), classNames(pr.query(
+        range("MeowVolume", 3, 7).and(not("HasPuffyTail")).and(eq("HasGreyWhiskers", false)),
+        Cat.class)));
+    assertEquals(Set.of("Tabby", "Tabby2"),
+        classNames(pr.query(not(eq("HasPuffyTail", false)).and(not("HasPuffyTail")), Cat.class)));
+    assertTrue(pr.query(eq("MeowVolume", 3L), Cat.class).isEmpty());
+
+    assertThrows(IllegalArgumentException.class, () -> eq(" ", 1));
+    assertThrows(NullPointerException.class, () -> eq("MeowVolume", null));
+  }
+
+  @Test
+  void testQueryPlan() {
+    AttributeQuery query = range("MeowVolume", 2, 12)
+        .and(eq("HasGreyWhiskers", true))
+        .and(not("HasPuffyTail"));
+
+    // Without indexes, every Plugin is tested.
+    assertEquals(Set.of("Calico"), classNames(pr.query(query, Cat.class)));
+    String plan = pr.explain(query, Cat.class);
+    assertTrue(plan.contains("1. Full scan (5 plugins)"), plan);
+    assertTrue(plan.contains("4. Filter: NOT (HasPuffyTail = true)"), plan);
+
+    // The most selective index is looked up first, and the others are intersected with it.
+    pr.createPluginAttributeIndex("MeowVolume", AttributeIndexType.SORTED, Cat.class);
+    pr.createPluginAttributeIndex("HasGreyWhiskers", AttributeIndexType.HASH, Cat.class);
+    assertEquals(Set.of("Calico"), classNames(pr.query(query, Cat.class)));
+    plan = pr.explain(query, Cat.class);
+    assertTrue(plan.contains(
+        "1. Look up HASH index on [HasGreyWhiskers]: HasGreyWhiskers = true (1 candidates)"), plan);
+    assertTrue(plan.contains(
+        "2. Intersect with SORTED index on [MeowVolume]: MeowVolume IN [2, 12] (5 candidates)"),
+        plan);
+    assertTrue(plan.contains("3. Filter: NOT (HasPuffyTail = true)"), plan);
+  }
+
+  @Test
+  void testQueryInstantiatesLazily() {
+    pr.registerPluginInterfaces(Sensor.class);
+    pr.registerPlugin(Thermometer.class);
+    int instancesCreatedBefore = getInstancesCreated(Thermometer.class);
+
+    List<Sensor> sensors = pr.query(eq("Unit", "Celsius"), Sensor.class);
+    assertEquals(1, sensors.size());
+    assertEquals(instancesCreatedBefore, getInstancesCreated(Thermometer.class));
+
+    assertEquals(Thermometer.class, sensors.get(0).getClass());
+    assertEquals(instancesCreatedBefore + 1, getInstancesCreated(Thermometer.class));
+  }
+}
@@ -0,0 +1,135 @@
+package techmoc.extensibility.pluginlibrary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Plugin bulkhead unit tests.
+ */
+class BulkheadTests {
+
+  public interface Service extends Pluggable {
+
+    String serve(CountDownLatch release);
+  }
+
+  public static class Slow implements Service {
+
+    @Override
+    public String serve(CountDownLatch release) {
+      try {
+        return release.await(10, TimeUnit.SECONDS) ? "slow" : "timed out";
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  public static class Fast implements Service {
+
+    @Override
+    public String serve(CountDownLatch release) {
+      if (release == null) {
+        throw new UnsupportedOperationException("Fast");
+      }
+      return "fast";
+    }
+  }
+
+  @Test
+  void testFullBulkheadRejectsCalls() throws Exception {
+    Bulkhead bulkhead = new Bulkhead("Slow", 1, 1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    // One call runs, and one call waits for it.
+    CompletableFuture<String> running =
+        CompletableFuture.supplyAsync(() -> call(bulkhead, release));
+    waitFor(bulkhead::getInFlightCount);
+    CompletableFuture<String> queued =
+        CompletableFuture.supplyAsync(() -> call(bulkhead, release));
+    waitFor(bulkhead::getQueuedCount);
+
+    // Further calls are rejected.
+    assertThrows(BulkheadFullException.class, () -> bulkhead.call(() -> "rejected"));
+    assertEquals(1L, bulkhead.getRejectedCount());
+
+    release.countDown();
+    assertEquals("slow", running.get(10, TimeUnit.SECONDS));
+    assertEquals("slow", queued.get(10, TimeUnit.SECONDS));
+    assertEquals(0, bulkhead.getInFlightCount());
+    assertEquals(0, bulkhead.getQueuedCount());
+    assertEquals(2L, bulkhead.getLatency().getCount());
+  }
+
+  @Test
+  void testSlowPluginDoesNotBlockOtherPlugins() throws Exception {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Service.class);
+    pr.registerPlugins(List.of(Slow.class, Fast.class));
+    pr.setBulkheadLimits(1, 0);
+
+    Service slow = pr.getLatestVersionWithBulkhead("Slow", Service.class);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> slow.serve(release));
+    PluginRegistryMXBean metrics = pr.getMetrics();
+    waitFor(() -> metrics.getBulkheadInFlightCounts().getOrDefault(Slow.class.getName(), 0));
+
+    // The slow Plugin rejects further calls, while other Plugins are not affected.
+    assertThrows(BulkheadFullException.class, () -> slow.serve(release));
+    assertEquals("fast",
+        pr.getLatestVersionWithBulkhead("Fast", Service.class).serve(release));
+
+    release.countDown();
+    assertEquals("slow", running.get(10, TimeUnit.SECONDS));
+    assertEquals(0, metrics.getBulkheadInFlightCounts().get(Slow.class.getName()));
+    assertEquals(1L, metrics.getBulkheadRejectionCounts().get(Slow.class.getName()));
+    assertEquals(0L, metrics.getBulkheadRejectionCounts().get(Fast.class.getName()));
+    assertEquals(1L, metrics.getBulkheadLatencies().get(Slow.class.getName()).getCount());
+    assertEquals(2L, metrics.getLookupCounts().get("getLatestVersionWithBulkhead"));
+  }
+
+  @Test
+  void testCallsAreForwarded() {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Service.class);
+    pr.registerPlugin(Fast.class);
+
+    Service fast = pr.getLatestVersionWithBulkhead("Fast", Service.class);
+    assertEquals("Fast", fast.getPluginName());
+    assertThrows(UnsupportedOperationException.class, () -> fast.serve(null));
+    assertEquals(2L, pr.getMetrics().getBulkheadLatencies().get(Fast.class.getName()).getCount());
+    assertNull(pr.getLatestVersionWithBulkhead("Missing", Service.class));
+
+    assertThrows(IllegalArgumentException.class, () -> pr.setBulkheadLimits(0, 0));
+    assertThrows(IllegalArgumentException.class, () -> pr.setBulkheadLimits(1, -1));
+  }
+
+  private static String call(Bulkhead bulkhead, CountDownLatch release) {
+    try {
+      return bulkhead.call(() -> new Slow().serve(release));
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Waits until the specified count reaches 1.
+   */
+  private static void waitFor(IntSupplier count) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (count.getAsInt() < 1) {
+      assertTrue(System.nanoTime() < deadline);
+      Thread.sleep(1);
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package techmoc.extensibility.pluginlibrary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import techmoc.extensibility.test_interfaces.Bird;
+
+
+/**
+ * Java Flight Recorder event unit tests.
+ */
+class FlightRecorderEventsTests {
+
+  private static final String EVENT_PREFIX = "techmoc.extensibility.pluginlibrary.";
+
+  public interface Kettle extends Pluggable {
+
+  }
+
+  public static class SteamKettle implements Kettle {
+
+  }
+
+  @Test
+  void testRecordedEvents(@TempDir Path tempDir) throws IOException {
+    File jarFile = new File(getClass().getClassLoader().getResource("test-plugins.jar").getFile());
+    Path recordingPath = tempDir.resolve("registry.jfr");
+
+    try (Recording recording = new Recording()) {
+      recording.enable(EVENT_PREFIX + "PluginScan");
+      recording.enable(EVENT_PREFIX + "PluginRegistered");
+      recording.enable(EVENT_PREFIX + "PluginInstantiated").withThreshold(Duration.ZERO);
+      recording.start();
+
+      PluginRegistry pr = new PluginRegistry();
+      pr.registerPluginInterfaces(Kettle.class, Bird.class);
+      pr.registerPlugin(SteamKettle.class);
+      pr.getLatestVersion("SteamKettle", Kettle.class);
+      pr.scanJar(jarFile.getAbsolutePath());
+
+      recording.stop();
+      recording.dump(recordingPath);
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(recordingPath);
+
+    // The scan names the JAR file that was scanned.
+    List<RecordedEvent> scanEvents = eventsNamed(events, "PluginScan");
+    assertEquals(1, scanEvents.size());
+    assertEquals(jarFile.getAbsolutePath(), scanEvents.get(0).getString("sourcePath"));
+    assertEquals(2, scanEvents.get(0).getLong("pluginsRegistered"));
+    assertTrue(scanEvents.get(0).getInt("classesExamined") >= 2);
+
+    // Each registration names the Plugin and its source.
+    List<RecordedEvent> registeredEvents = eventsNamed(events, "PluginRegistered");
+    assertEquals(3, registeredEvents.size());
+    assertEquals(Set.of("SteamKettle", "Crow", "Parakeet"), registeredEvents.stream()
+        .map(x -> x.getString("pluginName"))
+        .collect(Collectors.toSet()));
+    assertEquals(jarFile.getAbsolutePath(), registeredEvents.stream()
+        .filter(x -> x.getString("pluginName").equals("Crow"))
+        .findFirst().get().getString("pluginSource"));
+
+    // The Plugin was instantiated to read its metadata, and again when it was retrieved.
+    assertEquals(2, eventsNamed(events, "PluginInstantiated").stream()
+        .map(x -> x.<RecordedClass>getValue("pluginClass").getName())
+        .filter(SteamKettle.class.getName()::equals)
+        .count());
+  }
+
+  /**
+   * Returns the recorded events of the specified type.
+   *
+   * @param events Recorded events.
+   * @param name Event name, without the package prefix.
+   * @return Recorded events of the specified type.
+   */
+  private static List<RecordedEvent> eventsNamed(List<RecordedEvent> events, String name) {
+    return events.stream()
+        .filter(x -> x.getEventType().getName().equals(EVENT_PREFIX + name))
+        .collect(Collectors.toList());
+  }
+}
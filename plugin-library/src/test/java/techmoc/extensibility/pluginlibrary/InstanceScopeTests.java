@@ -0,0 +1,166 @@
+package techmoc.extensibility.pluginlibrary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static techmoc.extensibility.pluginlibrary.AssertUtil.countInstanceCreated;
+import static techmoc.extensibility.pluginlibrary.AssertUtil.getInstancesCreated;
+
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Instance Scope unit tests.
+ */
+class InstanceScopeTests {
+
+  public interface Counter extends Pluggable {
+
+    int next();
+  }
+
+  public interface Meter extends Pluggable {
+
+    @Override
+    default InstanceScope getInstanceScope() {
+      return InstanceScope.SINGLETON;
+    }
+  }
+
+  public static class PrototypeCounter implements Counter {
+
+    private int count = 0;
+
+    public PrototypeCounter() {
+      countInstanceCreated(PrototypeCounter.class);
+    }
+
+    public int next() {
+      return ++count;
+    }
+  }
+
+  public static class SingletonCounter extends PrototypeCounter implements Meter {
+
+    @Override
+    public InstanceScope getInstanceScope() {
+      return InstanceScope.SINGLETON;
+    }
+  }
+
+  public static class ThreadCounter extends PrototypeCounter {
+
+    @Override
+    public InstanceScope getInstanceScope() {
+      return InstanceScope.THREAD;
+    }
+  }
+
+  public static class PooledCounter extends PrototypeCounter {
+
+    @Override
+    public InstanceScope getInstanceScope() {
+      return InstanceScope.POOLED;
+    }
+  }
+
+  @Test
+  void testPrototypeScope() {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Counter.class);
+    pr.registerPlugin(PrototypeCounter.class);
+
+    Counter first = pr.getLatestVersion("PrototypeCounter", Counter.class);
+    Counter second = pr.getLatestVersion("PrototypeCounter", Counter.class);
+    assertNotSame(first, second);
+    assertEquals(1, first.next());
+    assertEquals(1, second.next());
+  }
+
+  @Test
+  void testSingletonScope() {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Counter.class, Meter.class);
+    pr.registerPlugin(SingletonCounter.class);
+    assertEquals(2, pr.count());
+
+    // Every lookup returns the same instance, across Plugin Interfaces.
+    Counter counter = pr.getLatestVersion("SingletonCounter", Counter.class);
+    int created = getInstancesCreated(PrototypeCounter.class);
+    assertSame(counter, pr.getLatestVersion("SingletonCounter", Counter.class));
+    assertSame(counter, pr.getAll(Counter.class).get(0));
+    assertSame(counter, pr.getLatestVersion("SingletonCounter", Meter.class));
+    assertEquals(created, getInstancesCreated(PrototypeCounter.class));
+    assertEquals(1, counter.next());
+    assertEquals(2, pr.getLatestVersion("SingletonCounter", Counter.class).next());
+
+    // Updating the Plugin's attributes keeps the same instance.
+    pr.putPluginAttribute("SingletonCounter", Counter.class, "key", "value");
+    assertSame(counter, pr.getLatestVersion("SingletonCounter", Counter.class));
+
+    // Registering the Plugin again creates a new instance.
+    pr.unregisterPlugin(SingletonCounter.class);
+    pr.registerPlugin(SingletonCounter.class);
+    assertNotSame(counter, pr.getLatestVersion("SingletonCounter", Counter.class));
+  }
+
+  @Test
+  void testSingletonScopeDeclaredByInterface() {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Meter.class);
+    pr.registerPlugin(SingletonCounter.class);
+    assertSame(pr.getLatestVersion("SingletonCounter", Meter.class), pr.getLatestVersion("SingletonCounter", Meter.class));
+  }
+
+  @Test
+  void testThreadScope() throws InterruptedException {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Counter.class);
+    pr.registerPlugin(ThreadCounter.class);
+
+    Counter counter = pr.getLatestVersion("ThreadCounter", Counter.class);
+    assertSame(counter, pr.getLatestVersion("ThreadCounter", Counter.class));
+
+    // Another thread receives its own instance.
+    AtomicReference<Counter> otherCounter = new AtomicReference<>();
+    Thread thread = new Thread(() -> otherCounter.set(pr.getLatestVersion("ThreadCounter", Counter.class)));
+    thread.start();
+    thread.join();
+    assertNotSame(counter, otherCounter.get());
+  }
+
+  @Test
+  void testPooledScope() {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Counter.class);
+    pr.registerPlugin(PooledCounter.class);
+
+    // Instances that are not released are not reused.
+    Counter first = pr.getLatestVersion("PooledCounter", Counter.class);
+    Counter second = pr.getLatestVersion("PooledCounter", Counter.class);
+    assertNotSame(first, second);
+
+    // Released instances are reused.
+    pr.release(first);
+    assertSame(first, pr.getLatestVersion("PooledCounter", Counter.class));
+
+    // The pool is bounded.
+    for (int i = 0; i < PluginInstanceProvider.POOL_CAPACITY + 5; i++) {
+      pr.release(new PooledCounter());
+    }
+    int created = getInstancesCreated(PrototypeCounter.class);
+    for (int i = 0; i < PluginInstanceProvider.POOL_CAPACITY; i++) {
+      pr.getLatestVersion("PooledCounter", Counter.class);
+    }
+    assertEquals(created, getInstancesCreated(PrototypeCounter.class));
+    pr.getLatestVersion("PooledCounter", Counter.class);
+    assertEquals(created + 1, getInstancesCreated(PrototypeCounter.class));
+
+    // Releasing a Plugin that is not pooled has no effect.
+    pr.registerPlugin(PrototypeCounter.class);
+    Counter prototype = pr.getLatestVersion("PrototypeCounter", Counter.class);
+    pr.release(prototype);
+    assertNotSame(prototype, pr.getLatestVersion("PrototypeCounter", Counter.class));
+  }
+}
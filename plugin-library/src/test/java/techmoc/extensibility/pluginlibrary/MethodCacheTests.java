@@ -0,0 +1,201 @@
+package techmoc.extensibility.pluginlibrary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Memoizing Plugin proxy unit tests.
+ */
+class MethodCacheTests {
+
+  // Number of calls that reached a Plugin.
+  private static final AtomicInteger calls = new AtomicInteger();
+
+  public interface Calculator extends Pluggable {
+
+    @Cacheable
+    double calculate(double a, double b);
+
+    @Cacheable
+    String describe(int[] values);
+
+    double random();
+  }
+
+  public static class Adder implements Calculator {
+
+    @Override
+    public double calculate(double a, double b) {
+      calls.incrementAndGet();
+      if (Double.isNaN(a)) {
+        throw new IllegalArgumentException("NaN");
+      }
+      return a + b;
+    }
+
+    @Override
+    public String describe(int[] values) {
+      calls.incrementAndGet();
+      return (values.length == 0) ? null : "sum of " + values.length;
+    }
+
+    @Override
+    public double random() {
+      calls.incrementAndGet();
+      return Math.random();
+    }
+  }
+
+  public interface Labeler extends Pluggable {
+
+    @Cacheable
+    String label(int value);
+  }
+
+  public static class LabeledAdder extends Adder implements Labeler {
+
+    @Override
+    public String label(int value) {
+      calls.incrementAndGet();
+      return "#" + value;
+    }
+  }
+
+  /**
+   * Declares a method cacheable in the Plugin class, rather than in the Plugin Interface.
+   */
+  public static class Multiplier extends Adder {
+
+    @Override
+    public double calculate(double a, double b) {
+      calls.incrementAndGet();
+      return a * b;
+    }
+
+    @Cacheable
+    @Override
+    public double random() {
+      return super.random();
+    }
+  }
+
+  @Test
+  void testResultsAreMemoized() {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Calculator.class);
+    pr.registerPlugins(List.of(Adder.class, Multiplier.class));
+    calls.set(0);
+
+    Calculator adder = pr.getLatestVersionWithCache("Adder", Calculator.class);
+    assertEquals(3.0, adder.calculate(1, 2));
+    assertEquals(3.0, adder.calculate(1, 2));
+    assertEquals(1, calls.get());
+
+    // Other proxies of the same Plugin share its cache, but not other Plugins.
+    assertEquals(3.0, pr.getLatestVersionWithCache("Adder", Calculator.class).calculate(1, 2));
+    assertEquals(2.0, pr.getLatestVersionWithCache("Multiplier", Calculator.class).calculate(1, 2));
+    assertEquals(2, calls.get());
+
+    // Arrays are compared by content, and null results are memoized.
+    assertEquals("sum of 2", adder.describe(new int[]{1, 2}));
+    assertEquals("sum of 2", adder.describe(new int[]{1, 2}));
+    assertNull(adder.describe(new int[0]));
+    assertNull(adder.describe(new int[0]));
+    assertEquals(4, calls.get());
+
+    // Exceptions and methods that are not cacheable are not memoized.
+    assertThrows(IllegalArgumentException.class, () -> adder.calculate(Double.NaN, 1));
+    assertThrows(IllegalArgumentException.class, () -> adder.calculate(Double.NaN, 1));
+    adder.random();
+    adder.random();
+    assertEquals(8, calls.get());
+
+    // Methods may be declared cacheable by the Plugin class.
+    Calculator multiplier = pr.getLatestVersionWithCache("Multiplier", Calculator.class);
+    assertEquals(multiplier.random(), multiplier.random());
+    assertEquals(9, calls.get());
+    assertEquals("Multiplier", multiplier.getPluginName());
+    assertNull(pr.getLatestVersionWithCache("Missing", Calculator.class));
+  }
+
+  @Test
+  void testLeastRecentlyUsedResultsAreEvicted() {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Calculator.class);
+    pr.registerPlugin(Adder.class);
+    pr.setMethodCacheSize(2);
+    calls.set(0);
+
+    Calculator adder = pr.getLatestVersionWithCache("Adder", Calculator.class);
+    adder.calculate(1, 1);
+    adder.calculate(2, 2);
+    adder.calculate(1, 1);
+    adder.calculate(3, 3);
+    assertEquals(3, calls.get());
+
+    adder.calculate(1, 1);
+    assertEquals(3, calls.get());
+    adder.calculate(2, 2);
+    assertEquals(4, calls.get());
+
+    assertThrows(IllegalArgumentException.class, () -> pr.setMethodCacheSize(0));
+  }
+
+  @Test
+  void testCacheIsInvalidatedOnUnregister() {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Calculator.class);
+    pr.registerPlugin(Adder.class);
+    calls.set(0);
+
+    Calculator adder = pr.getLatestVersionWithCache("Adder", Calculator.class);
+    adder.calculate(1, 2);
+    adder.calculate(1, 2);
+    assertEquals(1, calls.get());
+
+    // Unrelated changes keep the cache.
+    pr.putPluginAttribute("Adder", Calculator.class, "Color", "Blue");
+    adder.calculate(1, 2);
+    assertEquals(1, calls.get());
+
+    // Once the Plugin is unregistered, the proxy calls it directly.
+    pr.unregisterPlugin(Adder.class);
+    adder.calculate(1, 2);
+    adder.calculate(1, 2);
+    assertEquals(3, calls.get());
+
+    // A registration starts from an empty cache.
+    pr.registerPlugin(Adder.class);
+    Calculator registered = pr.getLatestVersionWithCache("Adder", Calculator.class);
+    registered.calculate(1, 2);
+    registered.calculate(1, 2);
+    assertEquals(4, calls.get());
+  }
+
+  @Test
+  void testCachesAreKeptPerPluginInterface() {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Calculator.class, Labeler.class);
+    pr.registerPlugin(LabeledAdder.class);
+    calls.set(0);
+
+    Calculator calculator = pr.getLatestVersionWithCache("LabeledAdder", Calculator.class);
+    Labeler labeler = pr.getLatestVersionWithCache("LabeledAdder", Labeler.class);
+    calculator.calculate(1, 2);
+    labeler.label(1);
+    assertEquals(2, calls.get());
+
+    // Unregistering one of the Plugin Interfaces only discards the cache of that interface.
+    pr.unregisterPluginInterfaces(Calculator.class);
+    labeler.label(1);
+    assertEquals(2, calls.get());
+    calculator.calculate(1, 2);
+    assertEquals(3, calls.get());
+  }
+}
@@ -0,0 +1,121 @@
+package techmoc.extensibility.pluginlibrary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import techmoc.extensibility.test_interfaces.Bird;
+
+
+/**
+ * Plugin catalog unit tests.
+ */
+class PluginCatalogTests {
+
+  private final String jarFilePath = new File(
+      getClass().getClassLoader().getResource("test-plugins.jar").getFile()).getAbsolutePath();
+
+  @Test
+  void testRegistriesShareCatalogClasses() throws IOException {
+    try (PluginCatalog catalog = new PluginCatalog()) {
+      String source = catalog.addJar(jarFilePath);
+      assertEquals(Set.of(jarFilePath), catalog.getSources());
+      assertEquals(
+          Set.of("techmoc.extensibility.test_plugins.Crow",
+              "techmoc.extensibility.test_plugins.Parakeet"),
+          catalog.getPluginClassNames(source));
+
+      // Adding an unchanged source again does not rescan it.
+      PluginClassLoader classLoader = catalog.getSource(source).getClassLoader();
+      assertEquals(source, catalog.addJar(jarFilePath));
+      assertSame(classLoader, catalog.getSource(source).getClassLoader());
+
+      // Both tenants use the classes loaded once by the catalog.
+      PluginRegistry tenantA = new PluginRegistry();
+      tenantA.registerPluginInterfaces(Bird.class);
+      assertEquals(2, tenantA.enableCatalogSource(catalog, source).getTotalPluginsRegistered());
+      PluginRegistry tenantB = new PluginRegistry();
+      tenantB.registerPluginInterfaces(Bird.class);
+      tenantB.enableCatalogSource(catalog, source);
+
+      Bird crowA = tenantA.getLatestVersion("Crow", Bird.class);
+      Bird crowB = tenantB.getLatestVersion("Crow", Bird.class);
+      assertSame(crowA.getClass(), crowB.getClass());
+      assertSame(classLoader, crowA.getClass().getClassLoader());
+      // Two Plugin Entries per tenant, and one reference held by the catalog.
+      assertEquals(5, classLoader.getReferenceCount());
+
+      // Attribute overrides belong to a single tenant.
+      tenantA.putPluginAttribute("Crow", Bird.class, "Color", "Black");
+      assertEquals("Black", tenantA.getPluginAttribute("Crow", Bird.class, "Color", String.class));
+      assertNull(tenantB.getPluginAttribute("Crow", Bird.class, "Color", String.class));
+
+      // Disabling a source only affects a single tenant.
+      tenantA.disableCatalogSource(source);
+      assertEquals(0, tenantA.count(Bird.class));
+      assertEquals(2, tenantB.count(Bird.class));
+      assertTrue(tenantA.getOpenClassLoaders().isEmpty());
+      assertEquals(Set.of(classLoader), tenantB.getOpenClassLoaders());
+    }
+  }
+
+  @Test
+  void testClassLoaderIsClosedOnceRemovedAndDisabled() throws IOException {
+    PluginCatalog catalog = new PluginCatalog();
+    String source = catalog.addJar(jarFilePath);
+    PluginClassLoader classLoader = catalog.getSource(source).getClassLoader();
+
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Bird.class);
+    pr.enableCatalogSource(catalog, source);
+
+    // Registered Plugins keep the class loader open once the source is removed.
+    assertTrue(catalog.remove(source));
+    assertFalse(catalog.remove(source));
+    assertFalse(classLoader.isClosed());
+    assertThrows(IllegalArgumentException.class, () -> pr.enableCatalogSource(catalog, source));
+
+    pr.disableCatalogSource(source);
+    assertTrue(classLoader.isClosed());
+  }
+
+  @Test
+  void testPackageDirectory(@TempDir Path tempDir) throws IOException {
+    // Extract the test Plugins into a package directory.
+    try (InputStream is = getClass().getClassLoader().getResourceAsStream("test-plugins.jar");
+        JarInputStream jis = new JarInputStream(is)) {
+      for (JarEntry jarEntry = jis.getNextJarEntry(); jarEntry != null;
+          jarEntry = jis.getNextJarEntry()) {
+        Path path = tempDir.resolve(jarEntry.getName());
+        if (jarEntry.isDirectory()) {
+          Files.createDirectories(path);
+        } else {
+          Files.createDirectories(path.getParent());
+          Files.copy(jis, path);
+        }
+      }
+    }
+
+    try (PluginCatalog catalog = new PluginCatalog()) {
+      String source = catalog.addPackageDirectory(tempDir.toString());
+      PluginRegistry pr = new PluginRegistry();
+      pr.registerPluginInterfaces(Bird.class);
+      pr.enableCatalogSource(catalog, source);
+      assertEquals(2, pr.count(Bird.class));
+      assertEquals("Cawww cawww!", pr.getLatestVersion("Crow", Bird.class).chirp());
+    }
+  }
+}
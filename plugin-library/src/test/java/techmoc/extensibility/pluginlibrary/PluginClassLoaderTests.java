@@ -0,0 +1,101 @@
+package techmoc.extensibility.pluginlibrary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import techmoc.extensibility.test_interfaces.Bird;
+
+
+/**
+ * Plugin class loader lifecycle unit tests.
+ */
+class PluginClassLoaderTests {
+
+  private final String jarFilePath = new File(
+      getClass().getClassLoader().getResource("test-plugins.jar").getFile()).getAbsolutePath();
+
+  @Test
+  void testClassLoaderIsClosedOnceItsPluginsAreUnregistered() throws IOException {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Bird.class);
+    pr.scanJar(jarFilePath);
+
+    PluginClassLoader classLoader =
+        PluginClassLoader.of(pr.getLatestVersion("Crow", Bird.class).getClass());
+    assertNotNull(classLoader);
+    assertEquals(jarFilePath, classLoader.getPluginSource());
+    assertEquals(2, classLoader.getReferenceCount());
+    assertEquals(1, pr.getOpenClassLoaders().size());
+
+    // Attribute changes replace Plugin Entries without releasing their class loader.
+    pr.putPluginAttribute("Crow", Bird.class, "Color", "Black");
+    assertEquals(2, classLoader.getReferenceCount());
+
+    // The class loader stays open while any of its Plugins is registered.
+    pr.unregisterPlugin("Crow", Bird.class);
+    assertEquals(1, classLoader.getReferenceCount());
+    assertFalse(classLoader.isClosed());
+
+    pr.unregisterPlugin("Parakeet", Bird.class);
+    assertTrue(classLoader.isClosed());
+    assertTrue(pr.getOpenClassLoaders().isEmpty());
+  }
+
+  @Test
+  void testClassLoaderWithoutRegisteredPluginsIsClosed() throws IOException {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Bird.class);
+    pr.scanJar(jarFilePath);
+    PluginClassLoader classLoader =
+        PluginClassLoader.of(pr.getLatestVersion("Crow", Bird.class).getClass());
+
+    // A rescan registers nothing, so its class loader is closed right away.
+    assertEquals(0, pr.scanJar(jarFilePath).getTotalPluginsRegistered());
+    assertEquals(List.of(classLoader), new ArrayList<>(pr.getOpenClassLoaders()));
+
+    // Clearing the registry releases every class loader.
+    pr.clear();
+    assertTrue(classLoader.isClosed());
+    assertTrue(pr.getOpenClassLoaders().isEmpty());
+  }
+
+  @Test
+  void testMetaspaceIsReclaimedOverDeployCycles() throws IOException, InterruptedException {
+    ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+    long unloadedClasses = classLoading.getUnloadedClassCount();
+
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Bird.class);
+
+    // Deploy and undeploy the same JAR file many times.
+    int cycles = 50;
+    List<WeakReference<ClassLoader>> classLoaders = new ArrayList<>();
+    for (int i = 0; i < cycles; i++) {
+      pr.scanJar(jarFilePath);
+      classLoaders.add(new WeakReference<>(
+          pr.getLatestVersion("Crow", Bird.class).getClass().getClassLoader()));
+      pr.clear(Bird.class);
+    }
+
+    // Every class loader (and its classes) becomes collectible.
+    for (int i = 0; i < 20 && classLoaders.stream().anyMatch(x -> x.get() != null); i++) {
+      System.gc();
+      Thread.sleep(100);
+    }
+    assertTrue(classLoaders.stream().allMatch(x -> x.get() == null));
+    assertTrue(pr.getOpenClassLoaders().isEmpty());
+
+    // The classes were unloaded, releasing their Metaspace (two Plugins per cycle).
+    assertTrue(classLoading.getUnloadedClassCount() - unloadedClasses >= 2L * cycles);
+  }
+}
@@ -0,0 +1,246 @@
+package techmoc.extensibility.pluginlibrary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Parallel Plugin instantiation unit tests.
+ */
+class PluginEntryBatchTests {
+
+  // Counted down by every Parallel Plugin once instantiated.
+  private static volatile CountDownLatch started = new CountDownLatch(0);
+
+  // Counted down by the Blocking Plugin once its instantiation is interrupted.
+  private static volatile CountDownLatch interrupted = new CountDownLatch(0);
+
+  // Counted down to let the Stubborn Plugin be instantiated.
+  private static volatile CountDownLatch released = new CountDownLatch(0);
+
+  // Counted down by the Slowpoke Plugin once its instantiation started.
+  private static volatile CountDownLatch entered = new CountDownLatch(0);
+
+  public interface Sensor extends Pluggable {
+
+  }
+
+  public interface Gauge extends Pluggable {
+
+  }
+
+  public static class Quick implements Sensor {
+
+  }
+
+  /**
+   * Is only instantiated once every other Parallel Plugin has started being instantiated, so that
+   * it is only instantiated if Plugins are instantiated in parallel.
+   */
+  public static class Parallel implements Sensor {
+
+    public Parallel() {
+      started.countDown();
+      try {
+        if (!started.await(10, TimeUnit.SECONDS)) {
+          throw new IllegalStateException("Not instantiated in parallel.");
+        }
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  public static class Parallel2 extends Parallel {
+
+  }
+
+  public static class Blocking implements Sensor {
+
+    public Blocking() {
+      try {
+        Thread.sleep(60_000);
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  /**
+   * Ignores interruptions until released.
+   */
+  public static class Stubborn implements Sensor {
+
+    public Stubborn() {
+      while (true) {
+        try {
+          if (released.await(10, TimeUnit.SECONDS)) {
+            return;
+          }
+        } catch (InterruptedException e) {
+          // Keep waiting.
+        }
+      }
+    }
+  }
+
+  /**
+   * Waits to be released once its instantiation started.
+   */
+  public static class Slowpoke implements Sensor {
+
+    public Slowpoke() throws InterruptedException {
+      entered.countDown();
+      if (!released.await(10, TimeUnit.SECONDS)) {
+        throw new IllegalStateException("Not released.");
+      }
+    }
+  }
+
+  public static class Failing implements Sensor {
+
+    public Failing() {
+      throw new UnsupportedOperationException("Failing");
+    }
+  }
+
+  @SafeVarargs
+  private static Map<Class<? extends Pluggable>, PluginDescriptor> withoutMetadata(
+      Class<? extends Pluggable>... plugins) {
+    Map<Class<? extends Pluggable>, PluginDescriptor> pluginDescriptors = new LinkedHashMap<>();
+    for (Class<? extends Pluggable> plugin : plugins) {
+      pluginDescriptors.put(plugin, null);
+    }
+    return pluginDescriptors;
+  }
+
+  @Test
+  void testPluginsInstantiatedInParallel() {
+    started = new CountDownLatch(2);
+    PluginEntryBatch batch = PluginEntryBatch.create(
+        withoutMetadata(Parallel.class, Parallel2.class, Quick.class), null,
+        new RegistryMetrics(() -> null), Executors.newCachedThreadPool(), 2,
+        TimeUnit.SECONDS.toNanos(30));
+
+    assertEquals("Parallel", batch.get(Parallel.class).getPluginName());
+    assertEquals("Parallel2", batch.get(Parallel2.class).getPluginName());
+    assertNotNull(batch.get(Quick.class));
+    assertFalse(batch.isTimedOut(Quick.class));
+  }
+
+  @Test
+  void testStuckThreadsNotReplaced() {
+    released = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(1);
+    try {
+      // The only thread stays stuck in the first Plugin, so the second one never starts.
+      PluginEntryBatch batch = PluginEntryBatch.create(
+          withoutMetadata(Stubborn.class, Quick.class), null, new RegistryMetrics(() -> null),
+          executor, 1, TimeUnit.MILLISECONDS.toNanos(200));
+      assertTrue(batch.isTimedOut(Stubborn.class));
+      assertTrue(batch.isTimedOut(Quick.class));
+      assertNull(batch.get(Quick.class));
+    } finally {
+      released.countDown();
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void testTimedOutPluginsReportedAsFailed() throws InterruptedException {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Sensor.class);
+    pr.setPluginInstantiationTimeout(Duration.ofMillis(200));
+    interrupted = new CountDownLatch(1);
+
+    Map<String, ScanLog> scanLogs = pr.registerPlugins(List.of(Blocking.class, Quick.class))
+        .getScanLogs().stream()
+        .collect(Collectors.toMap(ScanLog::getFullyQualifiedName, Function.identity()));
+
+    // The other Plugins are registered regardless.
+    assertTrue(scanLogs.get(Quick.class.getCanonicalName()).registeredSuccessfully());
+    assertNotNull(pr.getLatestVersion("Quick", Sensor.class));
+
+    // The Plugin that timed out is interrupted, and not registered.
+    ScanLog scanLog = scanLogs.get(Blocking.class.getCanonicalName());
+    assertFalse(scanLog.registeredSuccessfully());
+    assertTrue(scanLog.getReason().contains("was not instantiated within [PT0.2S]"));
+    assertNull(pr.getLatestVersion("Blocking", Sensor.class));
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+
+    assertThrows(IllegalArgumentException.class,
+        () -> pr.setPluginInstantiationTimeout(Duration.ZERO));
+  }
+
+  @Test
+  void testInstantiationsDoNotLockRegistry() throws Exception {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Sensor.class);
+    pr.setPluginInstantiationTimeout(Duration.ofSeconds(2));
+    interrupted = new CountDownLatch(1);
+
+    // Other changes go through while a Plugin is being instantiated.
+    CompletableFuture<ScanResults> blockingRegistration =
+        CompletableFuture.supplyAsync(() -> pr.registerPlugin(Blocking.class));
+    Thread.sleep(100);
+    pr.registerPluginInterfaces(Gauge.class);
+    pr.unregisterPluginInterfaces(Gauge.class);
+    assertFalse(blockingRegistration.isDone());
+
+    assertEquals(0, blockingRegistration.get(30, TimeUnit.SECONDS).getTotalPluginsRegistered());
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void testPluginsUnregisteredConcurrentlyAreNotInstantiatedUnderLock() throws Exception {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Sensor.class);
+    pr.registerPlugin(Quick.class);
+    entered = new CountDownLatch(1);
+    released = new CountDownLatch(1);
+
+    // Quick is registered already, so it is not instantiated ahead of the change.
+    CompletableFuture<ScanResults> registration = CompletableFuture.supplyAsync(
+        () -> pr.registerPlugins(List.of(Slowpoke.class, Quick.class)));
+    assertTrue(entered.await(10, TimeUnit.SECONDS));
+    pr.unregisterPlugin(Quick.class);
+    released.countDown();
+
+    Map<String, ScanLog> scanLogs = registration.get(30, TimeUnit.SECONDS).getScanLogs().stream()
+        .collect(Collectors.toMap(ScanLog::getFullyQualifiedName, Function.identity()));
+    assertTrue(scanLogs.get(Slowpoke.class.getCanonicalName()).registeredSuccessfully());
+    ScanLog scanLog = scanLogs.get(Quick.class.getCanonicalName());
+    assertFalse(scanLog.registeredSuccessfully());
+    assertTrue(scanLog.getReason().contains("must be registered again"));
+    assertNull(pr.getLatestVersion("Quick", Sensor.class));
+  }
+
+  @Test
+  void testFailuresPropagated() {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Sensor.class);
+
+    // The exception is thrown on the registering thread, and no Plugin is registered.
+    assertThrows(IllegalArgumentException.class,
+        () -> pr.registerPlugins(List.of(Quick.class, Failing.class)));
+    assertNull(pr.getLatestVersion("Quick", Sensor.class));
+  }
+}
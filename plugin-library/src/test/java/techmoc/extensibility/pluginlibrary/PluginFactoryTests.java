@@ -0,0 +1,93 @@
+package techmoc.extensibility.pluginlibrary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import techmoc.extensibility.pluginlibrary.test_objects.Poodle;
+
+
+/**
+ * Plugin Factory unit tests.
+ */
+class PluginFactoryTests {
+
+  public static class NoDefaultConstructor implements Pluggable {
+
+    public NoDefaultConstructor(String name) {
+    }
+  }
+
+  public static class FailingConstructor implements Pluggable {
+
+    public FailingConstructor() {
+      throw new IllegalStateException("Constructor failed.");
+    }
+  }
+
+  @Test
+  void testCreate() {
+    Supplier<Pluggable> factory = PluginFactory.create(Poodle.class);
+
+    Pluggable first = factory.get();
+    Pluggable second = factory.get();
+
+    assertEquals(Poodle.class, first.getClass());
+    assertEquals(Poodle.class, second.getClass());
+    assertNotSame(first, second);
+
+    // Plugins of the library's class loader get a lambda generated in the Plugin class.
+    assertTrue(factory.getClass().getName().startsWith(Poodle.class.getName() + "$$Lambda"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testCreate_PluginFromOtherClassLoader() throws Exception {
+    ClassLoader classLoader = getClass().getClassLoader();
+    File jarFile = new File(classLoader.getResource("test-plugins.jar").getFile());
+
+    try (URLClassLoader jarClassLoader =
+        new URLClassLoader(new URL[]{jarFile.toURI().toURL()}, classLoader)) {
+      Class<? extends Pluggable> crowClass = (Class<? extends Pluggable>) jarClassLoader
+          .loadClass("techmoc.extensibility.test_plugins.Crow");
+
+      Supplier<Pluggable> factory = PluginFactory.create(crowClass);
+      Pluggable crow = factory.get();
+
+      assertEquals(crowClass, crow.getClass());
+      assertEquals("Crow", crow.getPluginName());
+
+      // Plugins of other class loaders are not instantiated reflectively (a lambda can only be
+      // generated in them before Java 15).
+      assertFalse(factory instanceof PluginFactory.ReflectiveFactory);
+      assertTrue(factory instanceof PluginFactory.MethodHandleFactory
+          || factory.getClass().getName().startsWith(crowClass.getName() + "$$Lambda"));
+    }
+  }
+
+  @Test
+  void testCreate_NoDefaultConstructor() {
+    Supplier<Pluggable> factory = PluginFactory.create(NoDefaultConstructor.class);
+
+    assertThrows(IllegalArgumentException.class, factory::get);
+    assertThrows(IllegalArgumentException.class,
+        () -> new PluginEntry(NoDefaultConstructor.class));
+  }
+
+  @Test
+  void testCreate_FailingConstructor() {
+    Supplier<Pluggable> factory = PluginFactory.create(FailingConstructor.class);
+
+    // The factory propagates the constructor's exception, and the Plugin Entry wraps it.
+    assertThrows(IllegalStateException.class, factory::get);
+    assertThrows(IllegalArgumentException.class,
+        () -> new PluginEntry(FailingConstructor.class));
+  }
+}
@@ -0,0 +1,193 @@
+package techmoc.extensibility.pluginlibrary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Plugin instrumentation unit tests.
+ */
+class PluginInstrumenterTests {
+
+  public interface Gauge extends Pluggable {
+
+    int add(int a, int b);
+
+    double mix(long l, double d, float f, byte b, char c, short s, boolean z, String text);
+
+    long[] copy(long[] values);
+
+    void reset();
+
+    String read(String path) throws IOException;
+
+    @Override
+    default InstanceScope getInstanceScope() {
+      return InstanceScope.POOLED;
+    }
+  }
+
+  public static class Meter implements Gauge {
+
+    private int resets = 0;
+
+    @Override
+    public int add(int a, int b) {
+      return a + b;
+    }
+
+    @Override
+    public double mix(
+        long l, double d, float f, byte b, char c, short s, boolean z, String text) {
+      return z ? l + d + f + b + c + s + text.length() : 0;
+    }
+
+    @Override
+    public long[] copy(long[] values) {
+      return values.clone();
+    }
+
+    @Override
+    public void reset() {
+      resets++;
+    }
+
+    @Override
+    public String read(String path) throws IOException {
+      throw new IOException(path);
+    }
+  }
+
+  public static class SingleMeter extends Meter {
+
+    @Override
+    public InstanceScope getInstanceScope() {
+      return InstanceScope.SINGLETON;
+    }
+  }
+
+  private static PluginRegistry createRegistry() {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Gauge.class);
+    pr.registerPlugin(Meter.class);
+    pr.setInstrumentationEnabled(true);
+    return pr;
+  }
+
+  private static Map<String, MethodSummary> getMethodSummaries(PluginRegistry pr) {
+    return pr.getMetrics().getMethodSummaries().stream()
+        .collect(Collectors.toMap(MethodSummary::getMethod, Function.identity()));
+  }
+
+  @Test
+  void testCallsAreRecorded() {
+    PluginRegistry pr = createRegistry();
+    Gauge gauge = pr.getLatestVersion("Meter", Gauge.class);
+
+    // The wrapper is a generated class, which forwards every call.
+    assertFalse(gauge instanceof Meter);
+    assertFalse(Proxy.isProxyClass(gauge.getClass()));
+    assertEquals(Gauge.class.getName() + "$$Instrumented", gauge.getClass().getName());
+    assertEquals(5, gauge.add(2, 3));
+    assertEquals(1 + 2.5 + 0.5f + 3 + 'a' + 4 + 3, gauge.mix(1, 2.5, 0.5f, (byte) 3, 'a',
+        (short) 4, true, "abc"));
+    assertEquals(List.of(7L), List.of(gauge.copy(new long[]{7})[0]));
+    gauge.reset();
+    gauge.reset();
+    assertThrows(IOException.class, () -> gauge.read("missing"));
+    assertEquals("Meter", gauge.getPluginName());
+
+    Map<String, MethodSummary> summaries = getMethodSummaries(pr);
+    assertEquals(1L, summaries.get("add(int, int)").getCallCount());
+    assertEquals(1L, summaries.get(
+        "mix(long, double, float, byte, char, short, boolean, String)").getCallCount());
+    assertEquals(1L, summaries.get("copy(long[])").getCallCount());
+    assertEquals(2L, summaries.get("reset()").getCallCount());
+    assertEquals(2L, summaries.get("reset()").getLatency().getCount());
+    assertEquals(0L, summaries.get("reset()").getErrorCount());
+    assertEquals(1L, summaries.get("read(String)").getErrorCount());
+    assertEquals(1L, summaries.get("getPluginName()").getCallCount());
+    assertEquals(0L, summaries.get("getPluginVersion()").getCallCount());
+
+    MethodSummary add = summaries.get("add(int, int)");
+    assertEquals("Meter", add.getPluginName());
+    assertEquals(new Meter().getPluginVersion().toString(), add.getPluginVersion());
+  }
+
+  @Test
+  void testSingletonsKeepTheirWrapper() {
+    PluginRegistry pr = createRegistry();
+    pr.registerPlugin(SingleMeter.class);
+
+    Gauge gauge = pr.getLatestVersion("SingleMeter", Gauge.class);
+    assertSame(gauge, pr.getLatestVersion("SingleMeter", Gauge.class));
+    assertTrue(PluginInstrumenter.unwrap(gauge) instanceof SingleMeter);
+    gauge.reset();
+    assertEquals(1L, getMethodSummaries(pr).get("reset()").getCallCount());
+
+    // The metrics of unregistered Plugins are discarded.
+    pr.unregisterPlugin(SingleMeter.class);
+    assertTrue(pr.getMetrics().getMethodSummaries().stream()
+        .noneMatch(x -> x.getPluginName().equals("SingleMeter")));
+  }
+
+  @Test
+  void testInstrumentedInstancesAreReleased() {
+    PluginRegistry pr = createRegistry();
+    Gauge gauge = pr.getLatestVersion("Meter", Gauge.class);
+    Pluggable instance = PluginInstrumenter.unwrap(gauge);
+    assertTrue(instance instanceof Meter);
+    pr.release(gauge);
+
+    // The pooled instance is reused, behind a new wrapper.
+    Gauge reused = pr.getLatestVersion("Meter", Gauge.class);
+    assertSame(instance, PluginInstrumenter.unwrap(reused));
+    try (PluginLease<Gauge> lease = pr.lease("Meter", Gauge.class)) {
+      assertTrue(PluginInstrumenter.unwrap(lease.get()) instanceof Meter);
+    }
+
+    // Plugins are returned as is once instrumentation is disabled.
+    pr.setInstrumentationEnabled(false);
+    assertFalse(pr.isInstrumentationEnabled());
+    assertTrue(pr.getLatestVersion("Meter", Gauge.class) instanceof Meter);
+  }
+
+  @Test
+  void testMethodSummariesOverJmx() throws JMException {
+    PluginRegistry pr = createRegistry();
+    pr.getLatestVersion("Meter", Gauge.class).add(1, 1);
+
+    MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = pr.registerMBean("PluginInstrumenterTests");
+    try {
+      CompositeData[] summaries =
+          (CompositeData[]) mbeanServer.getAttribute(name, "MethodSummaries");
+      CompositeData add = null;
+      for (CompositeData summary : summaries) {
+        if (summary.get("method").equals("add(int, int)")) {
+          add = summary;
+        }
+      }
+      assertEquals(1L, add.get("callCount"));
+      assertEquals(1L, ((CompositeData) add.get("latency")).get("count"));
+    } finally {
+      pr.unregisterMBean();
+    }
+  }
+}
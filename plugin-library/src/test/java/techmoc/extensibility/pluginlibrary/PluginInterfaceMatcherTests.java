@@ -0,0 +1,74 @@
+package techmoc.extensibility.pluginlibrary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import techmoc.extensibility.pluginlibrary.test_objects.Calico;
+import techmoc.extensibility.pluginlibrary.test_objects.CatFish;
+import techmoc.extensibility.pluginlibrary.test_objects.Fish;
+import techmoc.extensibility.pluginlibrary.test_objects.Salmon;
+import techmoc.extensibility.pluginlibrary.test_objects.some_plugin_interfaces.Cat;
+
+
+/**
+ * Plugin Interface matcher unit tests.
+ */
+class PluginInterfaceMatcherTests {
+
+  @Test
+  void testIsValidPlugin() {
+    assertTrue(PluginInterfaceMatcher.isValidPlugin(Calico.class));
+    assertFalse(PluginInterfaceMatcher.isValidPlugin(Cat.class));
+    assertFalse(PluginInterfaceMatcher.isValidPlugin(String.class));
+
+    PluginInterfaceMatcher matcher = new PluginInterfaceMatcher(Set.of(Cat.class, Fish.class));
+    assertTrue(matcher.isValidPlugin(Calico.class, Cat.class));
+    assertFalse(matcher.isValidPlugin(Calico.class, Fish.class));
+    assertFalse(matcher.isValidPlugin(Cat.class, Cat.class));
+    assertFalse(matcher.isValidPlugin(String.class, Cat.class));
+
+    // Plugin Interfaces that the matcher was not created for are still tested.
+    matcher = new PluginInterfaceMatcher(Set.of(Cat.class));
+    assertTrue(matcher.isValidPlugin(Salmon.class, Fish.class));
+  }
+
+  @Test
+  void testImplementedPluginInterfaces() {
+    PluginInterfaceMatcher matcher = new PluginInterfaceMatcher(Set.of(Cat.class, Fish.class));
+
+    assertEquals(Set.of(Cat.class, Fish.class),
+        matcher.getImplementedPluginInterfaces(CatFish.class));
+    assertEquals(Set.of(Cat.class), matcher.getImplementedPluginInterfaces(Calico.class));
+    assertTrue(matcher.getImplementedPluginInterfaces(String.class).isEmpty());
+
+    // Results are computed once per class.
+    assertSame(matcher.getImplementedPluginInterfaces(CatFish.class),
+        matcher.getImplementedPluginInterfaces(CatFish.class));
+
+    assertTrue(matcher.isMatcherFor(Set.of(Fish.class, Cat.class)));
+    assertFalse(matcher.isMatcherFor(Set.of(Cat.class)));
+  }
+
+  @Test
+  void testRegistryFollowsPluginInterfaceChanges() {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Cat.class);
+    assertEquals(1, pr.registerPlugin(CatFish.class).getTotalPluginsRegistered());
+
+    // Plugin Interfaces registered later are matched.
+    pr.registerPluginInterfaces(Fish.class);
+    pr.unregisterPlugin(CatFish.class);
+    assertEquals(2, pr.registerPlugin(CatFish.class).getTotalPluginsRegistered());
+
+    // Unregistered Plugin Interfaces are no longer matched.
+    pr.unregisterPluginInterfaces(Cat.class);
+    pr.unregisterPlugin(CatFish.class);
+    assertEquals(1, pr.registerPlugin(CatFish.class).getTotalPluginsRegistered());
+    assertEquals(List.of(Fish.class), pr.getRegisteredInterfaces());
+  }
+}
@@ -0,0 +1,203 @@
+package techmoc.extensibility.pluginlibrary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Fan-out Plugin invocation unit tests.
+ */
+class PluginInvocationTests {
+
+  // Counted down by the hanging Plugin once its call is interrupted.
+  private static volatile CountDownLatch interrupted;
+
+  // Counted down to end the calls of the stubborn Plugin, and number of its calls started.
+  private static volatile CountDownLatch released;
+  private static final AtomicInteger stubbornCalls = new AtomicInteger();
+
+  public interface Worker extends Pluggable {
+
+    String work(CountDownLatch started);
+  }
+
+  /**
+   * Completes once every other call has started, so that it only completes if calls run in
+   * parallel.
+   */
+  public static class Alpha implements Worker {
+
+    @Override
+    public String work(CountDownLatch started) {
+      started.countDown();
+      try {
+        return started.await(10, TimeUnit.SECONDS) ? "alpha" : "timed out";
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  public static class Beta implements Worker {
+
+    @Override
+    public String work(CountDownLatch started) {
+      started.countDown();
+      try {
+        return started.await(10, TimeUnit.SECONDS) ? "beta" : "timed out";
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  public static class Hanging implements Worker {
+
+    @Override
+    public String work(CountDownLatch started) {
+      try {
+        Thread.sleep(60_000);
+        return "hanging";
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  /**
+   * Ignores interrupts, and keeps its thread until released.
+   */
+  public static class Stubborn implements Worker {
+
+    @Override
+    public String work(CountDownLatch started) {
+      stubbornCalls.incrementAndGet();
+      while (true) {
+        try {
+          released.await();
+          return "stubborn";
+        } catch (InterruptedException e) {
+          // Keep waiting.
+        }
+      }
+    }
+  }
+
+  public static class Failing implements Worker {
+
+    @Override
+    public String work(CountDownLatch started) {
+      throw new UnsupportedOperationException("Failing");
+    }
+  }
+
+  @Test
+  void testCallsRunInParallel() throws Exception {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Worker.class);
+    pr.registerPlugins(List.of(Alpha.class, Beta.class));
+
+    CountDownLatch started = new CountDownLatch(2);
+    List<InvocationResult<String>> results =
+        pr.invokeAll(Worker.class, x -> x.work(started), Duration.ofSeconds(30))
+            .get(30, TimeUnit.SECONDS);
+
+    assertEquals(List.of("alpha", "beta"),
+        results.stream().map(InvocationResult::getValue).collect(Collectors.toList()));
+    assertTrue(results.stream().allMatch(InvocationResult::isCompleted));
+    assertEquals(1L, pr.getMetrics().getLookupCounts().get("invokeAll"));
+  }
+
+  @Test
+  void testPartialResults() throws Exception {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Worker.class);
+    pr.registerPlugins(List.of(Alpha.class, Hanging.class, Failing.class));
+    interrupted = new CountDownLatch(1);
+
+    Map<String, InvocationResult<String>> results =
+        pr.invokeAll(Worker.class, x -> x.work(new CountDownLatch(0)), Duration.ofMillis(200))
+            .get(30, TimeUnit.SECONDS).stream()
+            .collect(Collectors.toMap(InvocationResult::getPluginName, Function.identity()));
+
+    // The calls that completed keep their results.
+    assertEquals("alpha", results.get("Alpha").getValue());
+    assertEquals(InvocationResult.Status.FAILED, results.get("Failing").getStatus());
+    assertTrue(results.get("Failing").getFailure() instanceof UnsupportedOperationException);
+
+    // The call that timed out is interrupted.
+    assertEquals(InvocationResult.Status.TIMED_OUT, results.get("Hanging").getStatus());
+    assertNull(results.get("Hanging").getValue());
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void testCancellationInterruptsCalls() throws Exception {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Worker.class);
+    pr.registerPlugin(Hanging.class);
+    interrupted = new CountDownLatch(1);
+
+    CompletableFuture<List<InvocationResult<String>>> results =
+        pr.invokeAll(Worker.class, x -> x.work(null), Duration.ofMinutes(1));
+    assertThrows(TimeoutException.class, () -> results.get(100, TimeUnit.MILLISECONDS));
+
+    results.cancel(true);
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    assertThrows(IllegalArgumentException.class,
+        () -> pr.invokeAll(Worker.class, x -> x.work(null), Duration.ZERO));
+  }
+
+  @Test
+  void testStuckCallsDoNotGrowThePool() throws Exception {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Worker.class);
+    pr.registerPlugin(Stubborn.class);
+    released = new CountDownLatch(1);
+    stubbornCalls.set(0);
+
+    try {
+      // Invoke the Plugin more times than the pool has threads.
+      int maxThreads = 4 * Runtime.getRuntime().availableProcessors();
+      List<CompletableFuture<List<InvocationResult<String>>>> invocations = new ArrayList<>();
+      for (int i = 0; i < maxThreads + 8; i++) {
+        invocations.add(pr.invokeAll(Worker.class, x -> x.work(null), Duration.ofMillis(50)));
+      }
+      for (CompletableFuture<List<InvocationResult<String>>> invocation : invocations) {
+        assertEquals(InvocationResult.Status.TIMED_OUT,
+            invocation.get(30, TimeUnit.SECONDS).get(0).getStatus());
+      }
+
+      // The stuck calls keep their threads, and the other calls time out before starting.
+      assertTrue(stubbornCalls.get() > 0);
+      assertTrue(stubbornCalls.get() <= maxThreads);
+    } finally {
+      released.countDown();
+    }
+  }
+
+  @Test
+  void testNoPlugins() throws ExecutionException, InterruptedException {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Worker.class);
+    assertEquals(List.of(),
+        pr.invokeAll(Worker.class, x -> x.work(null), Duration.ofSeconds(1)).get());
+  }
+}
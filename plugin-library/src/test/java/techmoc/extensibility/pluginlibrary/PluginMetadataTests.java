@@ -0,0 +1,148 @@
+package techmoc.extensibility.pluginlibrary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import techmoc.extensibility.polymorphicmap.PolymorphicMap;
+
+
+/**
+ * Declared Plugin metadata unit tests.
+ */
+class PluginMetadataTests {
+
+  private static final Set<String> initializedClasses = ConcurrentHashMap.newKeySet();
+
+  public interface Gadget extends Pluggable {
+
+  }
+
+  @PluginMetadata(name = "Widget", version = "2.1.0-BETA", scope = InstanceScope.SINGLETON)
+  public static class AnnotatedGadget implements Gadget {
+
+    static {
+      initializedClasses.add("AnnotatedGadget");
+    }
+
+    @Override
+    public void initializePluginAttributes(PolymorphicMap pluginAttributes) {
+      pluginAttributes.put("Size", 3);
+    }
+  }
+
+  @PluginMetadata(name = "Doohickey", attributes = {"Color=red", "Shape = round"})
+  public static class DeclaredGadget implements Gadget {
+
+    static {
+      initializedClasses.add("DeclaredGadget");
+    }
+  }
+
+  @PluginMetadata(name = "Thingamajig", attributes = {"Color"})
+  public static class MalformedGadget implements Gadget {
+
+  }
+
+  public static class ManifestGadget implements Gadget {
+
+    static {
+      initializedClasses.add("ManifestGadget");
+    }
+  }
+
+  @Test
+  void testDeclaredAttributes() {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Gadget.class);
+    pr.createPluginAttributeIndex("Color", AttributeIndexType.HASH, Gadget.class);
+    pr.registerPlugin(DeclaredGadget.class);
+
+    // Declared attributes are indexed without initializing the Plugin.
+    assertEquals("round",
+        pr.getPluginAttribute("Doohickey", 0, 0, 0, Gadget.class, "Shape", String.class));
+    assertEquals(1, pr.query(AttributeQuery.eq("Color", "red"), Gadget.class).size());
+    assertFalse(initializedClasses.contains("DeclaredGadget"));
+
+    assertThrows(IllegalArgumentException.class,
+        () -> pr.registerPlugin(MalformedGadget.class));
+
+    // The default getters only read the declared name, version and scope (once per class).
+    MalformedGadget malformedGadget = new MalformedGadget();
+    assertEquals("Thingamajig", malformedGadget.getPluginName());
+    assertSame(malformedGadget.getPluginVersion(), new MalformedGadget().getPluginVersion());
+  }
+
+  @Test
+  void testAnnotatedPlugin() {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Gadget.class);
+    pr.registerPlugin(AnnotatedGadget.class);
+
+    // The Plugin is registered under its declared metadata, without being initialized.
+    assertTrue(pr.isRegisteredPlugin("Widget", 2, 1, 0, Gadget.class));
+    assertFalse(initializedClasses.contains("AnnotatedGadget"));
+
+    // The attributes are initialized on first use.
+    int size = pr.getPluginAttribute("Widget", 2, 1, 0, Gadget.class, "Size", Integer.class);
+    assertEquals(3, size);
+    assertTrue(initializedClasses.contains("AnnotatedGadget"));
+
+    // The declared scope applies, and the instance reports the declared metadata.
+    Gadget gadget = pr.getLatestVersion("Widget", Gadget.class);
+    assertSame(gadget, pr.getLatestVersion("Widget", Gadget.class));
+    assertEquals("Widget", gadget.getPluginName());
+    assertEquals("2.1.0-BETA", gadget.getPluginVersion().toString());
+    assertEquals(InstanceScope.SINGLETON, gadget.getInstanceScope());
+  }
+
+  @Test
+  void testManifestDeclaredPlugin(@TempDir Path tempDir) throws IOException {
+    String classFileName = ManifestGadget.class.getName().replace('.', '/') + ".class";
+
+    // Declare the Plugin's metadata in the manifest.
+    Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    Attributes attributes = new Attributes();
+    attributes.put(PluginDescriptor.PLUGIN_NAME, "Gizmo");
+    attributes.put(PluginDescriptor.PLUGIN_VERSION, "1.4");
+    manifest.getEntries().put(classFileName, attributes);
+
+    // Package the Plugin's class file into a JAR.
+    Path jarPath = tempDir.resolve("gadgets.jar");
+    try (OutputStream os = Files.newOutputStream(jarPath);
+        JarOutputStream jos = new JarOutputStream(os, manifest);
+        InputStream classFile = getClass().getClassLoader().getResourceAsStream(classFileName)) {
+      jos.putNextEntry(new JarEntry(classFileName));
+      classFile.transferTo(jos);
+      jos.closeEntry();
+    }
+
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Gadget.class);
+    pr.scanJar(jarPath.toString());
+
+    // The Plugin is registered under its declared metadata, without being initialized.
+    assertTrue(pr.isRegisteredPlugin("Gizmo", 1, 4, 0, Gadget.class));
+    assertFalse(initializedClasses.contains("ManifestGadget"));
+
+    // The Plugin is constructed on first use.
+    pr.getLatestVersion("Gizmo", Gadget.class);
+    assertTrue(initializedClasses.contains("ManifestGadget"));
+  }
+}
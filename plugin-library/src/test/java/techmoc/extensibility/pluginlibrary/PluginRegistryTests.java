@@ -16,6 +16,9 @@ import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -37,6 +40,7 @@ import techmoc.extensibility.pluginlibrary.test_objects.Tabby;
 import techmoc.extensibility.pluginlibrary.test_objects.Tabby2;
 import techmoc.extensibility.pluginlibrary.test_objects.some_plugin_interfaces.Cat;
 import techmoc.extensibility.pluginlibrary.test_objects.some_plugin_interfaces.Frog;
+import techmoc.extensibility.polymorphicmap.PolymorphicMap;
 import techmoc.extensibility.test_interfaces.Bird;
 
 
@@ -108,6 +112,32 @@ class PluginRegistryTests {
     assertEquals("WOOF", pr.getAll(Dog.class).stream().findFirst().get().bark());
   }
 
+  @Test
+  void testRegisterPluginsMethod() {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Cat.class, Fish.class);
+    long generation = pr.getGeneration();
+
+    // Plugins are registered under every Plugin Interface they implement, in a single change.
+    ScanResults scanResults =
+        pr.registerPlugins(List.of(Calico.class, CatFish.class, Salmon.class, Calico.class));
+    assertEquals(4, scanResults.getTotalPluginsRegistered());
+    assertEquals(generation + 1, pr.getGeneration());
+    assertEquals(2, pr.count(Cat.class));
+    assertEquals(2, pr.count(Fish.class));
+
+    // Registering the same Plugins again changes nothing.
+    scanResults = pr.registerPlugins(List.of(Calico.class, CatFish.class));
+    assertEquals(0, scanResults.getTotalPluginsRegistered());
+    assertEquals(generation + 1, pr.getGeneration());
+
+    // Nothing is registered if any of the Plugins does not implement a registered interface.
+    assertThrows(IllegalArgumentException.class,
+        () -> pr.registerPlugins(List.of(Tabby.class, Husky.class)));
+    assertFalse(pr.isRegisteredPlugin("Tabby", Cat.class));
+    assertEquals(generation + 1, pr.getGeneration());
+  }
+
   @Test
   void testUnregisterPluginMethods() {
     PluginRegistry pr = new PluginRegistry();
@@ -166,6 +196,79 @@ class PluginRegistryTests {
     assertEquals(1, pr.count());
   }
 
+  @Test
+  void testUnregisterPluginMethods_MultipleVersions() {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Dog.class);
+    pr.registerPlugin(Husky.class);
+    pr.registerPlugin(Poodle.class);
+    pr.registerPlugin(Poodle2.class);
+    pr.registerPlugin(Poodle201.class);
+    pr.registerPlugin(Poodle210.class);
+    assertEquals(4, pr.count("Poodle", Dog.class));
+    assertEquals("2.1.0",
+        pr.getLatestVersion("Poodle", Dog.class).getPluginVersion().toVersionNumber());
+
+    // Unregister a single version.
+    pr.unregisterPlugin("Poodle", 2, 1, 0);
+    assertEquals(3, pr.count("Poodle", Dog.class));
+    assertEquals("2.0.1",
+        pr.getLatestVersion("Poodle", Dog.class).getPluginVersion().toVersionNumber());
+
+    // Unregister all remaining versions at once.
+    pr.unregisterPlugin("Poodle");
+    assertEquals(0, pr.count("Poodle", Dog.class));
+    assertFalse(pr.isRegisteredPlugin("Poodle"));
+    assertNull(pr.getLatestVersion("Poodle", Dog.class));
+    assertTrue(pr.isRegisteredPlugin("Husky"));
+    assertEquals(1, pr.count());
+
+    // Unregistering the interface removes the name from the registry.
+    pr.unregisterPluginInterfaces(Dog.class);
+    assertFalse(pr.isRegisteredPlugin("Husky"));
+  }
+
+  @Test
+  void testConcurrentReadsDuringRegistration() throws InterruptedException {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Dog.class);
+    pr.registerPlugin(Husky.class);
+
+    // Repeatedly register and unregister Plugins, while other threads read the registry.
+    AtomicBoolean done = new AtomicBoolean(false);
+    AtomicReference<Throwable> readerError = new AtomicReference<>();
+    List<Thread> readers = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      Thread reader = new Thread(() -> {
+        try {
+          while (!done.get()) {
+            int count = pr.getAll(Dog.class).size();
+            assertTrue(count >= 1 && count <= 3);
+            assertEquals("WOOF", pr.getLatestVersion("Husky", Dog.class).bark());
+            pr.getByAttribute((PolymorphicMap x) -> true, Dog.class);
+          }
+        } catch (Throwable t) {
+          readerError.compareAndSet(null, t);
+        }
+      });
+      readers.add(reader);
+      reader.start();
+    }
+
+    for (int i = 0; i < 500; i++) {
+      pr.registerPlugin(Poodle.class);
+      pr.registerPlugin(Poodle2.class);
+      pr.unregisterPlugin("Poodle");
+    }
+    done.set(true);
+    for (Thread reader : readers) {
+      reader.join();
+    }
+
+    assertNull(readerError.get());
+    assertEquals(1, pr.count());
+  }
+
   @Test
   void testIsRegisteredPluginInterface() {
     PluginRegistry pr = new PluginRegistry();
@@ -935,6 +1038,35 @@ class PluginRegistryTests {
             "IsLarge", false, Boolean.class));
   }
 
+  @Test
+  void testResolveMethods() {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Dog.class);
+    pr.registerPlugins(List.of(Poodle.class, Poodle2.class, Poodle201.class, Poodle210.class));
+
+    // The latest version within the range is resolved.
+    assertEquals(Poodle.class, pr.resolve("Poodle", "^1.2", Dog.class).getClass());
+    assertEquals(Poodle210.class, pr.resolve("Poodle", "^2.0", Dog.class).getClass());
+    assertEquals(Poodle201.class, pr.resolve("Poodle", "[1.0,2.1)", Dog.class).getClass());
+    assertEquals(Poodle210.class, pr.resolve("Poodle", "[2.0,)", Dog.class).getClass());
+    assertEquals(Poodle2.class, pr.resolve("Poodle", "2.0.0", Dog.class).getClass());
+    assertNull(pr.resolve("Poodle", "^3", Dog.class));
+    assertNull(pr.resolve("Poodle", "(2.1.0,2.2.0]", Dog.class));
+    assertNull(pr.resolve("Husky", "^1", Dog.class));
+
+    // All versions within the range are resolved, from the oldest version.
+    assertEquals(List.of(Poodle2.class, Poodle201.class),
+        pr.resolveAll("Poodle", "[2.0,2.1)", Dog.class).stream()
+            .map(Dog::getClass).collect(Collectors.toList()));
+    assertEquals(List.of(Poodle.class, Poodle2.class),
+        pr.resolveAll("Poodle", "(,2.0.0]", Dog.class).stream()
+            .map(Dog::getClass).collect(Collectors.toList()));
+    assertEquals(List.of(), pr.resolveAll("Poodle", "[2.1,2.0]", Dog.class));
+
+    assertThrows(IllegalArgumentException.class,
+        () -> pr.resolve("Poodle", "[1.0,2.0", Dog.class));
+  }
+
   @Test
   void testGetLatestVersionMethods() {
     PluginRegistry pr = new PluginRegistry();
@@ -1288,16 +1420,16 @@ class PluginRegistryTests {
         .scan(Set.of("techmoc.extensibility.pluginlibrary.test_objects"), true);
     scanResults.getDirectoryLogs().forEach(System.out::println);
     assertEquals(6, scanResults.getTotalDirectoriesScanned());
-    assertEquals(30, scanResults.getTotalFilesScanned());
-    assertEquals(25, scanResults.getTotalFilesIgnored()); // Non-plugins and non-Dog plugins.
+    assertEquals(113, scanResults.getTotalFilesScanned());
+    assertEquals(108, scanResults.getTotalFilesIgnored()); // Non-plugins and non-Dog plugins.
     assertEquals(5, scanResults.getTotalPluginsRegistered()); // Dog plugins only!
 
     pr.printRegistryState();
 
     scanResults = pr.scan(Set.of("techmoc.extensibility.pluginlibrary.test_objects"), true);
     assertEquals(6, scanResults.getTotalDirectoriesScanned());
-    assertEquals(30, scanResults.getTotalFilesScanned());
-    assertEquals(30, scanResults.getTotalFilesIgnored());
+    assertEquals(113, scanResults.getTotalFilesScanned());
+    assertEquals(113, scanResults.getTotalFilesIgnored());
     assertEquals(0, scanResults.getTotalPluginsRegistered());
 
     pr.printRegistryState();
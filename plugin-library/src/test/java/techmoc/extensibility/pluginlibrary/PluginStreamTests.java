@@ -0,0 +1,107 @@
+package techmoc.extensibility.pluginlibrary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static techmoc.extensibility.pluginlibrary.AssertUtil.countInstanceCreated;
+import static techmoc.extensibility.pluginlibrary.AssertUtil.getInstancesCreated;
+import static techmoc.extensibility.pluginlibrary.AttributeQuery.range;
+
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import techmoc.extensibility.pluginlibrary.test_objects.Calico;
+import techmoc.extensibility.pluginlibrary.test_objects.Calico2;
+import techmoc.extensibility.pluginlibrary.test_objects.Calico3;
+import techmoc.extensibility.pluginlibrary.test_objects.Tabby;
+import techmoc.extensibility.pluginlibrary.test_objects.Tabby2;
+import techmoc.extensibility.pluginlibrary.test_objects.some_plugin_interfaces.Cat;
+
+
+/**
+ * Plugin stream unit tests.
+ */
+class PluginStreamTests {
+
+  public interface Gauge extends Pluggable {
+
+  }
+
+  public static class PressureGauge implements Gauge {
+
+    public PressureGauge() {
+      countInstanceCreated(PressureGauge.class);
+    }
+  }
+
+  public static class VacuumGauge extends PressureGauge {
+
+  }
+
+  private PluginRegistry pr;
+
+  @BeforeEach
+  void setUp() {
+    pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Cat.class, Gauge.class);
+    pr.registerPlugin(Calico.class);
+    pr.registerPlugin(Calico2.class);
+    pr.registerPlugin(Calico3.class);
+    pr.registerPlugin(Tabby.class);
+    pr.registerPlugin(Tabby2.class);
+    pr.registerPlugin(PressureGauge.class);
+    pr.registerPlugin(VacuumGauge.class);
+  }
+
+  @Test
+  void testStream() {
+    assertEquals(Set.of("Calico", "Calico2", "Calico3", "Tabby", "Tabby2"),
+        pr.stream(Cat.class).map(x -> x.getClass().getSimpleName()).collect(Collectors.toSet()));
+    assertEquals(pr.getAll(Cat.class).stream().map(Cat::meow).collect(Collectors.toList()),
+        pr.stream(Cat.class).map(Cat::meow).collect(Collectors.toList()));
+
+    // The stream is bound to the Plugins registered when it was created.
+    var cats = pr.stream(Cat.class);
+    pr.unregisterPlugin(Tabby.class);
+    assertEquals(5, cats.count());
+    assertEquals(4, pr.stream(Cat.class).count());
+  }
+
+  @Test
+  void testStreamInstantiatesLazily() {
+    int instancesCreatedBefore = getInstancesCreated(PressureGauge.class);
+
+    var gauges = pr.stream(Gauge.class);
+    assertEquals(instancesCreatedBefore, getInstancesCreated(PressureGauge.class));
+
+    assertTrue(gauges.findFirst().isPresent());
+    assertEquals(instancesCreatedBefore + 1, getInstancesCreated(PressureGauge.class));
+  }
+
+  @Test
+  void testParallelStream() {
+    assertEquals(
+        pr.stream(Cat.class).map(Cat::meow).collect(Collectors.toList()),
+        pr.stream(Cat.class).parallel().map(Cat::meow).collect(Collectors.toList()));
+
+    // The spliterator reports exact sizes, also after splitting.
+    Spliterator<Cat> spliterator = pr.stream(Cat.class).parallel().spliterator();
+    assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+    assertEquals(5, spliterator.getExactSizeIfKnown());
+    Spliterator<Cat> prefix = spliterator.trySplit();
+    assertEquals(5, prefix.getExactSizeIfKnown() + spliterator.getExactSizeIfKnown());
+    assertTrue(prefix.hasCharacteristics(Spliterator.SIZED));
+  }
+
+  @Test
+  void testStreamQuery() {
+    AttributeQuery query = range("MeowVolume", 3, 7);
+
+    assertEquals(Set.of("Calico", "Calico2", "Calico3"),
+        pr.stream(query, Cat.class).map(x -> x.getClass().getSimpleName())
+            .collect(Collectors.toSet()));
+    assertEquals(3, pr.stream(query, Cat.class).parallel().count());
+    assertEquals(3, pr.stream(query, Cat.class).spliterator().getExactSizeIfKnown());
+  }
+}
@@ -0,0 +1,162 @@
+package techmoc.extensibility.pluginlibrary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import techmoc.extensibility.test_interfaces.Bird;
+
+
+/**
+ * Plugin upgrade and lease unit tests.
+ */
+class PluginUpgradeTests {
+
+  public interface Beacon extends Pluggable {
+
+  }
+
+  @PluginMetadata(name = "Lighthouse", version = "1.0.0", scope = InstanceScope.POOLED)
+  public static class Lighthouse implements Beacon {
+
+  }
+
+  @Test
+  void testUpgradeReplacesPluginVersions(@TempDir Path tempDir) throws IOException {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Bird.class);
+    pr.scanJar(writeBirdsJar(tempDir.resolve("birds-1.jar"), "1.0").toString());
+    assertTrue(pr.isRegisteredPlugin("Crow", 1, 0, 0, Bird.class));
+
+    // Hold a lease on the old version while it is upgraded.
+    PluginLease<Bird> lease = pr.lease("Crow", Bird.class);
+    assertNotNull(lease);
+    PluginClassLoader oldClassLoader = PluginClassLoader.of(lease.get().getClass());
+    assertEquals(1, oldClassLoader.getLeaseCount());
+
+    ScanResults scanResults =
+        pr.upgradeJar(writeBirdsJar(tempDir.resolve("birds-2.jar"), "2.0").toString());
+    assertEquals(2, scanResults.getTotalPluginsRegistered());
+
+    // Only the new version can be retrieved.
+    assertTrue(pr.isRegisteredPlugin("Crow", 2, 0, 0, Bird.class));
+    assertFalse(pr.isRegisteredPlugin("Crow", 1, 0, 0, Bird.class));
+    assertEquals(2, pr.getAll(Bird.class).size());
+    PluginClassLoader newClassLoader =
+        PluginClassLoader.of(pr.getLatestVersion("Crow", Bird.class).getClass());
+    assertEquals(List.of(newClassLoader), List.copyOf(pr.getOpenClassLoaders()));
+
+    // The old class loader drains before it is closed.
+    assertTrue(oldClassLoader.isRetired());
+    assertFalse(oldClassLoader.isClosed());
+    assertEquals(new PluginVersion(1, 0, 0), lease.getPluginVersion());
+    assertNotNull(lease.get().getClass().getClassLoader().getResource(
+        "techmoc/extensibility/test_plugins/Crow.class"));
+
+    lease.close();
+    lease.close();
+    assertTrue(oldClassLoader.isClosed());
+    assertFalse(newClassLoader.isRetired());
+    assertThrows(IllegalStateException.class, lease::get);
+  }
+
+  @Test
+  void testLeaseOfDirectlyRegisteredPlugin() {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Beacon.class);
+    pr.registerPlugin(Lighthouse.class);
+    assertNull(pr.lease("Lightship", Beacon.class));
+
+    // Pooled instances are returned to their pool once the lease is closed.
+    Beacon beacon;
+    try (PluginLease<Beacon> lease = pr.lease("Lighthouse", Beacon.class)) {
+      assertEquals("Lighthouse", lease.getPluginName());
+      beacon = lease.get();
+    }
+    try (PluginLease<Beacon> lease = pr.lease("Lighthouse", Beacon.class)) {
+      assertSame(beacon, lease.get());
+    }
+    assertEquals(3L, pr.getMetrics().getLookupCounts().get("lease"));
+  }
+
+  @Test
+  void testUpgradeIsAtomicForConcurrentReaders(@TempDir Path tempDir)
+      throws IOException, InterruptedException {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Bird.class);
+    pr.scanJar(writeBirdsJar(tempDir.resolve("birds-0.jar"), "1.0").toString());
+
+    // Readers never see both versions of a Plugin, nor neither of them.
+    AtomicBoolean upgrading = new AtomicBoolean(true);
+    AtomicInteger inconsistentReads = new AtomicInteger();
+    Thread reader = new Thread(() -> {
+      while (upgrading.get()) {
+        if (pr.getLatestVersions(Bird.class).size() != 2) {
+          inconsistentReads.incrementAndGet();
+        }
+        try (PluginLease<Bird> lease = pr.lease("Crow", Bird.class)) {
+          if (lease == null || lease.get() == null) {
+            inconsistentReads.incrementAndGet();
+          }
+        }
+      }
+    });
+    reader.start();
+
+    int upgrades = 10;
+    for (int i = 1; i <= upgrades; i++) {
+      Path jarPath = writeBirdsJar(tempDir.resolve("birds-" + i + ".jar"), (i + 1) + ".0");
+      pr.upgradeJar(jarPath.toString());
+    }
+    upgrading.set(false);
+    reader.join();
+
+    assertEquals(0, inconsistentReads.get());
+    assertTrue(pr.isRegisteredPlugin("Crow", upgrades + 1, 0, 0, Bird.class));
+    assertEquals(1, pr.getOpenClassLoaders().size());
+  }
+
+  /**
+   * Copies the test Plugins JAR file, declaring the version of the Crow Plugin in the manifest.
+   */
+  private Path writeBirdsJar(Path jarPath, String crowVersion) throws IOException {
+    Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    Attributes attributes = new Attributes();
+    attributes.put(PluginDescriptor.PLUGIN_NAME, "Crow");
+    attributes.put(PluginDescriptor.PLUGIN_VERSION, crowVersion);
+    manifest.getEntries().put("techmoc/extensibility/test_plugins/Crow.class", attributes);
+
+    try (InputStream is = getClass().getClassLoader().getResourceAsStream("test-plugins.jar");
+        JarInputStream jis = new JarInputStream(is);
+        OutputStream os = Files.newOutputStream(jarPath);
+        JarOutputStream jos = new JarOutputStream(os, manifest)) {
+      for (JarEntry jarEntry = jis.getNextJarEntry(); jarEntry != null;
+          jarEntry = jis.getNextJarEntry()) {
+        jos.putNextEntry(new JarEntry(jarEntry.getName()));
+        jis.transferTo(jos);
+        jos.closeEntry();
+      }
+    }
+    return jarPath;
+  }
+}
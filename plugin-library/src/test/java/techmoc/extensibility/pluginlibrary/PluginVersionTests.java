@@ -122,4 +122,33 @@ class PluginVersionTests {
     assertEquals("1.2.345", pv.toVersionNumber());
     assertEquals("1.2.345-SNAPSHOT", pv.toString());
   }
+
+  @Test
+  void testParse() {
+    assertEquals(new PluginVersion(1, 0, 0), PluginVersion.parse("1"));
+    assertEquals(new PluginVersion(1, 2, 0), PluginVersion.parse("1.2"));
+    assertEquals(new PluginVersion(1, 2, 345), PluginVersion.parse(" 1.2.345 "));
+
+    PluginVersion pv = PluginVersion.parse("1.2.345-SNAPSHOT");
+    assertEquals("1.2.345-SNAPSHOT", pv.toString());
+    assertEquals("SNAPSHOT", pv.getRevisionTag());
+
+    assertThrows(IllegalArgumentException.class, () -> PluginVersion.parse(""));
+    assertThrows(IllegalArgumentException.class, () -> PluginVersion.parse("1.2.3.4"));
+    assertThrows(IllegalArgumentException.class, () -> PluginVersion.parse("1..2"));
+    assertThrows(IllegalArgumentException.class, () -> PluginVersion.parse("1.x"));
+    assertThrows(IllegalArgumentException.class, () -> PluginVersion.parse("-1.2"));
+    assertThrows(IllegalArgumentException.class, () -> PluginVersion.parse("1.2-"));
+  }
+
+  @Test
+  void testCompareLargeVersionNumbers() {
+    // Versions whose numbers are too large to be packed are compared number by number.
+    PluginVersion large = new PluginVersion(1, Integer.MAX_VALUE, 0);
+    assertEquals(-1, Integer.signum(new PluginVersion(1, 2, 3).compareTo(large)));
+    assertEquals(1, Integer.signum(new PluginVersion(2, 0, 0).compareTo(large)));
+    assertEquals(1, Integer.signum(large.compareTo(new PluginVersion(1, 2_097_151, 2_097_151))));
+    assertEquals(0, large.compareTo(new PluginVersion(1, Integer.MAX_VALUE, 0, "TAG")));
+    assertEquals(large.hashCode(), new PluginVersion(1, Integer.MAX_VALUE, 0).hashCode());
+  }
 }
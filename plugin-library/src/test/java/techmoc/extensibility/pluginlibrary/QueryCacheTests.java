@@ -0,0 +1,164 @@
+package techmoc.extensibility.pluginlibrary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static techmoc.extensibility.pluginlibrary.AssertUtil.classNames;
+import static techmoc.extensibility.pluginlibrary.AttributeQuery.eq;
+import static techmoc.extensibility.pluginlibrary.AttributeQuery.range;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import techmoc.extensibility.pluginlibrary.test_objects.Calico;
+import techmoc.extensibility.pluginlibrary.test_objects.Calico2;
+import techmoc.extensibility.pluginlibrary.test_objects.Calico3;
+import techmoc.extensibility.pluginlibrary.test_objects.Tabby;
+import techmoc.extensibility.pluginlibrary.test_objects.some_plugin_interfaces.Cat;
+import techmoc.extensibility.polymorphicmap.PolymorphicMap;
+
+
+/**
+ * Registry generation and query cache unit tests.
+ */
+class QueryCacheTests {
+
+  private PluginRegistry pr;
+
+  @BeforeEach
+  void setUp() {
+    pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Cat.class);
+    pr.registerPlugin(Calico.class);
+    pr.registerPlugin(Calico2.class);
+    pr.registerPlugin(Calico3.class);
+  }
+
+  @Test
+  void testGeneration() {
+    long generation = pr.getGeneration();
+
+    pr.registerPlugin(Tabby.class);
+    assertEquals(generation + 1, pr.getGeneration());
+    pr.putPluginAttribute("Tabby", Cat.class, "MeowVolume", 1);
+    assertEquals(generation + 2, pr.getGeneration());
+    pr.unregisterPlugin(Tabby.class);
+    assertEquals(generation + 3, pr.getGeneration());
+
+    // Changes that do nothing do not start a new generation.
+    assertFalse(pr.dropPluginAttributeIndex("MeowVolume", Cat.class));
+    assertEquals(generation + 3, pr.getGeneration());
+  }
+
+  @Test
+  void testCachedQueries() {
+    assertNull(pr.getQueryCache());
+    pr.setQueryCacheSize(10);
+    QueryCache queryCache = pr.getQueryCache();
+
+    AttributeQuery query = range("MeowVolume", 3, 7);
+    assertEquals(Set.of("Calico", "Calico2", "Calico3"), classNames(pr.query(query, Cat.class)));
+    assertEquals(0, queryCache.getHitCount());
+    assertEquals(1, queryCache.getMissCount());
+
+    // Equal queries are hits, and still return new Plugin instances.
+    List<Cat> cats = pr.query(range("MeowVolume", 3, 7), Cat.class);
+    assertEquals(Set.of("Calico", "Calico2", "Calico3"), classNames(cats));
+    assertNotSame(cats.get(0), pr.query(query, Cat.class).get(0));
+    assertEquals(2, queryCache.getHitCount());
+
+    // Predicates are matched by identity.
+    Predicate<PolymorphicMap> hasPuffyTail = x -> x.getOrDefault("HasPuffyTail", false);
+    assertEquals(Set.of("Calico3"), classNames(pr.getByAttribute(hasPuffyTail, Cat.class)));
+    assertEquals(Set.of("Calico3"), classNames(pr.getByAttribute(hasPuffyTail, Cat.class)));
+    assertEquals(3, queryCache.getHitCount());
+    assertEquals(Set.of("Calico3"), classNames(pr.getLatestVersions(Cat.class)));
+    assertEquals(3, queryCache.size());
+  }
+
+  @Test
+  void testInvalidation() {
+    pr.setQueryCacheSize(10);
+    QueryCache queryCache = pr.getQueryCache();
+
+    AttributeQuery query = eq("HasPuffyTail", true);
+    assertEquals(Set.of("Calico3"), classNames(pr.query(query, Cat.class)));
+
+    // Any change to the registry discards the cached results.
+    pr.putPluginAttribute("Calico", Cat.class, "HasPuffyTail", true);
+    assertEquals(Set.of("Calico", "Calico3"), classNames(pr.query(query, Cat.class)));
+    pr.unregisterPlugin(Calico3.class);
+    assertEquals(Set.of("Calico"), classNames(pr.query(query, Cat.class)));
+    assertEquals(0, queryCache.getHitCount());
+    assertEquals(3, queryCache.getMissCount());
+    assertEquals(1, queryCache.size());
+
+    pr.registerPlugin(Tabby.class);
+    assertEquals(Set.of("Calico2", "Tabby"), classNames(pr.getLatestVersions(Cat.class)));
+    assertEquals(1, queryCache.size());
+  }
+
+  @Test
+  void testCacheSize() {
+    pr.setQueryCacheSize(2);
+    QueryCache queryCache = pr.getQueryCache();
+
+    AttributeQuery query1 = eq("MeowVolume", 3);
+    AttributeQuery query2 = eq("MeowVolume", 5);
+    AttributeQuery query3 = eq("MeowVolume", 7);
+    pr.query(query1, Cat.class);
+    pr.query(query2, Cat.class);
+    pr.query(query1, Cat.class);
+    pr.query(query3, Cat.class);
+    assertEquals(2, queryCache.size());
+
+    // The least recently used query (query2) was evicted.
+    pr.query(query1, Cat.class);
+    pr.query(query3, Cat.class);
+    assertEquals(3, queryCache.getHitCount());
+    pr.query(query2, Cat.class);
+    assertEquals(4, queryCache.getMissCount());
+
+    pr.setQueryCacheSize(0);
+    assertNull(pr.getQueryCache());
+    assertThrows(IllegalArgumentException.class, () -> pr.setQueryCacheSize(-1));
+  }
+
+  @Test
+  void testConcurrentQueries() throws Exception {
+    pr.setQueryCacheSize(16);
+    QueryCache queryCache = pr.getQueryCache();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    // Concurrent lookups of more queries than fit the cache stay within its capacity.
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int thread = 0; thread < 4; thread++) {
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 1_000; i++) {
+            int meowVolume = i % 32;
+            int expected = (meowVolume == 3 || meowVolume == 5 || meowVolume == 7) ? 1 : 0;
+            assertEquals(expected, pr.query(eq("MeowVolume", meowVolume), Cat.class).size());
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertTrue(queryCache.size() <= 16);
+    assertEquals(4_000, queryCache.getHitCount() + queryCache.getMissCount());
+  }
+}
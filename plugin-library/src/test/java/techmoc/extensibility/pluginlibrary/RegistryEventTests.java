@@ -0,0 +1,171 @@
+package techmoc.extensibility.pluginlibrary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import techmoc.extensibility.test_interfaces.Bird;
+
+
+/**
+ * Registry event publisher unit tests.
+ */
+class RegistryEventTests {
+
+  public interface Sensor extends Pluggable {
+
+  }
+
+  public static class Thermometer implements Sensor {
+
+  }
+
+  public static class Barometer implements Sensor {
+
+  }
+
+  /**
+   * Subscriber that collects the events it receives, requesting a fixed number of them.
+   */
+  private static class EventCollector implements Flow.Subscriber<RegistryEvent> {
+
+    private final BlockingQueue<RegistryEvent> events = new LinkedBlockingQueue<>();
+    private final long requested;
+
+    EventCollector(long requested) {
+      this.requested = requested;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      if (requested > 0) {
+        subscription.request(requested);
+      }
+    }
+
+    @Override
+    public void onNext(RegistryEvent item) {
+      events.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+    }
+
+    @Override
+    public void onComplete() {
+    }
+
+    RegistryEvent next() throws InterruptedException {
+      RegistryEvent event = events.poll(5, TimeUnit.SECONDS);
+      assertNotNull(event, "Timed out waiting for a registry event.");
+      return event;
+    }
+  }
+
+  @Test
+  void testPluginEvents() throws InterruptedException {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Sensor.class);
+    assertSame(pr.getEventPublisher(), pr.getEventPublisher());
+
+    EventCollector collector = new EventCollector(Long.MAX_VALUE);
+    pr.getEventPublisher().subscribe(collector);
+
+    // Register.
+    pr.registerPlugin(Thermometer.class);
+    RegistryEvent event = collector.next();
+    assertEquals(RegistryEvent.Type.REGISTERED, event.getType());
+    assertEquals(Sensor.class, event.getPluginInterface());
+    assertEquals(Thermometer.class, event.getPluginClass());
+    assertEquals("Thermometer", event.getPluginName());
+    assertEquals(new PluginVersion(0, 0, 0), event.getPluginVersion());
+
+    // Change an attribute.
+    pr.putPluginAttribute("Thermometer", Sensor.class, "Unit", "Celsius");
+    event = collector.next();
+    assertEquals(RegistryEvent.Type.ATTRIBUTE_CHANGED, event.getType());
+    assertEquals("Thermometer", event.getPluginName());
+    assertEquals("Unit", event.getAttributeName());
+
+    // Unregister.
+    pr.unregisterPlugin(Thermometer.class);
+    event = collector.next();
+    assertEquals(RegistryEvent.Type.UNREGISTERED, event.getType());
+    assertEquals(Thermometer.class, event.getPluginClass());
+
+    // Bulk changes deliver one event per Plugin, in order.
+    pr.registerPlugins(List.of(Thermometer.class, Barometer.class));
+    assertEquals(Thermometer.class, collector.next().getPluginClass());
+    assertEquals(Barometer.class, collector.next().getPluginClass());
+
+    pr.clear(Sensor.class);
+    Set<Class<?>> unregistered = Set.of(
+        collector.next().getPluginClass(), collector.next().getPluginClass());
+    assertEquals(Set.of(Thermometer.class, Barometer.class), unregistered);
+    assertEquals(0, pr.getDroppedEventCount());
+  }
+
+  @Test
+  void testScanEventsAreCoalesced() throws IOException, InterruptedException {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Bird.class);
+    EventCollector collector = new EventCollector(Long.MAX_VALUE);
+    pr.getEventPublisher().subscribe(collector);
+
+    File jarFile = new File(getClass().getClassLoader().getResource("test-plugins.jar").getFile());
+    pr.scanJar(jarFile.getAbsolutePath());
+
+    // A scan delivers a single event, holding the Plugins it registered.
+    RegistryEvent event = collector.next();
+    assertEquals(RegistryEvent.Type.SCAN_COMPLETED, event.getType());
+    assertEquals(jarFile.getAbsolutePath(), event.getPluginSource());
+    assertEquals(Set.of("Crow", "Parakeet"), event.getCoalescedEvents().stream()
+        .map(RegistryEvent::getPluginName)
+        .collect(Collectors.toSet()));
+    assertTrue(event.getCoalescedEvents().stream()
+        .allMatch(x -> x.getType() == RegistryEvent.Type.REGISTERED));
+
+    // A scan that registers nothing still completes.
+    pr.scanJar(jarFile.getAbsolutePath());
+    event = collector.next();
+    assertEquals(RegistryEvent.Type.SCAN_COMPLETED, event.getType());
+    assertTrue(event.getCoalescedEvents().isEmpty());
+  }
+
+  @Test
+  void testSlowSubscriberDoesNotStallChanges() throws InterruptedException {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Sensor.class);
+    pr.registerPlugin(Thermometer.class);
+
+    // One subscriber never requests events, so its buffer fills up.
+    EventCollector slowCollector = new EventCollector(0);
+    EventCollector collector = new EventCollector(Long.MAX_VALUE);
+    pr.getEventPublisher().subscribe(slowCollector);
+    pr.getEventPublisher().subscribe(collector);
+
+    int changes = Flow.defaultBufferSize() * 2;
+    for (int i = 0; i < changes; i++) {
+      pr.putPluginAttribute("Thermometer", Sensor.class, "Reading", i);
+    }
+
+    // The changes are not held up, and excess events are dropped for the slow subscriber only.
+    for (int i = 0; i < changes; i++) {
+      assertEquals("Reading", collector.next().getAttributeName());
+    }
+    assertTrue(pr.getDroppedEventCount() >= changes - Flow.defaultBufferSize());
+    assertTrue(slowCollector.events.isEmpty());
+  }
+}
@@ -0,0 +1,156 @@
+package techmoc.extensibility.pluginlibrary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import org.junit.jupiter.api.Test;
+import techmoc.extensibility.test_interfaces.Bird;
+
+
+/**
+ * Registry metrics and MBean unit tests.
+ */
+class RegistryMetricsTests {
+
+  public interface Lantern extends Pluggable {
+
+  }
+
+  public static class OilLantern implements Lantern {
+
+  }
+
+  @PluginMetadata(name = "SolarLantern", version = "1.0.0", scope = InstanceScope.SINGLETON)
+  public static class SolarLantern implements Lantern {
+
+  }
+
+  @Test
+  void testLookupAndInstantiationCounts() {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Lantern.class);
+    pr.registerPlugin(OilLantern.class);
+    pr.registerPlugins(List.of(SolarLantern.class));
+
+    // Plugins without declared metadata are instantiated once to read their metadata.
+    PluginRegistryMXBean metrics = pr.getMetrics();
+    assertEquals(Map.of(OilLantern.class.getName(), 1L, SolarLantern.class.getName(), 0L),
+        metrics.getInstantiationCounts());
+
+    for (int i = 0; i < 3; i++) {
+      pr.getLatestVersion("OilLantern", Lantern.class);
+      pr.getLatestVersion("SolarLantern", Lantern.class);
+    }
+    pr.getAll(Lantern.class);
+    pr.getLatestVersions(Lantern.class);
+
+    Map<String, Long> lookupCounts = metrics.getLookupCounts();
+    assertEquals(6L, lookupCounts.get("getLatestVersion"));
+    assertEquals(1L, lookupCounts.get("getAll"));
+    assertEquals(1L, lookupCounts.get("getLatestVersions"));
+    assertEquals(0L, lookupCounts.get("query"));
+
+    // Prototype Plugins are instantiated on every retrieval; singletons only once.
+    assertEquals(Map.of(OilLantern.class.getName(), 6L, SolarLantern.class.getName(), 1L),
+        metrics.getInstantiationCounts());
+    assertEquals(10, metrics.getPluginAsInterfaceLatency().getCount());
+    assertEquals(1, metrics.getRegisterPluginLatency().getCount());
+  }
+
+  @Test
+  void testQueryCacheHitRate() {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Lantern.class);
+    pr.registerPlugin(OilLantern.class);
+    PluginRegistryMXBean metrics = pr.getMetrics();
+    assertEquals(0, metrics.getQueryCacheHitRate());
+
+    pr.setQueryCacheSize(10);
+    for (int i = 0; i < 4; i++) {
+      pr.getLatestVersions(Lantern.class);
+    }
+    assertEquals(3, metrics.getQueryCacheHitCount());
+    assertEquals(1, metrics.getQueryCacheMissCount());
+    assertEquals(0.75, metrics.getQueryCacheHitRate());
+  }
+
+  @Test
+  void testScanMetrics() throws IOException {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Bird.class);
+    File jarFile = new File(getClass().getClassLoader().getResource("test-plugins.jar").getFile());
+    ScanResults scanResults = pr.scanJar(jarFile.getAbsolutePath());
+
+    PluginRegistryMXBean metrics = pr.getMetrics();
+    assertEquals(1, metrics.getScanCount());
+    assertEquals(scanResults.getClassFileLogs().size() + scanResults.getPluginFileLogs().size(),
+        metrics.getClassesExamined());
+    assertEquals(metrics.getClassesExamined(), metrics.getClassesLoaded());
+    assertEquals(1, metrics.getScanJarLatency().getCount());
+    assertTrue(metrics.getScanJarLatency().getMax() > 0);
+    assertEquals(0, metrics.getScanPackageDirectoryLatency().getCount());
+  }
+
+  @Test
+  void testLatencyHistogram() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getValueAtPercentile(99));
+
+    for (long i = 1; i <= 1000; i++) {
+      histogram.record(i * 1000);
+    }
+    LatencySummary summary = histogram.summarize();
+    assertEquals(1000, summary.getCount());
+    assertEquals(500_500, summary.getMean(), 0.001);
+    assertEquals(1_000_000, summary.getMax());
+
+    // Percentiles are accurate to about 3%.
+    assertEquals(500_000, summary.getP50(), 500_000 * 0.04);
+    assertEquals(900_000, summary.getP90(), 900_000 * 0.04);
+    assertEquals(990_000, summary.getP99(), 990_000 * 0.04);
+    assertTrue(summary.getP999() <= summary.getMax());
+
+    // Small values are exact, and every value maps into the histogram.
+    for (long value = 0; value < 64; value++) {
+      assertEquals(value, LatencyHistogram.highestEquivalentValue(
+          LatencyHistogram.indexOf(value)));
+    }
+    assertTrue(LatencyHistogram.highestEquivalentValue(
+        LatencyHistogram.indexOf(Long.MAX_VALUE)) >= Long.MAX_VALUE);
+    assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(101));
+  }
+
+  @Test
+  void testMBean() throws JMException {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Lantern.class);
+    pr.registerPlugin(SolarLantern.class);
+    pr.getLatestVersion("SolarLantern", Lantern.class);
+
+    MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = pr.registerMBean("RegistryMetricsTests");
+    try {
+      assertTrue(mbeanServer.isRegistered(name));
+      assertThrows(IllegalStateException.class, () -> pr.registerMBean("Other"));
+
+      assertEquals(0L, mbeanServer.getAttribute(name, "ScanCount"));
+      CompositeData latency =
+          (CompositeData) mbeanServer.getAttribute(name, "PluginAsInterfaceLatency");
+      assertEquals(1L, latency.get("count"));
+    } finally {
+      pr.unregisterMBean();
+    }
+    assertFalse(mbeanServer.isRegistered(name));
+  }
+}
@@ -0,0 +1,198 @@
+package techmoc.extensibility.pluginlibrary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static techmoc.extensibility.pluginlibrary.AssertUtil.countInstanceCreated;
+import static techmoc.extensibility.pluginlibrary.AssertUtil.getInstancesCreated;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import techmoc.extensibility.polymorphicmap.PolymorphicMap;
+import techmoc.extensibility.test_interfaces.Bird;
+
+
+/**
+ * Registry snapshot file unit tests.
+ */
+class RegistrySnapshotFileTests {
+
+  public interface Lamp extends Pluggable {
+
+  }
+
+  public static class DeskLamp implements Lamp {
+
+    public DeskLamp() {
+      countInstanceCreated(DeskLamp.class);
+    }
+
+    @Override
+    public void initializePluginAttributes(PolymorphicMap pluginAttributes) {
+      pluginAttributes.put("Watts", 40);
+      pluginAttributes.put("Color", "Green");
+      pluginAttributes.put("Dimmable", true);
+      pluginAttributes.put("MinVersion", new PluginVersion(1, 2, 3));
+    }
+  }
+
+  @Test
+  void testSaveAndLoadSnapshot(@TempDir Path tempDir) throws IOException {
+    Path jarPath = copyTestPluginsJar(tempDir);
+    Path snapshotPath = tempDir.resolve("registry.snapshot");
+
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Bird.class);
+    pr.scanJar(jarPath.toString());
+    pr.saveSnapshot(snapshotPath);
+
+    // The Plugins are restored from the snapshot, without scanning the JAR file.
+    PluginRegistry restored = new PluginRegistry();
+    ScanResults scanResults = restored.loadSnapshot(snapshotPath);
+    assertTrue(restored.isRegisteredPluginInterface(Bird.class));
+    assertEquals(2, restored.count(Bird.class));
+    assertEquals(2, scanResults.getTotalPluginsRegistered());
+    assertEquals(2, scanResults.getScanLogs().size());
+    assertTrue(restored.isRegisteredPlugin("Crow", Bird.class));
+    assertTrue(restored.isRegisteredPlugin("Parakeet", Bird.class));
+    assertEquals("Cawww cawww!", restored.getLatestVersion("Crow", Bird.class).chirp());
+    assertEquals(pr.toRegistryState(true), restored.toRegistryState(true));
+
+    // A restored registry can be saved again.
+    Path resavedPath = tempDir.resolve("resaved.snapshot");
+    restored.saveSnapshot(resavedPath);
+    assertTrue(Files.readAllBytes(resavedPath).length > 0);
+  }
+
+  @Test
+  void testLoadSnapshotOfChangedSource(@TempDir Path tempDir) throws IOException {
+    Path jarPath = copyTestPluginsJar(tempDir);
+    Path snapshotPath = tempDir.resolve("registry.snapshot");
+
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Bird.class);
+    pr.scanJar(jarPath.toString());
+    pr.saveSnapshot(snapshotPath);
+
+    // Remove a Plugin from the JAR file, so that it is scanned again.
+    Path changedJarPath = tempDir.resolve("changed.jar");
+    try (JarFile jarFile = new JarFile(jarPath.toFile());
+        OutputStream os = Files.newOutputStream(changedJarPath);
+        JarOutputStream jos = new JarOutputStream(os)) {
+      for (JarEntry jarEntry : jarFile.stream().toArray(JarEntry[]::new)) {
+        if (!jarEntry.getName().endsWith("Parakeet.class")) {
+          jos.putNextEntry(new JarEntry(jarEntry.getName()));
+          try (InputStream is = jarFile.getInputStream(jarEntry)) {
+            is.transferTo(jos);
+          }
+          jos.closeEntry();
+        }
+      }
+    }
+    Files.move(changedJarPath, jarPath, StandardCopyOption.REPLACE_EXISTING);
+
+    PluginRegistry restored = new PluginRegistry();
+    ScanResults scanResults = restored.loadSnapshot(snapshotPath);
+    assertEquals(1, restored.count(Bird.class));
+    assertTrue(restored.isRegisteredPlugin("Crow", Bird.class));
+    assertFalse(restored.isRegisteredPlugin("Parakeet", Bird.class));
+    assertTrue(scanResults.getTotalFilesScanned() > 0);
+
+    // Sources that no longer exist are skipped.
+    Files.delete(jarPath);
+    restored = new PluginRegistry();
+    scanResults = restored.loadSnapshot(snapshotPath);
+    assertEquals(0, restored.count(Bird.class));
+    assertEquals(0, scanResults.getTotalPluginsRegistered());
+  }
+
+  @Test
+  void testSaveSnapshotOfSourceChangedSinceScan(@TempDir Path tempDir) throws IOException {
+    Path jarPath = copyTestPluginsJar(tempDir);
+    Path snapshotPath = tempDir.resolve("registry.snapshot");
+
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Bird.class);
+    pr.scanJar(jarPath.toString());
+
+    // The JAR file is only hashed once saved, so a change since the scan must not be hashed.
+    Files.write(jarPath, new byte[]{0}, StandardOpenOption.APPEND);
+    pr.saveSnapshot(snapshotPath);
+
+    PluginRegistry restored = new PluginRegistry();
+    ScanResults scanResults = restored.loadSnapshot(snapshotPath);
+    assertTrue(scanResults.getTotalFilesScanned() > 0);
+  }
+
+  @Test
+  void testSnapshotRestoresAttributesWithoutInstantiation(@TempDir Path tempDir)
+      throws IOException {
+    String classFileName = DeskLamp.class.getName().replace('.', '/') + ".class";
+
+    // Package the Plugin's class file into a JAR.
+    Path jarPath = tempDir.resolve("lamps.jar");
+    try (OutputStream os = Files.newOutputStream(jarPath);
+        JarOutputStream jos = new JarOutputStream(os);
+        InputStream classFile = getClass().getClassLoader().getResourceAsStream(classFileName)) {
+      jos.putNextEntry(new JarEntry(classFileName));
+      classFile.transferTo(jos);
+      jos.closeEntry();
+    }
+
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Lamp.class);
+    pr.scanJar(jarPath.toString());
+    Path snapshotPath = tempDir.resolve("registry.snapshot");
+    pr.saveSnapshot(snapshotPath);
+
+    // The attributes read when the Plugin was scanned are restored without instantiating it.
+    int instances = getInstancesCreated(DeskLamp.class);
+    PluginRegistry restored = new PluginRegistry();
+    restored.loadSnapshot(snapshotPath);
+    assertEquals(40, (int) restored.getPluginAttribute(
+        "DeskLamp", 0, 0, 0, Lamp.class, "Watts", Integer.class));
+    assertEquals("Green", restored.getPluginAttribute(
+        "DeskLamp", 0, 0, 0, Lamp.class, "Color", String.class));
+    assertTrue(restored.getPluginAttribute(
+        "DeskLamp", 0, 0, 0, Lamp.class, "Dimmable", Boolean.class));
+    assertEquals(new PluginVersion(1, 2, 3), restored.getPluginAttribute(
+        "DeskLamp", 0, 0, 0, Lamp.class, "MinVersion", PluginVersion.class));
+    assertEquals(instances, getInstancesCreated(DeskLamp.class));
+  }
+
+  @Test
+  void testLoadInvalidSnapshot(@TempDir Path tempDir) throws IOException {
+    Path snapshotPath = tempDir.resolve("registry.snapshot");
+    Files.write(snapshotPath, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+    PluginRegistry pr = new PluginRegistry();
+    assertThrows(IOException.class, () -> pr.loadSnapshot(snapshotPath));
+    assertThrows(NullPointerException.class, () -> pr.saveSnapshot(null));
+  }
+
+  /**
+   * Copies the test Plugins JAR file into the specified directory.
+   *
+   * @param tempDir Temporary directory.
+   * @return Path to the copied JAR file.
+   * @throws IOException Thrown on IO exception.
+   */
+  private Path copyTestPluginsJar(Path tempDir) throws IOException {
+    File jarFile = new File(getClass().getClassLoader().getResource("test-plugins.jar").getFile());
+    Path jarPath = tempDir.resolve("test-plugins.jar");
+    Files.copy(jarFile.toPath(), jarPath);
+    return jarPath;
+  }
+}
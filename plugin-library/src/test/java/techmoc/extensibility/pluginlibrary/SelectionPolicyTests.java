@@ -0,0 +1,129 @@
+package techmoc.extensibility.pluginlibrary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Plugin selection policy unit tests.
+ */
+class SelectionPolicyTests {
+
+  public interface Backend extends Pluggable {
+
+    String compute();
+  }
+
+  public static class Primary implements Backend {
+
+    @Override
+    public String compute() {
+      return "primary";
+    }
+  }
+
+  public static class Secondary implements Backend {
+
+    @Override
+    public String compute() {
+      return "secondary";
+    }
+  }
+
+  private static PluginRegistry createRegistry() {
+    PluginRegistry pr = new PluginRegistry();
+    pr.registerPluginInterfaces(Backend.class);
+    pr.registerPlugins(List.of(Primary.class, Secondary.class));
+    return pr;
+  }
+
+  private static String selectAndCall(PluginRegistry pr, SelectionPolicy selectionPolicy) {
+    try (PluginLease<Backend> lease = pr.select(Backend.class, selectionPolicy)) {
+      return lease.get().compute();
+    }
+  }
+
+  @Test
+  void testRoundRobin() {
+    PluginRegistry pr = createRegistry();
+    List<String> results = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      results.add(selectAndCall(pr, SelectionPolicy.ROUND_ROBIN));
+    }
+    assertEquals(List.of("primary", "secondary", "primary", "secondary"), results);
+    assertEquals(4L, pr.getMetrics().getLookupCounts().get("select"));
+
+    // Changes to the registry do not restart the rotation.
+    assertEquals("primary", selectAndCall(pr, SelectionPolicy.ROUND_ROBIN));
+    pr.putPluginAttribute("Primary", Backend.class, "Region", "eu");
+    assertEquals("secondary", selectAndCall(pr, SelectionPolicy.ROUND_ROBIN));
+  }
+
+  @Test
+  void testLeastInFlight() {
+    PluginRegistry pr = createRegistry();
+    try (PluginLease<Backend> first = pr.select(Backend.class, SelectionPolicy.LEAST_IN_FLIGHT);
+        PluginLease<Backend> second = pr.select(Backend.class, SelectionPolicy.LEAST_IN_FLIGHT)) {
+      assertEquals("Primary", first.getPluginName());
+      assertEquals("Secondary", second.getPluginName());
+    }
+    assertEquals("primary", selectAndCall(pr, SelectionPolicy.LEAST_IN_FLIGHT));
+  }
+
+  @Test
+  void testLatencyPolicies() throws InterruptedException {
+    PluginRegistry pr = createRegistry();
+
+    // Plugins that were never called are selected first.
+    try (PluginLease<Backend> lease = pr.select(Backend.class, SelectionPolicy.EWMA_LATENCY)) {
+      assertEquals("Primary", lease.getPluginName());
+      Thread.sleep(20);
+    }
+    assertEquals("secondary", selectAndCall(pr, SelectionPolicy.EWMA_LATENCY));
+
+    // The faster Plugin is then preferred.
+    for (int i = 0; i < 10; i++) {
+      assertEquals("secondary", selectAndCall(pr, SelectionPolicy.EWMA_LATENCY));
+      assertEquals("secondary", selectAndCall(pr, SelectionPolicy.POWER_OF_TWO_CHOICES));
+    }
+  }
+
+  @Test
+  void testSelectionByAttribute() {
+    PluginRegistry pr = createRegistry();
+    pr.putPluginAttribute("Secondary", Backend.class, "Region", "eu");
+
+    AttributeQuery query = AttributeQuery.eq("Region", "eu");
+    for (int i = 0; i < 3; i++) {
+      try (PluginLease<Backend> lease =
+          pr.select(query, Backend.class, SelectionPolicy.ROUND_ROBIN)) {
+        assertEquals("secondary", lease.get().compute());
+      }
+    }
+    assertNull(pr.select(
+        AttributeQuery.eq("Region", "us"), Backend.class, SelectionPolicy.ROUND_ROBIN));
+
+    pr.clear(Backend.class);
+    assertNull(pr.select(Backend.class, SelectionPolicy.POWER_OF_TWO_CHOICES));
+  }
+
+  @Test
+  void testMovingAverageLatency() {
+    CallStatistics callStatistics = new CallStatistics();
+    callStatistics.callStarted();
+    callStatistics.callStarted();
+    assertEquals(2, callStatistics.getInFlightCount());
+    assertEquals(0L, callStatistics.getCost());
+
+    callStatistics.callCompleted(800);
+    assertEquals(800L, callStatistics.getEwmaLatency());
+    callStatistics.callCompleted(1600);
+    assertEquals(900L, callStatistics.getEwmaLatency());
+    assertEquals(0, callStatistics.getInFlightCount());
+    assertEquals(900L, callStatistics.getCost());
+  }
+}
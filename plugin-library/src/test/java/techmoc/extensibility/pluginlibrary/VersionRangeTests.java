@@ -0,0 +1,49 @@
+package techmoc.extensibility.pluginlibrary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Version range unit tests.
+ */
+class VersionRangeTests {
+
+  @Test
+  void testParse() {
+    assertEquals("[1.2.0,2.0.0)", VersionRange.parse("^1.2").toString());
+    assertEquals("[0.2.3,0.3.0)", VersionRange.parse("^0.2.3").toString());
+    assertEquals("[0.0.3,0.0.4)", VersionRange.parse("^0.0.3").toString());
+    assertEquals("[1.0.0,2.0.0)", VersionRange.parse("[1.0,2.0)").toString());
+    assertEquals("(1.0.0,2.0.0]", VersionRange.parse(" (1.0, 2.0] ").toString());
+    assertEquals("[1.0.0,)", VersionRange.parse("[1.0,)").toString());
+    assertEquals("(,2.0.0)", VersionRange.parse("(,2.0)").toString());
+    assertEquals("[1.2.3,1.2.3]", VersionRange.parse("1.2.3").toString());
+    assertEquals(VersionRange.parse("^1"), VersionRange.parse("[1,2)"));
+
+    assertThrows(NullPointerException.class, () -> VersionRange.parse(null));
+    assertThrows(IllegalArgumentException.class, () -> VersionRange.parse(" "));
+    assertThrows(IllegalArgumentException.class, () -> VersionRange.parse("[1.0,2.0"));
+    assertThrows(IllegalArgumentException.class, () -> VersionRange.parse("[1.0]"));
+    assertThrows(IllegalArgumentException.class, () -> VersionRange.parse("[,2.0)"));
+    assertThrows(IllegalArgumentException.class, () -> VersionRange.parse("[1.0,2.0,3.0)"));
+    assertThrows(IllegalArgumentException.class, () -> VersionRange.parse("^x"));
+  }
+
+  @Test
+  void testContains() {
+    VersionRange range = VersionRange.parse("[1.0,2.0)");
+    assertTrue(range.contains(new PluginVersion(1, 0, 0)));
+    assertTrue(range.contains(new PluginVersion(1, 99, 99, "SNAPSHOT")));
+    assertFalse(range.contains(new PluginVersion(2, 0, 0)));
+    assertFalse(range.contains(new PluginVersion(0, 9, 9)));
+
+    range = VersionRange.parse("(1.0,)");
+    assertFalse(range.contains(new PluginVersion(1, 0, 0)));
+    assertTrue(range.contains(new PluginVersion(Integer.MAX_VALUE, 0, 0)));
+  }
+}